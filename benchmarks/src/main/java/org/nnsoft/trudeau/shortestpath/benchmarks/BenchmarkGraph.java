@@ -0,0 +1,164 @@
+package org.nnsoft.trudeau.shortestpath.benchmarks;
+
+/*
+ *   Copyright 2013 The Trudeau Project
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.nnsoft.trudeau.shortestpath.Heuristic;
+import org.nnsoft.trudeau.shortestpath.generators.GeometricGraphGenerator;
+import org.nnsoft.trudeau.shortestpath.generators.GraphGenerator;
+import org.nnsoft.trudeau.shortestpath.generators.WeightDistribution;
+
+import com.google.common.graph.EndpointPair;
+import com.google.common.graph.Graphs;
+import com.google.common.graph.ValueGraph;
+
+/**
+ * A reproducible benchmark graph, generated from {@link GraphGenerator#DEFAULT_SEED}, with a pre-generated sequence
+ * of queries whose endpoints are picked in the strongly connected component of the highest degree vertex, so every
+ * query has an answer.
+ */
+final class BenchmarkGraph
+{
+
+    private static final int QUERIES = 1024;
+
+    private final ValueGraph<Integer, Double> graph;
+
+    private final Heuristic<Integer, Double> heuristic;
+
+    private final int[] sources = new int[QUERIES];
+
+    private final int[] targets = new int[QUERIES];
+
+    private int nextQuery;
+
+    BenchmarkGraph( GraphShape shape, int order, int degree, WeightDistribution weights, boolean directed )
+    {
+        this( shape, order, degree, weights, directed, 0D );
+    }
+
+    BenchmarkGraph( GraphShape shape, int order, int degree, WeightDistribution weights, boolean directed,
+                    double negativeEdges )
+    {
+        GraphGenerator<?> generator = shape.generator( order, degree ).withWeights( weights );
+        if ( directed )
+        {
+            generator.directed().withNegativeEdges( negativeEdges );
+        }
+
+        graph = generator.generate();
+        heuristic = heuristic( generator );
+
+        // pick queries in the strongly connected component of the highest degree vertex
+        Integer root = 0;
+        for ( Integer vertex : graph.nodes() )
+        {
+            if ( graph.outDegree( vertex ) > graph.outDegree( root ) )
+            {
+                root = vertex;
+            }
+        }
+
+        Set<Integer> backwards = Graphs.reachableNodes( Graphs.transpose( graph ).asGraph(), root );
+        List<Integer> component = new ArrayList<Integer>();
+        for ( Integer vertex : Graphs.reachableNodes( graph.asGraph(), root ) )
+        {
+            if ( backwards.contains( vertex ) )
+            {
+                component.add( vertex );
+            }
+        }
+
+        Random random = new Random( GraphGenerator.DEFAULT_SEED );
+        for ( int i = 0; i < QUERIES; i++ )
+        {
+            sources[i] = component.get( random.nextInt( component.size() ) );
+            targets[i] = component.get( random.nextInt( component.size() ) );
+        }
+    }
+
+    /**
+     * An admissible A* heuristic for geometric graphs: the euclidean distance scaled down by the smallest
+     * weight/length edge ratio; other graphs have no better heuristic than zero.
+     */
+    private Heuristic<Integer, Double> heuristic( GraphGenerator<?> generator )
+    {
+        if ( !( generator instanceof GeometricGraphGenerator ) )
+        {
+            return ( current, goal ) -> 0D;
+        }
+
+        final double[][] coordinates = ( (GeometricGraphGenerator<?>) generator ).getCoordinates();
+
+        double minRatio = Double.POSITIVE_INFINITY;
+        for ( EndpointPair<Integer> edge : graph.edges() )
+        {
+            double length = euclidean( coordinates, edge.nodeU(), edge.nodeV() );
+            if ( length > 0D )
+            {
+                minRatio = Math.min( minRatio, graph.edgeValue( edge.nodeU(), edge.nodeV() ).get() / length );
+            }
+        }
+
+        final double scale = Double.isInfinite( minRatio ) || minRatio < 0D ? 0D : minRatio;
+        return ( current, goal ) -> scale * euclidean( coordinates, current, goal );
+    }
+
+    private static double euclidean( double[][] coordinates, int u, int v )
+    {
+        double sum = 0D;
+        for ( double[] axis : coordinates )
+        {
+            double delta = axis[u] - axis[v];
+            sum += delta * delta;
+        }
+        return Math.sqrt( sum );
+    }
+
+    ValueGraph<Integer, Double> getGraph()
+    {
+        return graph;
+    }
+
+    Heuristic<Integer, Double> getHeuristic()
+    {
+        return heuristic;
+    }
+
+    /**
+     * Moves to the next pre-generated query; queries are replayed cyclically.
+     */
+    void nextQuery()
+    {
+        nextQuery = ( nextQuery + 1 ) % QUERIES;
+    }
+
+    Integer getSource()
+    {
+        return sources[nextQuery];
+    }
+
+    Integer getTarget()
+    {
+        return targets[nextQuery];
+    }
+
+}
@@ -0,0 +1,63 @@
+package org.nnsoft.trudeau.shortestpath.benchmarks;
+
+/*
+ *   Copyright 2013 The Trudeau Project
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the shortest path benchmarks reporting throughput, average time and, via the GC profiler,
+ * the allocation rate of every algorithm.
+ *
+ * Any standard JMH command line option is accepted and takes precedence, i.e.
+ * {@code java -jar target/benchmarks.jar PointToPoint -p order=10000 -p directed=true}.
+ */
+public final class BenchmarkRunner
+{
+
+    public static void main( String[] args )
+        throws CommandLineOptionException, RunnerException
+    {
+        CommandLineOptions commandLine = new CommandLineOptions( args );
+
+        ChainedOptionsBuilder builder = new OptionsBuilder().parent( commandLine ).addProfiler( GCProfiler.class );
+
+        if ( commandLine.getIncludes().isEmpty() )
+        {
+            builder.include( BenchmarkRunner.class.getPackage().getName() + ".*" );
+        }
+
+        if ( commandLine.getBenchModes().isEmpty() )
+        {
+            builder.mode( Mode.Throughput ).mode( Mode.AverageTime );
+        }
+
+        new Runner( builder.build() ).run();
+    }
+
+    private BenchmarkRunner()
+    {
+        // do nothing
+    }
+
+}
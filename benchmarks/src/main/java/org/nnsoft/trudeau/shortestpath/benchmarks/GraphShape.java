@@ -0,0 +1,83 @@
+package org.nnsoft.trudeau.shortestpath.benchmarks;
+
+/*
+ *   Copyright 2013 The Trudeau Project
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+import static org.nnsoft.trudeau.shortestpath.generators.GraphGenerators.erdosRenyi;
+import static org.nnsoft.trudeau.shortestpath.generators.GraphGenerators.grid;
+import static org.nnsoft.trudeau.shortestpath.generators.GraphGenerators.rmat;
+import static org.nnsoft.trudeau.shortestpath.generators.GraphGenerators.roadNetwork;
+
+import org.nnsoft.trudeau.shortestpath.generators.GraphGenerator;
+
+/**
+ * The shapes of benchmark graphs, each one backed by a seeded generator.
+ */
+public enum GraphShape
+{
+
+    /**
+     * Erd&#337;s-R&eacute;nyi graphs with {@code order * degree} edges.
+     */
+    RANDOM
+    {
+        @Override
+        GraphGenerator<?> generator( int order, int degree )
+        {
+            return erdosRenyi( order, (long) order * degree );
+        }
+    },
+
+    /**
+     * Square 2D grids with about {@code order} vertices, the degree is ignored.
+     */
+    GRID
+    {
+        @Override
+        GraphGenerator<?> generator( int order, int degree )
+        {
+            int side = (int) Math.ceil( Math.sqrt( order ) );
+            return grid( side, side );
+        }
+    },
+
+    /**
+     * Road-like planar graphs, the degree is ignored.
+     */
+    ROAD
+    {
+        @Override
+        GraphGenerator<?> generator( int order, int degree )
+        {
+            return roadNetwork( order );
+        }
+    },
+
+    /**
+     * R-MAT scale-free graphs with the greatest power of two vertices not exceeding {@code order}.
+     */
+    RMAT
+    {
+        @Override
+        GraphGenerator<?> generator( int order, int degree )
+        {
+            return rmat( 31 - Integer.numberOfLeadingZeros( order ), degree );
+        }
+    };
+
+    abstract GraphGenerator<?> generator( int order, int degree );
+
+}
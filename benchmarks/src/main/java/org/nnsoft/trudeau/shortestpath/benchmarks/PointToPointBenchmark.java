@@ -0,0 +1,138 @@
+package org.nnsoft.trudeau.shortestpath.benchmarks;
+
+/*
+ *   Copyright 2013 The Trudeau Project
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+import static org.nnsoft.trudeau.shortestpath.ShortestPathSolver.findShortestPath;
+
+import java.util.concurrent.TimeUnit;
+
+import org.nnsoft.trudeau.api.WeightedPath;
+import org.nnsoft.trudeau.math.monoid.OrderedMonoid;
+import org.nnsoft.trudeau.math.monoid.primitive.DoubleWeightBaseOperations;
+import org.nnsoft.trudeau.shortestpath.ShortestPathEngine;
+import org.nnsoft.trudeau.shortestpath.generators.WeightDistribution;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Point-to-point queries: Dijkstra, bidirectional Dijkstra and A*, each one reached through
+ * {@link org.nnsoft.trudeau.shortestpath.ShortestPathSolver} and through a {@link ShortestPathEngine}
+ * built once per trial.
+ */
+@State( Scope.Thread )
+@BenchmarkMode( { Mode.Throughput, Mode.AverageTime } )
+@OutputTimeUnit( TimeUnit.MILLISECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class PointToPointBenchmark
+{
+
+    @Param( { "1000", "10000", "100000" } )
+    public int order;
+
+    @Param( { "4", "16" } )
+    public int degree;
+
+    @Param( { "RANDOM", "GRID", "ROAD", "RMAT" } )
+    public GraphShape shape;
+
+    @Param( { "UNIT", "UNIFORM", "HEAVY_TAILED" } )
+    public WeightDistribution weights;
+
+    @Param( { "true", "false" } )
+    public boolean directed;
+
+    private final OrderedMonoid<Double> weightOperations = new DoubleWeightBaseOperations();
+
+    private BenchmarkGraph graph;
+
+    private ShortestPathEngine<Integer, Double, Double> engine;
+
+    @Setup( Level.Trial )
+    public void setUp()
+    {
+        graph = new BenchmarkGraph( shape, order, degree, weights, directed );
+        engine = ShortestPathEngine.newEngine( graph.getGraph(), weightOperations );
+    }
+
+    @Benchmark
+    public WeightedPath<Integer, Double, Double> dijkstra()
+    {
+        graph.nextQuery();
+        return findShortestPath( graph.getGraph() )
+                   .whereEdgesAreWeights()
+                   .from( graph.getSource() )
+                   .to( graph.getTarget() )
+                   .applyingDijkstra( weightOperations );
+    }
+
+    @Benchmark
+    public WeightedPath<Integer, Double, Double> bidirectionalDijkstra()
+    {
+        graph.nextQuery();
+        return findShortestPath( graph.getGraph() )
+                   .whereEdgesAreWeights()
+                   .from( graph.getSource() )
+                   .to( graph.getTarget() )
+                   .applyingBidirectionalDijkstra( weightOperations );
+    }
+
+    @Benchmark
+    public WeightedPath<Integer, Double, Double> aStar()
+    {
+        graph.nextQuery();
+        return findShortestPath( graph.getGraph() )
+                   .whereEdgesAreWeights()
+                   .from( graph.getSource() )
+                   .to( graph.getTarget() )
+                   .applyingAStar( weightOperations )
+                   .withHeuristic( graph.getHeuristic() );
+    }
+
+    @Benchmark
+    public WeightedPath<Integer, Double, Double> engineDijkstra()
+    {
+        graph.nextQuery();
+        return engine.dijkstra( graph.getSource(), graph.getTarget() );
+    }
+
+    @Benchmark
+    public WeightedPath<Integer, Double, Double> engineBidirectionalDijkstra()
+    {
+        graph.nextQuery();
+        return engine.bidirectionalDijkstra( graph.getSource(), graph.getTarget() );
+    }
+
+    @Benchmark
+    public WeightedPath<Integer, Double, Double> engineAStar()
+    {
+        graph.nextQuery();
+        return engine.aStar( graph.getSource(), graph.getTarget(), graph.getHeuristic() );
+    }
+
+}
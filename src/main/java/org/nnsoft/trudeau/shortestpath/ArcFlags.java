@@ -0,0 +1,154 @@
+package org.nnsoft.trudeau.shortestpath;
+
+/*
+ *   Copyright 2013 The Trudeau Project
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+import static java.lang.String.format;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Arc-flags of the graph snapshot of a {@link ShortestPathEngine}: the graph is partitioned into regions and every
+ * arc is flagged with the regions it leads to along a shortest path, so that
+ * {@link ShortestPathEngine#dijkstra(Object, Object, ArcFlags) arc-flags queries} relax only the arcs flagged with
+ * the target region.
+ *
+ * Flags are stored region by region, one bit per arc; arc-flags are immutable and can be shared by concurrent
+ * queries, but have to be computed again when the edge weights change.
+ *
+ * @param <V> the Graph vertices type
+ */
+public final class ArcFlags<V>
+{
+
+    /**
+     * Partitions the graph into regions grown around far apart seeds: every seed is the vertex with the most hops
+     * from the previous ones, following arcs in both directions, and every vertex joins the region of its closest
+     * seed. Vertices of components without a seed are seeds themselves, until regions run out, then join the
+     * first region.
+     *
+     * @param graph the graph snapshot
+     * @param regions the number of regions, not greater than the graph order
+     * @return the region of every vertex
+     */
+    static int[] partition( IndexedGraph<?, ?> graph, int regions )
+    {
+        int[] region = new int[graph.order()];
+        int[] hops = new int[graph.order()];
+        Arrays.fill( hops, Integer.MAX_VALUE );
+        int[] queue = new int[graph.order()];
+
+        int seed = 0;
+        for ( int r = 0; r < regions; r++ )
+        {
+            // vertices not closer to the previous seeds are not closer through their neighbours either
+            hops[seed] = 0;
+            region[seed] = r;
+            queue[0] = seed;
+            for ( int head = 0, tail = 1; head < tail; head++ )
+            {
+                int vertex = queue[head];
+                tail = grow( graph.outOffsets, graph.outVertices, vertex, r, region, hops, queue, tail );
+                tail = grow( graph.inOffsets, graph.inVertices, vertex, r, region, hops, queue, tail );
+            }
+
+            for ( int vertex = 0; vertex < graph.order(); vertex++ )
+            {
+                if ( hops[vertex] > hops[seed] )
+                {
+                    seed = vertex;
+                }
+            }
+        }
+        return region;
+    }
+
+    private static int grow( int[] offsets, int[] adjacents, int vertex, int r, int[] region, int[] hops,
+                             int[] queue, int tail )
+    {
+        for ( int arc = offsets[vertex]; arc < offsets[vertex + 1]; arc++ )
+        {
+            int v = adjacents[arc];
+            if ( hops[vertex] + 1 < hops[v] )
+            {
+                hops[v] = hops[vertex] + 1;
+                region[v] = r;
+                queue[tail++] = v;
+            }
+        }
+        return tail;
+    }
+
+    private final IndexedGraph<V, ?> graph;
+
+    private final int[] regions;
+
+    private final BitSet[] flags;
+
+    ArcFlags( IndexedGraph<V, ?> graph, int[] regions, BitSet[] flags )
+    {
+        this.graph = graph;
+        this.regions = regions;
+        this.flags = flags;
+    }
+
+    /**
+     * @return the number of regions
+     */
+    public int getRegions()
+    {
+        return flags.length;
+    }
+
+    /**
+     * @param vertex a graph vertex
+     * @return the region the vertex belongs to
+     */
+    public int getRegion( V vertex )
+    {
+        int index = graph.indexOf( vertex );
+        if ( index < 0 )
+        {
+            throw new IllegalArgumentException( format( "Vertex '%s' doesn't exist in the graph", vertex ) );
+        }
+        return regions[index];
+    }
+
+    boolean isIndexedOn( IndexedGraph<V, ?> graph )
+    {
+        return this.graph == graph;
+    }
+
+    /**
+     * @param vertex the vertex index
+     * @return the vertex region
+     */
+    int region( int vertex )
+    {
+        return regions[vertex];
+    }
+
+    /**
+     * @param region a region
+     * @return the arcs flagged with the region
+     */
+    BitSet flags( int region )
+    {
+        return flags[region];
+    }
+
+}
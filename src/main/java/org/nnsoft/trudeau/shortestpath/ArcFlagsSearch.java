@@ -0,0 +1,167 @@
+package org.nnsoft.trudeau.shortestpath;
+
+/*
+ *   Copyright 2013 The Trudeau Project
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+import java.util.BitSet;
+import java.util.stream.IntStream;
+
+import org.nnsoft.trudeau.api.PathNotFoundException;
+import org.nnsoft.trudeau.api.WeightedPath;
+
+/**
+ * Computes the {@link ArcFlags} of a graph snapshot and answers the Dijkstra's queries which relax only the arcs
+ * flagged with the target region.
+ *
+ * @param <V> the Graph vertices type
+ * @param <WE> the Graph weighted edges type
+ * @param <W> the weight type
+ */
+final class ArcFlagsSearch<V, WE, W>
+    extends GraphSearch<V, WE, W>
+{
+
+    ArcFlagsSearch( GraphSearch<V, WE, W> shared )
+    {
+        super( shared );
+    }
+
+    /**
+     * Partitions the graph into the given number of regions, then flags every region in parallel, on the common
+     * {@link java.util.concurrent.ForkJoinPool}.
+     *
+     * @param regions the number of regions, not greater than the graph order
+     * @return the arc-flags
+     */
+    ArcFlags<V> arcFlags( int regions )
+    {
+        final int[] partition = ArcFlags.partition( graph, regions );
+        BitSet[] flags = IntStream.range( 0, regions )
+                                  .parallel()
+                                  .mapToObj( region -> flag( partition, region ) )
+                                  .toArray( BitSet[]::new );
+        return new ArcFlags<V>( graph, partition, flags );
+    }
+
+    /**
+     * Flags the arcs of the region, all the arcs between its vertices, and the arcs of the shortest path trees
+     * leading to its boundary vertices.
+     */
+    private BitSet flag( int[] partition, int region )
+    {
+        final BitSet flags = new BitSet( graph.outVertices.length );
+        final SearchSpace<W> space = spaces.acquire();
+
+        try
+        {
+            for ( int boundary = 0; boundary < graph.order(); boundary++ )
+            {
+                if ( partition[boundary] != region )
+                {
+                    continue;
+                }
+
+                boolean entered = false;
+                for ( int arc = graph.outOffsets[boundary]; arc < graph.outOffsets[boundary + 1]; arc++ )
+                {
+                    if ( partition[graph.outVertices[arc]] == region )
+                    {
+                        flags.set( arc );
+                    }
+                }
+                for ( int arc = graph.inOffsets[boundary]; arc < graph.inOffsets[boundary + 1]; arc++ )
+                {
+                    entered |= partition[graph.inVertices[arc]] != region;
+                }
+                if ( !entered )
+                {
+                    continue;
+                }
+
+                // the backward search tree, every vertex reaches the boundary through its predecessor
+                final int root = boundary;
+                shortestPathTree( space, boundary, true, vertex -> {
+                    if ( vertex != root )
+                    {
+                        int next = space.predecessorVertex( vertex );
+                        int edge = space.predecessorEdge( vertex );
+                        for ( int arc = graph.outOffsets[vertex]; arc < graph.outOffsets[vertex + 1]; arc++ )
+                        {
+                            if ( graph.outVertices[arc] == next && graph.outEdges[arc] == edge )
+                            {
+                                flags.set( arc );
+                                break;
+                            }
+                        }
+                    }
+                } );
+            }
+            return flags;
+        }
+        finally
+        {
+            spaces.release( space );
+        }
+    }
+
+    WeightedPath<V, WE, W> dijkstra( int s, int t, ArcFlags<V> arcFlags )
+    {
+        final BitSet flags = arcFlags.flags( arcFlags.region( t ) );
+
+        final SearchCounters counters = new SearchCounters( SearchAlgorithm.ARC_FLAGS, graph.order(), graph.size() );
+        final SearchSpace<W> space = spaces.acquire();
+
+        try
+        {
+            space.reach( s, weightOperations.identity(), -1, -1 );
+            space.heap.insertOrDecrease( s, weightOperations.identity() );
+            counters.heapPushes++;
+
+            counters.enter( SearchPhase.SEARCH );
+
+            while ( !space.heap.isEmpty() )
+            {
+                int vertex = space.heap.poll();
+                counters.heapPops++;
+
+                space.settle( vertex );
+                counters.settledVertices++;
+
+                if ( vertex == t )
+                {
+                    counters.enter( SearchPhase.PATH_RECONSTRUCTION );
+                    return buildPath( space, s, t, null );
+                }
+
+                W distance = space.distance( vertex );
+                for ( int arc = flags.nextSetBit( graph.outOffsets[vertex] );
+                      arc >= 0 && arc < graph.outOffsets[vertex + 1];
+                      arc = flags.nextSetBit( arc + 1 ) )
+                {
+                    relax( space, vertex, distance, graph.outVertices[arc], graph.outEdges[arc], counters );
+                }
+            }
+
+            throw new PathNotFoundException( "Path from '%s' to '%s' doesn't exist", graph.vertex( s ), graph.vertex( t ) );
+        }
+        finally
+        {
+            spaces.release( space );
+            counters.complete( listener );
+        }
+    }
+
+}
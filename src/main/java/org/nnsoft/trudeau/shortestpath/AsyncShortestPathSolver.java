@@ -0,0 +1,198 @@
+package org.nnsoft.trudeau.shortestpath;
+
+/*
+ *   Copyright 2013 The Trudeau Project
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+
+import org.nnsoft.trudeau.api.WeightedPath;
+import org.nnsoft.trudeau.math.monoid.OrderedMonoid;
+
+import com.google.common.graph.EndpointPair;
+import com.google.common.graph.ValueGraph;
+
+/**
+ * Asynchronous point-to-point shortest path queries, calculated with Dijkstra's algorithm on an executor.
+ *
+ * The solver queries a {@link ShortestPathEngine}, built on a snapshot of the graph when the solver is created:
+ * later graph modifications are not seen by the queries, and queries reuse pooled per vertex search state.
+ *
+ * Solvers which own their executor, the default virtual threads one or a {@code ForkJoinPool} of a given
+ * parallelism, shut it down when closed; executors provided by the caller are left untouched.
+ *
+ * @param <V> the Graph vertices type
+ * @param <WE> the Graph weighted edges type
+ * @param <W> the weight type
+ */
+public final class AsyncShortestPathSolver<V, WE, W>
+    implements AutoCloseable
+{
+
+    /**
+     * Creates a solver which runs every query on its own virtual thread, when the JVM supports them,
+     * otherwise on the common {@code ForkJoinPool}.
+     *
+     * @param <V> the Graph vertices type
+     * @param <WE> the Graph weighted edges type
+     * @param <W> the weight type
+     * @param graph the input edge-weighted graph
+     * @param weightedEdges the function to calculate edges weight
+     * @param weightOperations the weight operations needed for the algorithm
+     * @return a new asynchronous solver
+     */
+    public static <V, WE, W> AsyncShortestPathSolver<V, WE, W> newAsyncSolver( ValueGraph<V, WE> graph,
+                                                                               Function<WE, W> weightedEdges,
+                                                                               OrderedMonoid<W> weightOperations )
+    {
+        ExecutorService virtualThreads = newVirtualThreadPerTaskExecutor();
+        if ( virtualThreads == null )
+        {
+            return new AsyncShortestPathSolver<V, WE, W>( graph, weightedEdges, weightOperations, ForkJoinPool.commonPool(), null );
+        }
+        return new AsyncShortestPathSolver<V, WE, W>( graph, weightedEdges, weightOperations, virtualThreads, virtualThreads );
+    }
+
+    /**
+     * Creates a solver which runs the queries on a dedicated {@code ForkJoinPool}, suited to CPU bound batches.
+     *
+     * @param <V> the Graph vertices type
+     * @param <WE> the Graph weighted edges type
+     * @param <W> the weight type
+     * @param graph the input edge-weighted graph
+     * @param weightedEdges the function to calculate edges weight
+     * @param weightOperations the weight operations needed for the algorithm
+     * @param parallelism the maximum number of concurrently running queries
+     * @return a new asynchronous solver
+     */
+    public static <V, WE, W> AsyncShortestPathSolver<V, WE, W> newAsyncSolver( ValueGraph<V, WE> graph,
+                                                                               Function<WE, W> weightedEdges,
+                                                                               OrderedMonoid<W> weightOperations,
+                                                                               int parallelism )
+    {
+        ForkJoinPool pool = new ForkJoinPool( parallelism );
+        return new AsyncShortestPathSolver<V, WE, W>( graph, weightedEdges, weightOperations, pool, pool );
+    }
+
+    /**
+     * Creates a solver which runs the queries on the given executor.
+     *
+     * @param <V> the Graph vertices type
+     * @param <WE> the Graph weighted edges type
+     * @param <W> the weight type
+     * @param graph the input edge-weighted graph
+     * @param weightedEdges the function to calculate edges weight
+     * @param weightOperations the weight operations needed for the algorithm
+     * @param executor the executor running the queries, owned by the caller
+     * @return a new asynchronous solver
+     */
+    public static <V, WE, W> AsyncShortestPathSolver<V, WE, W> newAsyncSolver( ValueGraph<V, WE> graph,
+                                                                               Function<WE, W> weightedEdges,
+                                                                               OrderedMonoid<W> weightOperations,
+                                                                               Executor executor )
+    {
+        executor = requireNonNull( executor, "Shortest paths can not be calculated on a null executor" );
+        return new AsyncShortestPathSolver<V, WE, W>( graph, weightedEdges, weightOperations, executor, null );
+    }
+
+    /**
+     * Looks up {@code Executors.newVirtualThreadPerTaskExecutor()}, not available before Java 21.
+     */
+    private static ExecutorService newVirtualThreadPerTaskExecutor()
+    {
+        try
+        {
+            return (ExecutorService) Executors.class.getMethod( "newVirtualThreadPerTaskExecutor" ).invoke( null );
+        }
+        catch ( ReflectiveOperationException e )
+        {
+            return null;
+        }
+    }
+
+    private final ShortestPathEngine<V, WE, W> engine;
+
+    private final Executor executor;
+
+    private final ExecutorService ownedExecutor;
+
+    private AsyncShortestPathSolver( ValueGraph<V, WE> graph,
+                                     Function<WE, W> weightedEdges,
+                                     OrderedMonoid<W> weightOperations,
+                                     Executor executor,
+                                     ExecutorService ownedExecutor )
+    {
+        this.engine = ShortestPathEngine.newEngine( graph, weightedEdges, weightOperations );
+        this.executor = executor;
+        this.ownedExecutor = ownedExecutor;
+    }
+
+    /**
+     * Calculates asynchronously the shortest path from source to target.
+     *
+     * @param source the path source
+     * @param target the path target
+     * @return the future shortest path, completed exceptionally with a
+     *         {@link org.nnsoft.trudeau.api.PathNotFoundException} if no path exists
+     */
+    public CompletableFuture<WeightedPath<V, WE, W>> findShortestPath( V source, V target )
+    {
+        final V s = requireNonNull( source, "Shortest path can not be calculated from a null source" );
+        final V t = requireNonNull( target, "Shortest path can not be calculated to a null target" );
+        return CompletableFuture.supplyAsync( () -> engine.dijkstra( s, t ), executor );
+    }
+
+    /**
+     * Calculates asynchronously a batch of shortest paths, each query from {@code nodeU()} to {@code nodeV()}
+     * of the given endpoint pairs.
+     *
+     * @param queries the (source, target) pairs
+     * @return the future shortest paths, in the queries order; every future completes independently
+     */
+    public List<CompletableFuture<WeightedPath<V, WE, W>>> findShortestPaths( Iterable<? extends EndpointPair<V>> queries )
+    {
+        queries = requireNonNull( queries, "Shortest paths can not be calculated for null queries" );
+
+        List<CompletableFuture<WeightedPath<V, WE, W>>> paths = new ArrayList<CompletableFuture<WeightedPath<V, WE, W>>>();
+        for ( EndpointPair<V> query : queries )
+        {
+            paths.add( findShortestPath( query.nodeU(), query.nodeV() ) );
+        }
+        return paths;
+    }
+
+    /**
+     * Shuts down the executor owned by this solver, if any: queries already submitted are completed,
+     * new ones are rejected.
+     */
+    @Override
+    public void close()
+    {
+        if ( ownedExecutor != null )
+        {
+            ownedExecutor.shutdown();
+        }
+    }
+
+}
@@ -0,0 +1,47 @@
+package org.nnsoft.trudeau.shortestpath;
+
+/*
+ *   Copyright 2013 The Trudeau Project
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+/**
+ * A cooperative cancellation flag, shared between the thread which runs a search and any thread that may want
+ * to stop it: searches started with {@link QueryOptions#withCancellation(CancellationToken)} check the token while
+ * searching and fail with a {@link SearchAbortedException} as soon as it is cancelled.
+ *
+ * A token can be shared by any number of searches, cancelling it stops all of them.
+ */
+public final class CancellationToken
+{
+
+    private volatile boolean cancelled;
+
+    /**
+     * Requests the cancellation of all the searches observing this token.
+     */
+    public void cancel()
+    {
+        cancelled = true;
+    }
+
+    /**
+     * @return true if {@link #cancel()} has been invoked
+     */
+    public boolean isCancelled()
+    {
+        return cancelled;
+    }
+
+}
@@ -0,0 +1,74 @@
+package org.nnsoft.trudeau.shortestpath;
+
+/*
+ *   Copyright 2013 The Trudeau Project
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+import java.util.BitSet;
+
+/**
+ * A set of candidate vertices (warehouses, charging stations...) indexed once against the graph snapshot of a
+ * {@link ShortestPathEngine}, so that repeated {@link ShortestPathEngine#nearest(Object, int, CandidateSet) nearest}
+ * queries test membership with a single bit lookup, without hashing vertices.
+ *
+ * Candidate sets are immutable and can be shared by concurrent queries.
+ *
+ * @param <V> the Graph vertices type
+ */
+public final class CandidateSet<V>
+{
+
+    private final IndexedGraph<V, ?> graph;
+
+    private final BitSet members;
+
+    private final int size;
+
+    CandidateSet( IndexedGraph<V, ?> graph, BitSet members )
+    {
+        this.graph = graph;
+        this.members = members;
+        this.size = members.cardinality();
+    }
+
+    /**
+     * @return the number of candidates
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * @param vertex the vertex to check
+     * @return true if the vertex is a candidate
+     */
+    public boolean contains( V vertex )
+    {
+        int index = graph.indexOf( vertex );
+        return index >= 0 && members.get( index );
+    }
+
+    boolean isIndexedOn( IndexedGraph<V, ?> graph )
+    {
+        return this.graph == graph;
+    }
+
+    boolean contains( int vertex )
+    {
+        return members.get( vertex );
+    }
+
+}
@@ -0,0 +1,93 @@
+package org.nnsoft.trudeau.shortestpath;
+
+/*
+ *   Copyright 2013 The Trudeau Project
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+
+import org.nnsoft.trudeau.api.InMemoryPath;
+import org.nnsoft.trudeau.api.WeightedPath;
+import org.nnsoft.trudeau.math.monoid.OrderedMonoid;
+
+/**
+ * A path whose connections are weighted explicitly when appended, for the searches where the weight of a
+ * connection does not depend on its edge only, like the turn it is entered by or the time it is entered at.
+ *
+ * @param <V> the Graph vertices type
+ * @param <WE> the Graph weighted edges type
+ * @param <W> the weight type
+ */
+final class ConnectionWeightedPath<V, WE, W>
+    extends InMemoryPath<V, WE>
+    implements WeightedPath<V, WE, W>
+{
+
+    private final OrderedMonoid<W> weightOperations;
+
+    private W weight;
+
+    ConnectionWeightedPath( V source, V target, OrderedMonoid<W> weightOperations )
+    {
+        super( source, target );
+        this.weightOperations = weightOperations;
+        this.weight = weightOperations.identity();
+    }
+
+    /**
+     * Appends a connection at the end of the path.
+     *
+     * @param head the connection head
+     * @param edge the connection edge
+     * @param tail the connection tail
+     * @param connectionWeight the weight the connection is traversed with
+     */
+    void addConnectionInTail( V head, WE edge, V tail, W connectionWeight )
+    {
+        connectionWeight = requireNonNull( connectionWeight, "Connection weight can not be null" );
+        addConnectionInTail( head, edge, tail );
+        weight = weightOperations.append( weight, connectionWeight );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public W getWeight()
+    {
+        return weight;
+    }
+
+    @Override
+    public boolean equals( Object obj )
+    {
+        return obj instanceof ConnectionWeightedPath
+            && super.equals( obj )
+            && weight.equals( ( (ConnectionWeightedPath<?, ?, ?>) obj ).weight );
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return 31 * super.hashCode() + weight.hashCode();
+    }
+
+    @Override
+    public String toString()
+    {
+        return format( "%s weighted %s", super.toString(), weight );
+    }
+
+}
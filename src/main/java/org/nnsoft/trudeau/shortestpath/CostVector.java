@@ -0,0 +1,108 @@
+package org.nnsoft.trudeau.shortestpath;
+
+/*
+ *   Copyright 2013 The Trudeau Project
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+import java.util.Arrays;
+
+/**
+ * An immutable vector of costs, one per criterion, i.e. cost, time and risk of a path.
+ *
+ * Vectors are ordered lexicographically by {@link CostVectorOperations}, while {@link #dominates(CostVector)} gives
+ * the partial order of Pareto dominance.
+ */
+public final class CostVector
+{
+
+    private final double[] costs;
+
+    /**
+     * @param costs the costs, one per criterion
+     * @return the vector of the given costs
+     */
+    public static CostVector costs( double... costs )
+    {
+        return new CostVector( costs.clone() );
+    }
+
+    CostVector( double[] costs )
+    {
+        this.costs = costs;
+    }
+
+    /**
+     * @return the number of criteria
+     */
+    public int size()
+    {
+        return costs.length;
+    }
+
+    /**
+     * @param criterion the criterion index
+     * @return the cost of the given criterion
+     */
+    public double get( int criterion )
+    {
+        return costs[criterion];
+    }
+
+    /**
+     * @return a copy of the costs
+     */
+    public double[] toArray()
+    {
+        return costs.clone();
+    }
+
+    /**
+     * @param other the vector to compare to
+     * @return true if no cost of this vector is greater than the corresponding one of the given vector,
+     *         and at least one is lower
+     */
+    public boolean dominates( CostVector other )
+    {
+        boolean lower = false;
+        for ( int i = 0; i < costs.length; i++ )
+        {
+            if ( costs[i] > other.costs[i] )
+            {
+                return false;
+            }
+            lower |= costs[i] < other.costs[i];
+        }
+        return lower;
+    }
+
+    @Override
+    public boolean equals( Object obj )
+    {
+        return this == obj || ( obj instanceof CostVector && Arrays.equals( costs, ( (CostVector) obj ).costs ) );
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Arrays.hashCode( costs );
+    }
+
+    @Override
+    public String toString()
+    {
+        return Arrays.toString( costs );
+    }
+
+}
@@ -0,0 +1,90 @@
+package org.nnsoft.trudeau.shortestpath;
+
+/*
+ *   Copyright 2013 The Trudeau Project
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+import org.nnsoft.trudeau.math.monoid.OrderedMonoid;
+
+/**
+ * The monoid of {@link CostVector}s of a fixed size: costs are summed criterion by criterion and vectors are
+ * compared lexicographically.
+ */
+public final class CostVectorOperations
+    implements OrderedMonoid<CostVector>
+{
+
+    private final CostVector identity;
+
+    /**
+     * @param criteria the number of criteria
+     */
+    public CostVectorOperations( int criteria )
+    {
+        identity = new CostVector( new double[criteria] );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public CostVector identity()
+    {
+        return identity;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public CostVector append( CostVector left, CostVector right )
+    {
+        double[] sum = new double[left.size()];
+        for ( int i = 0; i < sum.length; i++ )
+        {
+            sum[i] = left.get( i ) + right.get( i );
+        }
+        return new CostVector( sum );
+    }
+
+    /**
+     * @param element the vector to invert
+     * @return the vector whose costs are the opposite of the given ones
+     */
+    public CostVector inverse( CostVector element )
+    {
+        double[] opposite = new double[element.size()];
+        for ( int i = 0; i < opposite.length; i++ )
+        {
+            opposite[i] = -element.get( i );
+        }
+        return new CostVector( opposite );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public int compare( CostVector left, CostVector right )
+    {
+        for ( int i = 0; i < left.size(); i++ )
+        {
+            int comparison = Double.compare( left.get( i ), right.get( i ) );
+            if ( comparison != 0 )
+            {
+                return comparison;
+            }
+        }
+        return 0;
+    }
+
+}
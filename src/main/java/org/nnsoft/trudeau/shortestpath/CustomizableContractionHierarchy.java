@@ -0,0 +1,336 @@
+package org.nnsoft.trudeau.shortestpath;
+
+/*
+ *   Copyright 2013 The Trudeau Project
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.Arrays;
+import java.util.function.Function;
+
+import org.nnsoft.trudeau.math.monoid.OrderedMonoid;
+
+import com.google.common.graph.ValueGraph;
+
+/**
+ * A customizable contraction hierarchy: the metric independent part of the preprocessing, a nested dissection
+ * order of the vertices and the graph contracted in that order, which only depends on the graph topology, while
+ * the {@link #customize(Function, OrderedMonoid) customization} computes the shortcut weights of a given metric.
+ *
+ * Customizations are cheap compared to the contraction and can be repeated, whenever the edge weights change,
+ * over the same hierarchy; the hierarchy itself is immutable and can be shared by concurrent customizations.
+ *
+ * Vertices are identified by their rank in the contraction order; the contracted graph has an arc from every
+ * vertex to the higher ranked vertices it is adjacent to, once the lower ranked ones are contracted.
+ *
+ * @param <V> the Graph vertices type
+ * @param <WE> the Graph weighted edges type
+ */
+public final class CustomizableContractionHierarchy<V, WE>
+{
+
+    /**
+     * Contracts the given graph, taking its snapshot first.
+     *
+     * @param <V> the Graph vertices type
+     * @param <WE> the Graph weighted edges type
+     * @param graph the graph to contract, which must not be modified while the snapshot is taken
+     * @return the contracted graph, to be customized
+     */
+    public static <V, WE> CustomizableContractionHierarchy<V, WE> newHierarchy( ValueGraph<V, WE> graph )
+    {
+        graph = requireNonNull( graph, "Contraction hierarchy can not be built on a null graph" );
+        return new CustomizableContractionHierarchy<V, WE>( IndexedGraph.snapshot( graph ) );
+    }
+
+    final IndexedGraph<V, WE> graph;
+
+    /**
+     * The rank of every vertex, by vertex index.
+     */
+    final int[] ranks;
+
+    /**
+     * The vertex index of every rank.
+     */
+    final int[] vertices;
+
+    /**
+     * Upward arcs, by tail rank, sorted by head rank.
+     */
+    final int[] upOffsets;
+
+    final int[] upTails;
+
+    final int[] upHeads;
+
+    /**
+     * Downward arcs, by head rank, sorted by tail rank: the arcs reaching the rank from lower ranks.
+     */
+    final int[] downOffsets;
+
+    final int[] downTails;
+
+    final int[] downArcs;
+
+    /**
+     * The original edges every arc is made of, {@code 2 * edge} if the edge leads from the lower ranked vertex
+     * to the higher ranked one, {@code 2 * edge + 1} if it leads the other way round.
+     */
+    final int[] arcEdgeOffsets;
+
+    final int[] arcEdges;
+
+    /**
+     * The ranks grouped by level: the arcs of a rank only depend on the arcs of lower levels.
+     */
+    final int[] levelOffsets;
+
+    final int[] levelRanks;
+
+    private CustomizableContractionHierarchy( IndexedGraph<V, WE> graph )
+    {
+        this.graph = graph;
+        int order = graph.order();
+
+        ranks = NestedDissection.rank( graph );
+        vertices = new int[order];
+        for ( int vertex = 0; vertex < order; vertex++ )
+        {
+            vertices[ranks[vertex]] = vertex;
+        }
+
+        // the upward neighbours of the graph, then the fill-in: contracting a rank connects its upward neighbours,
+        // which are all found merged in the lowest of them
+        int[][] neighbours = new int[order][];
+        int[] sizes = new int[order];
+        for ( int rank = 0; rank < order; rank++ )
+        {
+            neighbours[rank] = new int[4];
+        }
+        for ( int edge = 0; edge < graph.size(); edge++ )
+        {
+            int tail = ranks[graph.edgeTails[edge]];
+            int head = ranks[graph.edgeHeads[edge]];
+            if ( tail != head )
+            {
+                int low = Math.min( tail, head );
+                if ( sizes[low] == neighbours[low].length )
+                {
+                    neighbours[low] = Arrays.copyOf( neighbours[low], 2 * sizes[low] );
+                }
+                neighbours[low][sizes[low]++] = Math.max( tail, head );
+            }
+        }
+        for ( int rank = 0; rank < order; rank++ )
+        {
+            int[] upward = distinct( neighbours[rank], sizes[rank] );
+            neighbours[rank] = upward;
+            if ( upward.length > 1 )
+            {
+                int parent = upward[0];
+                neighbours[parent] = union( distinct( neighbours[parent], sizes[parent] ), upward, 1 );
+                sizes[parent] = neighbours[parent].length;
+            }
+        }
+
+        upOffsets = new int[order + 1];
+        for ( int rank = 0; rank < order; rank++ )
+        {
+            upOffsets[rank + 1] = upOffsets[rank] + neighbours[rank].length;
+        }
+        upTails = new int[upOffsets[order]];
+        upHeads = new int[upOffsets[order]];
+        downOffsets = new int[order + 1];
+        for ( int rank = 0; rank < order; rank++ )
+        {
+            Arrays.fill( upTails, upOffsets[rank], upOffsets[rank + 1], rank );
+            System.arraycopy( neighbours[rank], 0, upHeads, upOffsets[rank], neighbours[rank].length );
+            for ( int head : neighbours[rank] )
+            {
+                downOffsets[head + 1]++;
+            }
+        }
+        for ( int rank = 0; rank < order; rank++ )
+        {
+            downOffsets[rank + 1] += downOffsets[rank];
+        }
+        downTails = new int[upHeads.length];
+        downArcs = new int[upHeads.length];
+        int[] next = new int[order];
+        for ( int rank = 0; rank < order; rank++ )
+        {
+            for ( int arc = upOffsets[rank]; arc < upOffsets[rank + 1]; arc++ )
+            {
+                int head = upHeads[arc];
+                int position = downOffsets[head] + next[head]++;
+                downTails[position] = rank;
+                downArcs[position] = arc;
+            }
+        }
+
+        // the original edges of every arc
+        arcEdgeOffsets = new int[upHeads.length + 1];
+        int[] edgeArcs = new int[graph.size()];
+        for ( int edge = 0; edge < graph.size(); edge++ )
+        {
+            int tail = ranks[graph.edgeTails[edge]];
+            int head = ranks[graph.edgeHeads[edge]];
+            edgeArcs[edge] = tail == head ? -1 : arc( Math.min( tail, head ), Math.max( tail, head ) );
+            if ( edgeArcs[edge] >= 0 )
+            {
+                arcEdgeOffsets[edgeArcs[edge] + 1] += graph.directed ? 1 : 2;
+            }
+        }
+        for ( int arc = 0; arc < upHeads.length; arc++ )
+        {
+            arcEdgeOffsets[arc + 1] += arcEdgeOffsets[arc];
+        }
+        arcEdges = new int[arcEdgeOffsets[upHeads.length]];
+        next = new int[upHeads.length];
+        for ( int edge = 0; edge < graph.size(); edge++ )
+        {
+            int arc = edgeArcs[edge];
+            if ( arc < 0 )
+            {
+                continue;
+            }
+            boolean upward = ranks[graph.edgeTails[edge]] < ranks[graph.edgeHeads[edge]];
+            arcEdges[arcEdgeOffsets[arc] + next[arc]++] = upward ? 2 * edge : 2 * edge + 1;
+            if ( !graph.directed )
+            {
+                arcEdges[arcEdgeOffsets[arc] + next[arc]++] = upward ? 2 * edge + 1 : 2 * edge;
+            }
+        }
+
+        // levels, a rank is one level above its highest downward neighbour
+        int[] levels = new int[order];
+        int height = 0;
+        for ( int rank = 0; rank < order; rank++ )
+        {
+            height = Math.max( height, levels[rank] + 1 );
+            for ( int arc = upOffsets[rank]; arc < upOffsets[rank + 1]; arc++ )
+            {
+                levels[upHeads[arc]] = Math.max( levels[upHeads[arc]], levels[rank] + 1 );
+            }
+        }
+        levelOffsets = new int[height + 1];
+        for ( int rank = 0; rank < order; rank++ )
+        {
+            levelOffsets[levels[rank] + 1]++;
+        }
+        for ( int level = 0; level < height; level++ )
+        {
+            levelOffsets[level + 1] += levelOffsets[level];
+        }
+        levelRanks = new int[order];
+        next = new int[height];
+        for ( int rank = 0; rank < order; rank++ )
+        {
+            levelRanks[levelOffsets[levels[rank]] + next[levels[rank]]++] = rank;
+        }
+    }
+
+    /**
+     * @return the sorted distinct values among the first size ones
+     */
+    private static int[] distinct( int[] values, int size )
+    {
+        int[] sorted = Arrays.copyOf( values, size );
+        Arrays.sort( sorted );
+        int distinct = 0;
+        for ( int i = 0; i < size; i++ )
+        {
+            if ( i == 0 || sorted[i] != sorted[i - 1] )
+            {
+                sorted[distinct++] = sorted[i];
+            }
+        }
+        return distinct == size ? sorted : Arrays.copyOf( sorted, distinct );
+    }
+
+    /**
+     * @return the sorted union of two sorted arrays, the second one from the given index
+     */
+    private static int[] union( int[] first, int[] second, int from )
+    {
+        int[] union = new int[first.length + second.length - from];
+        int i = 0;
+        int j = from;
+        int size = 0;
+        while ( i < first.length || j < second.length )
+        {
+            if ( j == second.length || ( i < first.length && first[i] < second[j] ) )
+            {
+                union[size++] = first[i++];
+            }
+            else if ( i == first.length || second[j] < first[i] )
+            {
+                union[size++] = second[j++];
+            }
+            else
+            {
+                union[size++] = first[i++];
+                j++;
+            }
+        }
+        return size == union.length ? union : Arrays.copyOf( union, size );
+    }
+
+    /**
+     * @param tail the lower rank
+     * @param head the higher rank
+     * @return the arc between the two ranks, {@code -1} if they are not adjacent
+     */
+    int arc( int tail, int head )
+    {
+        int arc = Arrays.binarySearch( upHeads, upOffsets[tail], upOffsets[tail + 1], head );
+        return arc < 0 ? -1 : arc;
+    }
+
+    /**
+     * @return the number of vertices
+     */
+    public int getOrder()
+    {
+        return ranks.length;
+    }
+
+    /**
+     * @return the number of arcs of the contracted graph, original edges and shortcuts
+     */
+    public int getArcs()
+    {
+        return upHeads.length;
+    }
+
+    /**
+     * Computes the weights of the contracted graph arcs for the given metric, ranks of the same level in parallel
+     * on the common {@link java.util.concurrent.ForkJoinPool}; the graph edges are weighted once.
+     *
+     * @param <W> the weight type
+     * @param weightedEdges the function to calculate edges weight, which has to be thread-safe
+     * @param weightOperations the weight operations needed for the algorithm
+     * @return the customized hierarchy, to be queried
+     */
+    public <W> CustomizedHierarchy<V, WE, W> customize( Function<WE, W> weightedEdges, OrderedMonoid<W> weightOperations )
+    {
+        weightedEdges = requireNonNull( weightedEdges, "Function to calculate edges weight can not be null." );
+        weightOperations = requireNonNull( weightOperations, "Customization can not be performed with null weight operations" );
+        return new CustomizedHierarchy<V, WE, W>( this, weightedEdges, weightOperations );
+    }
+
+}
@@ -0,0 +1,440 @@
+package org.nnsoft.trudeau.shortestpath;
+
+/*
+ *   Copyright 2013 The Trudeau Project
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+
+import java.util.Arrays;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import org.nnsoft.trudeau.api.InMemoryWeightedPath;
+import org.nnsoft.trudeau.api.PathNotFoundException;
+import org.nnsoft.trudeau.api.WeightedPath;
+import org.nnsoft.trudeau.math.monoid.OrderedMonoid;
+
+/**
+ * A {@link CustomizableContractionHierarchy} customized with a metric: every arc of the contracted graph is
+ * weighted, in both directions, with the shortest path between its endpoints through lower ranked vertices only.
+ *
+ * Queries are bidirectional Dijkstra's searches which only climb the hierarchy, from the source following arcs
+ * upward and from the target following them backward, and return the same paths weights as Dijkstra's algorithm;
+ * customized hierarchies are immutable and can be safely shared by concurrent queries.
+ *
+ * @param <V> the Graph vertices type
+ * @param <WE> the Graph weighted edges type
+ * @param <W> the weight type
+ */
+public final class CustomizedHierarchy<V, WE, W>
+{
+
+    private final CustomizableContractionHierarchy<V, WE> hierarchy;
+
+    private final Function<WE, W> weightedEdges;
+
+    private final OrderedMonoid<W> weightOperations;
+
+    private final EdgeWeights<W> weights;
+
+    /**
+     * The weight of every arc from its lower ranked vertex up to the higher ranked one, null if there is no path.
+     */
+    private final Object[] upward;
+
+    /**
+     * The weight of every arc from its higher ranked vertex down to the lower ranked one, null if there is no path.
+     */
+    private final Object[] downward;
+
+    /**
+     * The vertex rank every arc is a shortcut through, in each direction, or {@code -1 - edge} for original edges.
+     */
+    private final int[] upwardVia;
+
+    private final int[] downwardVia;
+
+    private final SearchSpacePool<W> spaces;
+
+    private final SearchListener listener;
+
+    CustomizedHierarchy( CustomizableContractionHierarchy<V, WE> hierarchy, Function<WE, W> weightedEdges,
+                         OrderedMonoid<W> weightOperations )
+    {
+        this.hierarchy = hierarchy;
+        this.weightedEdges = weightedEdges;
+        this.weightOperations = weightOperations;
+        this.weights = EdgeWeights.evaluate( hierarchy.graph, weightedEdges );
+
+        int arcs = hierarchy.upHeads.length;
+        upward = new Object[arcs];
+        downward = new Object[arcs];
+        upwardVia = new int[arcs];
+        downwardVia = new int[arcs];
+
+        // arcs only depend on the lower triangles, whose arcs belong to lower levels
+        for ( int level = 0; level + 1 < hierarchy.levelOffsets.length; level++ )
+        {
+            IntStream.range( hierarchy.levelOffsets[level], hierarchy.levelOffsets[level + 1] )
+                     .parallel()
+                     .forEach( position -> customize( hierarchy.levelRanks[position] ) );
+        }
+
+        spaces = new SearchSpacePool<W>( hierarchy.getOrder(), weightOperations );
+        listener = null;
+    }
+
+    private CustomizedHierarchy( CustomizedHierarchy<V, WE, W> customized, SearchListener listener )
+    {
+        this.hierarchy = customized.hierarchy;
+        this.weightedEdges = customized.weightedEdges;
+        this.weightOperations = customized.weightOperations;
+        this.weights = customized.weights;
+        this.upward = customized.upward;
+        this.downward = customized.downward;
+        this.upwardVia = customized.upwardVia;
+        this.downwardVia = customized.downwardVia;
+        this.spaces = customized.spaces;
+        this.listener = listener;
+    }
+
+    /**
+     * Returns a customized hierarchy sharing this hierarchy arcs weights and search state pool, whose queries
+     * report to the given listener too, after the listeners this hierarchy already reports to.
+     *
+     * @param listener the listener notified on search completion, invoked by the querying threads
+     * @return a customized hierarchy that reports to the given listener
+     */
+    public CustomizedHierarchy<V, WE, W> reportingTo( SearchListener listener )
+    {
+        listener = requireNonNull( listener, "Search statistics can not be reported to a null listener" );
+        listener = this.listener == null ? listener : this.listener.andThen( listener );
+        return new CustomizedHierarchy<V, WE, W>( this, listener );
+    }
+
+    /**
+     * Weights the arcs from the given rank with its original edges and its lower triangles, the ranks below both
+     * the arc endpoints.
+     */
+    private void customize( int rank )
+    {
+        for ( int arc = hierarchy.upOffsets[rank]; arc < hierarchy.upOffsets[rank + 1]; arc++ )
+        {
+            W up = null;
+            W down = null;
+            int upVia = -1;
+            int downVia = -1;
+
+            for ( int i = hierarchy.arcEdgeOffsets[arc]; i < hierarchy.arcEdgeOffsets[arc + 1]; i++ )
+            {
+                int edge = hierarchy.arcEdges[i] >> 1;
+                W weight = weights.get( edge );
+                if ( ( hierarchy.arcEdges[i] & 1 ) == 0 )
+                {
+                    if ( isShorter( weight, up ) )
+                    {
+                        up = weight;
+                        upVia = -1 - edge;
+                    }
+                }
+                else if ( isShorter( weight, down ) )
+                {
+                    down = weight;
+                    downVia = -1 - edge;
+                }
+            }
+
+            // merge the ranks below both endpoints
+            int head = hierarchy.upHeads[arc];
+            int i = hierarchy.downOffsets[rank];
+            int j = hierarchy.downOffsets[head];
+            while ( i < hierarchy.downOffsets[rank + 1] && j < hierarchy.downOffsets[head + 1] )
+            {
+                int lower = hierarchy.downTails[i];
+                if ( lower < hierarchy.downTails[j] )
+                {
+                    i++;
+                }
+                else if ( lower > hierarchy.downTails[j] )
+                {
+                    j++;
+                }
+                else
+                {
+                    int toRank = hierarchy.downArcs[i++];
+                    int toHead = hierarchy.downArcs[j++];
+
+                    // rank -> lower -> head
+                    W weight = append( downward[toRank], upward[toHead] );
+                    if ( isShorter( weight, up ) )
+                    {
+                        up = weight;
+                        upVia = lower;
+                    }
+
+                    // head -> lower -> rank
+                    weight = append( downward[toHead], upward[toRank] );
+                    if ( isShorter( weight, down ) )
+                    {
+                        down = weight;
+                        downVia = lower;
+                    }
+                }
+            }
+
+            upward[arc] = up;
+            downward[arc] = down;
+            upwardVia[arc] = upVia;
+            downwardVia[arc] = downVia;
+        }
+    }
+
+    @SuppressWarnings( "unchecked" )
+    private W append( Object first, Object second )
+    {
+        return first == null || second == null ? null : weightOperations.append( (W) first, (W) second );
+    }
+
+    private boolean isShorter( W weight, W current )
+    {
+        return weight != null && ( current == null || weightOperations.compare( weight, current ) < 0 );
+    }
+
+    /**
+     * Calculates the shortest path between the given vertices, with the customized metric.
+     *
+     * @param source the path source
+     * @param target the path target
+     * @return a path which describes the shortest path, if any, otherwise a {@link PathNotFoundException} will be thrown
+     */
+    @SuppressWarnings( "unchecked" )
+    public WeightedPath<V, WE, W> shortestPath( V source, V target )
+    {
+        final int s = rankOf( source, "Shortest path can not be calculated from a null source" );
+        final int t = rankOf( target, "Shortest path can not be calculated to a null target" );
+
+        final SearchCounters counters = new SearchCounters( SearchAlgorithm.CUSTOMIZABLE_CONTRACTION_HIERARCHY,
+                                                            hierarchy.getOrder(), hierarchy.getArcs() );
+        final SearchSpace<W> forward = spaces.acquire();
+        final SearchSpace<W> backwards = spaces.acquire();
+
+        try
+        {
+            forward.reach( s, weightOperations.identity(), -1, -1 );
+            forward.heap.insertOrDecrease( s, weightOperations.identity() );
+            backwards.reach( t, weightOperations.identity(), -1, -1 );
+            backwards.heap.insertOrDecrease( t, weightOperations.identity() );
+            counters.heapPushes += 2;
+
+            W best = null;
+            int touch = -1;
+
+            counters.enter( SearchPhase.SEARCH );
+
+            while ( true )
+            {
+                // each search stops once its closest vertex is not closer than the best path found
+                boolean forwardOpen = isOpen( forward, best );
+                boolean backwardsOpen = isOpen( backwards, best );
+                if ( !forwardOpen && !backwardsOpen )
+                {
+                    break;
+                }
+
+                boolean forwardStep = forwardOpen
+                    && ( !backwardsOpen || weightOperations.compare( forward.heap.peekKey(), backwards.heap.peekKey() ) <= 0 );
+                SearchSpace<W> space = forwardStep ? forward : backwards;
+                SearchSpace<W> opposite = forwardStep ? backwards : forward;
+                Object[] arcWeights = forwardStep ? upward : downward;
+
+                int rank = space.heap.poll();
+                counters.heapPops++;
+
+                space.settle( rank );
+                counters.settledVertices++;
+
+                W distance = space.distance( rank );
+                if ( opposite.isReached( rank ) )
+                {
+                    W candidate = weightOperations.append( distance, opposite.distance( rank ) );
+                    if ( best == null || weightOperations.compare( candidate, best ) < 0 )
+                    {
+                        best = candidate;
+                        touch = rank;
+                    }
+                }
+
+                for ( int arc = hierarchy.upOffsets[rank]; arc < hierarchy.upOffsets[rank + 1]; arc++ )
+                {
+                    int head = hierarchy.upHeads[arc];
+                    if ( arcWeights[arc] == null || space.isSettled( head ) )
+                    {
+                        continue;
+                    }
+                    counters.relaxedEdges++;
+
+                    W shortDist = weightOperations.append( distance, (W) arcWeights[arc] );
+                    if ( !space.isReached( head ) || weightOperations.compare( shortDist, space.distance( head ) ) < 0 )
+                    {
+                        space.reach( head, shortDist, rank, arc );
+                        if ( space.heap.insertOrDecrease( head, shortDist ) )
+                        {
+                            counters.heapPushes++;
+                        }
+                        else
+                        {
+                            counters.decreaseKeys++;
+                        }
+                    }
+                }
+            }
+
+            if ( touch < 0 )
+            {
+                throw new PathNotFoundException( "Path from '%s' to '%s' doesn't exist", source, target );
+            }
+
+            counters.enter( SearchPhase.PATH_RECONSTRUCTION );
+            return buildPath( forward, s, touch, backwards, t );
+        }
+        finally
+        {
+            spaces.release( forward );
+            spaces.release( backwards );
+            counters.complete( listener );
+        }
+    }
+
+    private boolean isOpen( SearchSpace<W> space, W best )
+    {
+        return !space.heap.isEmpty() && ( best == null || weightOperations.compare( space.heap.peekKey(), best ) < 0 );
+    }
+
+    private int rankOf( V vertex, String nullMessage )
+    {
+        vertex = requireNonNull( vertex, nullMessage );
+        int index = hierarchy.graph.indexOf( vertex );
+        if ( index < 0 )
+        {
+            throw new IllegalArgumentException( format( "Vertex '%s' doesn't exist in the graph", vertex ) );
+        }
+        return hierarchy.ranks[index];
+    }
+
+    /**
+     * Unpacks the shortcuts of the upward path from the source to the touch vertex, and of the downward path from
+     * the touch vertex to the target.
+     */
+    private WeightedPath<V, WE, W> buildPath( SearchSpace<W> forward, int source, int touch, SearchSpace<W> backwards,
+                                              int target )
+    {
+        IndexedGraph<V, WE> graph = hierarchy.graph;
+        InMemoryWeightedPath<V, WE, W> path =
+            new InMemoryWeightedPath<V, WE, W>( graph.vertex( hierarchy.vertices[source] ),
+                                                graph.vertex( hierarchy.vertices[target] ),
+                                                weightOperations,
+                                                weightedEdges );
+
+        // arcs are unpacked from the head of the path, the upward part is collected backwards
+        IntStack arcs = new IntStack();
+        for ( int rank = touch; rank != source; rank = forward.predecessorVertex( rank ) )
+        {
+            arcs.push( 2 * forward.predecessorEdge( rank ) );
+        }
+        unpack( arcs, path );
+
+        for ( int rank = touch; rank != target; rank = backwards.predecessorVertex( rank ) )
+        {
+            arcs.push( 2 * backwards.predecessorEdge( rank ) + 1 );
+            unpack( arcs, path );
+        }
+        return path;
+    }
+
+    /**
+     * Appends to the path the original edges of the arcs in the stack, {@code 2 * arc} to follow an arc upward,
+     * {@code 2 * arc + 1} to follow it downward, the first to follow at the top.
+     */
+    private void unpack( IntStack arcs, InMemoryWeightedPath<V, WE, W> path )
+    {
+        IndexedGraph<V, WE> graph = hierarchy.graph;
+        while ( !arcs.isEmpty() )
+        {
+            int step = arcs.pop();
+            int arc = step >> 1;
+            boolean up = ( step & 1 ) == 0;
+            int via = up ? upwardVia[arc] : downwardVia[arc];
+
+            if ( via < 0 )
+            {
+                int edge = -1 - via;
+                int tail = graph.edgeTails[edge];
+                int head = graph.edgeHeads[edge];
+                int from = up == ( hierarchy.ranks[tail] < hierarchy.ranks[head] ) ? tail : head;
+                path.addConnectionInTail( graph.vertex( from ), graph.edgeValue( edge ), graph.vertex( from == tail ? head : tail ) );
+                continue;
+            }
+
+            // low -> via -> high, or high -> via -> low
+            int low = hierarchy.upTails[arc];
+            int toLow = hierarchy.arc( via, low );
+            int toHigh = hierarchy.arc( via, hierarchy.upHeads[arc] );
+            if ( up )
+            {
+                arcs.push( 2 * toHigh );
+                arcs.push( 2 * toLow + 1 );
+            }
+            else
+            {
+                arcs.push( 2 * toLow );
+                arcs.push( 2 * toHigh + 1 );
+            }
+        }
+    }
+
+    /**
+     * A growable stack of primitive ints.
+     */
+    private static final class IntStack
+    {
+
+        private int[] values = new int[16];
+
+        private int size;
+
+        void push( int value )
+        {
+            if ( size == values.length )
+            {
+                values = Arrays.copyOf( values, 2 * size );
+            }
+            values[size++] = value;
+        }
+
+        int pop()
+        {
+            return values[--size];
+        }
+
+        boolean isEmpty()
+        {
+            return size == 0;
+        }
+
+    }
+
+}
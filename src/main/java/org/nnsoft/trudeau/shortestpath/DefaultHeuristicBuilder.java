@@ -20,7 +20,6 @@ import static java.util.Objects.requireNonNull;
 
 import java.util.HashSet;
 import java.util.Optional;
-import java.util.PriorityQueue;
 import java.util.Queue;
 import java.util.Set;
 import java.util.function.Function;
@@ -40,19 +39,35 @@ final class DefaultHeuristicBuilder<V, WE, W>
 
     private final Function<WE, W> weightedEdges;
 
+    private final SearchListener listener;
+
     private final V start;
 
     private final V goal;
 
     private final OrderedMonoid<W> weightOperations;
 
-    public DefaultHeuristicBuilder( ValueGraph<V, WE> graph, Function<WE, W> weightedEdges, V source, V target, OrderedMonoid<W> weightOperations )
+    private final QueryOptions<W> options;
+
+    public DefaultHeuristicBuilder( ValueGraph<V, WE> graph, Function<WE, W> weightedEdges, SearchListener listener, V source, V target, OrderedMonoid<W> weightOperations,
+                                    QueryOptions<W> options )
     {
         this.graph = graph;
         this.weightedEdges = weightedEdges;
+        this.listener = listener;
         this.start = source;
         this.goal = target;
         this.weightOperations = weightOperations;
+        this.options = options;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public HeuristicBuilder<V, WE, W> withOptions( QueryOptions<W> options )
+    {
+        options = requireNonNull( options, "A* algorithm can not be limited by null options" );
+        return new DefaultHeuristicBuilder<V, WE, W>( graph, weightedEdges, listener, start, goal, weightOperations, options );
     }
 
     /**
@@ -62,61 +77,100 @@ final class DefaultHeuristicBuilder<V, WE, W>
     {
         heuristic = requireNonNull( heuristic, "A* algorithm can not be applied using a null heuristic" );
 
-        // Cost from start along best known path.
-        final ShortestDistances<V, W> gScores = new ShortestDistances<V, W>( weightOperations );
-        gScores.setWeight( start, weightOperations.identity() );
+        final SearchCounters counters = new SearchCounters( SearchAlgorithm.A_STAR, graph.nodes().size(), graph.edges().size() );
 
-        // Estimated total cost from start to goal through y.
-        final ShortestDistances<V, W> fScores = new ShortestDistances<V, W>( weightOperations );
-        W hScore = heuristic.applyHeuristic( start, goal );
-        fScores.setWeight( start, hScore );
+        try
+        {
+            // Cost from start along best known path.
+            final ShortestDistances<V, W> gScores = new ShortestDistances<V, W>( weightOperations );
+            gScores.setWeight( start, weightOperations.identity() );
 
-        // The set of nodes already evaluated.
-        final Set<V> closedSet = new HashSet<V>();
+            W hScore = heuristic.applyHeuristic( start, goal );
+            counters.heuristicCalls++;
 
-        // The set of tentative nodes to be evaluated.
-        final Queue<V> openSet = new PriorityQueue<V>( fScores );
-        openSet.add( start );
+            // The set of nodes already evaluated.
+            final Set<V> closedSet = new HashSet<V>();
 
-        // The of navigated nodes
-        final PredecessorsList<V, WE, W> predecessors = new PredecessorsList<V, WE, W>( graph, weightOperations, weightedEdges );
+            // The set of tentative nodes to be evaluated, keyed by the estimated total cost from start to goal through them.
+            final Queue<QueuedVertex<V, W>> openSet = QueuedVertex.newQueue( weightOperations );
+            openSet.add( new QueuedVertex<V, W>( start, hScore ) );
+            counters.heapPushes++;
 
-        // extract the node in openset having the lowest f_score[] value
-        while ( !openSet.isEmpty() )
-        {
-            V current = openSet.remove();
+            // The of navigated nodes
+            final PredecessorsList<V, WE, W> predecessors = new PredecessorsList<V, WE, W>( graph, weightOperations, weightedEdges );
 
-            // destination reached, stop and build the path
-            if ( goal.equals( current ) )
-            {
-                return predecessors.buildPath( start, goal );
-            }
+            final QueryGuard<V, W> guard = new QueryGuard<V, W>( options, weightOperations, counters, start, goal );
 
-            closedSet.add( current );
+            counters.enter( SearchPhase.SEARCH );
 
-            Iterable<V> connected = graph.isDirected() ? graph.successors( current ) : graph.adjacentNodes( current ) ;
-            for ( V v : connected )
+            // extract the node in openset having the lowest f_score[] value
+            while ( !openSet.isEmpty() )
             {
-                if ( !closedSet.contains( v ) )
+                QueuedVertex<V, W> entry = openSet.remove();
+                V current = entry.vertex;
+                counters.heapPops++;
+
+                // destination reached, stop and build the path
+                if ( goal.equals( current ) )
+                {
+                    guard.checkTarget( gScores.getWeight( current ) );
+                    counters.settledVertices++;
+                    counters.enter( SearchPhase.PATH_RECONSTRUCTION );
+                    return predecessors.buildPath( start, goal );
+                }
+
+                // skip stale entries, left in the open set by a previous score decrease
+                if ( closedSet.contains( current ) )
                 {
-                    // no needs to check, the edge exists
-                    Optional<WE> edge = graph.edgeValue( current, v );
-                    // note that the weight of current can never be undefined
-                    W tentativeGScore = weightOperations.append( gScores.getWeight( current ), weightedEdges.apply( edge.get() ) );
+                    continue;
+                }
+
+                // with an admissible heuristic, the goal is not closer than the extracted node f_score[]
+                guard.check( entry.key );
 
-                    // if the first condition fails, v has already been visited (its weight is defined)
-                    if ( openSet.add( v ) || weightOperations.compare( tentativeGScore, gScores.getWeight( v ) ) < 0 )
+                closedSet.add( current );
+                counters.settledVertices++;
+
+                Iterable<V> connected = graph.isDirected() ? graph.successors( current ) : graph.adjacentNodes( current ) ;
+                for ( V v : connected )
+                {
+                    if ( !closedSet.contains( v ) )
                     {
-                        predecessors.addPredecessor( v, current );
-                        gScores.setWeight( v, tentativeGScore );
-                        hScore = heuristic.applyHeuristic( v, goal );
-                        fScores.setWeight( v, weightOperations.append( gScores.getWeight( v ), hScore ) );
+                        counters.relaxedEdges++;
+
+                        // no needs to check, the edge exists
+                        Optional<WE> edge = graph.edgeValue( current, v );
+                        // note that the weight of current can never be undefined
+                        W tentativeGScore = weightOperations.append( gScores.getWeight( current ), weightedEdges.apply( edge.get() ) );
+
+                        // a node whose score decreases enters the open set again, the stale entry is skipped once closed
+                        boolean discovered = !gScores.alreadyVisited( v );
+                        if ( discovered || weightOperations.compare( tentativeGScore, gScores.getWeight( v ) ) < 0 )
+                        {
+                            predecessors.addPredecessor( v, current );
+                            gScores.setWeight( v, tentativeGScore );
+                            hScore = heuristic.applyHeuristic( v, goal );
+                            counters.heuristicCalls++;
+                            openSet.add( new QueuedVertex<V, W>( v, weightOperations.append( tentativeGScore, hScore ) ) );
+                            if ( discovered )
+                            {
+                                counters.heapPushes++;
+                            }
+                            else
+                            {
+                                counters.decreaseKeys++;
+                            }
+                        }
                     }
                 }
             }
-        }
 
-        throw new PathNotFoundException( "Path from '%s' to '%s' doesn't exist in Graph '%s'", start, goal, graph );
+            throw new PathNotFoundException( "Path from '%s' to '%s' doesn't exist in Graph '%s'", start, goal, graph );
+        }
+        finally
+        {
+            counters.complete( listener );
+        }
     }
 
 }
@@ -0,0 +1,324 @@
+package org.nnsoft.trudeau.shortestpath;
+
+/*
+ *   Copyright 2013 The Trudeau Project
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+
+import org.nnsoft.trudeau.api.InMemoryWeightedPath;
+import org.nnsoft.trudeau.api.PathNotFoundException;
+import org.nnsoft.trudeau.api.WeightedPath;
+import org.nnsoft.trudeau.math.monoid.primitive.DoubleWeightBaseOperations;
+
+import com.google.common.graph.ValueGraph;
+
+final class DefaultMultiCriteriaAlgorithmSelector<V, WE>
+    implements MultiCriteriaAlgorithmSelector<V, WE>
+{
+
+    private final ValueGraph<V, WE> graph;
+
+    private final List<ToDoubleFunction<? super WE>> criteria;
+
+    private final SearchListener listener;
+
+    private final V source;
+
+    private final V target;
+
+    public DefaultMultiCriteriaAlgorithmSelector( ValueGraph<V, WE> graph, List<ToDoubleFunction<? super WE>> criteria,
+                                                  SearchListener listener, V source, V target )
+    {
+        this.graph = graph;
+        this.criteria = criteria;
+        this.listener = listener;
+        this.source = source;
+        this.target = target;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public List<WeightedPath<V, WE, CostVector>> applyingParetoSearch()
+    {
+        final SearchCounters counters = new SearchCounters( SearchAlgorithm.PARETO, graph.nodes().size(), graph.edges().size() );
+
+        try
+        {
+            final int dimension = criteria.size();
+            final ParetoLabels<V> labels = new ParetoLabels<V>( dimension );
+            final Map<V, LabelBag> bags = new HashMap<V, LabelBag>();
+
+            double[] costs = new double[dimension];
+            int root = labels.add( source, -1, costs );
+            bag( bags, source ).add( labels, root, costs );
+            labels.push( root );
+            counters.heapPushes++;
+
+            final LabelBag targetBag = bag( bags, target );
+            final double[] extended = new double[dimension];
+
+            counters.enter( SearchPhase.SEARCH );
+
+            while ( !labels.isEmpty() )
+            {
+                int label = labels.poll();
+                counters.heapPops++;
+
+                // skip labels dominated after they have been queued
+                if ( labels.isDominated( label ) )
+                {
+                    continue;
+                }
+                counters.settledVertices++;
+
+                V vertex = labels.vertex( label );
+                if ( target.equals( vertex ) )
+                {
+                    continue;
+                }
+
+                labels.costs( label, costs );
+                for ( V v : graph.successors( vertex ) )
+                {
+                    counters.relaxedEdges++;
+
+                    WE edge = graph.edgeValue( vertex, v ).get();
+                    for ( int i = 0; i < dimension; i++ )
+                    {
+                        extended[i] = costs[i] + criteria.get( i ).applyAsDouble( edge );
+                    }
+
+                    // costs only grow: labels covered by a target label never lead to a Pareto optimal path
+                    LabelBag bag = bag( bags, v );
+                    if ( targetBag.covers( labels, extended ) || bag.covers( labels, extended ) )
+                    {
+                        continue;
+                    }
+
+                    int next = labels.add( v, label, extended );
+                    bag.add( labels, next, extended );
+                    labels.push( next );
+                    counters.heapPushes++;
+                }
+            }
+
+            if ( targetBag.size() == 0 )
+            {
+                throw new PathNotFoundException( "Path from '%s' to '%s' doesn't exist", source, target );
+            }
+
+            counters.enter( SearchPhase.PATH_RECONSTRUCTION );
+            CostVectorOperations costOperations = new CostVectorOperations( dimension );
+            List<WeightedPath<V, WE, CostVector>> front = new ArrayList<WeightedPath<V, WE, CostVector>>( targetBag.size() );
+            for ( int i = 0; i < targetBag.size(); i++ )
+            {
+                front.add( buildPath( labels, targetBag.get( i ), costOperations ) );
+            }
+            front.sort( ( left, right ) -> costOperations.compare( left.getWeight(), right.getWeight() ) );
+            return front;
+        }
+        finally
+        {
+            counters.complete( listener );
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public WeightedPath<V, WE, CostVector> applyingResourceConstrainedSearch( double... limits )
+    {
+        limits = requireNonNull( limits, "Resource constrained search can not be limited by null limits" );
+        if ( limits.length != criteria.size() - 1 )
+        {
+            throw new IllegalArgumentException( format( "Resource constrained search needs a limit per resource, %s resources and %s limits given",
+                                                        criteria.size() - 1, limits.length ) );
+        }
+
+        final SearchCounters counters = new SearchCounters( SearchAlgorithm.RESOURCE_CONSTRAINED, graph.nodes().size(), graph.edges().size() );
+
+        try
+        {
+            final int dimension = criteria.size();
+
+            // lower bounds of the cost and of the resources still needed to reach the target, from each vertex
+            final List<Map<V, Double>> lowerBounds = new ArrayList<Map<V, Double>>( dimension );
+            for ( ToDoubleFunction<? super WE> criterion : criteria )
+            {
+                lowerBounds.add( distancesToTarget( criterion ) );
+            }
+
+            final ParetoLabels<V> labels = new ParetoLabels<V>( dimension );
+            final Map<V, LabelBag> bags = new HashMap<V, LabelBag>();
+
+            double[] costs = new double[dimension];
+            if ( !isFeasible( source, costs, lowerBounds, limits, Double.POSITIVE_INFINITY ) )
+            {
+                throw new PathNotFoundException( "No path from '%s' to '%s' satisfies the resource limits", source, target );
+            }
+            int root = labels.add( source, -1, costs );
+            bag( bags, source ).add( labels, root, costs );
+            labels.push( root );
+            counters.heapPushes++;
+
+            final double[] extended = new double[dimension];
+            double bestCost = Double.POSITIVE_INFINITY;
+
+            counters.enter( SearchPhase.SEARCH );
+
+            while ( !labels.isEmpty() )
+            {
+                int label = labels.poll();
+                counters.heapPops++;
+
+                if ( labels.isDominated( label ) )
+                {
+                    continue;
+                }
+                counters.settledVertices++;
+
+                // labels are extracted by increasing cost and only feasible ones are queued: the first one at the target is optimal
+                V vertex = labels.vertex( label );
+                if ( target.equals( vertex ) )
+                {
+                    counters.enter( SearchPhase.PATH_RECONSTRUCTION );
+                    return buildPath( labels, label, new CostVectorOperations( dimension ) );
+                }
+
+                labels.costs( label, costs );
+                for ( V v : graph.successors( vertex ) )
+                {
+                    counters.relaxedEdges++;
+
+                    WE edge = graph.edgeValue( vertex, v ).get();
+                    for ( int i = 0; i < dimension; i++ )
+                    {
+                        extended[i] = costs[i] + criteria.get( i ).applyAsDouble( edge );
+                    }
+
+                    LabelBag bag = bag( bags, v );
+                    if ( !isFeasible( v, extended, lowerBounds, limits, bestCost ) || bag.covers( labels, extended ) )
+                    {
+                        continue;
+                    }
+
+                    if ( target.equals( v ) )
+                    {
+                        bestCost = Math.min( bestCost, extended[0] );
+                    }
+
+                    int next = labels.add( v, label, extended );
+                    bag.add( labels, next, extended );
+                    labels.push( next );
+                    counters.heapPushes++;
+                }
+            }
+
+            throw new PathNotFoundException( "No path from '%s' to '%s' satisfies the resource limits", source, target );
+        }
+        finally
+        {
+            counters.complete( listener );
+        }
+    }
+
+    /**
+     * Runs a backwards one-to-all Dijkstra's search from the target, weighting edges by the given criterion.
+     */
+    private Map<V, Double> distancesToTarget( final ToDoubleFunction<? super WE> criterion )
+    {
+        DijkstraSearch<V, WE, Double> search =
+            new DijkstraSearch<V, WE, Double>( graph, edge -> criterion.applyAsDouble( edge ), new DoubleWeightBaseOperations(), null, true );
+        search.seed( target, 0D );
+
+        Map<V, Double> distances = new HashMap<V, Double>();
+        SettledVertex<V, Double> settled;
+        while ( ( settled = search.next() ) != null )
+        {
+            distances.put( settled.getVertex(), settled.getDistance() );
+        }
+        return distances;
+    }
+
+    /**
+     * @return true if the target can be reached from the labelled vertex within the resource limits,
+     *         at a cost lower than the best one found so far
+     */
+    private static <V> boolean isFeasible( V vertex, double[] costs, List<Map<V, Double>> lowerBounds, double[] limits,
+                                           double bestCost )
+    {
+        Double costToTarget = lowerBounds.get( 0 ).get( vertex );
+        if ( costToTarget == null || costs[0] + costToTarget > bestCost )
+        {
+            return false;
+        }
+        for ( int i = 1; i < costs.length; i++ )
+        {
+            if ( costs[i] + lowerBounds.get( i ).get( vertex ) > limits[i - 1] )
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static <V> LabelBag bag( Map<V, LabelBag> bags, V vertex )
+    {
+        LabelBag bag = bags.get( vertex );
+        if ( bag == null )
+        {
+            bag = new LabelBag();
+            bags.put( vertex, bag );
+        }
+        return bag;
+    }
+
+    /**
+     * Builds the path of a target label walking its predecessor labels back.
+     */
+    private WeightedPath<V, WE, CostVector> buildPath( ParetoLabels<V> labels, int label, CostVectorOperations costOperations )
+    {
+        Function<WE, CostVector> edgeCosts = edge ->
+        {
+            double[] costs = new double[criteria.size()];
+            for ( int i = 0; i < costs.length; i++ )
+            {
+                costs[i] = criteria.get( i ).applyAsDouble( edge );
+            }
+            return new CostVector( costs );
+        };
+
+        InMemoryWeightedPath<V, WE, CostVector> path =
+            new InMemoryWeightedPath<V, WE, CostVector>( source, target, costOperations, edgeCosts );
+        for ( int head = label; labels.predecessor( head ) >= 0; head = labels.predecessor( head ) )
+        {
+            V headVertex = labels.vertex( head );
+            V tailVertex = labels.vertex( labels.predecessor( head ) );
+            path.addConnectionInHead( tailVertex, graph.edgeValue( tailVertex, headVertex ).get(), headVertex );
+        }
+        return path;
+    }
+
+}
@@ -0,0 +1,63 @@
+package org.nnsoft.trudeau.shortestpath;
+
+/*
+ *   Copyright 2013 The Trudeau Project
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+
+import com.google.common.graph.ValueGraph;
+
+final class DefaultMultiCriteriaSourceSelector<V, WE>
+    implements MultiCriteriaSourceSelector<V, WE>
+{
+
+    private final ValueGraph<V, WE> graph;
+
+    private final List<ToDoubleFunction<? super WE>> criteria;
+
+    private final SearchListener listener;
+
+    public DefaultMultiCriteriaSourceSelector( ValueGraph<V, WE> graph, List<ToDoubleFunction<? super WE>> criteria,
+                                               SearchListener listener )
+    {
+        this.graph = graph;
+        this.criteria = criteria;
+        this.listener = listener;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public MultiCriteriaSourceSelector<V, WE> reportingTo( SearchListener listener )
+    {
+        listener = requireNonNull( listener, "Search statistics can not be reported to a null listener" );
+        listener = this.listener == null ? listener : this.listener.andThen( listener );
+        return new DefaultMultiCriteriaSourceSelector<V, WE>( graph, criteria, listener );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public <H extends V> MultiCriteriaTargetSelector<V, WE> from( H source )
+    {
+        source = requireNonNull( source, "Shortest path can not be calculated from a null source" );
+        return new DefaultMultiCriteriaTargetSelector<V, WE>( graph, criteria, listener, source );
+    }
+
+}
@@ -0,0 +1,56 @@
+package org.nnsoft.trudeau.shortestpath;
+
+/*
+ *   Copyright 2013 The Trudeau Project
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+
+import com.google.common.graph.ValueGraph;
+
+final class DefaultMultiCriteriaTargetSelector<V, WE>
+    implements MultiCriteriaTargetSelector<V, WE>
+{
+
+    private final ValueGraph<V, WE> graph;
+
+    private final List<ToDoubleFunction<? super WE>> criteria;
+
+    private final SearchListener listener;
+
+    private final V source;
+
+    public DefaultMultiCriteriaTargetSelector( ValueGraph<V, WE> graph, List<ToDoubleFunction<? super WE>> criteria,
+                                               SearchListener listener, V source )
+    {
+        this.graph = graph;
+        this.criteria = criteria;
+        this.listener = listener;
+        this.source = source;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public <T extends V> MultiCriteriaAlgorithmSelector<V, WE> to( T target )
+    {
+        target = requireNonNull( target, "Shortest path can not be calculated to a null target" );
+        return new DefaultMultiCriteriaAlgorithmSelector<V, WE>( graph, criteria, listener, source, target );
+    }
+
+}
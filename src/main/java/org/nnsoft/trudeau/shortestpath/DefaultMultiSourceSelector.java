@@ -0,0 +1,67 @@
+package org.nnsoft.trudeau.shortestpath;
+
+/*
+ *   Copyright 2013 The Trudeau Project
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.Map;
+import java.util.function.Function;
+
+import org.nnsoft.trudeau.math.monoid.OrderedMonoid;
+
+import com.google.common.graph.ValueGraph;
+
+final class DefaultMultiSourceSelector<V, WE, W>
+    implements MultiSourceSelector<V, WE, W>
+{
+
+    private final ValueGraph<V, WE> graph;
+
+    private final Function<WE, W> weightedEdges;
+
+    private final SearchListener listener;
+
+    private final Map<V, W> offsets;
+
+    /**
+     * @param offsets the sources, mapped to their initial distance; null offsets stand for the monoid identity
+     */
+    public DefaultMultiSourceSelector( ValueGraph<V, WE> graph, Function<WE, W> weightedEdges, SearchListener listener,
+                                       Map<V, W> offsets )
+    {
+        this.graph = graph;
+        this.weightedEdges = weightedEdges;
+        this.listener = listener;
+        this.offsets = offsets;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public <WO extends OrderedMonoid<W>> NearestSources<V, W> applyingDijkstra( WO weightOperations )
+    {
+        weightOperations = requireNonNull( weightOperations, "Dijkstra algorithm can not be applied using null weight operations" );
+
+        DijkstraSearch<V, WE, W> search = new DijkstraSearch<V, WE, W>( graph, weightedEdges, weightOperations, listener, false );
+        for ( Map.Entry<V, W> offset : offsets.entrySet() )
+        {
+            search.seed( offset.getKey(), offset.getValue() == null ? weightOperations.identity() : offset.getValue() );
+        }
+        return search.nearestSources();
+    }
+
+}
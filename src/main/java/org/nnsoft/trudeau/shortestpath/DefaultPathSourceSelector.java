@@ -19,6 +19,7 @@ package org.nnsoft.trudeau.shortestpath;
 import static java.util.Objects.requireNonNull;
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Optional;
 import java.util.function.Function;
@@ -38,10 +39,23 @@ final class DefaultPathSourceSelector<V, WE, W>
 
     private final Function<WE, W> weightedEdges;
 
-    public DefaultPathSourceSelector( ValueGraph<V, WE> graph, Function<WE, W> weightedEdges )
+    private final SearchListener listener;
+
+    public DefaultPathSourceSelector( ValueGraph<V, WE> graph, Function<WE, W> weightedEdges, SearchListener listener )
     {
         this.graph = graph;
         this.weightedEdges = weightedEdges;
+        this.listener = listener;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public PathSourceSelector<V, WE, W> reportingTo( SearchListener listener )
+    {
+        listener = requireNonNull( listener, "Search statistics can not be reported to a null listener" );
+        listener = this.listener == null ? listener : this.listener.andThen( listener );
+        return new DefaultPathSourceSelector<V, WE, W>( graph, weightedEdges, listener );
     }
 
     /**
@@ -51,70 +65,85 @@ final class DefaultPathSourceSelector<V, WE, W>
     {
         weightOperations = requireNonNull( weightOperations, "Floyd-Warshall algorithm can not be applied using null weight operations" );
 
-        AllVertexPairsShortestPath<V, WE, W> shortestPaths = new AllVertexPairsShortestPath<V, WE, W>( weightOperations );
-        Map<EndpointPair<V>, V> next = new HashMap<EndpointPair<V>, V>();
+        final SearchCounters counters = new SearchCounters( SearchAlgorithm.FLOYD_WARSHALL, graph.nodes().size(), graph.edges().size() );
 
-        // init
-        for ( EndpointPair<V> e : graph.edges() )
+        try
         {
-            WE we = graph.edgeValue( e.source(), e.target() ).get();
-            W weight = weightedEdges.apply( we );
-
-            shortestPaths.addShortestDistance( e.source(), e.target(), weight );
+            AllVertexPairsShortestPath<V, WE, W> shortestPaths = new AllVertexPairsShortestPath<V, WE, W>( weightOperations );
+            Map<EndpointPair<V>, V> next = new HashMap<EndpointPair<V>, V>();
 
-            if ( !graph.isDirected() )
+            // init
+            for ( EndpointPair<V> e : graph.edges() )
             {
-                shortestPaths.addShortestDistance( e.target(), e.source(), weight );
+                WE we = graph.edgeValue( e.source(), e.target() ).get();
+                W weight = weightedEdges.apply( we );
+
+                shortestPaths.addShortestDistance( e.source(), e.target(), weight );
+
+                if ( !graph.isDirected() )
+                {
+                    shortestPaths.addShortestDistance( e.target(), e.source(), weight );
+                }
             }
-        }
 
-        // run the Floyd-Warshall algorithm.
-        for ( V k : graph.nodes() )
-        {
-            for ( V i : graph.nodes() )
+            // run the Floyd-Warshall algorithm.
+            counters.enter( SearchPhase.SEARCH );
+            for ( V k : graph.nodes() )
             {
-                for ( V j : graph.nodes() )
+                counters.settledVertices++;
+
+                for ( V i : graph.nodes() )
                 {
-                    if ( shortestPaths.hasShortestDistance( i, k ) && shortestPaths.hasShortestDistance( k, j ) )
+                    for ( V j : graph.nodes() )
                     {
-                        W newDistance = weightOperations.append( shortestPaths.getShortestDistance( i, k ), shortestPaths.getShortestDistance( k, j ) );
-                        if ( !shortestPaths.hasShortestDistance( i, j )
-                                || weightOperations.compare( newDistance, shortestPaths.getShortestDistance( i, j ) ) < 0 )
+                        if ( shortestPaths.hasShortestDistance( i, k ) && shortestPaths.hasShortestDistance( k, j ) )
                         {
-                            shortestPaths.addShortestDistance( i, j, newDistance );
+                            counters.relaxedEdges++;
+
+                            W newDistance = weightOperations.append( shortestPaths.getShortestDistance( i, k ), shortestPaths.getShortestDistance( k, j ) );
+                            if ( !shortestPaths.hasShortestDistance( i, j )
+                                    || weightOperations.compare( newDistance, shortestPaths.getShortestDistance( i, j ) ) < 0 )
+                            {
+                                shortestPaths.addShortestDistance( i, j, newDistance );
 
-                            // store the intermediate vertex
-                            next.put( EndpointPair.ordered( i, j ), k );
+                                // store the intermediate vertex
+                                next.put( EndpointPair.ordered( i, j ), k );
+                            }
                         }
-                    }
 
+                    }
                 }
             }
-        }
 
-        // fills all WeightedPaths
-        for ( V source : graph.nodes() )
-        {
-            for ( V target : graph.nodes() )
+            // fills all WeightedPaths
+            counters.enter( SearchPhase.PATH_RECONSTRUCTION );
+            for ( V source : graph.nodes() )
             {
-                if ( !source.equals( target ) )
+                for ( V target : graph.nodes() )
                 {
-                    PredecessorsList<V, WE, W> predecessorsList = new PredecessorsList<V, WE, W>( graph, weightOperations, weightedEdges );
-
-                    pathReconstruction( predecessorsList, source, target, next );
-                    if ( !predecessorsList.isEmpty() )
+                    if ( !source.equals( target ) )
                     {
-                        WeightedPath<V, WE, W> weightedPath = predecessorsList.buildPath( source, target );
-                        if ( weightedPath.getOrder() > 0 )
+                        PredecessorsList<V, WE, W> predecessorsList = new PredecessorsList<V, WE, W>( graph, weightOperations, weightedEdges );
+
+                        pathReconstruction( predecessorsList, source, target, next );
+                        if ( !predecessorsList.isEmpty() )
                         {
-                            shortestPaths.addShortestPath( source, target, weightedPath );
+                            WeightedPath<V, WE, W> weightedPath = predecessorsList.buildPath( source, target );
+                            if ( weightedPath.getOrder() > 0 )
+                            {
+                                shortestPaths.addShortestPath( source, target, weightedPath );
+                            }
                         }
                     }
                 }
             }
-        }
 
-        return shortestPaths;
+            return shortestPaths;
+        }
+        finally
+        {
+            counters.complete( listener );
+        }
     }
 
     private void pathReconstruction( PredecessorsList<V, WE, W> path,
@@ -144,7 +173,38 @@ final class DefaultPathSourceSelector<V, WE, W>
     public <H extends V> TargetSourceSelector<V, WE, W> from( H source )
     {
         source = requireNonNull( source, "Shortest path can not be calculated from a null source" );
-        return new DefaultTargetSourceSelector<V, WE, W>( graph, weightedEdges, source );
+        return new DefaultTargetSourceSelector<V, WE, W>( graph, weightedEdges, listener, source );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public MultiSourceSelector<V, WE, W> fromAll( Iterable<? extends V> sources )
+    {
+        sources = requireNonNull( sources, "Shortest paths can not be calculated from null sources" );
+
+        Map<V, W> offsets = new LinkedHashMap<V, W>();
+        for ( V source : sources )
+        {
+            offsets.put( requireNonNull( source, "Shortest paths can not be calculated from a null source" ), null );
+        }
+        return new DefaultMultiSourceSelector<V, WE, W>( graph, weightedEdges, listener, offsets );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public MultiSourceSelector<V, WE, W> fromAll( Map<? extends V, ? extends W> offsets )
+    {
+        offsets = requireNonNull( offsets, "Shortest paths can not be calculated from null sources" );
+
+        Map<V, W> copy = new LinkedHashMap<V, W>();
+        for ( Map.Entry<? extends V, ? extends W> offset : offsets.entrySet() )
+        {
+            copy.put( requireNonNull( offset.getKey(), "Shortest paths can not be calculated from a null source" ),
+                      requireNonNull( offset.getValue(), "Shortest paths can not be calculated from a null offset" ) );
+        }
+        return new DefaultMultiSourceSelector<V, WE, W>( graph, weightedEdges, listener, copy );
     }
 
-}
\ No newline at end of file
+}
@@ -19,7 +19,6 @@ package org.nnsoft.trudeau.shortestpath;
 import static java.util.Objects.requireNonNull;
 
 import java.util.HashSet;
-import java.util.PriorityQueue;
 import java.util.Queue;
 import java.util.Set;
 import java.util.function.Function;
@@ -39,16 +38,32 @@ final class DefaultShortestPathAlgorithmSelector<V, WE, W>
 
     private final Function<WE, W> weightedEdges;
 
+    private final SearchListener listener;
+
     private final V source;
 
     private final V target;
 
-    public DefaultShortestPathAlgorithmSelector( ValueGraph<V, WE> graph, Function<WE, W> weightedEdges, V source, V target )
+    private final QueryOptions<W> options;
+
+    public DefaultShortestPathAlgorithmSelector( ValueGraph<V, WE> graph, Function<WE, W> weightedEdges, SearchListener listener, V source, V target,
+                                                 QueryOptions<W> options )
     {
         this.graph = graph;
         this.weightedEdges = weightedEdges;
+        this.listener = listener;
         this.source = source;
         this.target = target;
+        this.options = options;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public ShortestPathAlgorithmSelector<V, WE, W> withOptions( QueryOptions<W> options )
+    {
+        options = requireNonNull( options, "Search can not be limited by null options" );
+        return new DefaultShortestPathAlgorithmSelector<V, WE, W>( graph, weightedEdges, listener, source, target, options );
     }
 
     /**
@@ -57,7 +72,7 @@ final class DefaultShortestPathAlgorithmSelector<V, WE, W>
     public <WO extends OrderedMonoid<W>> HeuristicBuilder<V, WE, W> applyingAStar( WO weightOperations )
     {
         weightOperations = requireNonNull( weightOperations, "A* algorithm can not be applied using null weight operations" );
-        return new DefaultHeuristicBuilder<V, WE, W>( graph, weightedEdges, source, target, weightOperations );
+        return new DefaultHeuristicBuilder<V, WE, W>( graph, weightedEdges, listener, source, target, weightOperations, options );
     }
 
     /**
@@ -67,56 +82,95 @@ final class DefaultShortestPathAlgorithmSelector<V, WE, W>
     {
         weightOperations = requireNonNull( weightOperations, "Dijkstra algorithm can not be applied using null weight operations" );
 
-        final ShortestDistances<V, W> shortestDistances = new ShortestDistances<V, W>( weightOperations );
-        shortestDistances.setWeight( source, weightOperations.identity() );
+        final SearchCounters counters = new SearchCounters( SearchAlgorithm.DIJKSTRA, graph.nodes().size(), graph.edges().size() );
 
-        final Queue<V> unsettledNodes = new PriorityQueue<V>( shortestDistances );
-        unsettledNodes.add( source );
+        try
+        {
+            final ShortestDistances<V, W> shortestDistances = new ShortestDistances<V, W>( weightOperations );
+            shortestDistances.setWeight( source, weightOperations.identity() );
 
-        final Set<V> settledNodes = new HashSet<V>();
+            final Queue<QueuedVertex<V, W>> unsettledNodes = QueuedVertex.newQueue( weightOperations );
+            unsettledNodes.add( new QueuedVertex<V, W>( source, weightOperations.identity() ) );
+            counters.heapPushes++;
 
-        final PredecessorsList<V, WE, W> predecessors = new PredecessorsList<V, WE, W>( graph, weightOperations, weightedEdges );
+            final Set<V> settledNodes = new HashSet<V>();
 
-        // extract the node with the shortest distance
-        while ( !unsettledNodes.isEmpty() )
-        {
-            V vertex = unsettledNodes.remove();
+            final PredecessorsList<V, WE, W> predecessors = new PredecessorsList<V, WE, W>( graph, weightOperations, weightedEdges );
 
-            // destination reached, stop and build the path
-            if ( target.equals( vertex ) )
-            {
-                return predecessors.buildPath( source, target );
-            }
+            final QueryGuard<V, W> guard = new QueryGuard<V, W>( options, weightOperations, counters, source, target );
 
-            settledNodes.add( vertex );
+            counters.enter( SearchPhase.SEARCH );
 
-            for ( V v : graph.successors( vertex ) )
+            // extract the node with the shortest distance
+            while ( !unsettledNodes.isEmpty() )
             {
-                // skip node already settled
-                if ( !settledNodes.contains( v ) )
+                V vertex = unsettledNodes.remove().vertex;
+                counters.heapPops++;
+
+                // destination reached, stop and build the path
+                if ( target.equals( vertex ) )
                 {
-                    WE edge = graph.edgeValue( vertex, v ).get();
-                    if ( shortestDistances.alreadyVisited( vertex ) )
+                    guard.checkTarget( shortestDistances.getWeight( vertex ) );
+                    counters.settledVertices++;
+                    counters.enter( SearchPhase.PATH_RECONSTRUCTION );
+                    return predecessors.buildPath( source, target );
+                }
+
+                // skip stale entries, left in the queue by a previous distance decrease
+                if ( settledNodes.contains( vertex ) )
+                {
+                    continue;
+                }
+
+                // the target is not closer than the extracted node
+                guard.check( shortestDistances.getWeight( vertex ) );
+
+                settledNodes.add( vertex );
+                counters.settledVertices++;
+
+                for ( V v : graph.successors( vertex ) )
+                {
+                    // skip node already settled
+                    if ( !settledNodes.contains( v ) )
                     {
-                        W shortDist = weightOperations.append( shortestDistances.getWeight( vertex ), weightedEdges.apply( edge ) );
+                        counters.relaxedEdges++;
 
-                        if ( !shortestDistances.alreadyVisited( v )
-                                || weightOperations.compare( shortDist, shortestDistances.getWeight( v ) ) < 0 )
+                        WE edge = graph.edgeValue( vertex, v ).get();
+                        if ( shortestDistances.alreadyVisited( vertex ) )
                         {
-                            // assign new shortest distance and mark unsettled
-                            shortestDistances.setWeight( v, shortDist );
-                            unsettledNodes.add( v );
+                            W shortDist = weightOperations.append( shortestDistances.getWeight( vertex ), weightedEdges.apply( edge ) );
+
+                            boolean discovered = !shortestDistances.alreadyVisited( v );
+                            if ( discovered
+                                    || weightOperations.compare( shortDist, shortestDistances.getWeight( v ) ) < 0 )
+                            {
+                                // assign new shortest distance and mark unsettled
+                                shortestDistances.setWeight( v, shortDist );
+                                unsettledNodes.add( new QueuedVertex<V, W>( v, shortDist ) );
+                                if ( discovered )
+                                {
+                                    counters.heapPushes++;
+                                }
+                                else
+                                {
+                                    counters.decreaseKeys++;
+                                }
 
-                            // assign predecessor in shortest path
-                            predecessors.addPredecessor( v, vertex );
+                                // assign predecessor in shortest path
+                                predecessors.addPredecessor( v, vertex );
+                            }
                         }
-                    }
 
+                    }
                 }
             }
-        }
 
-        throw new PathNotFoundException( "Path from '%s' to '%s' doesn't exist in Graph '%s'", source, target, graph );
+            throw new PathNotFoundException( "Path from '%s' to '%s' doesn't exist in Graph '%s'", source, target, graph );
+        }
+        finally
+        {
+            counters.complete( listener );
+        }
     }
 
     /**
@@ -126,119 +180,164 @@ final class DefaultShortestPathAlgorithmSelector<V, WE, W>
     {
         weightOperations = requireNonNull( weightOperations, "Bidirectional Dijkstra algorithm can not be applied using null weight operations" );
 
-        final ShortestDistances<V, W> shortestDistancesForward = new ShortestDistances<V, W>( weightOperations );
-        shortestDistancesForward.setWeight( source, weightOperations.identity() );
+        final SearchCounters counters = new SearchCounters( SearchAlgorithm.BIDIRECTIONAL_DIJKSTRA, graph.nodes().size(), graph.edges().size() );
 
-        final ShortestDistances<V, W> shortestDistancesBackwards = new ShortestDistances<V, W>( weightOperations );
-        shortestDistancesBackwards.setWeight( target, weightOperations.identity() );
+        try
+        {
+            final ShortestDistances<V, W> shortestDistancesForward = new ShortestDistances<V, W>( weightOperations );
+            shortestDistancesForward.setWeight( source, weightOperations.identity() );
 
-        final Queue<V> openForward = new PriorityQueue<V>( shortestDistancesForward );
-        openForward.add( source );
+            final ShortestDistances<V, W> shortestDistancesBackwards = new ShortestDistances<V, W>( weightOperations );
+            shortestDistancesBackwards.setWeight( target, weightOperations.identity() );
 
-        final Queue<V> openBackwards = new PriorityQueue<V>( shortestDistancesBackwards );
-        openBackwards.add( target );
+            final Queue<QueuedVertex<V, W>> openForward = QueuedVertex.newQueue( weightOperations );
+            openForward.add( new QueuedVertex<V, W>( source, weightOperations.identity() ) );
 
-        final Set<V> closedForward = new HashSet<V>();
+            final Queue<QueuedVertex<V, W>> openBackwards = QueuedVertex.newQueue( weightOperations );
+            openBackwards.add( new QueuedVertex<V, W>( target, weightOperations.identity() ) );
+            counters.heapPushes += 2;
 
-        final Set<V> closedBackwards = new HashSet<V>();
+            final Set<V> closedForward = new HashSet<V>();
 
-        final PredecessorsList<V, WE, W> predecessorsForward = new PredecessorsList<V, WE, W>( graph, weightOperations, weightedEdges );
+            final Set<V> closedBackwards = new HashSet<V>();
 
-        final PredecessorsList<V, WE, W> predecessorsBackwards = new PredecessorsList<V, WE, W>( graph, weightOperations, weightedEdges );
+            final PredecessorsList<V, WE, W> predecessorsForward = new PredecessorsList<V, WE, W>( graph, weightOperations, weightedEdges );
 
-        W best = null;
-        V touch = null;
+            final PredecessorsList<V, WE, W> predecessorsBackwards = new PredecessorsList<V, WE, W>( graph, weightOperations, weightedEdges );
 
-        while (!openForward.isEmpty() && !openBackwards.isEmpty())
-        {
-            if ( best != null )
-            {
-                final W tmp = weightOperations.append( shortestDistancesForward.getWeight( openForward.peek() ),
-                                                       shortestDistancesBackwards.getWeight( openBackwards.peek() ) );
+            W best = null;
+            V touch = null;
 
-                if ( weightOperations.compare( tmp, best ) >= 0 )
+            final QueryGuard<V, W> guard = new QueryGuard<V, W>( options, weightOperations, counters, source, target );
+
+            counters.enter( SearchPhase.SEARCH );
+
+            while (!openForward.isEmpty() && !openBackwards.isEmpty())
+            {
+                // paths not discovered yet are not shorter than the sum of both frontiers
+                final W frontiers = weightOperations.append( openForward.peek().key, openBackwards.peek().key );
+                if ( best != null && weightOperations.compare( frontiers, best ) >= 0 )
                 {
+                    counters.enter( SearchPhase.PATH_RECONSTRUCTION );
                     return predecessorsForward.buildPath( source, touch, target, predecessorsBackwards );
                 }
-            }
 
-            V vertex = openForward.remove();
+                // checked once the best path found, if any, is known to be longer than the frontiers
+                guard.check( frontiers );
 
-            closedForward.add( vertex );
+                V vertex = openForward.remove().vertex;
+                counters.heapPops++;
 
-            for ( V v : graph.successors( vertex ) )
-            {
-                if ( !closedForward.contains( v ) )
+                if ( closedForward.add( vertex ) )
+                {
+                    counters.settledVertices++;
+                }
+
+                for ( V v : graph.successors( vertex ) )
                 {
-                    WE edge = graph.edgeValue( vertex, v ).get();
-                    if ( shortestDistancesForward.alreadyVisited( vertex ) )
+                    if ( !closedForward.contains( v ) )
                     {
-                        W shortDist = weightOperations.append( shortestDistancesForward.getWeight( vertex ), weightedEdges.apply( edge ) );
+                        counters.relaxedEdges++;
 
-                        if ( !shortestDistancesForward.alreadyVisited( v )
-                                || weightOperations.compare( shortDist, shortestDistancesForward.getWeight( v ) ) < 0 )
+                        WE edge = graph.edgeValue( vertex, v ).get();
+                        if ( shortestDistancesForward.alreadyVisited( vertex ) )
                         {
-                            shortestDistancesForward.setWeight( v, shortDist );
-                            openForward.add( v );
-                            predecessorsForward.addPredecessor( v, vertex );
+                            W shortDist = weightOperations.append( shortestDistancesForward.getWeight( vertex ), weightedEdges.apply( edge ) );
 
-                            if ( closedBackwards.contains( v ) )
+                            boolean discovered = !shortestDistancesForward.alreadyVisited( v );
+                            if ( discovered
+                                    || weightOperations.compare( shortDist, shortestDistancesForward.getWeight( v ) ) < 0 )
                             {
-                                W tmpBest = weightOperations.append( shortDist, shortestDistancesBackwards.getWeight( v ) );
+                                shortestDistancesForward.setWeight( v, shortDist );
+                                openForward.add( new QueuedVertex<V, W>( v, shortDist ) );
+                                if ( discovered )
+                                {
+                                    counters.heapPushes++;
+                                }
+                                else
+                                {
+                                    counters.decreaseKeys++;
+                                }
+                                predecessorsForward.addPredecessor( v, vertex );
 
-                                if ( best == null || weightOperations.compare( tmpBest, best ) < 0 )
+                                if ( closedBackwards.contains( v ) )
                                 {
-                                    best = tmpBest;
-                                    touch = v;
+                                    W tmpBest = weightOperations.append( shortDist, shortestDistancesBackwards.getWeight( v ) );
+
+                                    if ( best == null || weightOperations.compare( tmpBest, best ) < 0 )
+                                    {
+                                        best = tmpBest;
+                                        touch = v;
+                                    }
                                 }
                             }
                         }
                     }
                 }
-            }
 
-            vertex = openBackwards.remove();
+                vertex = openBackwards.remove().vertex;
+                counters.heapPops++;
 
-            closedBackwards.add( vertex );
+                if ( closedBackwards.add( vertex ) )
+                {
+                    counters.settledVertices++;
+                }
 
-            Iterable<V> parentsIterable = graph.isDirected() ? graph.predecessors( vertex ) : graph.adjacentNodes( vertex );
-            for ( V v : parentsIterable )
-            {
-                if ( !closedBackwards.contains( v ) )
+                Iterable<V> parentsIterable = graph.isDirected() ? graph.predecessors( vertex ) : graph.adjacentNodes( vertex );
+                for ( V v : parentsIterable )
                 {
-                    WE edge = graph.edgeValue( v, vertex ).get();
-                    if ( shortestDistancesBackwards.alreadyVisited( vertex ) )
+                    if ( !closedBackwards.contains( v ) )
                     {
-                        W shortDist = weightOperations.append( shortestDistancesBackwards.getWeight( vertex ), weightedEdges.apply( edge ) );
+                        counters.relaxedEdges++;
 
-                        if ( !shortestDistancesBackwards.alreadyVisited( v )
-                                || weightOperations.compare( shortDist, shortestDistancesBackwards.getWeight( v ) ) < 0 )
+                        WE edge = graph.edgeValue( v, vertex ).get();
+                        if ( shortestDistancesBackwards.alreadyVisited( vertex ) )
                         {
-                            shortestDistancesBackwards.setWeight( v, shortDist );
-                            openBackwards.add( v );
-                            predecessorsBackwards.addPredecessor( v, vertex );
+                            W shortDist = weightOperations.append( shortestDistancesBackwards.getWeight( vertex ), weightedEdges.apply( edge ) );
 
-                            if ( closedForward.contains( v ) )
+                            boolean discovered = !shortestDistancesBackwards.alreadyVisited( v );
+                            if ( discovered
+                                    || weightOperations.compare( shortDist, shortestDistancesBackwards.getWeight( v ) ) < 0 )
                             {
-                                W tmpBest = weightOperations.append( shortDist, shortestDistancesForward.getWeight( v ) );
+                                shortestDistancesBackwards.setWeight( v, shortDist );
+                                openBackwards.add( new QueuedVertex<V, W>( v, shortDist ) );
+                                if ( discovered )
+                                {
+                                    counters.heapPushes++;
+                                }
+                                else
+                                {
+                                    counters.decreaseKeys++;
+                                }
+                                predecessorsBackwards.addPredecessor( v, vertex );
 
-                                if ( best == null || weightOperations.compare( tmpBest, best ) < 0 )
+                                if ( closedForward.contains( v ) )
                                 {
-                                    best = tmpBest;
-                                    touch = v;
+                                    W tmpBest = weightOperations.append( shortDist, shortestDistancesForward.getWeight( v ) );
+
+                                    if ( best == null || weightOperations.compare( tmpBest, best ) < 0 )
+                                    {
+                                        best = tmpBest;
+                                        touch = v;
+                                    }
                                 }
                             }
                         }
                     }
                 }
             }
-        }
 
-        if ( touch == null )
+            if ( touch == null )
+            {
+                throw new PathNotFoundException( "Path from '%s' to '%s' doesn't exist in Graph '%s'", source, target, graph);
+            }
+
+            counters.enter( SearchPhase.PATH_RECONSTRUCTION );
+            return predecessorsForward.buildPath( source, touch, target, predecessorsBackwards );
+        }
+        finally
         {
-            throw new PathNotFoundException( "Path from '%s' to '%s' doesn't exist in Graph '%s'", source, target, graph);
+            counters.complete( listener );
         }
-
-        return predecessorsForward.buildPath( source, touch, target, predecessorsBackwards );
     }
 }
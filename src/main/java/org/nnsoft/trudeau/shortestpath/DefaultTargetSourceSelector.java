@@ -16,9 +16,15 @@ package org.nnsoft.trudeau.shortestpath;
  *   limitations under the License.
  */
 
+import static java.lang.String.format;
 import static java.util.Objects.requireNonNull;
 
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.function.Function;
+import java.util.stream.Stream;
 
 import org.nnsoft.trudeau.api.PathNotFoundException;
 import org.nnsoft.trudeau.api.PredecessorsList;
@@ -36,12 +42,15 @@ final class DefaultTargetSourceSelector<V, WE, W>
 
     private final Function<WE, W> weightedEdges;
 
+    private final SearchListener listener;
+
     private final V source;
 
-    public DefaultTargetSourceSelector( ValueGraph<V, WE> graph, Function<WE, W> weightedEdges, V source )
+    public DefaultTargetSourceSelector( ValueGraph<V, WE> graph, Function<WE, W> weightedEdges, SearchListener listener, V source )
     {
         this.graph = graph;
         this.weightedEdges = weightedEdges;
+        this.listener = listener;
         this.source = source;
     }
 
@@ -52,13 +61,43 @@ final class DefaultTargetSourceSelector<V, WE, W>
     {
         weightOperations = requireNonNull( weightOperations, "Belmann-Ford algorithm can not be applied using null weight operations" );
 
-        final ShortestDistances<V, W> shortestDistances = new ShortestDistances<V, W>( weightOperations );
-        shortestDistances.setWeight( source, weightOperations.identity() );
-
-        final PredecessorsList<V, WE, W> predecessors = new PredecessorsList<V, WE, W>( graph, weightOperations, weightedEdges );
+        final SearchCounters counters = new SearchCounters( SearchAlgorithm.BELLMAN_FORD, graph.nodes().size(), graph.edges().size() );
 
-        for ( int i = 0; i < graph.getOrder(); i++ )
+        try
         {
+            final ShortestDistances<V, W> shortestDistances = new ShortestDistances<V, W>( weightOperations );
+            shortestDistances.setWeight( source, weightOperations.identity() );
+
+            final PredecessorsList<V, WE, W> predecessors = new PredecessorsList<V, WE, W>( graph, weightOperations, weightedEdges );
+
+            counters.enter( SearchPhase.SEARCH );
+            for ( int i = 0; i < graph.getOrder(); i++ )
+            {
+                for ( EndpointPair<V> edge : graph.edges() )
+                {
+                    V u = edge.nodeU();
+                    V v = edge.nodeV();
+
+                    if ( shortestDistances.alreadyVisited( u ) )
+                    {
+                        counters.relaxedEdges++;
+
+                        WE we = graph.edgeValue( u, v ).get();
+                        W shortDist = weightOperations.append( shortestDistances.getWeight( u ), weightedEdges.apply( we ) );
+
+                        if ( !shortestDistances.alreadyVisited( v )
+                                || weightOperations.compare( shortDist, shortestDistances.getWeight( v ) ) < 0 )
+                        {
+                            // assign new shortest distance and mark unsettled
+                            shortestDistances.setWeight( v, shortDist );
+
+                            // assign predecessor in shortest path
+                            predecessors.addPredecessor( v, u );
+                        }
+                    }
+                }
+            }
+
             for ( EndpointPair<V> edge : graph.edges() )
             {
                 V u = edge.nodeU();
@@ -72,55 +111,95 @@ final class DefaultTargetSourceSelector<V, WE, W>
                     if ( !shortestDistances.alreadyVisited( v )
                             || weightOperations.compare( shortDist, shortestDistances.getWeight( v ) ) < 0 )
                     {
-                        // assign new shortest distance and mark unsettled
-                        shortestDistances.setWeight( v, shortDist );
-
-                        // assign predecessor in shortest path
-                        predecessors.addPredecessor( v, u );
+                        // TODO it would be nice printing the cycle
+                        throw new NegativeWeightedCycleException( "Graph contains a negative-weight cycle in vertex %s",
+                                                                  v, graph );
                     }
                 }
             }
-        }
 
-        for ( EndpointPair<V> edge : graph.edges() )
-        {
-            V u = edge.nodeU();
-            V v = edge.nodeV();
+            counters.enter( SearchPhase.PATH_RECONSTRUCTION );
+            AllVertexPairsShortestPath<V, WE, W> allVertexPairsShortestPath = new AllVertexPairsShortestPath<V, WE, W>( weightOperations );
 
-            if ( shortestDistances.alreadyVisited( u ) )
+            for ( V target : graph.nodes() )
             {
-                WE we = graph.edgeValue( u, v ).get();
-                W shortDist = weightOperations.append( shortestDistances.getWeight( u ), weightedEdges.apply( we ) );
-
-                if ( !shortestDistances.alreadyVisited( v )
-                        || weightOperations.compare( shortDist, shortestDistances.getWeight( v ) ) < 0 )
+                if ( !source.equals( target ) )
                 {
-                    // TODO it would be nice printing the cycle
-                    throw new NegativeWeightedCycleException( "Graph contains a negative-weight cycle in vertex %s",
-                                                              v, graph );
+                    try
+                    {
+                        WeightedPath<V, WE, W> weightedPath = predecessors.buildPath( source, target );
+                        allVertexPairsShortestPath.addShortestPath( source, target, weightedPath );
+                        counters.settledVertices++;
+                    }
+                    catch ( PathNotFoundException e )
+                    {
+                        continue;
+                    }
                 }
             }
+
+            return allVertexPairsShortestPath;
+        }
+        finally
+        {
+            counters.complete( listener );
         }
+    }
 
-        AllVertexPairsShortestPath<V, WE, W> allVertexPairsShortestPath = new AllVertexPairsShortestPath<V, WE, W>( weightOperations );
+    /**
+     * {@inheritDoc}
+     */
+    public <WO extends OrderedMonoid<W>> Stream<SettledVertex<V, W>> streamingDijkstra( WO weightOperations )
+    {
+        weightOperations = requireNonNull( weightOperations, "Dijkstra algorithm can not be applied using null weight operations" );
+
+        DijkstraSearch<V, WE, W> search = new DijkstraSearch<V, WE, W>( graph, weightedEdges, weightOperations, listener, false );
+        search.seed( source, weightOperations.identity() );
+        return search.stream();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public <WO extends OrderedMonoid<W>> Isochrone<V, W> within( W bound, WO weightOperations )
+    {
+        bound = requireNonNull( bound, "Isochrone can not be calculated within a null bound" );
+        weightOperations = requireNonNull( weightOperations, "Dijkstra algorithm can not be applied using null weight operations" );
+
+        DijkstraSearch<V, WE, W> search = new DijkstraSearch<V, WE, W>( graph, weightedEdges, weightOperations, listener, false );
+        search.seed( source, weightOperations.identity() );
+        return search.within( source, bound );
+    }
 
-        for ( V target : graph.nodes() )
+    /**
+     * {@inheritDoc}
+     */
+    public <WO extends OrderedMonoid<W>> List<WeightedPath<V, WE, W>> nearest( int k, Collection<? extends V> candidates,
+                                                                              WO weightOperations )
+    {
+        if ( k <= 0 )
         {
-            if ( !source.equals( target ) )
-            {
-                try
-                {
-                    WeightedPath<V, WE, W> weightedPath = predecessors.buildPath( source, target );
-                    allVertexPairsShortestPath.addShortestPath( source, target, weightedPath );
-                }
-                catch ( PathNotFoundException e )
-                {
-                    continue;
-                }
-            }
+            throw new IllegalArgumentException( format( "Number of nearest candidates must be positive, %s given", k ) );
         }
+        candidates = requireNonNull( candidates, "Nearest candidates can not be searched in a null collection" );
+        weightOperations = requireNonNull( weightOperations, "Dijkstra algorithm can not be applied using null weight operations" );
+
+        DijkstraSearch<V, WE, W> search = new DijkstraSearch<V, WE, W>( graph, weightedEdges, weightOperations, listener, false );
+        search.seed( source, weightOperations.identity() );
+        return search.nearest( k, candidates instanceof Set ? (Set<? extends V>) candidates : new HashSet<V>( candidates ) );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public <WO extends OrderedMonoid<W>> Isochrone<V, W> withinReverse( W bound, WO weightOperations )
+    {
+        bound = requireNonNull( bound, "Isochrone can not be calculated within a null bound" );
+        weightOperations = requireNonNull( weightOperations, "Dijkstra algorithm can not be applied using null weight operations" );
 
-        return allVertexPairsShortestPath;
+        DijkstraSearch<V, WE, W> search = new DijkstraSearch<V, WE, W>( graph, weightedEdges, weightOperations, listener, true );
+        search.seed( source, weightOperations.identity() );
+        return search.within( source, bound );
     }
 
     /**
@@ -129,7 +208,8 @@ final class DefaultTargetSourceSelector<V, WE, W>
     public <T extends V> ShortestPathAlgorithmSelector<V, WE, W> to( T target )
     {
         target = requireNonNull( target, "Shortest path can not be calculated to a null target" );
-        return new DefaultShortestPathAlgorithmSelector<V, WE, W>( graph, weightedEdges, source, target );
+        return new DefaultShortestPathAlgorithmSelector<V, WE, W>( graph, weightedEdges, listener, source, target,
+                                                             QueryOptions.<W>queryOptions() );
     }
 
 }
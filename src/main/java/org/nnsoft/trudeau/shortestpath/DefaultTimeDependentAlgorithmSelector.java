@@ -0,0 +1,264 @@
+package org.nnsoft.trudeau.shortestpath;
+
+/*
+ *   Copyright 2013 The Trudeau Project
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.nnsoft.trudeau.api.PathNotFoundException;
+import org.nnsoft.trudeau.api.WeightedPath;
+import org.nnsoft.trudeau.math.monoid.primitive.DoubleWeightBaseOperations;
+
+import com.google.common.graph.ValueGraph;
+
+final class DefaultTimeDependentAlgorithmSelector<V, WE>
+    implements TimeDependentAlgorithmSelector<V, WE>
+{
+
+    private final ValueGraph<V, WE> graph;
+
+    private final Function<WE, PiecewiseLinearFunction> travelTimes;
+
+    private final SearchListener listener;
+
+    private final V source;
+
+    private final V target;
+
+    public DefaultTimeDependentAlgorithmSelector( ValueGraph<V, WE> graph, Function<WE, PiecewiseLinearFunction> travelTimes,
+                                                  SearchListener listener, V source, V target )
+    {
+        this.graph = graph;
+        this.travelTimes = travelTimes;
+        this.listener = listener;
+        this.source = source;
+        this.target = target;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public WeightedPath<V, WE, Double> applyingTimeDependentDijkstra( double departureTime )
+    {
+        final SearchCounters counters = new SearchCounters( SearchAlgorithm.TIME_DEPENDENT_DIJKSTRA, graph.nodes().size(), graph.edges().size() );
+
+        try
+        {
+            final Map<V, Double> arrivals = new HashMap<V, Double>();
+            arrivals.put( source, departureTime );
+
+            final Map<V, V> predecessors = new HashMap<V, V>();
+
+            final Queue<Label<V, Double>> unsettledNodes =
+                new PriorityQueue<Label<V, Double>>( ( left, right ) -> Double.compare( left.key, right.key ) );
+            unsettledNodes.add( new Label<V, Double>( source, departureTime, departureTime ) );
+            counters.heapPushes++;
+
+            final Set<V> settledNodes = new HashSet<V>();
+
+            counters.enter( SearchPhase.SEARCH );
+
+            while ( !unsettledNodes.isEmpty() )
+            {
+                Label<V, Double> label = unsettledNodes.remove();
+                counters.heapPops++;
+
+                // skip stale entries, left in the queue by a previous arrival time decrease
+                if ( !settledNodes.add( label.vertex ) )
+                {
+                    continue;
+                }
+                counters.settledVertices++;
+
+                // destination reached, stop and build the path
+                if ( target.equals( label.vertex ) )
+                {
+                    counters.enter( SearchPhase.PATH_RECONSTRUCTION );
+                    return buildPath( predecessors, arrivals );
+                }
+
+                // FIFO travel times: arriving earlier at the vertex never means arriving later at its successors
+                for ( V v : graph.successors( label.vertex ) )
+                {
+                    if ( settledNodes.contains( v ) )
+                    {
+                        continue;
+                    }
+                    counters.relaxedEdges++;
+
+                    WE edge = graph.edgeValue( label.vertex, v ).get();
+                    double arrival = label.value + travelTimes.apply( edge ).evaluate( label.value );
+
+                    Double known = arrivals.get( v );
+                    if ( known == null || arrival < known )
+                    {
+                        arrivals.put( v, arrival );
+                        predecessors.put( v, label.vertex );
+                        unsettledNodes.add( new Label<V, Double>( v, arrival, arrival ) );
+                        if ( known == null )
+                        {
+                            counters.heapPushes++;
+                        }
+                        else
+                        {
+                            counters.decreaseKeys++;
+                        }
+                    }
+                }
+            }
+
+            throw new PathNotFoundException( "Path from '%s' to '%s' doesn't exist", source, target );
+        }
+        finally
+        {
+            counters.complete( listener );
+        }
+    }
+
+    /**
+     * Builds the path walking the predecessors back; since edge weights depend on the time they are entered,
+     * every connection is weighted by the travel time actually experienced on it.
+     */
+    private WeightedPath<V, WE, Double> buildPath( Map<V, V> predecessors, Map<V, Double> arrivals )
+    {
+        Deque<V> vertices = new ArrayDeque<V>();
+        for ( V v = target; v != null; v = predecessors.get( v ) )
+        {
+            vertices.addFirst( v );
+        }
+
+        ConnectionWeightedPath<V, WE, Double> path =
+            new ConnectionWeightedPath<V, WE, Double>( source, target, new DoubleWeightBaseOperations() );
+        V tail = null;
+        for ( V head : vertices )
+        {
+            if ( tail != null )
+            {
+                path.addConnectionInTail( tail, graph.edgeValue( tail, head ).get(), head,
+                                          arrivals.get( head ) - arrivals.get( tail ) );
+            }
+            tail = head;
+        }
+        return path;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public PiecewiseLinearFunction applyingProfileSearch()
+    {
+        final SearchCounters counters = new SearchCounters( SearchAlgorithm.PROFILE_SEARCH, graph.nodes().size(), graph.edges().size() );
+
+        try
+        {
+            final Map<V, PiecewiseLinearFunction> profiles = new HashMap<V, PiecewiseLinearFunction>();
+            PiecewiseLinearFunction sourceProfile = PiecewiseLinearFunction.constant( 0D );
+            profiles.put( source, sourceProfile );
+
+            // vertices are keyed by the minimum of their travel time profile, and scanned again when it improves
+            final Queue<Label<V, PiecewiseLinearFunction>> unscannedNodes =
+                new PriorityQueue<Label<V, PiecewiseLinearFunction>>( ( left, right ) -> Double.compare( left.key, right.key ) );
+            unscannedNodes.add( new Label<V, PiecewiseLinearFunction>( source, 0D, sourceProfile ) );
+            counters.heapPushes++;
+
+            counters.enter( SearchPhase.SEARCH );
+
+            while ( !unscannedNodes.isEmpty() )
+            {
+                Label<V, PiecewiseLinearFunction> label = unscannedNodes.remove();
+                counters.heapPops++;
+
+                // skip stale entries, left in the queue by a previous profile improvement
+                if ( label.value != profiles.get( label.vertex ) )
+                {
+                    continue;
+                }
+
+                // travel times only grow along paths: no profile reached from here can improve the target one
+                PiecewiseLinearFunction targetProfile = profiles.get( target );
+                if ( targetProfile != null && label.key >= targetProfile.getMaximum() )
+                {
+                    break;
+                }
+                counters.settledVertices++;
+
+                for ( V v : graph.successors( label.vertex ) )
+                {
+                    counters.relaxedEdges++;
+
+                    WE edge = graph.edgeValue( label.vertex, v ).get();
+                    PiecewiseLinearFunction profile = label.value.link( travelTimes.apply( edge ) );
+
+                    PiecewiseLinearFunction known = profiles.get( v );
+                    if ( known != null && known.isNotGreaterThan( profile ) )
+                    {
+                        continue;
+                    }
+
+                    PiecewiseLinearFunction improved = known == null ? profile : known.minimum( profile );
+                    profiles.put( v, improved );
+                    unscannedNodes.add( new Label<V, PiecewiseLinearFunction>( v, improved.getMinimum(), improved ) );
+                    if ( known == null )
+                    {
+                        counters.heapPushes++;
+                    }
+                    else
+                    {
+                        counters.decreaseKeys++;
+                    }
+                }
+            }
+
+            PiecewiseLinearFunction targetProfile = profiles.get( target );
+            if ( targetProfile == null )
+            {
+                throw new PathNotFoundException( "Path from '%s' to '%s' doesn't exist", source, target );
+            }
+            return targetProfile;
+        }
+        finally
+        {
+            counters.complete( listener );
+        }
+    }
+
+    private static final class Label<V, T>
+    {
+
+        final V vertex;
+
+        final double key;
+
+        final T value;
+
+        Label( V vertex, double key, T value )
+        {
+            this.vertex = vertex;
+            this.key = key;
+            this.value = value;
+        }
+
+    }
+
+}
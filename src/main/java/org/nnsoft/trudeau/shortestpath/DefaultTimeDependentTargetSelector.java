@@ -0,0 +1,55 @@
+package org.nnsoft.trudeau.shortestpath;
+
+/*
+ *   Copyright 2013 The Trudeau Project
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.function.Function;
+
+import com.google.common.graph.ValueGraph;
+
+final class DefaultTimeDependentTargetSelector<V, WE>
+    implements TimeDependentTargetSelector<V, WE>
+{
+
+    private final ValueGraph<V, WE> graph;
+
+    private final Function<WE, PiecewiseLinearFunction> travelTimes;
+
+    private final SearchListener listener;
+
+    private final V source;
+
+    public DefaultTimeDependentTargetSelector( ValueGraph<V, WE> graph, Function<WE, PiecewiseLinearFunction> travelTimes,
+                                               SearchListener listener, V source )
+    {
+        this.graph = graph;
+        this.travelTimes = travelTimes;
+        this.listener = listener;
+        this.source = source;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public <T extends V> TimeDependentAlgorithmSelector<V, WE> to( T target )
+    {
+        target = requireNonNull( target, "Shortest path can not be calculated to a null target" );
+        return new DefaultTimeDependentAlgorithmSelector<V, WE>( graph, travelTimes, listener, source, target );
+    }
+
+}
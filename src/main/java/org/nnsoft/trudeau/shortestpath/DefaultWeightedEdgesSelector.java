@@ -18,7 +18,10 @@ package org.nnsoft.trudeau.shortestpath;
 
 import static java.util.Objects.requireNonNull;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
 
 import com.google.common.graph.ValueGraph;
 
@@ -43,7 +46,29 @@ public final class DefaultWeightedEdgesSelector<V, WE>
     public <W, M extends Function<WE, W>> PathSourceSelector<V, WE, W> whereEdgesHaveWeights( M weightedEdges )
     {
         weightedEdges = requireNonNull( weightedEdges, "Function to calculate edges weight can not be null." );
-        return new DefaultPathSourceSelector<V, WE, W>( graph, weightedEdges );
+        return new DefaultPathSourceSelector<V, WE, W>( graph, weightedEdges, null );
+    }
+
+    public TimeDependentSourceSelector<V, WE> whereEdgesHaveTravelTimes( Function<WE, PiecewiseLinearFunction> travelTimes )
+    {
+        travelTimes = requireNonNull( travelTimes, "Function to calculate edges travel time can not be null." );
+        return new DefaultTimeDependentSourceSelector<V, WE>( graph, travelTimes, null );
+    }
+
+    public MultiCriteriaSourceSelector<V, WE> whereEdgesHaveCosts( List<? extends ToDoubleFunction<? super WE>> criteria )
+    {
+        criteria = requireNonNull( criteria, "Functions to calculate edges costs can not be null." );
+        if ( criteria.isEmpty() )
+        {
+            throw new IllegalArgumentException( "Edges costs need at least one criterion." );
+        }
+
+        List<ToDoubleFunction<? super WE>> copy = new ArrayList<ToDoubleFunction<? super WE>>( criteria.size() );
+        for ( ToDoubleFunction<? super WE> criterion : criteria )
+        {
+            copy.add( requireNonNull( criterion, "Function to calculate edges cost can not be null." ) );
+        }
+        return new DefaultMultiCriteriaSourceSelector<V, WE>( graph, copy, null );
     }
 
 }
@@ -0,0 +1,355 @@
+package org.nnsoft.trudeau.shortestpath;
+
+/*
+ *   Copyright 2013 The Trudeau Project
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+import static java.lang.String.format;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.nnsoft.trudeau.api.InMemoryWeightedPath;
+import org.nnsoft.trudeau.api.WeightedPath;
+import org.nnsoft.trudeau.math.monoid.OrderedMonoid;
+
+import com.google.common.graph.ValueGraph;
+
+/**
+ * Dijkstra's algorithm as a cursor on a {@link ValueGraph}: every {@link #next()} invocation settles one more vertex,
+ * so the search goes only as far as the caller needs. Reverse searches follow the edges backwards, settling
+ * vertices in increasing distance <i>to</i> the roots.
+ *
+ * The queue holds (vertex, distance) entries and entries of already settled vertices are skipped when extracted,
+ * so distances are never modified while in the queue. Search statistics are reported once the search is exhausted
+ * or {@link #complete() completed} by the caller.
+ *
+ * @param <V> the Graph vertices type
+ * @param <WE> the Graph weighted edges type
+ * @param <W> the weight type
+ */
+final class DijkstraSearch<V, WE, W>
+{
+
+    private final ValueGraph<V, WE> graph;
+
+    private final Function<WE, W> weightedEdges;
+
+    private final OrderedMonoid<W> weightOperations;
+
+    private final boolean reverse;
+
+    private final Map<V, W> distances = new HashMap<V, W>();
+
+    private final Map<V, V> predecessors = new HashMap<V, V>();
+
+    private final Map<V, V> roots = new HashMap<V, V>();
+
+    private final Set<V> settled = new HashSet<V>();
+
+    private final Queue<QueuedVertex<V, W>> queue;
+
+    private final SearchListener listener;
+
+    private final SearchCounters counters;
+
+    private boolean completed;
+
+    DijkstraSearch( ValueGraph<V, WE> graph, Function<WE, W> weightedEdges, OrderedMonoid<W> weightOperations, SearchListener listener,
+                    boolean reverse )
+    {
+        this.graph = graph;
+        this.weightedEdges = weightedEdges;
+        this.weightOperations = weightOperations;
+        this.reverse = reverse;
+        this.listener = listener;
+        this.queue = QueuedVertex.newQueue( weightOperations );
+        this.counters = new SearchCounters( SearchAlgorithm.DIJKSTRA, graph.nodes().size(), graph.edges().size() );
+    }
+
+    /**
+     * Starts the search from the given vertex.
+     *
+     * @param source the search root
+     * @param distance the root initial distance
+     */
+    void seed( V source, W distance )
+    {
+        if ( !graph.nodes().contains( source ) )
+        {
+            throw new IllegalArgumentException( format( "Vertex '%s' doesn't belong to the graph", source ) );
+        }
+
+        W known = distances.get( source );
+        if ( known == null || weightOperations.compare( distance, known ) < 0 )
+        {
+            distances.put( source, distance );
+            predecessors.remove( source );
+            roots.put( source, source );
+            queue.add( new QueuedVertex<V, W>( source, distance ) );
+            counters.heapPushes++;
+        }
+    }
+
+    /**
+     * @return the distance of the vertex which would be settled next, null if the search is exhausted
+     */
+    W peekDistance()
+    {
+        skipSettled();
+        return queue.isEmpty() ? null : queue.peek().key;
+    }
+
+    /**
+     * Settles the closest vertex in the queue.
+     *
+     * @return the settled vertex, null if the search is exhausted
+     */
+    SettledVertex<V, W> next()
+    {
+        if ( peekDistance() == null )
+        {
+            complete();
+            return null;
+        }
+
+        if ( counters.settledVertices == 0 )
+        {
+            counters.enter( SearchPhase.SEARCH );
+        }
+
+        QueuedVertex<V, W> entry = queue.remove();
+        counters.heapPops++;
+
+        V vertex = entry.vertex;
+        settled.add( vertex );
+        counters.settledVertices++;
+
+        for ( V v : reverse ? graph.predecessors( vertex ) : graph.successors( vertex ) )
+        {
+            if ( settled.contains( v ) )
+            {
+                continue;
+            }
+            counters.relaxedEdges++;
+
+            WE edge = reverse ? graph.edgeValue( v, vertex ).get() : graph.edgeValue( vertex, v ).get();
+            W shortDist = weightOperations.append( entry.key, weightedEdges.apply( edge ) );
+            W known = distances.get( v );
+            if ( known == null || weightOperations.compare( shortDist, known ) < 0 )
+            {
+                distances.put( v, shortDist );
+                predecessors.put( v, vertex );
+                roots.put( v, roots.get( vertex ) );
+                queue.add( new QueuedVertex<V, W>( v, shortDist ) );
+                if ( known == null )
+                {
+                    counters.heapPushes++;
+                }
+                else
+                {
+                    counters.decreaseKeys++;
+                }
+            }
+        }
+
+        return new SettledVertex<V, W>( vertex, entry.key, predecessors.get( vertex ) );
+    }
+
+    /**
+     * @return a lazy, sequential, stream of the vertices in settle order
+     */
+    Stream<SettledVertex<V, W>> stream()
+    {
+        Spliterator<SettledVertex<V, W>> spliterator =
+            new Spliterators.AbstractSpliterator<SettledVertex<V, W>>( graph.nodes().size(),
+                                                                       Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL )
+        {
+
+            public boolean tryAdvance( Consumer<? super SettledVertex<V, W>> action )
+            {
+                SettledVertex<V, W> next = next();
+                if ( next == null )
+                {
+                    return false;
+                }
+                action.accept( next );
+                return true;
+            }
+
+        };
+        return StreamSupport.stream( spliterator, false ).onClose( this::complete );
+    }
+
+    /**
+     * Ends the search, reporting its statistics: invoked when the search is exhausted or abandoned.
+     */
+    void complete()
+    {
+        if ( !completed )
+        {
+            completed = true;
+            counters.complete( listener );
+        }
+    }
+
+    /**
+     * Settles all the vertices not farther than the given bound, then completes the search.
+     *
+     * @param origin the vertex the isochrone is centered on
+     * @param bound the maximum distance
+     * @return the settled vertices
+     */
+    Isochrone<V, W> within( V origin, W bound )
+    {
+        try
+        {
+            List<Object> vertices = new ArrayList<Object>();
+            List<Object> vertexDistances = new ArrayList<Object>();
+
+            W distance;
+            while ( ( distance = peekDistance() ) != null && weightOperations.compare( distance, bound ) <= 0 )
+            {
+                SettledVertex<V, W> settledVertex = next();
+                vertices.add( settledVertex.getVertex() );
+                vertexDistances.add( settledVertex.getDistance() );
+            }
+
+            return new Isochrone<V, W>( origin, bound, vertices.toArray(), vertexDistances.toArray() );
+        }
+        finally
+        {
+            complete();
+        }
+    }
+
+    /**
+     * Settles all the reachable vertices, then completes the search.
+     *
+     * @return every settled vertex labelled with the root it has been reached from
+     */
+    NearestSources<V, W> nearestSources()
+    {
+        try
+        {
+            Map<V, V> sources = new LinkedHashMap<V, V>();
+            Map<V, W> sourceDistances = new HashMap<V, W>();
+
+            SettledVertex<V, W> settledVertex;
+            while ( ( settledVertex = next() ) != null )
+            {
+                sources.put( settledVertex.getVertex(), roots.get( settledVertex.getVertex() ) );
+                sourceDistances.put( settledVertex.getVertex(), settledVertex.getDistance() );
+            }
+
+            return new NearestSources<V, W>( sources, sourceDistances );
+        }
+        finally
+        {
+            complete();
+        }
+    }
+
+    /**
+     * Settles vertices until k candidates are settled or the search is exhausted, then completes the search.
+     *
+     * @param k the maximum number of candidates to settle
+     * @param candidates the vertices of interest
+     * @return the paths to the settled candidates, in increasing distance order
+     */
+    List<WeightedPath<V, WE, W>> nearest( int k, Set<? extends V> candidates )
+    {
+        try
+        {
+            int reachable = 0;
+            for ( V candidate : candidates )
+            {
+                if ( graph.nodes().contains( candidate ) )
+                {
+                    reachable++;
+                }
+            }
+
+            List<V> nearest = new ArrayList<V>( Math.min( k, reachable ) );
+            SettledVertex<V, W> settledVertex;
+            while ( nearest.size() < Math.min( k, reachable ) && ( settledVertex = next() ) != null )
+            {
+                if ( candidates.contains( settledVertex.getVertex() ) )
+                {
+                    nearest.add( settledVertex.getVertex() );
+                }
+            }
+
+            counters.enter( SearchPhase.PATH_RECONSTRUCTION );
+            List<WeightedPath<V, WE, W>> paths = new ArrayList<WeightedPath<V, WE, W>>( nearest.size() );
+            for ( V vertex : nearest )
+            {
+                paths.add( buildPath( vertex ) );
+            }
+            return paths;
+        }
+        finally
+        {
+            complete();
+        }
+    }
+
+    /**
+     * Builds the path from the root the given settled vertex has been reached from, walking the predecessors back;
+     * applies to forward searches only.
+     *
+     * @param target the settled vertex
+     * @return the path from the root to the vertex
+     */
+    WeightedPath<V, WE, W> buildPath( V target )
+    {
+        V source = target;
+        while ( predecessors.containsKey( source ) )
+        {
+            source = predecessors.get( source );
+        }
+
+        InMemoryWeightedPath<V, WE, W> path =
+            new InMemoryWeightedPath<V, WE, W>( source, target, weightOperations, weightedEdges );
+        for ( V head = target; predecessors.containsKey( head ); head = predecessors.get( head ) )
+        {
+            V tail = predecessors.get( head );
+            path.addConnectionInHead( tail, graph.edgeValue( tail, head ).get(), head );
+        }
+        return path;
+    }
+
+    private void skipSettled()
+    {
+        while ( !queue.isEmpty() && settled.contains( queue.peek().vertex ) )
+        {
+            queue.remove();
+            counters.heapPops++;
+        }
+    }
+
+}
@@ -0,0 +1,312 @@
+package org.nnsoft.trudeau.shortestpath;
+
+/*
+ *   Copyright 2013 The Trudeau Project
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.function.Function;
+
+import org.nnsoft.trudeau.api.PathNotFoundException;
+import org.nnsoft.trudeau.api.WeightedPath;
+import org.nnsoft.trudeau.math.monoid.OrderedMonoid;
+
+/**
+ * Edge-based Dijkstra's and bidirectional Dijkstra's algorithms, which honour {@link TurnCosts}: labels belong to
+ * arcs instead of vertices, so that the same vertex can be passed through with different costs depending on the
+ * arc it is entered from, without exploding the graph into its line graph.
+ *
+ * Forward labels are the distance from the source to the arc head, the arc included; backward labels are the
+ * distance from the arc head to the target, once entered through the arc, so that the length of the paths through
+ * an arc is the sum of its two labels.
+ *
+ * @param <V> the Graph vertices type
+ * @param <WE> the Graph weighted edges type
+ * @param <W> the weight type
+ */
+final class EdgeBasedSearch<V, WE, W>
+{
+
+    private final IndexedGraph<V, WE> graph;
+
+    private final Function<WE, W> weightedEdges;
+
+    private final EdgeWeights<W> weights;
+
+    private final OrderedMonoid<W> weightOperations;
+
+    private final TurnCosts<V, W> turnCosts;
+
+    private final SearchListener listener;
+
+    EdgeBasedSearch( IndexedGraph<V, WE> graph, Function<WE, W> weightedEdges, EdgeWeights<W> weights,
+                     OrderedMonoid<W> weightOperations, TurnCosts<V, W> turnCosts, SearchListener listener )
+    {
+        this.graph = graph;
+        this.weightedEdges = weightedEdges;
+        this.weights = weights;
+        this.weightOperations = weightOperations;
+        this.turnCosts = turnCosts;
+        this.listener = listener;
+    }
+
+    WeightedPath<V, WE, W> dijkstra( int s, int t )
+    {
+        final SearchCounters counters = new SearchCounters( SearchAlgorithm.DIJKSTRA, graph.order(), graph.size() );
+        final SearchSpace<W> space = turnCosts.spaces.acquire();
+
+        try
+        {
+            if ( s == t )
+            {
+                counters.enter( SearchPhase.PATH_RECONSTRUCTION );
+                return buildPath( s, t, space, -1, null );
+            }
+
+            for ( int arc = graph.outOffsets[s]; arc < graph.outOffsets[s + 1]; arc++ )
+            {
+                space.reach( arc, enter( -1, arc ), -1, -1 );
+                space.heap.insertOrDecrease( arc, space.distance( arc ) );
+                counters.heapPushes++;
+            }
+
+            counters.enter( SearchPhase.SEARCH );
+
+            while ( !space.heap.isEmpty() )
+            {
+                int arc = space.heap.poll();
+                counters.heapPops++;
+
+                space.settle( arc );
+                counters.settledVertices++;
+
+                int head = graph.outVertices[arc];
+                if ( head == t )
+                {
+                    counters.enter( SearchPhase.PATH_RECONSTRUCTION );
+                    return buildPath( s, t, space, arc, null );
+                }
+
+                W distance = space.distance( arc );
+                for ( int next = graph.outOffsets[head]; next < graph.outOffsets[head + 1]; next++ )
+                {
+                    relax( space, arc, distance, next, next, counters );
+                }
+            }
+
+            throw new PathNotFoundException( "Path from '%s' to '%s' doesn't exist", graph.vertex( s ), graph.vertex( t ) );
+        }
+        finally
+        {
+            turnCosts.spaces.release( space );
+            counters.complete( listener );
+        }
+    }
+
+    WeightedPath<V, WE, W> bidirectionalDijkstra( int s, int t )
+    {
+        final SearchCounters counters = new SearchCounters( SearchAlgorithm.BIDIRECTIONAL_DIJKSTRA, graph.order(), graph.size() );
+        final SearchSpace<W> forward = turnCosts.spaces.acquire();
+        final SearchSpace<W> backwards = turnCosts.spaces.acquire();
+
+        try
+        {
+            if ( s == t )
+            {
+                counters.enter( SearchPhase.PATH_RECONSTRUCTION );
+                return buildPath( s, t, forward, -1, null );
+            }
+
+            for ( int arc = turnCosts.inArcOffsets[t]; arc < turnCosts.inArcOffsets[t + 1]; arc++ )
+            {
+                int incoming = turnCosts.inArcs[arc];
+                backwards.reach( incoming, weightOperations.identity(), -1, -1 );
+                backwards.heap.insertOrDecrease( incoming, weightOperations.identity() );
+                counters.heapPushes++;
+            }
+
+            W best = null;
+            int touch = -1;
+            for ( int arc = graph.outOffsets[s]; arc < graph.outOffsets[s + 1]; arc++ )
+            {
+                forward.reach( arc, enter( -1, arc ), -1, -1 );
+                forward.heap.insertOrDecrease( arc, forward.distance( arc ) );
+                counters.heapPushes++;
+
+                if ( backwards.isReached( arc ) && ( best == null || weightOperations.compare( forward.distance( arc ), best ) < 0 ) )
+                {
+                    best = forward.distance( arc );
+                    touch = arc;
+                }
+            }
+
+            counters.enter( SearchPhase.SEARCH );
+
+            while ( !forward.heap.isEmpty() && !backwards.heap.isEmpty() )
+            {
+                // paths not discovered yet are not shorter than the sum of both frontiers
+                W frontiers = weightOperations.append( forward.heap.peekKey(), backwards.heap.peekKey() );
+                if ( best != null && weightOperations.compare( frontiers, best ) >= 0 )
+                {
+                    break;
+                }
+
+                // expand the closest frontier
+                boolean forwardStep = weightOperations.compare( forward.heap.peekKey(), backwards.heap.peekKey() ) <= 0;
+                SearchSpace<W> space = forwardStep ? forward : backwards;
+                SearchSpace<W> opposite = forwardStep ? backwards : forward;
+
+                int arc = space.heap.poll();
+                counters.heapPops++;
+
+                space.settle( arc );
+                counters.settledVertices++;
+
+                W distance = space.distance( arc );
+                int vertex = forwardStep ? graph.outVertices[arc] : turnCosts.arcTails[arc];
+                int[] offsets = forwardStep ? graph.outOffsets : turnCosts.inArcOffsets;
+                for ( int position = offsets[vertex]; position < offsets[vertex + 1]; position++ )
+                {
+                    // forward, the next arc is entered from the settled one; backwards, the settled arc is entered from the previous one
+                    int next = forwardStep ? position : turnCosts.inArcs[position];
+                    boolean improved = forwardStep
+                                    ? relax( space, arc, distance, next, next, counters )
+                                    : relax( space, arc, distance, next, arc, counters );
+                    if ( improved && opposite.isReached( next ) )
+                    {
+                        W candidate = weightOperations.append( space.distance( next ), opposite.distance( next ) );
+                        if ( best == null || weightOperations.compare( candidate, best ) < 0 )
+                        {
+                            best = candidate;
+                            touch = next;
+                        }
+                    }
+                }
+            }
+
+            if ( touch < 0 )
+            {
+                throw new PathNotFoundException( "Path from '%s' to '%s' doesn't exist", graph.vertex( s ), graph.vertex( t ) );
+            }
+
+            counters.enter( SearchPhase.PATH_RECONSTRUCTION );
+            return buildPath( s, t, forward, touch, backwards );
+        }
+        finally
+        {
+            turnCosts.spaces.release( forward );
+            turnCosts.spaces.release( backwards );
+            counters.complete( listener );
+        }
+    }
+
+    /**
+     * Relaxes the label of arc {@code next}, from the label of the settled arc {@code arc}: the weight of
+     * {@code entered}, entered from the arc preceding it, is appended to the settled label.
+     *
+     * @return true if the label of {@code next} has been improved
+     */
+    private boolean relax( SearchSpace<W> space, int arc, W distance, int next, int entered, SearchCounters counters )
+    {
+        if ( space.isSettled( next ) )
+        {
+            return false;
+        }
+        counters.relaxedEdges++;
+
+        W weight = entered == next ? enter( arc, next ) : enter( next, arc );
+        if ( weight == null )
+        {
+            // banned turn
+            return false;
+        }
+
+        W shortDist = weightOperations.append( distance, weight );
+        if ( space.isReached( next ) && weightOperations.compare( shortDist, space.distance( next ) ) >= 0 )
+        {
+            return false;
+        }
+
+        space.reach( next, shortDist, arc, -1 );
+        if ( space.heap.insertOrDecrease( next, shortDist ) )
+        {
+            counters.heapPushes++;
+        }
+        else
+        {
+            counters.decreaseKeys++;
+        }
+        return true;
+    }
+
+    /**
+     * @param incoming the arc the outgoing one is entered from, {@code -1} at the source
+     * @param outgoing the entered arc
+     * @return the outgoing arc weight, turn cost included, null if the turn is banned
+     */
+    private W enter( int incoming, int outgoing )
+    {
+        W weight = weights.get( graph.outEdges[outgoing] );
+        if ( incoming < 0 )
+        {
+            return weight;
+        }
+
+        int turn = turnCosts.find( incoming, outgoing );
+        if ( turn < 0 )
+        {
+            return weight;
+        }
+        W cost = turnCosts.cost( turn );
+        return cost == null ? null : weightOperations.append( cost, weight );
+    }
+
+    /**
+     * Builds the path from the source through the touch arc, walking the forward predecessor arcs back,
+     * followed by the backward successor arcs, if any: every connection is weighted by its edge weight plus
+     * the cost of the turn it is entered by.
+     */
+    private WeightedPath<V, WE, W> buildPath( int s, int t, SearchSpace<W> forward, int touch, SearchSpace<W> backwards )
+    {
+        Deque<Integer> arcs = new ArrayDeque<Integer>();
+        for ( int arc = touch; arc >= 0; arc = forward.predecessorVertex( arc ) )
+        {
+            arcs.addFirst( arc );
+        }
+        if ( backwards != null )
+        {
+            for ( int arc = backwards.predecessorVertex( touch ); arc >= 0; arc = backwards.predecessorVertex( arc ) )
+            {
+                arcs.addLast( arc );
+            }
+        }
+
+        ConnectionWeightedPath<V, WE, W> path =
+            new ConnectionWeightedPath<V, WE, W>( graph.vertex( s ), graph.vertex( t ), weightOperations );
+        int previous = -1;
+        int tail = s;
+        for ( int arc : arcs )
+        {
+            int head = graph.outVertices[arc];
+            path.addConnectionInTail( graph.vertex( tail ), graph.edgeValue( graph.outEdges[arc] ), graph.vertex( head ),
+                                      enter( previous, arc ) );
+            previous = arc;
+            tail = head;
+        }
+        return path;
+    }
+
+}
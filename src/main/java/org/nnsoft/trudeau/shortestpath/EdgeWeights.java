@@ -0,0 +1,145 @@
+package org.nnsoft.trudeau.shortestpath;
+
+/*
+ *   Copyright 2013 The Trudeau Project
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+import java.util.BitSet;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import org.nnsoft.trudeau.math.monoid.OrderedMonoid;
+
+/**
+ * The weights of the edges of an {@link IndexedGraph}, evaluated once, when the snapshot is weighted, and stored
+ * in an array aligned to the edge indexes: searches read weights from the array instead of invoking the weighted
+ * edges function at every relaxation.
+ *
+ * @param <W> the weight type
+ */
+final class EdgeWeights<W>
+{
+
+    /**
+     * Graphs with at least this many edges are weighted in parallel.
+     */
+    static final int PARALLEL_THRESHOLD = 1 << 16;
+
+    /**
+     * Evaluates the weight of every edge of the given graph, in parallel on the common
+     * {@link java.util.concurrent.ForkJoinPool} for large graphs.
+     *
+     * @param graph the graph snapshot
+     * @param weightedEdges the function to calculate edges weight, which has to be thread-safe
+     * @return the edge weights
+     */
+    static <WE, W> EdgeWeights<W> evaluate( final IndexedGraph<?, WE> graph, final Function<WE, W> weightedEdges )
+    {
+        final Object[] weights = new Object[graph.size()];
+
+        IntStream edges = IntStream.range( 0, weights.length );
+        if ( weights.length >= PARALLEL_THRESHOLD )
+        {
+            edges = edges.parallel();
+        }
+        edges.forEach( edge -> weights[edge] = weightedEdges.apply( graph.edgeValue( edge ) ) );
+
+        return new EdgeWeights<W>( weights );
+    }
+
+    private final Object[] weights;
+
+    private EdgeWeights( Object[] weights )
+    {
+        this.weights = weights;
+    }
+
+    /**
+     * @param edge the edge index
+     * @return the edge weight
+     */
+    @SuppressWarnings( "unchecked" )
+    W get( int edge )
+    {
+        return (W) weights[edge];
+    }
+
+    /**
+     * Scans the weights for a graph whose edges weigh either nothing or the same, positive, weight: shortest paths
+     * there are found by 0-1 breadth first searches, without a heap.
+     *
+     * @param weightOperations the weight operations
+     * @return the weight of all the edges which don't weigh the identity, the identity if none does, null if edges
+     *         weigh differently or less than the identity
+     */
+    @SuppressWarnings( "unchecked" )
+    W binary( OrderedMonoid<W> weightOperations )
+    {
+        W identity = weightOperations.identity();
+        W unit = null;
+        for ( Object weight : weights )
+        {
+            if ( weight == null )
+            {
+                return null;
+            }
+
+            int compare = weightOperations.compare( (W) weight, identity );
+            if ( compare < 0 || compare > 0 && unit != null && weightOperations.compare( (W) weight, unit ) != 0 )
+            {
+                return null;
+            }
+            if ( compare > 0 )
+            {
+                unit = (W) weight;
+            }
+        }
+        return unit == null ? identity : unit;
+    }
+
+    /**
+     * Marks the edges weighing the identity, so that 0-1 breadth first searches tell them apart without comparing
+     * weights.
+     *
+     * @param weightOperations the weight operations
+     * @return the indexes of the edges weighing the identity
+     */
+    @SuppressWarnings( "unchecked" )
+    BitSet identities( OrderedMonoid<W> weightOperations )
+    {
+        BitSet identities = new BitSet( weights.length );
+        for ( int edge = 0; edge < weights.length; edge++ )
+        {
+            if ( weightOperations.compare( (W) weights[edge], weightOperations.identity() ) == 0 )
+            {
+                identities.set( edge );
+            }
+        }
+        return identities;
+    }
+
+    /**
+     * Replaces the weight of an edge: only the structures owning their edge weights, not shared with an engine,
+     * update them.
+     *
+     * @param edge the edge index
+     * @param weight the new edge weight
+     */
+    void set( int edge, W weight )
+    {
+        weights[edge] = weight;
+    }
+
+}
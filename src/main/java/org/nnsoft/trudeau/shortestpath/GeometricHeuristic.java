@@ -0,0 +1,197 @@
+package org.nnsoft.trudeau.shortestpath;
+
+/*
+ *   Copyright 2013 The Trudeau Project
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+import static java.lang.String.format;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * A geometric A* {@link Heuristic}, the euclidean, manhattan or great-circle distance between vertices, whose
+ * coordinates are read once from the vertices and stored in primitive arrays aligned to the graph snapshot of a
+ * {@link ShortestPathEngine}.
+ *
+ * {@link ShortestPathEngine#aStar(Object, Object, Heuristic) Engine A* queries} evaluate it by vertex index,
+ * without hashing vertices nor boxing coordinates, at most once per vertex and query; it can be applied to the
+ * vertices of the same graph by any other A* search as well.
+ *
+ * Geometric heuristics are immutable and can be shared by concurrent queries.
+ *
+ * @param <V> the Graph vertices type
+ */
+public final class GeometricHeuristic<V>
+    implements Heuristic<V, Double>
+{
+
+    /**
+     * The mean Earth radius, in meters.
+     */
+    static final double EARTH_RADIUS = 6371008.8D;
+
+    private enum Metric
+    {
+        EUCLIDEAN,
+        MANHATTAN,
+        HAVERSINE
+    }
+
+    /**
+     * Reads the planar coordinates of the graph vertices.
+     *
+     * @param graph the graph snapshot
+     * @param metric the euclidean or manhattan metric
+     * @param x the abscissa of the vertices
+     * @param y the ordinate of the vertices
+     * @param factor the smallest weight per unit of length
+     * @return the geometric heuristic
+     */
+    private static <V> GeometricHeuristic<V> planar( IndexedGraph<V, ?> graph, Metric metric,
+                                                     ToDoubleFunction<? super V> x, ToDoubleFunction<? super V> y,
+                                                     double factor )
+    {
+        if ( !( factor >= 0D ) || Double.isInfinite( factor ) )
+        {
+            throw new IllegalArgumentException( format( "Weight per unit of length must be a non negative number, %s given", factor ) );
+        }
+
+        double[] xs = new double[graph.order()];
+        double[] ys = new double[graph.order()];
+        for ( int vertex = 0; vertex < graph.order(); vertex++ )
+        {
+            xs[vertex] = x.applyAsDouble( graph.vertex( vertex ) );
+            ys[vertex] = y.applyAsDouble( graph.vertex( vertex ) );
+        }
+        return new GeometricHeuristic<V>( graph, metric, xs, ys, null, factor );
+    }
+
+    static <V> GeometricHeuristic<V> euclidean( IndexedGraph<V, ?> graph,
+                                                ToDoubleFunction<? super V> x, ToDoubleFunction<? super V> y,
+                                                double factor )
+    {
+        return planar( graph, Metric.EUCLIDEAN, x, y, factor );
+    }
+
+    static <V> GeometricHeuristic<V> manhattan( IndexedGraph<V, ?> graph,
+                                                ToDoubleFunction<? super V> x, ToDoubleFunction<? super V> y,
+                                                double factor )
+    {
+        return planar( graph, Metric.MANHATTAN, x, y, factor );
+    }
+
+    /**
+     * Reads the geographic coordinates of the graph vertices.
+     *
+     * @param graph the graph snapshot
+     * @param latitude the latitude of the vertices, in degrees
+     * @param longitude the longitude of the vertices, in degrees
+     * @param speed the highest speed, in meters per unit of weight
+     * @return the geometric heuristic
+     */
+    static <V> GeometricHeuristic<V> haversine( IndexedGraph<V, ?> graph,
+                                                ToDoubleFunction<? super V> latitude, ToDoubleFunction<? super V> longitude,
+                                                double speed )
+    {
+        if ( !( speed > 0D ) )
+        {
+            throw new IllegalArgumentException( format( "Highest speed must be a positive number, %s given", speed ) );
+        }
+
+        double[] latitudes = new double[graph.order()];
+        double[] longitudes = new double[graph.order()];
+        double[] cosines = new double[graph.order()];
+        for ( int vertex = 0; vertex < graph.order(); vertex++ )
+        {
+            latitudes[vertex] = Math.toRadians( latitude.applyAsDouble( graph.vertex( vertex ) ) );
+            longitudes[vertex] = Math.toRadians( longitude.applyAsDouble( graph.vertex( vertex ) ) );
+            cosines[vertex] = Math.cos( latitudes[vertex] );
+        }
+        return new GeometricHeuristic<V>( graph, Metric.HAVERSINE, latitudes, longitudes, cosines,
+                                          2D * EARTH_RADIUS / speed );
+    }
+
+    private final IndexedGraph<V, ?> graph;
+
+    private final Metric metric;
+
+    private final double[] first;
+
+    private final double[] second;
+
+    private final double[] cosines;
+
+    private final double factor;
+
+    private GeometricHeuristic( IndexedGraph<V, ?> graph, Metric metric, double[] first, double[] second,
+                                double[] cosines, double factor )
+    {
+        this.graph = graph;
+        this.metric = metric;
+        this.first = first;
+        this.second = second;
+        this.cosines = cosines;
+        this.factor = factor;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public Double applyHeuristic( V current, V goal )
+    {
+        return estimate( indexOf( current ), indexOf( goal ) );
+    }
+
+    private int indexOf( V vertex )
+    {
+        int index = graph.indexOf( vertex );
+        if ( index < 0 )
+        {
+            throw new IllegalArgumentException( format( "Vertex '%s' has no coordinates", vertex ) );
+        }
+        return index;
+    }
+
+    boolean isIndexedOn( IndexedGraph<V, ?> graph )
+    {
+        return this.graph == graph;
+    }
+
+    /**
+     * @param current the current vertex index
+     * @param goal the goal vertex index
+     * @return the estimated distance between the two vertices
+     */
+    double estimate( int current, int goal )
+    {
+        switch ( metric )
+        {
+            case EUCLIDEAN:
+                double dx = first[current] - first[goal];
+                double dy = second[current] - second[goal];
+                return factor * Math.sqrt( dx * dx + dy * dy );
+
+            case MANHATTAN:
+                return factor * ( Math.abs( first[current] - first[goal] ) + Math.abs( second[current] - second[goal] ) );
+
+            default:
+                double latitudes = Math.sin( ( first[current] - first[goal] ) / 2D );
+                double longitudes = Math.sin( ( second[current] - second[goal] ) / 2D );
+                double a = latitudes * latitudes + cosines[current] * cosines[goal] * longitudes * longitudes;
+                return factor * Math.asin( Math.min( 1D, Math.sqrt( a ) ) );
+        }
+    }
+
+}
@@ -0,0 +1,221 @@
+package org.nnsoft.trudeau.shortestpath;
+
+/*
+ *   Copyright 2013 The Trudeau Project
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+
+import org.nnsoft.trudeau.api.InMemoryWeightedPath;
+import org.nnsoft.trudeau.api.WeightedPath;
+import org.nnsoft.trudeau.math.monoid.OrderedMonoid;
+
+/**
+ * The state shared by the searches on the graph snapshot of a {@link ShortestPathEngine}, the snapshot, its edge
+ * weights and the search state pool, and the steps they have in common: relaxing arcs, growing shortest path
+ * trees and building paths out of the predecessors.
+ *
+ * @param <V> the Graph vertices type
+ * @param <WE> the Graph weighted edges type
+ * @param <W> the weight type
+ */
+class GraphSearch<V, WE, W>
+{
+
+    final IndexedGraph<V, WE> graph;
+
+    final Function<WE, W> weightedEdges;
+
+    final EdgeWeights<W> weights;
+
+    final OrderedMonoid<W> weightOperations;
+
+    final SearchSpacePool<W> spaces;
+
+    final SearchListener listener;
+
+    GraphSearch( IndexedGraph<V, WE> graph, Function<WE, W> weightedEdges, EdgeWeights<W> weights,
+                 OrderedMonoid<W> weightOperations, SearchSpacePool<W> spaces, SearchListener listener )
+    {
+        this.graph = graph;
+        this.weightedEdges = weightedEdges;
+        this.weights = weights;
+        this.weightOperations = weightOperations;
+        this.spaces = spaces;
+        this.listener = listener;
+    }
+
+    GraphSearch( GraphSearch<V, WE, W> shared )
+    {
+        this( shared.graph, shared.weightedEdges, shared.weights, shared.weightOperations, shared.spaces, shared.listener );
+    }
+
+    /**
+     * Grows the complete shortest path tree of the root, following the out arcs or the in arcs, as preprocessing
+     * steps do: no statistics are collected.
+     *
+     * @param space the search space, reset before the search
+     * @param root the tree root
+     * @param reverse true to follow the in arcs
+     * @param settled notified of every vertex, in settle order
+     */
+    void shortestPathTree( SearchSpace<W> space, int root, boolean reverse, IntConsumer settled )
+    {
+        shortestPathTree( space, root, reverse, null, -1, settled );
+    }
+
+    /**
+     * Grows the shortest path tree of the root, following the out arcs or the in arcs, through the vertices which
+     * are not transit nodes: transit nodes, but the root, are settled without following their arcs.
+     *
+     * @param space the search space, reset before the search
+     * @param root the tree root
+     * @param reverse true to follow the in arcs
+     * @param transitNodes the transit node of every vertex, {@code -1} for the other vertices, null if every vertex
+     *        is followed
+     * @param goal the vertex the search stops at, once settled, {@code -1} to grow the complete tree
+     * @param settled notified of every vertex, in settle order
+     */
+    void shortestPathTree( SearchSpace<W> space, int root, boolean reverse, int[] transitNodes, int goal,
+                                   IntConsumer settled )
+    {
+        final int[] offsets = reverse ? graph.inOffsets : graph.outOffsets;
+        final int[] adjacents = reverse ? graph.inVertices : graph.outVertices;
+        final int[] edges = reverse ? graph.inEdges : graph.outEdges;
+
+        space.reset();
+        space.reach( root, weightOperations.identity(), -1, -1 );
+        space.heap.insertOrDecrease( root, weightOperations.identity() );
+        while ( !space.heap.isEmpty() )
+        {
+            int vertex = space.heap.poll();
+            space.settle( vertex );
+            settled.accept( vertex );
+            if ( vertex == goal )
+            {
+                return;
+            }
+            if ( transitNodes != null && vertex != root && transitNodes[vertex] >= 0 )
+            {
+                continue;
+            }
+
+            W distance = space.distance( vertex );
+            for ( int arc = offsets[vertex]; arc < offsets[vertex + 1]; arc++ )
+            {
+                int v = adjacents[arc];
+                if ( space.isSettled( v ) )
+                {
+                    continue;
+                }
+
+                W shortDist = weightOperations.append( distance, weights.get( edges[arc] ) );
+                if ( !space.isReached( v ) || weightOperations.compare( shortDist, space.distance( v ) ) < 0 )
+                {
+                    space.reach( v, shortDist, vertex, edges[arc] );
+                    space.heap.insertOrDecrease( v, shortDist );
+                }
+            }
+        }
+    }
+
+    /**
+     * Relaxes the arc from vertex to v, keying the heap by distance.
+     *
+     * @return true if the distance of v has been improved
+     */
+    boolean relax( SearchSpace<W> space, int vertex, W distance, int v, int edge, SearchCounters counters )
+    {
+        if ( space.isSettled( v ) )
+        {
+            return false;
+        }
+        counters.relaxedEdges++;
+
+        W shortDist = weightOperations.append( distance, weights.get( edge ) );
+        if ( space.isReached( v ) && weightOperations.compare( shortDist, space.distance( v ) ) >= 0 )
+        {
+            return false;
+        }
+
+        space.reach( v, shortDist, vertex, edge );
+        count( space.heap.insertOrDecrease( v, shortDist ), counters );
+        return true;
+    }
+
+    static void count( boolean inserted, SearchCounters counters )
+    {
+        if ( inserted )
+        {
+            counters.heapPushes++;
+        }
+        else
+        {
+            counters.decreaseKeys++;
+        }
+    }
+
+    /**
+     * Builds the path from the source to the touch vertex, walking the forward predecessors back, followed by
+     * the path from the touch vertex to the backwards search root, if any.
+     */
+    WeightedPath<V, WE, W> buildPath( SearchSpace<W> forward, int source, int touch, SearchSpace<W> backwards )
+    {
+        int length = 0;
+        for ( int v = touch; v != source; v = forward.predecessorVertex( v ) )
+        {
+            length++;
+        }
+
+        int[] vertices = new int[length + 1];
+        int[] edges = new int[length];
+        int v = touch;
+        for ( int i = length; i > 0; i-- )
+        {
+            vertices[i] = v;
+            edges[i - 1] = forward.predecessorEdge( v );
+            v = forward.predecessorVertex( v );
+        }
+        vertices[0] = source;
+
+        int target = touch;
+        if ( backwards != null )
+        {
+            while ( backwards.predecessorVertex( target ) >= 0 )
+            {
+                target = backwards.predecessorVertex( target );
+            }
+        }
+
+        InMemoryWeightedPath<V, WE, W> path =
+            new InMemoryWeightedPath<V, WE, W>( graph.vertex( source ), graph.vertex( target ), weightOperations, weightedEdges );
+        for ( int i = 0; i < length; i++ )
+        {
+            path.addConnectionInTail( graph.vertex( vertices[i] ), graph.edgeValue( edges[i] ), graph.vertex( vertices[i + 1] ) );
+        }
+
+        if ( backwards != null )
+        {
+            for ( v = touch; backwards.predecessorVertex( v ) >= 0; v = backwards.predecessorVertex( v ) )
+            {
+                int next = backwards.predecessorVertex( v );
+                path.addConnectionInTail( graph.vertex( v ), graph.edgeValue( backwards.predecessorEdge( v ) ), graph.vertex( next ) );
+            }
+        }
+        return path;
+    }
+
+}
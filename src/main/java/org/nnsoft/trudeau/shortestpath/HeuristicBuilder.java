@@ -35,4 +35,12 @@ public interface HeuristicBuilder<V, WE, W>
      */
     <H extends Heuristic<V, W>> WeightedPath<V, WE, W> withHeuristic( H heuristic );
 
+    /**
+     * Limits the A* search, which throws a {@link SearchAbortedException} as soon as any limit is exceeded.
+     *
+     * @param options the search limits
+     * @return a heuristic builder whose search respects the given limits
+     */
+    HeuristicBuilder<V, WE, W> withOptions( QueryOptions<W> options );
+
 }
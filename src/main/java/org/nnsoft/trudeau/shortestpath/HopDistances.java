@@ -0,0 +1,62 @@
+package org.nnsoft.trudeau.shortestpath;
+
+/*
+ *   Copyright 2013 The Trudeau Project
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+import static java.lang.String.format;
+
+/**
+ * The hop distances between all the vertices of the graph snapshot of an {@link UnweightedEngine}, computed by
+ * {@link UnweightedEngine#allPairs()}: a matrix of primitive ints, row by source.
+ *
+ * Hop distances are immutable and can be shared by concurrent readers.
+ *
+ * @param <V> the Graph vertices type
+ */
+public final class HopDistances<V>
+{
+
+    private final IndexedGraph<V, ?> graph;
+
+    private final int[] hops;
+
+    HopDistances( IndexedGraph<V, ?> graph, int[] hops )
+    {
+        this.graph = graph;
+        this.hops = hops;
+    }
+
+    /**
+     * @param source the path source
+     * @param target the path target
+     * @return the number of edges of the shortest path from the source to the target, {@code -1} if there is no path
+     */
+    public int getHops( V source, V target )
+    {
+        return hops[indexOf( source ) * graph.order() + indexOf( target )];
+    }
+
+    private int indexOf( V vertex )
+    {
+        int index = graph.indexOf( vertex );
+        if ( index < 0 )
+        {
+            throw new IllegalArgumentException( format( "Vertex '%s' doesn't exist in the graph", vertex ) );
+        }
+        return index;
+    }
+
+}
@@ -0,0 +1,216 @@
+package org.nnsoft.trudeau.shortestpath;
+
+/*
+ *   Copyright 2013 The Trudeau Project
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.google.common.graph.EndpointPair;
+import com.google.common.graph.ValueGraph;
+
+/**
+ * An array based snapshot of a {@link ValueGraph}, whose structure never changes: vertices and edges are numbered
+ * from {@code 0} and adjacencies are stored in compressed sparse row form, outgoing arcs in {@code outOffsets}/
+ * {@code outVertices}/{@code outEdges}, incoming arcs in {@code inOffsets}/{@code inVertices}/{@code inEdges}.
+ *
+ * Undirected edges are stored once and traversable in both directions, so the incoming arcs of undirected graphs
+ * are the outgoing ones.
+ *
+ * @param <V> the Graph vertices type
+ * @param <WE> the Graph weighted edges type
+ */
+final class IndexedGraph<V, WE>
+{
+
+    /**
+     * Takes a snapshot of the given graph, which must not be modified while the snapshot is taken.
+     *
+     * @param graph the graph to index
+     * @return the graph snapshot
+     */
+    static <V, WE> IndexedGraph<V, WE> snapshot( ValueGraph<V, WE> graph )
+    {
+        return new IndexedGraph<V, WE>( graph );
+    }
+
+    final boolean directed;
+
+    final int[] outOffsets;
+
+    final int[] outVertices;
+
+    final int[] outEdges;
+
+    final int[] inOffsets;
+
+    final int[] inVertices;
+
+    final int[] inEdges;
+
+    final int[] edgeTails;
+
+    final int[] edgeHeads;
+
+    private final Object[] vertices;
+
+    private final Object[] edgeValues;
+
+    private final Map<V, Integer> indices;
+
+    private IndexedGraph( ValueGraph<V, WE> graph )
+    {
+        directed = graph.isDirected();
+
+        int order = graph.nodes().size();
+        vertices = new Object[order];
+        indices = new HashMap<V, Integer>( order * 4 / 3 + 1 );
+        int index = 0;
+        for ( V vertex : graph.nodes() )
+        {
+            vertices[index] = vertex;
+            indices.put( vertex, index++ );
+        }
+
+        int size = graph.edges().size();
+        edgeTails = new int[size];
+        edgeHeads = new int[size];
+        edgeValues = new Object[size];
+
+        int edge = 0;
+        for ( EndpointPair<V> endpoints : graph.edges() )
+        {
+            edgeTails[edge] = indices.get( endpoints.nodeU() );
+            edgeHeads[edge] = indices.get( endpoints.nodeV() );
+            edgeValues[edge] = graph.edgeValue( endpoints.nodeU(), endpoints.nodeV() ).get();
+            edge++;
+        }
+
+        outOffsets = new int[order + 1];
+        for ( int e = 0; e < size; e++ )
+        {
+            outOffsets[edgeTails[e] + 1]++;
+            if ( !directed && edgeTails[e] != edgeHeads[e] )
+            {
+                outOffsets[edgeHeads[e] + 1]++;
+            }
+        }
+        for ( int v = 0; v < order; v++ )
+        {
+            outOffsets[v + 1] += outOffsets[v];
+        }
+
+        outVertices = new int[outOffsets[order]];
+        outEdges = new int[outOffsets[order]];
+        int[] next = new int[order];
+        for ( int e = 0; e < size; e++ )
+        {
+            int tail = edgeTails[e];
+            int head = edgeHeads[e];
+
+            int arc = outOffsets[tail] + next[tail]++;
+            outVertices[arc] = head;
+            outEdges[arc] = e;
+
+            if ( !directed && tail != head )
+            {
+                arc = outOffsets[head] + next[head]++;
+                outVertices[arc] = tail;
+                outEdges[arc] = e;
+            }
+        }
+
+        if ( !directed )
+        {
+            inOffsets = outOffsets;
+            inVertices = outVertices;
+            inEdges = outEdges;
+            return;
+        }
+
+        inOffsets = new int[order + 1];
+        for ( int e = 0; e < size; e++ )
+        {
+            inOffsets[edgeHeads[e] + 1]++;
+        }
+        for ( int v = 0; v < order; v++ )
+        {
+            inOffsets[v + 1] += inOffsets[v];
+        }
+
+        inVertices = new int[size];
+        inEdges = new int[size];
+        next = new int[order];
+        for ( int e = 0; e < size; e++ )
+        {
+            int head = edgeHeads[e];
+            int arc = inOffsets[head] + next[head]++;
+            inVertices[arc] = edgeTails[e];
+            inEdges[arc] = e;
+        }
+    }
+
+    /**
+     * @return the number of vertices
+     */
+    int order()
+    {
+        return vertices.length;
+    }
+
+    /**
+     * @return the number of edges
+     */
+    int size()
+    {
+        return edgeValues.length;
+    }
+
+    /**
+     * @param vertex the vertex to look up
+     * @return the vertex index, {@code -1} if the vertex doesn't belong to the graph
+     */
+    int indexOf( V vertex )
+    {
+        Integer index = indices.get( vertex );
+        return index == null ? -1 : index;
+    }
+
+    @SuppressWarnings( "unchecked" )
+    V vertex( int index )
+    {
+        return (V) vertices[index];
+    }
+
+    @SuppressWarnings( "unchecked" )
+    WE edgeValue( int edge )
+    {
+        return (WE) edgeValues[edge];
+    }
+
+    /**
+     * Replaces the value of an edge: only the structures owning their snapshot, not shared with an engine,
+     * update it.
+     *
+     * @param edge the edge index
+     * @param value the new edge value
+     */
+    void setEdgeValue( int edge, WE value )
+    {
+        edgeValues[edge] = value;
+    }
+
+}
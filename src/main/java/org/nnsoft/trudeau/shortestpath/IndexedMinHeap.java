@@ -0,0 +1,191 @@
+package org.nnsoft.trudeau.shortestpath;
+
+/*
+ *   Copyright 2013 The Trudeau Project
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * A binary min-heap of vertex indices, keyed by weights, that supports decreasing the key of a vertex already
+ * in the heap: every vertex is in the heap at most once, so no stale entries have to be skipped.
+ *
+ * The heap is sized once for the whole graph and reused across searches, {@link #clear()} costs as much as the
+ * number of vertices left in the heap.
+ *
+ * @param <W> the weight type
+ */
+final class IndexedMinHeap<W>
+{
+
+    private final Comparator<? super W> comparator;
+
+    private final int[] heap;
+
+    private final int[] positions;
+
+    private final Object[] keys;
+
+    private int size;
+
+    IndexedMinHeap( int order, Comparator<? super W> comparator )
+    {
+        this.comparator = comparator;
+        heap = new int[order];
+        positions = new int[order];
+        Arrays.fill( positions, -1 );
+        keys = new Object[order];
+    }
+
+    boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    int size()
+    {
+        return size;
+    }
+
+    boolean contains( int vertex )
+    {
+        return positions[vertex] >= 0;
+    }
+
+    /**
+     * @return the vertex with the minimum key, without removing it
+     */
+    int peek()
+    {
+        return heap[0];
+    }
+
+    /**
+     * @return the minimum key
+     */
+    W peekKey()
+    {
+        return key( heap[0] );
+    }
+
+    /**
+     * @param vertex a vertex in the heap
+     * @return the vertex key
+     */
+    @SuppressWarnings( "unchecked" )
+    W key( int vertex )
+    {
+        return (W) keys[vertex];
+    }
+
+    /**
+     * Inserts the vertex, or moves it up if already in the heap: the key must not be greater than the current one.
+     *
+     * @param vertex the vertex to insert
+     * @param key the vertex key
+     * @return true if the vertex was inserted, false if its key has been decreased
+     */
+    boolean insertOrDecrease( int vertex, W key )
+    {
+        keys[vertex] = key;
+
+        int position = positions[vertex];
+        boolean inserted = position < 0;
+        if ( inserted )
+        {
+            position = size++;
+        }
+        siftUp( vertex, position );
+        return inserted;
+    }
+
+    /**
+     * Removes the vertex with the minimum key.
+     *
+     * @return the removed vertex
+     */
+    int poll()
+    {
+        int min = heap[0];
+        positions[min] = -1;
+
+        int last = heap[--size];
+        if ( size > 0 )
+        {
+            siftDown( last, 0 );
+        }
+        return min;
+    }
+
+    /**
+     * Removes all the vertices.
+     */
+    void clear()
+    {
+        for ( int i = 0; i < size; i++ )
+        {
+            positions[heap[i]] = -1;
+            keys[heap[i]] = null;
+        }
+        size = 0;
+    }
+
+    private void siftUp( int vertex, int position )
+    {
+        W key = key( vertex );
+        while ( position > 0 )
+        {
+            int parent = ( position - 1 ) >>> 1;
+            int parentVertex = heap[parent];
+            if ( comparator.compare( key, key( parentVertex ) ) >= 0 )
+            {
+                break;
+            }
+            place( parentVertex, position );
+            position = parent;
+        }
+        place( vertex, position );
+    }
+
+    private void siftDown( int vertex, int position )
+    {
+        W key = key( vertex );
+        int half = size >>> 1;
+        while ( position < half )
+        {
+            int child = ( position << 1 ) + 1;
+            int right = child + 1;
+            if ( right < size && comparator.compare( key( heap[right] ), key( heap[child] ) ) < 0 )
+            {
+                child = right;
+            }
+            if ( comparator.compare( key, key( heap[child] ) ) <= 0 )
+            {
+                break;
+            }
+            place( heap[child], position );
+            position = child;
+        }
+        place( vertex, position );
+    }
+
+    private void place( int vertex, int position )
+    {
+        heap[position] = vertex;
+        positions[vertex] = position;
+    }
+
+}
@@ -0,0 +1,79 @@
+package org.nnsoft.trudeau.shortestpath;
+
+/*
+ *   Copyright 2013 The Trudeau Project
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+/**
+ * A double ended queue of vertex indices, stored in a fixed size ring of primitive ints: breadth first searches
+ * append the vertices one edge farther, and 0-1 breadth first searches push in front the vertices reached through
+ * edges weighing nothing.
+ *
+ * The deque is sized once for the whole graph and reused across searches, it doesn't grow: searches don't queue
+ * more vertices than its capacity.
+ */
+final class IntDeque
+{
+
+    private final int[] elements;
+
+    private int head;
+
+    private int size;
+
+    IntDeque( int capacity )
+    {
+        elements = new int[capacity];
+    }
+
+    boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    int size()
+    {
+        return size;
+    }
+
+    void addFirst( int vertex )
+    {
+        head = head == 0 ? elements.length - 1 : head - 1;
+        elements[head] = vertex;
+        size++;
+    }
+
+    void addLast( int vertex )
+    {
+        int tail = head + size;
+        elements[tail < elements.length ? tail : tail - elements.length] = vertex;
+        size++;
+    }
+
+    int pollFirst()
+    {
+        int vertex = elements[head];
+        head = head == elements.length - 1 ? 0 : head + 1;
+        size--;
+        return vertex;
+    }
+
+    void clear()
+    {
+        head = 0;
+        size = 0;
+    }
+
+}
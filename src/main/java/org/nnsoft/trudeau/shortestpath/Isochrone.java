@@ -0,0 +1,157 @@
+package org.nnsoft.trudeau.shortestpath;
+
+/*
+ *   Copyright 2013 The Trudeau Project
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+import static java.lang.String.format;
+
+import java.util.AbstractList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * The vertices within a distance bound from (or, for reverse searches, to) an origin vertex, with their distances:
+ * vertices and distances are kept in two arrays, in increasing distance order.
+ *
+ * @param <V> the Graph vertices type
+ * @param <W> the weight type
+ */
+public final class Isochrone<V, W>
+{
+
+    private final V origin;
+
+    private final W bound;
+
+    private final Object[] vertices;
+
+    private final Object[] distances;
+
+    private final Map<V, Integer> positions;
+
+    Isochrone( V origin, W bound, Object[] vertices, Object[] distances )
+    {
+        this.origin = origin;
+        this.bound = bound;
+        this.vertices = vertices;
+        this.distances = distances;
+        this.positions = new HashMap<V, Integer>( vertices.length * 4 / 3 + 1 );
+        for ( int i = 0; i < vertices.length; i++ )
+        {
+            positions.put( vertex( i ), i );
+        }
+    }
+
+    /**
+     * @return the vertex the isochrone is centered on
+     */
+    public V getOrigin()
+    {
+        return origin;
+    }
+
+    /**
+     * @return the maximum distance of the isochrone vertices
+     */
+    public W getBound()
+    {
+        return bound;
+    }
+
+    /**
+     * @return the number of vertices within the bound, origin included
+     */
+    public int size()
+    {
+        return vertices.length;
+    }
+
+    /**
+     * @param vertex the vertex to check
+     * @return true if the vertex is within the bound
+     */
+    public boolean contains( V vertex )
+    {
+        return positions.containsKey( vertex );
+    }
+
+    /**
+     * @param vertex the vertex whose distance has to be retrieved
+     * @return the vertex distance, null if the vertex is not within the bound
+     */
+    public W getDistance( V vertex )
+    {
+        Integer position = positions.get( vertex );
+        return position == null ? null : distance( position );
+    }
+
+    /**
+     * @return the vertices within the bound, in increasing distance order
+     */
+    public List<V> getVertices()
+    {
+        return new AbstractList<V>()
+        {
+
+            @Override
+            public V get( int index )
+            {
+                return vertex( index );
+            }
+
+            @Override
+            public int size()
+            {
+                return vertices.length;
+            }
+
+        };
+    }
+
+    /**
+     * Performs the given action for each vertex within the bound, in increasing distance order.
+     *
+     * @param action the action receiving each vertex and its distance
+     */
+    public void forEach( BiConsumer<? super V, ? super W> action )
+    {
+        for ( int i = 0; i < vertices.length; i++ )
+        {
+            action.accept( vertex( i ), distance( i ) );
+        }
+    }
+
+    @SuppressWarnings( "unchecked" )
+    private V vertex( int index )
+    {
+        return (V) vertices[index];
+    }
+
+    @SuppressWarnings( "unchecked" )
+    private W distance( int index )
+    {
+        return (W) distances[index];
+    }
+
+    @Override
+    public String toString()
+    {
+        return format( "Isochrone{origin=%s, bound=%s, size=%s}", origin, bound, vertices.length );
+    }
+
+}
@@ -0,0 +1,88 @@
+package org.nnsoft.trudeau.shortestpath;
+
+/*
+ *   Copyright 2013 The Trudeau Project
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+import java.util.Arrays;
+
+/**
+ * The non dominated labels of a vertex, as an array of label ids into the {@link ParetoLabels} store.
+ */
+final class LabelBag
+{
+
+    private int[] labels = new int[4];
+
+    private int size;
+
+    int size()
+    {
+        return size;
+    }
+
+    int get( int index )
+    {
+        return labels[index];
+    }
+
+    /**
+     * @return true if a label of the bag is not worse than the candidate costs in any criterion
+     */
+    boolean covers( ParetoLabels<?> store, double[] candidate )
+    {
+        for ( int i = 0; i < size; i++ )
+        {
+            if ( store.covers( labels[i], candidate ) )
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Adds a label, marking and removing the labels of the bag it covers.
+     */
+    void add( ParetoLabels<?> store, int label, double[] labelCosts )
+    {
+        int kept = 0;
+        for ( int i = 0; i < size; i++ )
+        {
+            int other = labels[i];
+            boolean covered = true;
+            for ( int criterion = 0; covered && criterion < labelCosts.length; criterion++ )
+            {
+                covered = labelCosts[criterion] <= store.cost( other, criterion );
+            }
+            if ( covered )
+            {
+                store.dominate( other );
+            }
+            else
+            {
+                labels[kept++] = other;
+            }
+        }
+        size = kept;
+
+        if ( size == labels.length )
+        {
+            labels = Arrays.copyOf( labels, 2 * labels.length );
+        }
+        labels[size++] = label;
+    }
+
+}
@@ -0,0 +1,127 @@
+package org.nnsoft.trudeau.shortestpath;
+
+/*
+ *   Copyright 2013 The Trudeau Project
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A thread-safe, lock-free latency histogram covering the whole positive {@code long} nanoseconds range
+ * with a bounded relative error of {@code 1/128} (less than 1%).
+ *
+ * Values are counted in log-linear buckets: every power of two range is split in {@code 128} equally sized
+ * sub-buckets, so recording is a couple of bit operations plus an atomic increment and the memory footprint
+ * is fixed, no matter how many values are recorded.
+ */
+public final class LatencyHistogram
+{
+
+    private static final int SUB_BUCKET_BITS = 7;
+
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    private static final int BUCKETS = ( Long.SIZE - SUB_BUCKET_BITS ) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray( BUCKETS );
+
+    private final LongAdder total = new LongAdder();
+
+    private final AtomicLong max = new AtomicLong();
+
+    LatencyHistogram()
+    {
+        // histograms are owned by the LatencyHistograms
+    }
+
+    /**
+     * Records a latency.
+     *
+     * @param nanos the latency, in nanoseconds; negative values are recorded as {@code 0}
+     */
+    void record( long nanos )
+    {
+        long value = Math.max( 0L, nanos );
+        counts.incrementAndGet( indexOf( value ) );
+        total.add( value );
+
+        long current = max.get();
+        while ( value > current && !max.compareAndSet( current, value ) )
+        {
+            current = max.get();
+        }
+    }
+
+    /**
+     * Takes a point in time copy of the recorded latencies; values recorded concurrently
+     * may or may not be included.
+     *
+     * @return the latencies snapshot
+     */
+    public LatencySnapshot snapshot()
+    {
+        long[] copy = new long[BUCKETS];
+        long count = 0;
+        for ( int i = 0; i < BUCKETS; i++ )
+        {
+            copy[i] = counts.get( i );
+            count += copy[i];
+        }
+        return new LatencySnapshot( copy, count, total.sum(), max.get() );
+    }
+
+    /**
+     * Discards all the recorded latencies.
+     */
+    public void reset()
+    {
+        for ( int i = 0; i < BUCKETS; i++ )
+        {
+            counts.set( i, 0L );
+        }
+        total.reset();
+        max.set( 0L );
+    }
+
+    static int indexOf( long value )
+    {
+        if ( value < SUB_BUCKETS )
+        {
+            return (int) value;
+        }
+
+        int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros( value );
+        int shift = exponent - SUB_BUCKET_BITS;
+        return ( shift + 1 ) * SUB_BUCKETS + (int) ( ( value >>> shift ) - SUB_BUCKETS );
+    }
+
+    /**
+     * @return the highest value counted in the bucket at the given index
+     */
+    static long highestValueOf( int index )
+    {
+        if ( index < SUB_BUCKETS )
+        {
+            return index;
+        }
+
+        int shift = index / SUB_BUCKETS - 1;
+        long lowest = (long) ( SUB_BUCKETS + index % SUB_BUCKETS ) << shift;
+        return lowest + ( ( 1L << shift ) - 1 );
+    }
+
+}
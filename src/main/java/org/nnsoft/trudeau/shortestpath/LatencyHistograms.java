@@ -0,0 +1,71 @@
+package org.nnsoft.trudeau.shortestpath;
+
+/*
+ *   Copyright 2013 The Trudeau Project
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link SearchListener} which records the duration of the searches reporting to it in one
+ * {@link LatencyHistogram} per {@link SearchAlgorithm}, so that the latencies of different algorithms are never mixed.
+ *
+ * Latency tracking is opt-in: only the searches reporting to an instance record their latency, and engines
+ * which don't share an instance don't contend on its histograms.
+ */
+public final class LatencyHistograms
+    implements SearchListener
+{
+
+    private final Map<SearchAlgorithm, LatencyHistogram> histograms =
+        new EnumMap<SearchAlgorithm, LatencyHistogram>( SearchAlgorithm.class );
+
+    public LatencyHistograms()
+    {
+        // histograms are created once, the map is only read while searches record
+        for ( SearchAlgorithm algorithm : SearchAlgorithm.values() )
+        {
+            histograms.put( algorithm, new LatencyHistogram() );
+        }
+    }
+
+    /**
+     * Records the total duration of the completed search in the histogram of its algorithm.
+     *
+     * @param statistics the completed search statistics
+     */
+    @Override
+    public void searchCompleted( SearchStatistics statistics )
+    {
+        histograms.get( statistics.getAlgorithm() ).record( statistics.getElapsed( TimeUnit.NANOSECONDS ) );
+    }
+
+    /**
+     * Returns the latencies of the searches performed by the given algorithm, which reported to this listener.
+     *
+     * @param algorithm the search algorithm
+     * @return the algorithm latency histogram
+     */
+    public LatencyHistogram getLatencies( SearchAlgorithm algorithm )
+    {
+        algorithm = requireNonNull( algorithm, "Latencies of a null algorithm can not be retrieved" );
+        return histograms.get( algorithm );
+    }
+
+}
@@ -0,0 +1,145 @@
+package org.nnsoft.trudeau.shortestpath;
+
+/*
+ *   Copyright 2013 The Trudeau Project
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+import static java.lang.String.format;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An immutable copy of the latencies recorded by a {@link LatencyHistogram}.
+ *
+ * Percentiles are reported as the highest value of the bucket they fall in, so they never under-estimate
+ * the actual latency by more than the histogram resolution.
+ */
+public final class LatencySnapshot
+{
+
+    private final long[] counts;
+
+    private final long count;
+
+    private final long totalNanos;
+
+    private final long maxNanos;
+
+    LatencySnapshot( long[] counts, long count, long totalNanos, long maxNanos )
+    {
+        this.counts = counts;
+        this.count = count;
+        this.totalNanos = totalNanos;
+        this.maxNanos = maxNanos;
+    }
+
+    /**
+     * @return the number of recorded latencies
+     */
+    public long getCount()
+    {
+        return count;
+    }
+
+    /**
+     * @param unit the time unit of the returned value
+     * @return the mean latency, {@code 0} if nothing has been recorded
+     */
+    public long getMean( TimeUnit unit )
+    {
+        return count == 0 ? 0L : unit.convert( totalNanos / count, TimeUnit.NANOSECONDS );
+    }
+
+    /**
+     * @param unit the time unit of the returned value
+     * @return the highest recorded latency, {@code 0} if nothing has been recorded
+     */
+    public long getMax( TimeUnit unit )
+    {
+        return unit.convert( maxNanos, TimeUnit.NANOSECONDS );
+    }
+
+    /**
+     * Returns the latency below which the given percentage of the recorded latencies fall.
+     *
+     * @param percentile the percentile, in the {@code [0, 100]} range
+     * @param unit the time unit of the returned value
+     * @return the latency at the given percentile, {@code 0} if nothing has been recorded
+     */
+    public long getPercentile( double percentile, TimeUnit unit )
+    {
+        if ( percentile < 0D || percentile > 100D )
+        {
+            throw new IllegalArgumentException( format( "Percentile must be in the [0, 100] range, %s given", percentile ) );
+        }
+
+        if ( count == 0 )
+        {
+            return 0L;
+        }
+
+        long rank = Math.max( 1L, (long) Math.ceil( percentile / 100D * count ) );
+        long seen = 0;
+        for ( int i = 0; i < counts.length; i++ )
+        {
+            seen += counts[i];
+            if ( seen >= rank )
+            {
+                return unit.convert( Math.min( LatencyHistogram.highestValueOf( i ), maxNanos ), TimeUnit.NANOSECONDS );
+            }
+        }
+        return getMax( unit );
+    }
+
+    /**
+     * @param unit the time unit of the returned value
+     * @return the median latency
+     */
+    public long getMedian( TimeUnit unit )
+    {
+        return getPercentile( 50D, unit );
+    }
+
+    /**
+     * @param unit the time unit of the returned value
+     * @return the 99th percentile latency
+     */
+    public long get99thPercentile( TimeUnit unit )
+    {
+        return getPercentile( 99D, unit );
+    }
+
+    /**
+     * @param unit the time unit of the returned value
+     * @return the 99.9th percentile latency
+     */
+    public long get999thPercentile( TimeUnit unit )
+    {
+        return getPercentile( 99.9D, unit );
+    }
+
+    @Override
+    public String toString()
+    {
+        return format( "{count=%s, mean=%sus, p50=%sus, p99=%sus, p999=%sus, max=%sus}",
+                       count,
+                       getMean( TimeUnit.MICROSECONDS ),
+                       getMedian( TimeUnit.MICROSECONDS ),
+                       get99thPercentile( TimeUnit.MICROSECONDS ),
+                       get999thPercentile( TimeUnit.MICROSECONDS ),
+                       getMax( TimeUnit.MICROSECONDS ) );
+    }
+
+}
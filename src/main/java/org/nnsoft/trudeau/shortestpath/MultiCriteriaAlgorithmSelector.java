@@ -0,0 +1,56 @@
+package org.nnsoft.trudeau.shortestpath;
+
+/*
+ *   Copyright 2013 The Trudeau Project
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+import java.util.List;
+
+import org.nnsoft.trudeau.api.PathNotFoundException;
+import org.nnsoft.trudeau.api.WeightedPath;
+
+/**
+ * Selects the algorithm of a search on a graph whose edges have many costs.
+ *
+ * @param <V> the Graph vertices type.
+ * @param <WE> the Graph weighted edges type
+ */
+public interface MultiCriteriaAlgorithmSelector<V, WE>
+{
+
+    /**
+     * Calculates the Pareto front of the paths from the source to the target, using a multi-criteria label-setting
+     * search: every path of the front is better than any other path of the front in at least one criterion,
+     * and no other path is better in all criteria.
+     *
+     * @return the Pareto optimal paths, weighted by their cost vectors, in lexicographic order, if any,
+     *         otherwise a {@link PathNotFoundException} will be thrown
+     */
+    List<WeightedPath<V, WE, CostVector>> applyingParetoSearch();
+
+    /**
+     * Calculates the path of minimum cost, the first criterion, whose consumption of each other criterion,
+     * the resources, does not exceed the given limits, i.e. minimum cost subject to total time and fuel.
+     *
+     * Labels are pruned by dominance and by lower bounds of the cost and resources still needed to reach the target,
+     * computed by a backwards one-to-all search per criterion.
+     *
+     * @param limits the maximum consumption of each resource, the criteria following the first one
+     * @return the optimal feasible path, weighted by its cost vector, if any,
+     *         otherwise a {@link PathNotFoundException} will be thrown
+     */
+    WeightedPath<V, WE, CostVector> applyingResourceConstrainedSearch( double... limits );
+
+}
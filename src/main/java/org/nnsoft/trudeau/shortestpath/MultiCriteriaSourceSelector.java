@@ -0,0 +1,46 @@
+package org.nnsoft.trudeau.shortestpath;
+
+/*
+ *   Copyright 2013 The Trudeau Project
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+/**
+ * Selects the source of a search on a graph whose edges have many costs.
+ *
+ * @param <V> the Graph vertices type.
+ * @param <WE> the Graph weighted edges type
+ */
+public interface MultiCriteriaSourceSelector<V, WE>
+{
+
+    /**
+     * Specifies the shortest path source.
+     *
+     * @param <H> the source type
+     * @param source the path source
+     * @return the multi-criteria path target selector
+     */
+    <H extends V> MultiCriteriaTargetSelector<V, WE> from( H source );
+
+    /**
+     * Registers a listener that receives the {@link SearchStatistics} of every search
+     * started from the returned selector, once the search completes, after the listeners already registered.
+     *
+     * @param listener the listener notified on search completion
+     * @return a multi-criteria source selector that reports to the given listener
+     */
+    MultiCriteriaSourceSelector<V, WE> reportingTo( SearchListener listener );
+
+}
@@ -0,0 +1,37 @@
+package org.nnsoft.trudeau.shortestpath;
+
+/*
+ *   Copyright 2013 The Trudeau Project
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+/**
+ * Selects the target of a search on a graph whose edges have many costs.
+ *
+ * @param <V> the Graph vertices type.
+ * @param <WE> the Graph weighted edges type
+ */
+public interface MultiCriteriaTargetSelector<V, WE>
+{
+
+    /**
+     * Specifies the shortest path target.
+     *
+     * @param <T> the target type
+     * @param target the path target
+     * @return the multi-criteria algorithm selector
+     */
+    <T extends V> MultiCriteriaAlgorithmSelector<V, WE> to( T target );
+
+}
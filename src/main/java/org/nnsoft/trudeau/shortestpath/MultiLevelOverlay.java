@@ -0,0 +1,796 @@
+package org.nnsoft.trudeau.shortestpath;
+
+/*
+ *   Copyright 2013 The Trudeau Project
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import org.nnsoft.trudeau.api.InMemoryWeightedPath;
+import org.nnsoft.trudeau.api.PathNotFoundException;
+import org.nnsoft.trudeau.api.WeightedPath;
+import org.nnsoft.trudeau.math.monoid.OrderedMonoid;
+
+import com.google.common.graph.ValueGraph;
+
+/**
+ * A multi-level overlay of a graph snapshot: the graph is partitioned into cells, at every level, nested in the
+ * cells of the level above, and every cell stores the clique of the distances, within the cell, between its
+ * boundary vertices, the vertices with arcs to other cells.
+ *
+ * Queries are bidirectional Dijkstra's searches which follow the graph arcs in the cells of the source and the
+ * target only and, farther away, the cliques of the highest level cells which contain neither of them.
+ *
+ * The cliques of a cell only depend on the edges weight within the cell, so that a local weight
+ * {@link #updateWeight(Object, Object, Object) update} only computes again the cliques of the cells, one per level, which
+ * contain the updated edge. Queries can be shared by concurrent threads, but not with updates.
+ *
+ * @param <V> the Graph vertices type
+ * @param <WE> the Graph weighted edges type
+ * @param <W> the weight type
+ */
+public final class MultiLevelOverlay<V, WE, W>
+{
+
+    /**
+     * Builds the overlay of the given graph, where edges are weights.
+     *
+     * @param <V> the Graph vertices type
+     * @param <W> the weight type
+     * @param graph the input edge-weighted graph
+     * @param weightOperations the weight operations needed for the algorithm
+     * @param cellSizes the largest cell size of every level, from the lowest level up, in increasing order
+     * @return the multi-level overlay
+     */
+    public static <V, W> MultiLevelOverlay<V, W, W> newOverlay( ValueGraph<V, W> graph, OrderedMonoid<W> weightOperations,
+                                                               int... cellSizes )
+    {
+        Function<W, W> identity = w -> w;
+        return newOverlay( graph, identity, weightOperations, cellSizes );
+    }
+
+    /**
+     * Builds the overlay of the given graph, where edges are weighted by the given function.
+     *
+     * @param <V> the Graph vertices type
+     * @param <WE> the Graph weighted edges type
+     * @param <W> the weight type
+     * @param graph the input graph, which must not be modified while the snapshot is taken
+     * @param weightedEdges the function to calculate edges weight, which has to be thread-safe
+     * @param weightOperations the weight operations needed for the algorithm
+     * @param cellSizes the largest cell size of every level, from the lowest level up, in increasing order
+     * @return the multi-level overlay
+     */
+    public static <V, WE, W> MultiLevelOverlay<V, WE, W> newOverlay( ValueGraph<V, WE> graph,
+                                                                     Function<WE, W> weightedEdges,
+                                                                     OrderedMonoid<W> weightOperations,
+                                                                     int... cellSizes )
+    {
+        graph = requireNonNull( graph, "Multi-level overlay can not be built on a null graph" );
+        weightedEdges = requireNonNull( weightedEdges, "Function to calculate edges weight can not be null." );
+        weightOperations = requireNonNull( weightOperations, "Multi-level overlay can not be built with null weight operations" );
+        cellSizes = requireNonNull( cellSizes, "Multi-level overlay can not be built with null cell sizes" );
+        if ( cellSizes.length == 0 )
+        {
+            throw new IllegalArgumentException( "Multi-level overlay needs at least one level" );
+        }
+        for ( int level = 0; level < cellSizes.length; level++ )
+        {
+            if ( cellSizes[level] < 1 || ( level > 0 && cellSizes[level] <= cellSizes[level - 1] ) )
+            {
+                throw new IllegalArgumentException( format( "Cell sizes must be positive and increasing, %s given",
+                                                            Arrays.toString( cellSizes ) ) );
+            }
+        }
+
+        IndexedGraph<V, WE> snapshot = IndexedGraph.snapshot( graph );
+        return new MultiLevelOverlay<V, WE, W>( snapshot,
+                                                weightedEdges,
+                                                EdgeWeights.evaluate( snapshot, weightedEdges ),
+                                                weightOperations,
+                                                cellSizes );
+    }
+
+    private final IndexedGraph<V, WE> graph;
+
+    private final Function<WE, W> weightedEdges;
+
+    private final EdgeWeights<W> weights;
+
+    private final OrderedMonoid<W> weightOperations;
+
+    private final SearchSpacePool<W> spaces;
+
+    /**
+     * The number of levels, level {@code 0} is the graph itself.
+     */
+    private final int levels;
+
+    /**
+     * The cell of every vertex, by level from {@code 1}.
+     */
+    private final int[][] cells;
+
+    /**
+     * The boundary vertices of every cell, by level from {@code 1}.
+     */
+    private final int[][][] boundaries;
+
+    /**
+     * The position of every vertex among the boundary vertices of its cell, {@code -1} if it is not a boundary
+     * vertex, by level from {@code 1}.
+     */
+    private final int[][] positions;
+
+    /**
+     * The distances between the boundary vertices of every cell, row by row, by level from {@code 1}; null if there
+     * is no path, or if the shortest path crosses another boundary vertex of the cell.
+     */
+    private final Object[][][] cliques;
+
+    private final SearchListener listener;
+
+    private MultiLevelOverlay( IndexedGraph<V, WE> graph, Function<WE, W> weightedEdges, EdgeWeights<W> weights,
+                               OrderedMonoid<W> weightOperations, int[] cellSizes )
+    {
+        this.graph = graph;
+        this.weightedEdges = weightedEdges;
+        this.weights = weights;
+        this.weightOperations = weightOperations;
+        this.spaces = new SearchSpacePool<W>( graph.order(), weightOperations );
+
+        levels = cellSizes.length;
+        cells = partition( graph, cellSizes );
+        boundaries = new int[levels + 1][][];
+        positions = new int[levels + 1][];
+        cliques = new Object[levels + 1][][];
+
+        for ( int level = 1; level <= levels; level++ )
+        {
+            int[] cell = cells[level];
+            int cellCount = 0;
+            for ( int vertex = 0; vertex < graph.order(); vertex++ )
+            {
+                cellCount = Math.max( cellCount, cell[vertex] + 1 );
+            }
+
+            positions[level] = new int[graph.order()];
+            int[] sizes = new int[cellCount];
+            for ( int vertex = 0; vertex < graph.order(); vertex++ )
+            {
+                positions[level][vertex] = isBoundary( vertex, cell ) ? sizes[cell[vertex]]++ : -1;
+            }
+
+            boundaries[level] = new int[cellCount][];
+            for ( int c = 0; c < cellCount; c++ )
+            {
+                boundaries[level][c] = new int[sizes[c]];
+            }
+            for ( int vertex = 0; vertex < graph.order(); vertex++ )
+            {
+                if ( positions[level][vertex] >= 0 )
+                {
+                    boundaries[level][cell[vertex]][positions[level][vertex]] = vertex;
+                }
+            }
+
+            // cells of the same level are independent, their cliques only need the level below
+            final int current = level;
+            cliques[level] = new Object[cellCount][];
+            IntStream.range( 0, cellCount ).parallel().forEach( c -> cliques[current][c] = clique( current, c ) );
+        }
+
+        listener = null;
+    }
+
+    private MultiLevelOverlay( MultiLevelOverlay<V, WE, W> overlay, SearchListener listener )
+    {
+        this.graph = overlay.graph;
+        this.weightedEdges = overlay.weightedEdges;
+        this.weights = overlay.weights;
+        this.weightOperations = overlay.weightOperations;
+        this.spaces = overlay.spaces;
+        this.levels = overlay.levels;
+        this.cells = overlay.cells;
+        this.boundaries = overlay.boundaries;
+        this.positions = overlay.positions;
+        this.cliques = overlay.cliques;
+        this.listener = listener;
+    }
+
+    /**
+     * Returns an overlay sharing this overlay graph snapshot, cliques and search state pool, whose queries report
+     * to the given listener too, after the listeners this overlay already reports to; weight updates applied to either overlay are seen by both.
+     *
+     * @param listener the listener notified on search completion, invoked by the querying threads
+     * @return an overlay that reports to the given listener
+     */
+    public MultiLevelOverlay<V, WE, W> reportingTo( SearchListener listener )
+    {
+        listener = requireNonNull( listener, "Search statistics can not be reported to a null listener" );
+        listener = this.listener == null ? listener : this.listener.andThen( listener );
+        return new MultiLevelOverlay<V, WE, W>( this, listener );
+    }
+
+    /**
+     * Partitions the graph by recursive bisection: a set is split in the first and the second half of a breadth
+     * first search order, started from a peripheral vertex and following arcs in both directions, until sets fit
+     * the lowest level cells; every set of the bisection tree which fits the cells of a level, while its parent
+     * doesn't, is a cell of that level.
+     *
+     * @return the cell of every vertex, by level from {@code 1}
+     */
+    private static int[][] partition( IndexedGraph<?, ?> graph, int[] cellSizes )
+    {
+        int levels = cellSizes.length;
+        int[][] cells = new int[levels + 1][graph.order()];
+        int[] cellCounts = new int[levels + 1];
+
+        int[] owners = new int[graph.order()];
+        int[] visited = new int[graph.order()];
+        int[] order = new int[graph.order()];
+        int stamp = 0;
+        int nextId = 0;
+
+        // sets come with the lowest level their ancestors made them cells of
+        Deque<int[]> sets = new ArrayDeque<int[]>();
+        Deque<Integer> assigned = new ArrayDeque<Integer>();
+        int[] all = new int[graph.order()];
+        for ( int vertex = 0; vertex < graph.order(); vertex++ )
+        {
+            all[vertex] = vertex;
+        }
+        if ( all.length > 0 )
+        {
+            sets.push( all );
+            assigned.push( levels + 1 );
+        }
+
+        while ( !sets.isEmpty() )
+        {
+            int[] set = sets.pop();
+            int lowest = assigned.pop();
+
+            for ( int level = lowest - 1; level >= 1 && set.length <= cellSizes[level - 1]; level-- )
+            {
+                int cell = cellCounts[level]++;
+                for ( int vertex : set )
+                {
+                    cells[level][vertex] = cell;
+                }
+                lowest = level;
+            }
+
+            if ( set.length <= cellSizes[0] )
+            {
+                continue;
+            }
+
+            // breadth first order of the set, component after component
+            int id = ++nextId;
+            for ( int vertex : set )
+            {
+                owners[vertex] = id;
+            }
+            stamp++;
+            int size = 0;
+            for ( int root : set )
+            {
+                if ( visited[root] == stamp )
+                {
+                    continue;
+                }
+
+                // the last vertex of a first search is peripheral
+                int start = size;
+                int peripheral = search( graph, root, id, owners, visited, stamp, order, size );
+                stamp++;
+                for ( int i = 0; i < start; i++ )
+                {
+                    visited[order[i]] = stamp;
+                }
+                size = search( graph, order[peripheral - 1], id, owners, visited, stamp, order, start );
+            }
+
+            int half = set.length / 2;
+            sets.push( Arrays.copyOfRange( order, half, set.length ) );
+            assigned.push( lowest );
+            sets.push( Arrays.copyOfRange( order, 0, half ) );
+            assigned.push( lowest );
+        }
+
+        return cells;
+    }
+
+    /**
+     * Breadth first search, following arcs in both directions, restricted to the vertices of the given set.
+     *
+     * @return the position in the order following the last vertex reached
+     */
+    private static int search( IndexedGraph<?, ?> graph, int root, int id, int[] owners, int[] visited, int stamp,
+                               int[] order, int tail )
+    {
+        visited[root] = stamp;
+        order[tail++] = root;
+        for ( int head = tail - 1; head < tail; head++ )
+        {
+            int vertex = order[head];
+            tail = visit( graph.outOffsets, graph.outVertices, vertex, id, owners, visited, stamp, order, tail );
+            tail = visit( graph.inOffsets, graph.inVertices, vertex, id, owners, visited, stamp, order, tail );
+        }
+        return tail;
+    }
+
+    private static int visit( int[] offsets, int[] adjacents, int vertex, int id, int[] owners, int[] visited,
+                              int stamp, int[] order, int tail )
+    {
+        for ( int arc = offsets[vertex]; arc < offsets[vertex + 1]; arc++ )
+        {
+            int v = adjacents[arc];
+            if ( owners[v] == id && visited[v] != stamp )
+            {
+                visited[v] = stamp;
+                order[tail++] = v;
+            }
+        }
+        return tail;
+    }
+
+    private boolean isBoundary( int vertex, int[] cell )
+    {
+        for ( int arc = graph.outOffsets[vertex]; arc < graph.outOffsets[vertex + 1]; arc++ )
+        {
+            if ( cell[graph.outVertices[arc]] != cell[vertex] )
+            {
+                return true;
+            }
+        }
+        for ( int arc = graph.inOffsets[vertex]; arc < graph.inOffsets[vertex + 1]; arc++ )
+        {
+            if ( cell[graph.inVertices[arc]] != cell[vertex] )
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Computes the distances between the boundary vertices of a cell, searching the overlay of the level below
+     * restricted to the cell.
+     *
+     * @param level the cell level
+     * @param cell the cell
+     * @return the clique matrix, row by row
+     */
+    private Object[] clique( int level, int cell )
+    {
+        int[] boundary = boundaries[level][cell];
+        Object[] clique = new Object[boundary.length * boundary.length];
+        SearchSpace<W> space = spaces.acquire();
+
+        try
+        {
+            for ( int i = 0; i < boundary.length; i++ )
+            {
+                space.reset();
+                space.reach( boundary[i], weightOperations.identity(), -1, -1 );
+                space.heap.insertOrDecrease( boundary[i], weightOperations.identity() );
+                while ( !space.heap.isEmpty() )
+                {
+                    int vertex = space.heap.poll();
+                    space.settle( vertex );
+                    expand( space, vertex, level - 1, false, level, cell, null, null, null );
+                }
+
+                for ( int j = 0; j < boundary.length; j++ )
+                {
+                    if ( space.isReached( boundary[j] ) && !isCrossing( space, boundary[i], boundary[j], level ) )
+                    {
+                        clique[i * boundary.length + j] = space.distance( boundary[j] );
+                    }
+                }
+            }
+            return clique;
+        }
+        finally
+        {
+            spaces.release( space );
+        }
+    }
+
+    /**
+     * Checks whether the shortest path between two boundary vertices crosses another boundary vertex of the cell:
+     * such clique arcs are left out, the searches follow the clique arcs to and from the crossed vertex instead.
+     */
+    private boolean isCrossing( SearchSpace<W> space, int from, int to, int level )
+    {
+        for ( int v = to == from ? from : space.predecessorVertex( to ); v != from; v = space.predecessorVertex( v ) )
+        {
+            if ( positions[level][v] >= 0 )
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Relaxes the arcs leaving, or entering, the vertex in the overlay of the given level: the graph arcs at level
+     * {@code 0}, the clique of the vertex cell and the arcs to other cells above.
+     *
+     * @param space the search space
+     * @param vertex the settled vertex, a boundary vertex of its cell at the given level
+     * @param level the overlay level
+     * @param reverse true to follow arcs backward
+     * @param boundLevel the level of the cell the search is restricted to, {@code 0} for no restriction
+     * @param boundCell the cell the search is restricted to
+     * @param opposite the search space of the opposite direction, null for one-directional searches
+     * @param meeting the best path found by both directions, null for one-directional searches
+     * @param counters the search counters, null while preprocessing
+     */
+    @SuppressWarnings( "unchecked" )
+    private void expand( SearchSpace<W> space, int vertex, int level, boolean reverse, int boundLevel, int boundCell,
+                         SearchSpace<W> opposite, Meeting<W> meeting, SearchCounters counters )
+    {
+        W distance = space.distance( vertex );
+        int[] offsets = reverse ? graph.inOffsets : graph.outOffsets;
+        int[] adjacents = reverse ? graph.inVertices : graph.outVertices;
+        int[] edges = reverse ? graph.inEdges : graph.outEdges;
+
+        int[] cell = level > 0 ? cells[level] : null;
+        for ( int arc = offsets[vertex]; arc < offsets[vertex + 1]; arc++ )
+        {
+            int v = adjacents[arc];
+            if ( cell == null || cell[v] != cell[vertex] )
+            {
+                relax( space, vertex, distance, v, edges[arc], weights.get( edges[arc] ), boundLevel, boundCell,
+                       opposite, meeting, counters );
+            }
+        }
+
+        if ( cell != null )
+        {
+            int[] boundary = boundaries[level][cell[vertex]];
+            Object[] clique = cliques[level][cell[vertex]];
+            int position = positions[level][vertex];
+            for ( int j = 0; j < boundary.length; j++ )
+            {
+                Object weight = reverse ? clique[j * boundary.length + position] : clique[position * boundary.length + j];
+                if ( j != position && weight != null )
+                {
+                    relax( space, vertex, distance, boundary[j], -1 - level, (W) weight, boundLevel, boundCell,
+                           opposite, meeting, counters );
+                }
+            }
+        }
+    }
+
+    /**
+     * Relaxes an arc, a graph edge or a clique arc, {@code -1 - level}, of the overlay, checking whether the
+     * improved vertex closes a shorter path with the opposite search.
+     */
+    private void relax( SearchSpace<W> space, int vertex, W distance, int v, int edge, W weight, int boundLevel,
+                        int boundCell, SearchSpace<W> opposite, Meeting<W> meeting, SearchCounters counters )
+    {
+        if ( space.isSettled( v ) || ( boundLevel > 0 && cells[boundLevel][v] != boundCell ) )
+        {
+            return;
+        }
+        if ( counters != null )
+        {
+            counters.relaxedEdges++;
+        }
+
+        W shortDist = weightOperations.append( distance, weight );
+        if ( space.isReached( v ) && weightOperations.compare( shortDist, space.distance( v ) ) >= 0 )
+        {
+            return;
+        }
+
+        space.reach( v, shortDist, vertex, edge );
+        boolean inserted = space.heap.insertOrDecrease( v, shortDist );
+        if ( meeting != null && opposite.isReached( v ) )
+        {
+            meeting.offer( weightOperations.append( shortDist, opposite.distance( v ) ), v, weightOperations );
+        }
+        if ( counters != null )
+        {
+            if ( inserted )
+            {
+                counters.heapPushes++;
+            }
+            else
+            {
+                counters.decreaseKeys++;
+            }
+        }
+    }
+
+    /**
+     * @return the highest level whose cell of the vertex contains neither the source nor the target,
+     *         {@code 0} if the vertex shares its lowest level cell with any of them
+     */
+    private int queryLevel( int vertex, int source, int target )
+    {
+        for ( int level = levels; level >= 1; level-- )
+        {
+            int cell = cells[level][vertex];
+            if ( cell != cells[level][source] && cell != cells[level][target] )
+            {
+                return level;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * @return the number of levels of the overlay
+     */
+    public int getLevels()
+    {
+        return levels;
+    }
+
+    /**
+     * Calculates the shortest path using bidirectional Dijkstra's algorithm over the overlay.
+     *
+     * @param source the path source
+     * @param target the path target
+     * @return a path which describes the shortest path, if any, otherwise a {@link PathNotFoundException} will be thrown
+     */
+    public WeightedPath<V, WE, W> shortestPath( V source, V target )
+    {
+        final int s = indexOf( source, "Shortest path can not be calculated from a null source" );
+        final int t = indexOf( target, "Shortest path can not be calculated to a null target" );
+
+        final SearchCounters counters = new SearchCounters( SearchAlgorithm.MULTI_LEVEL_OVERLAY, graph.order(), graph.size() );
+        final SearchSpace<W> forward = spaces.acquire();
+        final SearchSpace<W> backwards = spaces.acquire();
+
+        try
+        {
+            forward.reach( s, weightOperations.identity(), -1, -1 );
+            forward.heap.insertOrDecrease( s, weightOperations.identity() );
+            backwards.reach( t, weightOperations.identity(), -1, -1 );
+            backwards.heap.insertOrDecrease( t, weightOperations.identity() );
+            counters.heapPushes += 2;
+
+            Meeting<W> meeting = new Meeting<W>();
+            if ( s == t )
+            {
+                meeting.offer( weightOperations.identity(), s, weightOperations );
+            }
+
+            counters.enter( SearchPhase.SEARCH );
+
+            while ( !forward.heap.isEmpty() && !backwards.heap.isEmpty() )
+            {
+                // paths not discovered yet are not shorter than the sum of both frontiers
+                W frontiers = weightOperations.append( forward.heap.peekKey(), backwards.heap.peekKey() );
+                if ( meeting.best != null && weightOperations.compare( frontiers, meeting.best ) >= 0 )
+                {
+                    break;
+                }
+
+                boolean forwardStep = weightOperations.compare( forward.heap.peekKey(), backwards.heap.peekKey() ) <= 0;
+                SearchSpace<W> space = forwardStep ? forward : backwards;
+                SearchSpace<W> opposite = forwardStep ? backwards : forward;
+
+                int vertex = space.heap.poll();
+                counters.heapPops++;
+
+                space.settle( vertex );
+                counters.settledVertices++;
+
+                expand( space, vertex, queryLevel( vertex, s, t ), !forwardStep, 0, 0, opposite, meeting, counters );
+            }
+
+            if ( meeting.touch < 0 )
+            {
+                throw new PathNotFoundException( "Path from '%s' to '%s' doesn't exist", source, target );
+            }
+
+            counters.enter( SearchPhase.PATH_RECONSTRUCTION );
+            return buildPath( forward, s, meeting.touch, backwards, t );
+        }
+        finally
+        {
+            spaces.release( forward );
+            spaces.release( backwards );
+            counters.complete( listener );
+        }
+    }
+
+    /**
+     * Replaces the value of the edge between the given vertices, which is weighted by the weighted edges function,
+     * then computes again the cliques of the cells which contain them, from the lowest level up.
+     *
+     * The overlay works on its own snapshot, so the input graph is not modified.
+     *
+     * @param tail the tail of the updated edge
+     * @param head the head of the updated edge
+     * @param edgeValue the new value of the edge
+     */
+    public void updateWeight( V tail, V head, WE edgeValue )
+    {
+        int u = indexOf( tail, "Weight can not be updated from a null vertex" );
+        int v = indexOf( head, "Weight can not be updated to a null vertex" );
+        edgeValue = requireNonNull( edgeValue, "Weight can not be updated to a null edge value" );
+        W weight = weightedEdges.apply( edgeValue );
+
+        boolean found = false;
+        for ( int arc = graph.outOffsets[u]; arc < graph.outOffsets[u + 1]; arc++ )
+        {
+            if ( graph.outVertices[arc] == v )
+            {
+                int edge = graph.outEdges[arc];
+                graph.setEdgeValue( edge, edgeValue );
+                weights.set( edge, weight );
+                found = true;
+            }
+        }
+        if ( !found )
+        {
+            throw new IllegalArgumentException( format( "Edge from '%s' to '%s' doesn't exist in the graph", tail, head ) );
+        }
+
+        for ( int level = 1; level <= levels; level++ )
+        {
+            cliques[level][cells[level][u]] = clique( level, cells[level][u] );
+            if ( cells[level][v] != cells[level][u] )
+            {
+                cliques[level][cells[level][v]] = clique( level, cells[level][v] );
+            }
+        }
+    }
+
+    private int indexOf( V vertex, String nullMessage )
+    {
+        vertex = requireNonNull( vertex, nullMessage );
+        int index = graph.indexOf( vertex );
+        if ( index < 0 )
+        {
+            throw new IllegalArgumentException( format( "Vertex '%s' doesn't exist in the graph", vertex ) );
+        }
+        return index;
+    }
+
+    /**
+     * Builds the path from the source to the touch vertex, and from the touch vertex to the target, replacing the
+     * clique arcs with the shortest paths they stand for.
+     */
+    private WeightedPath<V, WE, W> buildPath( SearchSpace<W> forward, int source, int touch, SearchSpace<W> backwards,
+                                              int target )
+    {
+        InMemoryWeightedPath<V, WE, W> path =
+            new InMemoryWeightedPath<V, WE, W>( graph.vertex( source ), graph.vertex( target ), weightOperations, weightedEdges );
+
+        int length = 0;
+        for ( int v = touch; v != source; v = forward.predecessorVertex( v ) )
+        {
+            length++;
+        }
+        int[] vertices = new int[length + 1];
+        int[] edges = new int[length];
+        int v = touch;
+        for ( int i = length; i > 0; i-- )
+        {
+            vertices[i] = v;
+            edges[i - 1] = forward.predecessorEdge( v );
+            v = forward.predecessorVertex( v );
+        }
+        vertices[0] = source;
+
+        for ( int i = 0; i < length; i++ )
+        {
+            append( path, vertices[i], edges[i], vertices[i + 1] );
+        }
+        for ( v = touch; v != target; v = backwards.predecessorVertex( v ) )
+        {
+            append( path, v, backwards.predecessorEdge( v ), backwards.predecessorVertex( v ) );
+        }
+        return path;
+    }
+
+    /**
+     * Appends a graph edge, or the graph edges of the shortest path a clique arc stands for: the path is found by a
+     * Dijkstra's search over the overlay of the level below, restricted to the clique cell, then unpacked again.
+     */
+    private void append( InMemoryWeightedPath<V, WE, W> path, int from, int edge, int to )
+    {
+        if ( edge >= 0 )
+        {
+            path.addConnectionInTail( graph.vertex( from ), graph.edgeValue( edge ), graph.vertex( to ) );
+            return;
+        }
+
+        int level = -1 - edge;
+        int cell = cells[level][from];
+        int[] vertices;
+        int[] edges;
+        SearchSpace<W> space = spaces.acquire();
+
+        try
+        {
+            space.reach( from, weightOperations.identity(), -1, -1 );
+            space.heap.insertOrDecrease( from, weightOperations.identity() );
+            while ( !space.heap.isEmpty() )
+            {
+                int vertex = space.heap.poll();
+                space.settle( vertex );
+                if ( vertex == to )
+                {
+                    break;
+                }
+                expand( space, vertex, level - 1, false, level, cell, null, null, null );
+            }
+
+            int length = 0;
+            for ( int v = to; v != from; v = space.predecessorVertex( v ) )
+            {
+                length++;
+            }
+            vertices = new int[length + 1];
+            edges = new int[length];
+            int v = to;
+            for ( int i = length; i > 0; i-- )
+            {
+                vertices[i] = v;
+                edges[i - 1] = space.predecessorEdge( v );
+                v = space.predecessorVertex( v );
+            }
+            vertices[0] = from;
+        }
+        finally
+        {
+            spaces.release( space );
+        }
+
+        for ( int i = 0; i < edges.length; i++ )
+        {
+            append( path, vertices[i], edges[i], vertices[i + 1] );
+        }
+    }
+
+    /**
+     * The shortest path found so far by a bidirectional search, through the touch vertex.
+     */
+    private static final class Meeting<W>
+    {
+
+        W best;
+
+        int touch = -1;
+
+        void offer( W candidate, int vertex, OrderedMonoid<W> weightOperations )
+        {
+            if ( best == null || weightOperations.compare( candidate, best ) < 0 )
+            {
+                best = candidate;
+                touch = vertex;
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,41 @@
+package org.nnsoft.trudeau.shortestpath;
+
+/*
+ *   Copyright 2013 The Trudeau Project
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+import org.nnsoft.trudeau.math.monoid.OrderedMonoid;
+
+/**
+ * Selects the algorithm of a search started from many sources at once.
+ *
+ * @param <V> the Graph vertices type.
+ * @param <WE> the Graph weighted edges type
+ * @param <W> the weight type
+ */
+public interface MultiSourceSelector<V, WE, W>
+{
+
+    /**
+     * Runs a single Dijkstra's search from all the sources, as from a virtual super-source connected to each source
+     * with an edge weighing its offset, labelling every reachable vertex with its nearest source.
+     *
+     * @param <WO> the type of weight operations
+     * @param weightOperations the weight operations needed for the algorithm
+     * @return the nearest source, and the distance from it, of every reachable vertex
+     */
+    <WO extends OrderedMonoid<W>> NearestSources<V, W> applyingDijkstra( WO weightOperations );
+
+}
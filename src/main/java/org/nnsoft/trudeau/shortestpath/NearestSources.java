@@ -0,0 +1,111 @@
+package org.nnsoft.trudeau.shortestpath;
+
+/*
+ *   Copyright 2013 The Trudeau Project
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+import static java.lang.String.format;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The result of a multi-source search: every reached vertex labelled with its nearest source and the distance from it,
+ * i.e. the graph Voronoi cells of the sources.
+ *
+ * @param <V> the Graph vertices type
+ * @param <W> the weight type
+ */
+public final class NearestSources<V, W>
+{
+
+    private final Map<V, V> sources;
+
+    private final Map<V, W> distances;
+
+    NearestSources( Map<V, V> sources, Map<V, W> distances )
+    {
+        this.sources = sources;
+        this.distances = distances;
+    }
+
+    /**
+     * @return the number of vertices reached by at least one source
+     */
+    public int size()
+    {
+        return sources.size();
+    }
+
+    /**
+     * @param vertex the vertex to check
+     * @return true if the vertex is reached by at least one source
+     */
+    public boolean isReached( V vertex )
+    {
+        return sources.containsKey( vertex );
+    }
+
+    /**
+     * @param vertex the labelled vertex
+     * @return the source nearest to the vertex, null if no source reaches it
+     */
+    public V getNearestSource( V vertex )
+    {
+        return sources.get( vertex );
+    }
+
+    /**
+     * @param vertex the labelled vertex
+     * @return the distance of the vertex from its nearest source, offset included, null if no source reaches it
+     */
+    public W getDistance( V vertex )
+    {
+        return distances.get( vertex );
+    }
+
+    /**
+     * @return the vertices labelled with each source, in increasing distance order
+     */
+    public Map<V, List<V>> getCells()
+    {
+        Map<V, List<V>> cells = new HashMap<V, List<V>>();
+        for ( Map.Entry<V, V> label : sources.entrySet() )
+        {
+            List<V> cell = cells.get( label.getValue() );
+            if ( cell == null )
+            {
+                cell = new ArrayList<V>();
+                cells.put( label.getValue(), cell );
+            }
+            cell.add( label.getKey() );
+        }
+        for ( Map.Entry<V, List<V>> cell : cells.entrySet() )
+        {
+            cell.setValue( Collections.unmodifiableList( cell.getValue() ) );
+        }
+        return Collections.unmodifiableMap( cells );
+    }
+
+    @Override
+    public String toString()
+    {
+        return format( "NearestSources{reached=%s}", sources.size() );
+    }
+
+}
@@ -0,0 +1,220 @@
+package org.nnsoft.trudeau.shortestpath;
+
+/*
+ *   Copyright 2013 The Trudeau Project
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Metric independent vertex ordering by nested dissection: a separator of the graph, the smallest balanced level
+ * of a breadth first search started from a peripheral vertex, is ranked above the two sides it splits, which are
+ * ordered recursively.
+ *
+ * Arcs are followed in both directions and weights are ignored, so the order only depends on the graph topology.
+ */
+final class NestedDissection
+{
+
+    /**
+     * Sets of at most this many vertices are not split any further.
+     */
+    private static final int LEAF_SIZE = 4;
+
+    private NestedDissection()
+    {
+        // do not instantiate
+    }
+
+    /**
+     * Ranks the graph vertices, separators first from the highest rank down.
+     *
+     * @param graph the graph snapshot
+     * @return the rank of every vertex
+     */
+    static int[] rank( IndexedGraph<?, ?> graph )
+    {
+        int order = graph.order();
+        int[] ranks = new int[order];
+
+        // vertices belong to the set of the same id, ranked vertices to none
+        int[] owners = new int[order];
+        int[] visited = new int[order];
+        int[] levels = new int[order];
+        int[] queue = new int[order];
+        int stamp = 0;
+        int nextId = 1;
+        int nextRank = order - 1;
+
+        int[] all = new int[order];
+        for ( int vertex = 0; vertex < order; vertex++ )
+        {
+            all[vertex] = vertex;
+            owners[vertex] = nextId;
+        }
+
+        Deque<int[]> sets = new ArrayDeque<int[]>();
+        if ( order > 0 )
+        {
+            sets.push( all );
+        }
+
+        while ( !sets.isEmpty() )
+        {
+            int[] set = sets.pop();
+            int id = owners[set[0]];
+
+            if ( set.length <= LEAF_SIZE )
+            {
+                for ( int vertex : set )
+                {
+                    ranks[vertex] = nextRank--;
+                    owners[vertex] = 0;
+                }
+                continue;
+            }
+
+            // a set made of many components is split along them
+            stamp++;
+            int size = search( graph, set[0], id, owners, visited, stamp, levels, queue );
+            if ( size < set.length )
+            {
+                int[] component = new int[size];
+                System.arraycopy( queue, 0, component, 0, size );
+                int[] rest = new int[set.length - size];
+                int i = 0;
+                for ( int vertex : set )
+                {
+                    if ( visited[vertex] != stamp )
+                    {
+                        rest[i++] = vertex;
+                    }
+                }
+                nextId = push( sets, component, owners, nextId );
+                nextId = push( sets, rest, owners, nextId );
+                continue;
+            }
+
+            // the last vertex reached is peripheral, search again from it and cut the middle level
+            int peripheral = queue[size - 1];
+            stamp++;
+            search( graph, peripheral, id, owners, visited, stamp, levels, queue );
+
+            int separator = separator( queue, size, levels );
+            int[] rest = new int[set.length];
+            int restSize = 0;
+            for ( int vertex : set )
+            {
+                if ( levels[vertex] == separator )
+                {
+                    ranks[vertex] = nextRank--;
+                    owners[vertex] = 0;
+                }
+                else
+                {
+                    rest[restSize++] = vertex;
+                }
+            }
+
+            if ( restSize > 0 )
+            {
+                int[] remaining = new int[restSize];
+                System.arraycopy( rest, 0, remaining, 0, restSize );
+                nextId = push( sets, remaining, owners, nextId );
+            }
+        }
+
+        return ranks;
+    }
+
+    /**
+     * Picks the smallest level which leaves at least a third of the vertices on both its sides.
+     *
+     * @return the separator level
+     */
+    private static int separator( int[] queue, int size, int[] levels )
+    {
+        int separator = levels[queue[size / 2]];
+        int separatorSize = Integer.MAX_VALUE;
+
+        for ( int start = 0; start < size; )
+        {
+            int level = levels[queue[start]];
+            int end = start;
+            while ( end < size && levels[queue[end]] == level )
+            {
+                end++;
+            }
+
+            if ( start >= size / 3 && size - end >= size / 3 && end - start < separatorSize )
+            {
+                separator = level;
+                separatorSize = end - start;
+            }
+            start = end;
+        }
+        return separator;
+    }
+
+    private static int push( Deque<int[]> sets, int[] set, int[] owners, int nextId )
+    {
+        int id = ++nextId;
+        for ( int vertex : set )
+        {
+            owners[vertex] = id;
+        }
+        sets.push( set );
+        return nextId;
+    }
+
+    /**
+     * Breadth first search, following arcs in both directions, restricted to the vertices of the given set.
+     *
+     * @return the number of vertices reached, which are found in the queue in visit order
+     */
+    private static int search( IndexedGraph<?, ?> graph, int root, int id, int[] owners, int[] visited, int stamp,
+                               int[] levels, int[] queue )
+    {
+        visited[root] = stamp;
+        levels[root] = 0;
+        queue[0] = root;
+        int tail = 1;
+        for ( int head = 0; head < tail; head++ )
+        {
+            int vertex = queue[head];
+            tail = visit( graph.outOffsets, graph.outVertices, vertex, id, owners, visited, stamp, levels, queue, tail );
+            tail = visit( graph.inOffsets, graph.inVertices, vertex, id, owners, visited, stamp, levels, queue, tail );
+        }
+        return tail;
+    }
+
+    private static int visit( int[] offsets, int[] adjacents, int vertex, int id, int[] owners, int[] visited,
+                              int stamp, int[] levels, int[] queue, int tail )
+    {
+        for ( int arc = offsets[vertex]; arc < offsets[vertex + 1]; arc++ )
+        {
+            int v = adjacents[arc];
+            if ( owners[v] == id && visited[v] != stamp )
+            {
+                visited[v] = stamp;
+                levels[v] = levels[vertex] + 1;
+                queue[tail++] = v;
+            }
+        }
+        return tail;
+    }
+
+}
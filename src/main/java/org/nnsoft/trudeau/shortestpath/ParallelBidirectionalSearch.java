@@ -0,0 +1,261 @@
+package org.nnsoft.trudeau.shortestpath;
+
+/*
+ *   Copyright 2013 The Trudeau Project
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.nnsoft.trudeau.api.PathNotFoundException;
+import org.nnsoft.trudeau.api.WeightedPath;
+
+/**
+ * The bidirectional Dijkstra's search behind {@link ShortestPathEngine#parallelBidirectionalDijkstra(Object, Object)},
+ * which searches from the target on the common {@link java.util.concurrent.ForkJoinPool} while the calling thread
+ * searches from the source; both frontiers publish their state without locks.
+ *
+ * @param <V> the Graph vertices type
+ * @param <WE> the Graph weighted edges type
+ * @param <W> the weight type
+ */
+final class ParallelBidirectionalSearch<V, WE, W>
+    extends GraphSearch<V, WE, W>
+{
+
+    ParallelBidirectionalSearch( GraphSearch<V, WE, W> shared )
+    {
+        super( shared );
+    }
+
+    WeightedPath<V, WE, W> bidirectionalDijkstra( int s, int t )
+    {
+        final SearchCounters counters = new SearchCounters( SearchAlgorithm.PARALLEL_BIDIRECTIONAL_DIJKSTRA, graph.order(), graph.size() );
+        final SearchSpace<W> forward = spaces.acquire();
+        final SearchSpace<W> backwards = spaces.acquire();
+
+        try
+        {
+            // both spaces are ready before the backward search starts on the other thread
+            forward.share();
+            backwards.share();
+
+            AtomicReference<Meeting<W>> meeting = new AtomicReference<Meeting<W>>();
+            Frontier forwardFrontier = new Frontier( forward, s, t, false, meeting );
+            Frontier backwardFrontier = new Frontier( backwards, t, s, true, meeting );
+            forwardFrontier.opposite = backwardFrontier;
+            backwardFrontier.opposite = forwardFrontier;
+
+            counters.enter( SearchPhase.SEARCH );
+
+            CompletableFuture<Void> backwardSearch = CompletableFuture.runAsync( backwardFrontier );
+            try
+            {
+                forwardFrontier.run();
+            }
+            finally
+            {
+                // the backward search reads the forward space until it completes
+                join( backwardSearch );
+            }
+
+            counters.add( forwardFrontier.counters );
+            counters.add( backwardFrontier.counters );
+
+            if ( meeting.get() == null )
+            {
+                throw new PathNotFoundException( "Path from '%s' to '%s' doesn't exist", graph.vertex( s ), graph.vertex( t ) );
+            }
+
+            counters.enter( SearchPhase.PATH_RECONSTRUCTION );
+            return buildPath( forward, s, meeting.get().touch, backwards );
+        }
+        finally
+        {
+            spaces.release( forward );
+            spaces.release( backwards );
+            counters.complete( listener );
+        }
+    }
+
+    /**
+     * One direction of the search, which owns its
+     * search space and only reads the published state of the opposite one.
+     */
+    private final class Frontier
+        implements Runnable
+    {
+
+        private final SearchCounters counters =
+            new SearchCounters( SearchAlgorithm.PARALLEL_BIDIRECTIONAL_DIJKSTRA, graph.order(), graph.size() );
+
+        private final SearchSpace<W> space;
+
+        private final int[] offsets;
+
+        private final int[] vertices;
+
+        private final int[] edges;
+
+        private final int goal;
+
+        private final AtomicReference<Meeting<W>> meeting;
+
+        Frontier opposite;
+
+        /**
+         * The distance of the closest unsettled vertex, once the root has been settled: every closer vertex has
+         * been settled, published and relaxed.
+         */
+        private volatile W radius;
+
+        /**
+         * Set once every vertex reachable from the root has been settled.
+         */
+        private volatile boolean exhausted;
+
+        Frontier( SearchSpace<W> space, int root, int goal, boolean reverse, AtomicReference<Meeting<W>> meeting )
+        {
+            this.space = space;
+            this.goal = goal;
+            this.offsets = reverse ? graph.inOffsets : graph.outOffsets;
+            this.vertices = reverse ? graph.inVertices : graph.outVertices;
+            this.edges = reverse ? graph.inEdges : graph.outEdges;
+            this.meeting = meeting;
+
+            space.reach( root, weightOperations.identity(), -1, -1 );
+            space.heap.insertOrDecrease( root, weightOperations.identity() );
+            counters.heapPushes++;
+        }
+
+        public void run()
+        {
+            while ( !space.heap.isEmpty() && !isDone() )
+            {
+                int vertex = space.heap.poll();
+                counters.heapPops++;
+
+                // published before checking the opposite search, which does the same: no meeting goes unseen
+                space.settle( vertex );
+                space.publish( vertex );
+                counters.settledVertices++;
+
+                W distance = space.distance( vertex );
+                if ( vertex == goal )
+                {
+                    // the opposite search may not have started yet
+                    offer( distance, vertex );
+                }
+                else if ( opposite.space.isPublished( vertex ) )
+                {
+                    offer( weightOperations.append( distance, opposite.space.distance( vertex ) ), vertex );
+                }
+
+                for ( int arc = offsets[vertex]; arc < offsets[vertex + 1]; arc++ )
+                {
+                    int v = vertices[arc];
+                    relax( space, vertex, distance, v, edges[arc], counters );
+                    if ( !space.isSettled( v ) && opposite.space.isPublished( v ) )
+                    {
+                        offer( weightOperations.append( space.distance( v ), opposite.space.distance( v ) ), v );
+                    }
+                }
+
+                if ( !space.heap.isEmpty() )
+                {
+                    radius = space.heap.peekKey();
+                }
+            }
+            exhausted = space.heap.isEmpty();
+        }
+
+        /**
+         * Paths not discovered yet are not shorter than the sum of both radiuses, read before the best path:
+         * radiuses only grow, and paths through vertices closer than the opposite radius have been recorded.
+         * An exhausted opposite search has settled the root of this one, if reachable, and recorded the best path.
+         */
+        private boolean isDone()
+        {
+            if ( opposite.exhausted )
+            {
+                return true;
+            }
+
+            W oppositeRadius = opposite.radius;
+            Meeting<W> best = meeting.get();
+            if ( best == null )
+            {
+                return false;
+            }
+            W frontiers = oppositeRadius == null ? space.heap.peekKey()
+                                                 : weightOperations.append( space.heap.peekKey(), oppositeRadius );
+            return weightOperations.compare( frontiers, best.distance ) >= 0;
+        }
+
+        private void offer( W distance, int touch )
+        {
+            Meeting<W> candidate = new Meeting<W>( distance, touch );
+            Meeting<W> best = meeting.get();
+            while ( best == null || weightOperations.compare( distance, best.distance ) < 0 )
+            {
+                if ( meeting.compareAndSet( best, candidate ) )
+                {
+                    return;
+                }
+                best = meeting.get();
+            }
+        }
+
+    }
+
+    /**
+     * The shortest path recorded by a parallel bidirectional search, through the touch vertex.
+     */
+    private static final class Meeting<W>
+    {
+
+        final W distance;
+
+        final int touch;
+
+        Meeting( W distance, int touch )
+        {
+            this.distance = distance;
+            this.touch = touch;
+        }
+
+    }
+
+    /**
+     * Waits for a search running on another thread, rethrowing its failure.
+     */
+    private static void join( CompletableFuture<Void> search )
+    {
+        try
+        {
+            search.join();
+        }
+        catch ( CompletionException e )
+        {
+            if ( e.getCause() instanceof RuntimeException )
+            {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+}
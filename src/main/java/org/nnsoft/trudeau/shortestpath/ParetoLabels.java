@@ -0,0 +1,206 @@
+package org.nnsoft.trudeau.shortestpath;
+
+/*
+ *   Copyright 2013 The Trudeau Project
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * The labels of a multi-criteria search, stored in primitive arrays: label {@code l} costs are
+ * {@code costs[l * dimension ... (l + 1) * dimension)}, its predecessor label is {@code predecessors[l]}.
+ * Labels are never removed: dominated labels are only marked, and skipped once extracted from the queue.
+ *
+ * The queue is a binary heap of label ids ordered lexicographically by cost, so the extracted label is never
+ * dominated by a label extracted later.
+ *
+ * @param <V> the Graph vertices type
+ */
+final class ParetoLabels<V>
+{
+
+    private final int dimension;
+
+    private double[] costs;
+
+    private int[] predecessors;
+
+    private Object[] vertices;
+
+    private final BitSet dominated = new BitSet();
+
+    private int size;
+
+    private int[] heap = new int[16];
+
+    private int heapSize;
+
+    ParetoLabels( int dimension )
+    {
+        this.dimension = dimension;
+        this.costs = new double[16 * dimension];
+        this.predecessors = new int[16];
+        this.vertices = new Object[16];
+    }
+
+    /**
+     * Stores a new label.
+     *
+     * @param vertex the labelled vertex
+     * @param predecessor the label it extends, {@code -1} for the source label
+     * @param labelCosts the label costs
+     * @return the new label id
+     */
+    int add( V vertex, int predecessor, double[] labelCosts )
+    {
+        if ( size == predecessors.length )
+        {
+            costs = Arrays.copyOf( costs, 2 * costs.length );
+            predecessors = Arrays.copyOf( predecessors, 2 * predecessors.length );
+            vertices = Arrays.copyOf( vertices, 2 * vertices.length );
+        }
+        System.arraycopy( labelCosts, 0, costs, size * dimension, dimension );
+        predecessors[size] = predecessor;
+        vertices[size] = vertex;
+        return size++;
+    }
+
+    int size()
+    {
+        return size;
+    }
+
+    double cost( int label, int criterion )
+    {
+        return costs[label * dimension + criterion];
+    }
+
+    /**
+     * Copies the label costs in the given array.
+     */
+    void costs( int label, double[] target )
+    {
+        System.arraycopy( costs, label * dimension, target, 0, dimension );
+    }
+
+    @SuppressWarnings( "unchecked" )
+    V vertex( int label )
+    {
+        return (V) vertices[label];
+    }
+
+    int predecessor( int label )
+    {
+        return predecessors[label];
+    }
+
+    boolean isDominated( int label )
+    {
+        return dominated.get( label );
+    }
+
+    void dominate( int label )
+    {
+        dominated.set( label );
+    }
+
+    /**
+     * @return true if no cost of the label is greater than the given one
+     */
+    boolean covers( int label, double[] candidate )
+    {
+        int offset = label * dimension;
+        for ( int i = 0; i < dimension; i++ )
+        {
+            if ( costs[offset + i] > candidate[i] )
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    void push( int label )
+    {
+        if ( heapSize == heap.length )
+        {
+            heap = Arrays.copyOf( heap, 2 * heap.length );
+        }
+        int index = heapSize++;
+        while ( index > 0 )
+        {
+            int parent = ( index - 1 ) >>> 1;
+            if ( compare( heap[parent], label ) <= 0 )
+            {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = label;
+    }
+
+    int poll()
+    {
+        int first = heap[0];
+        int last = heap[--heapSize];
+        int index = 0;
+        while ( true )
+        {
+            int child = 2 * index + 1;
+            if ( child >= heapSize )
+            {
+                break;
+            }
+            if ( child + 1 < heapSize && compare( heap[child + 1], heap[child] ) < 0 )
+            {
+                child++;
+            }
+            if ( compare( last, heap[child] ) <= 0 )
+            {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        if ( heapSize > 0 )
+        {
+            heap[index] = last;
+        }
+        return first;
+    }
+
+    boolean isEmpty()
+    {
+        return heapSize == 0;
+    }
+
+    private int compare( int left, int right )
+    {
+        int leftOffset = left * dimension;
+        int rightOffset = right * dimension;
+        for ( int i = 0; i < dimension; i++ )
+        {
+            int comparison = Double.compare( costs[leftOffset + i], costs[rightOffset + i] );
+            if ( comparison != 0 )
+            {
+                return comparison;
+            }
+        }
+        return 0;
+    }
+
+}
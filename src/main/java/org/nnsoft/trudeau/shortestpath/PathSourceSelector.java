@@ -16,6 +16,8 @@ package org.nnsoft.trudeau.shortestpath;
  *   limitations under the License.
  */
 
+import java.util.Map;
+
 import org.nnsoft.trudeau.math.monoid.OrderedMonoid;
 
 /**
@@ -43,4 +45,30 @@ public interface PathSourceSelector<V, WE, W>
      */
     <H extends V> TargetSourceSelector<V, WE, W> from( H source );
 
+    /**
+     * Specifies many sources for a single search, all at distance zero.
+     *
+     * @param sources the search sources, i.e. the facilities
+     * @return the multi-source algorithm selector
+     */
+    MultiSourceSelector<V, WE, W> fromAll( Iterable<? extends V> sources );
+
+    /**
+     * Specifies many sources for a single search, each one starting at the given offset, i.e. a facility
+     * opening time or a service cost.
+     *
+     * @param offsets the search sources, mapped to their initial distance
+     * @return the multi-source algorithm selector
+     */
+    MultiSourceSelector<V, WE, W> fromAll( Map<? extends V, ? extends W> offsets );
+
+    /**
+     * Registers a listener that receives the {@link SearchStatistics} of every search
+     * started from the returned selector, once the search completes, after the listeners already registered.
+     *
+     * @param listener the listener notified on search completion
+     * @return a path source selector that reports to the given listener
+     */
+    PathSourceSelector<V, WE, W> reportingTo( SearchListener listener );
+
 }
@@ -1,6 +1,8 @@
 package org.nnsoft.trudeau.shortestpath;
 
+import java.util.List;
 import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
 
 // TODO find a better name
 public interface PathWeightedEdgesBuilder<V, WE>
@@ -11,4 +13,20 @@ public interface PathWeightedEdgesBuilder<V, WE>
 
     PathSourceSelector<V, WE, WE> whereEdgesAreWeights();
 
+    /**
+     * Weights edges by a travel time which depends on the time the edge is entered.
+     *
+     * @param travelTimes the function which maps each edge to its travel time function
+     * @return the time-dependent source selector
+     */
+    TimeDependentSourceSelector<V, WE> whereEdgesHaveTravelTimes( Function<WE, PiecewiseLinearFunction> travelTimes );
+
+    /**
+     * Weights edges by many non negative costs, one per criterion, i.e. cost, time and risk.
+     *
+     * @param criteria the functions which map each edge to its cost in each criterion
+     * @return the multi-criteria source selector
+     */
+    MultiCriteriaSourceSelector<V, WE> whereEdgesHaveCosts( List<? extends ToDoubleFunction<? super WE>> criteria );
+
 }
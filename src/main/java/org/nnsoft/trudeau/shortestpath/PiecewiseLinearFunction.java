@@ -0,0 +1,406 @@
+package org.nnsoft.trudeau.shortestpath;
+
+/*
+ *   Copyright 2013 The Trudeau Project
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+
+import java.util.Arrays;
+
+/**
+ * An immutable piecewise-linear function of time, given by its breakpoints: linear between consecutive breakpoints
+ * and constant before the first and after the last one.
+ *
+ * Used as the travel time of an edge, as a function of the time the edge is entered, it must satisfy the FIFO
+ * property: leaving later never means arriving earlier, i.e. no segment slope is less than {@code -1}.
+ *
+ * Breakpoints are stored in two primitive arrays; functions derived by {@link #link(PiecewiseLinearFunction)} and
+ * {@link #minimum(PiecewiseLinearFunction)} drop collinear breakpoints, to stay compact.
+ */
+public final class PiecewiseLinearFunction
+{
+
+    private static final double EPSILON = 1.0e-9;
+
+    private final double[] times;
+
+    private final double[] values;
+
+    /**
+     * Creates a function which has the same value at any time.
+     *
+     * @param value the function value
+     * @return the constant function
+     */
+    public static PiecewiseLinearFunction constant( double value )
+    {
+        if ( value < 0D || Double.isNaN( value ) || Double.isInfinite( value ) )
+        {
+            throw new IllegalArgumentException( format( "Travel time must be a non negative number, %s given", value ) );
+        }
+        return new PiecewiseLinearFunction( new double[] { 0D }, new double[] { value } );
+    }
+
+    /**
+     * Creates a function from its breakpoints.
+     *
+     * @param times the breakpoints times, strictly increasing
+     * @param values the function value at each breakpoint time, non negative
+     * @return the piecewise-linear function
+     */
+    public static PiecewiseLinearFunction breakpoints( double[] times, double[] values )
+    {
+        times = requireNonNull( times, "Piecewise-linear function can not be defined by null times" );
+        values = requireNonNull( values, "Piecewise-linear function can not be defined by null values" );
+        if ( times.length == 0 || times.length != values.length )
+        {
+            throw new IllegalArgumentException( format( "Piecewise-linear function needs as many times as values, at least one, %s times and %s values given",
+                                                        times.length, values.length ) );
+        }
+
+        for ( int i = 0; i < times.length; i++ )
+        {
+            if ( values[i] < 0D || Double.isNaN( values[i] ) || Double.isInfinite( values[i] ) )
+            {
+                throw new IllegalArgumentException( format( "Travel time must be a non negative number, %s given at time %s", values[i], times[i] ) );
+            }
+            if ( i > 0 && !( times[i] > times[i - 1] ) )
+            {
+                throw new IllegalArgumentException( format( "Breakpoints times must be strictly increasing, %s follows %s", times[i], times[i - 1] ) );
+            }
+            if ( i > 0 && values[i] - values[i - 1] < times[i - 1] - times[i] - EPSILON )
+            {
+                throw new IllegalArgumentException( format( "Travel time violates the FIFO property between times %s and %s", times[i - 1], times[i] ) );
+            }
+        }
+        return new PiecewiseLinearFunction( times.clone(), values.clone() );
+    }
+
+    private PiecewiseLinearFunction( double[] times, double[] values )
+    {
+        this.times = times;
+        this.values = values;
+    }
+
+    /**
+     * @param time the time the function has to be evaluated at
+     * @return the function value at the given time
+     */
+    public double evaluate( double time )
+    {
+        int last = times.length - 1;
+        if ( time <= times[0] )
+        {
+            return values[0];
+        }
+        if ( time >= times[last] )
+        {
+            return values[last];
+        }
+
+        // times[low] <= time < times[low + 1]
+        int low = 0;
+        int high = last;
+        while ( high - low > 1 )
+        {
+            int middle = ( low + high ) >>> 1;
+            if ( times[middle] <= time )
+            {
+                low = middle;
+            }
+            else
+            {
+                high = middle;
+            }
+        }
+        return interpolate( times[low], values[low], times[high], values[high], time );
+    }
+
+    /**
+     * @return the number of breakpoints
+     */
+    public int size()
+    {
+        return times.length;
+    }
+
+    /**
+     * @param index the breakpoint index
+     * @return the breakpoint time
+     */
+    public double getTime( int index )
+    {
+        return times[index];
+    }
+
+    /**
+     * @param index the breakpoint index
+     * @return the function value at the breakpoint
+     */
+    public double getValue( int index )
+    {
+        return values[index];
+    }
+
+    /**
+     * @return the function minimum value
+     */
+    public double getMinimum()
+    {
+        double minimum = values[0];
+        for ( double value : values )
+        {
+            minimum = Math.min( minimum, value );
+        }
+        return minimum;
+    }
+
+    /**
+     * @return the function maximum value
+     */
+    public double getMaximum()
+    {
+        double maximum = values[0];
+        for ( double value : values )
+        {
+            maximum = Math.max( maximum, value );
+        }
+        return maximum;
+    }
+
+    /**
+     * Links this travel time function with the one of the following edge: the result, at time {@code t}, is
+     * {@code this(t) + next(t + this(t))}, the travel time through both, departing at {@code t}.
+     *
+     * @param next the travel time function of the edge entered once this one is traversed
+     * @return the travel time function of the two edges in sequence
+     */
+    public PiecewiseLinearFunction link( PiecewiseLinearFunction next )
+    {
+        next = requireNonNull( next, "Piecewise-linear function can not be linked to a null function" );
+
+        int last = times.length - 1;
+
+        // breakpoints of this function, plus the times at which the following edge is entered at one of its breakpoints
+        double[] candidates = Arrays.copyOf( times, times.length + next.times.length );
+        int count = times.length;
+        for ( double entered : next.times )
+        {
+            if ( entered < times[0] + values[0] )
+            {
+                candidates[count++] = entered - values[0];
+            }
+            else if ( entered > times[last] + values[last] )
+            {
+                candidates[count++] = entered - values[last];
+            }
+            else
+            {
+                // arrival times are non decreasing: find the segment whose arrivals span the entering time
+                int low = 0;
+                int high = last;
+                while ( high - low > 1 )
+                {
+                    int middle = ( low + high ) >>> 1;
+                    if ( times[middle] + values[middle] <= entered )
+                    {
+                        low = middle;
+                    }
+                    else
+                    {
+                        high = middle;
+                    }
+                }
+                double lowArrival = times[low] + values[low];
+                double highArrival = times[high] + values[high];
+                if ( highArrival > lowArrival )
+                {
+                    candidates[count++] = times[low] + ( entered - lowArrival ) * ( times[high] - times[low] ) / ( highArrival - lowArrival );
+                }
+            }
+        }
+        Arrays.sort( candidates, 0, count );
+
+        double[] linkedValues = new double[count];
+        for ( int i = 0; i < count; i++ )
+        {
+            double travelTime = evaluate( candidates[i] );
+            linkedValues[i] = travelTime + next.evaluate( candidates[i] + travelTime );
+        }
+        return compact( candidates, linkedValues, count );
+    }
+
+    /**
+     * @param other the function to compare to
+     * @return the lower envelope of this function and the given one
+     */
+    public PiecewiseLinearFunction minimum( PiecewiseLinearFunction other )
+    {
+        other = requireNonNull( other, "Piecewise-linear function minimum can not be calculated with a null function" );
+
+        double[] union = union( other );
+
+        // breakpoints of both functions, plus the times they cross at
+        double[] candidates = new double[2 * union.length];
+        int count = 0;
+        for ( int i = 0; i < union.length; i++ )
+        {
+            if ( i > 0 )
+            {
+                double previous = evaluate( union[i - 1] ) - other.evaluate( union[i - 1] );
+                double current = evaluate( union[i] ) - other.evaluate( union[i] );
+                if ( ( previous < 0D && current > 0D ) || ( previous > 0D && current < 0D ) )
+                {
+                    candidates[count++] = union[i - 1] + ( union[i] - union[i - 1] ) * previous / ( previous - current );
+                }
+            }
+            candidates[count++] = union[i];
+        }
+
+        double[] minimumValues = new double[count];
+        for ( int i = 0; i < count; i++ )
+        {
+            minimumValues[i] = Math.min( evaluate( candidates[i] ), other.evaluate( candidates[i] ) );
+        }
+        return compact( candidates, minimumValues, count );
+    }
+
+    /**
+     * @param other the function to compare to
+     * @return true if this function is not greater than the given one at any time
+     */
+    public boolean isNotGreaterThan( PiecewiseLinearFunction other )
+    {
+        other = requireNonNull( other, "Piecewise-linear function can not be compared to a null function" );
+
+        // both functions are linear between consecutive breakpoints of the union
+        for ( double time : union( other ) )
+        {
+            if ( evaluate( time ) > other.evaluate( time ) + EPSILON )
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private double[] union( PiecewiseLinearFunction other )
+    {
+        double[] union = new double[times.length + other.times.length];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while ( i < times.length || j < other.times.length )
+        {
+            double time;
+            if ( j == other.times.length || ( i < times.length && times[i] <= other.times[j] ) )
+            {
+                time = times[i++];
+            }
+            else
+            {
+                time = other.times[j++];
+            }
+            if ( count == 0 || time > union[count - 1] )
+            {
+                union[count++] = time;
+            }
+        }
+        return Arrays.copyOf( union, count );
+    }
+
+    /**
+     * Builds a function from sorted breakpoints, merging the coincident ones and dropping the collinear ones.
+     */
+    private static PiecewiseLinearFunction compact( double[] times, double[] values, int count )
+    {
+        double[] compactTimes = new double[count];
+        double[] compactValues = new double[count];
+        int size = 0;
+        for ( int i = 0; i < count; i++ )
+        {
+            if ( size > 0 && times[i] - compactTimes[size - 1] <= EPSILON )
+            {
+                continue;
+            }
+            while ( size > 1
+                    && Math.abs( interpolate( compactTimes[size - 2], compactValues[size - 2], times[i], values[i], compactTimes[size - 1] )
+                                 - compactValues[size - 1] ) <= EPSILON )
+            {
+                size--;
+            }
+            compactTimes[size] = times[i];
+            compactValues[size] = values[i];
+            size++;
+        }
+
+        // constant extrapolation makes the first and last equal values redundant
+        int first = 0;
+        while ( size - first > 1 && Math.abs( compactValues[first + 1] - compactValues[first] ) <= EPSILON )
+        {
+            first++;
+        }
+        while ( size - first > 1 && Math.abs( compactValues[size - 2] - compactValues[size - 1] ) <= EPSILON )
+        {
+            size--;
+        }
+        return new PiecewiseLinearFunction( Arrays.copyOfRange( compactTimes, first, size ),
+                                            Arrays.copyOfRange( compactValues, first, size ) );
+    }
+
+    private static double interpolate( double fromTime, double fromValue, double toTime, double toValue, double time )
+    {
+        return fromValue + ( toValue - fromValue ) * ( time - fromTime ) / ( toTime - fromTime );
+    }
+
+    @Override
+    public boolean equals( Object obj )
+    {
+        if ( this == obj )
+        {
+            return true;
+        }
+        if ( !( obj instanceof PiecewiseLinearFunction ) )
+        {
+            return false;
+        }
+        PiecewiseLinearFunction other = (PiecewiseLinearFunction) obj;
+        return Arrays.equals( times, other.times ) && Arrays.equals( values, other.values );
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return 31 * Arrays.hashCode( times ) + Arrays.hashCode( values );
+    }
+
+    @Override
+    public String toString()
+    {
+        StringBuilder builder = new StringBuilder( "PiecewiseLinearFunction[" );
+        for ( int i = 0; i < times.length; i++ )
+        {
+            if ( i > 0 )
+            {
+                builder.append( ", " );
+            }
+            builder.append( '(' ).append( times[i] ).append( ", " ).append( values[i] ).append( ')' );
+        }
+        return builder.append( ']' ).toString();
+    }
+
+}
@@ -0,0 +1,124 @@
+package org.nnsoft.trudeau.shortestpath;
+
+/*
+ *   Copyright 2013 The Trudeau Project
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+import org.nnsoft.trudeau.math.monoid.OrderedMonoid;
+
+/**
+ * Enforces the {@link QueryOptions} of a single search, checked once per extracted vertex.
+ *
+ * Counters and the distance bound are compared on every check, while the clock is read only every
+ * {@code 64} checks, so that unbounded searches pay a single branch and bounded ones no system call
+ * per vertex.
+ */
+final class QueryGuard<V, W>
+{
+
+    private static final int CLOCK_CHECK_MASK = 63;
+
+    private final QueryOptions<W> options;
+
+    private final OrderedMonoid<W> weightOperations;
+
+    private final SearchCounters counters;
+
+    private final V source;
+
+    private final V target;
+
+    private final long deadline;
+
+    private int checks;
+
+    QueryGuard( QueryOptions<W> options, OrderedMonoid<W> weightOperations, SearchCounters counters, V source, V target )
+    {
+        this.options = options;
+        this.weightOperations = weightOperations;
+        this.counters = counters;
+        this.source = source;
+        this.target = target;
+        this.deadline = System.nanoTime() + options.getTimeoutNanos();
+    }
+
+    /**
+     * @return true if the search has limits to check
+     */
+    boolean isActive()
+    {
+        return !options.isUnbounded();
+    }
+
+    /**
+     * Verifies the search can go on.
+     *
+     * @param lowerBound the distance below which the target has already been excluded
+     * @throws SearchAbortedException if any limit has been exceeded
+     */
+    void check( W lowerBound )
+    {
+        if ( options.isUnbounded() )
+        {
+            return;
+        }
+
+        CancellationToken cancellationToken = options.getCancellationToken();
+        if ( cancellationToken != null && cancellationToken.isCancelled() )
+        {
+            abort( SearchAbortReason.CANCELLED, lowerBound );
+        }
+
+        if ( counters.settledVertices >= options.getMaxSettledVertices() )
+        {
+            abort( SearchAbortReason.SETTLED_VERTICES_EXCEEDED, lowerBound );
+        }
+
+        W maxDistance = options.getMaxDistance();
+        if ( maxDistance != null && weightOperations.compare( lowerBound, maxDistance ) > 0 )
+        {
+            abort( SearchAbortReason.MAX_DISTANCE_EXCEEDED, lowerBound );
+        }
+
+        if ( options.getTimeoutNanos() > 0 && ( ++checks & CLOCK_CHECK_MASK ) == 0 && System.nanoTime() - deadline > 0 )
+        {
+            abort( SearchAbortReason.DEADLINE_EXCEEDED, lowerBound );
+        }
+    }
+
+    /**
+     * Verifies the reached target is within the distance bound: its distance is final, so the other limits,
+     * which only stop searches still expanding vertices, don't apply.
+     *
+     * @param distance the target distance
+     * @throws SearchAbortedException if the target is farther than the distance bound
+     */
+    void checkTarget( W distance )
+    {
+        W maxDistance = options.getMaxDistance();
+        if ( maxDistance != null && weightOperations.compare( distance, maxDistance ) > 0 )
+        {
+            abort( SearchAbortReason.MAX_DISTANCE_EXCEEDED, distance );
+        }
+    }
+
+    private void abort( SearchAbortReason reason, W lowerBound )
+    {
+        throw new SearchAbortedException( reason, counters.settledVertices, lowerBound,
+                                          "Search from '%s' to '%s' aborted, %s after %s settled vertices",
+                                          source, target, reason, counters.settledVertices );
+    }
+
+}
@@ -0,0 +1,153 @@
+package org.nnsoft.trudeau.shortestpath;
+
+/*
+ *   Copyright 2013 The Trudeau Project
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Immutable limits a point-to-point search has to respect: a wall-clock deadline, a budget of settled vertices,
+ * a maximum distance and a {@link CancellationToken}.
+ *
+ * Searches exceeding any limit stop and throw a {@link SearchAbortedException}; the same options instance
+ * can be shared by any number of searches, since the deadline is measured from each search start.
+ *
+ * <pre>
+ * QueryOptions&lt;Double&gt; options = QueryOptions.&lt;Double&gt;queryOptions()
+ *                                          .withDeadline( 50, TimeUnit.MILLISECONDS )
+ *                                          .withMaxSettledVertices( 100000 );
+ * </pre>
+ *
+ * @param <W> the weight type
+ */
+public final class QueryOptions<W>
+{
+
+    private static final QueryOptions<Object> NONE = new QueryOptions<Object>( 0L, Long.MAX_VALUE, null, null );
+
+    /**
+     * Returns options with no limits at all.
+     *
+     * @param <W> the weight type
+     * @return options with no limits
+     */
+    @SuppressWarnings( "unchecked" )
+    public static <W> QueryOptions<W> queryOptions()
+    {
+        return (QueryOptions<W>) NONE;
+    }
+
+    private final long timeoutNanos;
+
+    private final long maxSettledVertices;
+
+    private final W maxDistance;
+
+    private final CancellationToken cancellationToken;
+
+    private QueryOptions( long timeoutNanos, long maxSettledVertices, W maxDistance, CancellationToken cancellationToken )
+    {
+        this.timeoutNanos = timeoutNanos;
+        this.maxSettledVertices = maxSettledVertices;
+        this.maxDistance = maxDistance;
+        this.cancellationToken = cancellationToken;
+    }
+
+    /**
+     * Limits the time a search can run.
+     *
+     * @param timeout the maximum search duration, must be positive
+     * @param unit the timeout unit
+     * @return new options with the given deadline
+     */
+    public QueryOptions<W> withDeadline( long timeout, TimeUnit unit )
+    {
+        unit = requireNonNull( unit, "Deadline unit can not be null" );
+        if ( timeout <= 0 )
+        {
+            throw new IllegalArgumentException( format( "Deadline must be positive, %s given", timeout ) );
+        }
+        return new QueryOptions<W>( unit.toNanos( timeout ), maxSettledVertices, maxDistance, cancellationToken );
+    }
+
+    /**
+     * Limits the number of vertices a search can settle.
+     *
+     * @param maxSettledVertices the maximum number of settled vertices, must be positive
+     * @return new options with the given budget
+     */
+    public QueryOptions<W> withMaxSettledVertices( long maxSettledVertices )
+    {
+        if ( maxSettledVertices <= 0 )
+        {
+            throw new IllegalArgumentException( format( "Settled vertices budget must be positive, %s given", maxSettledVertices ) );
+        }
+        return new QueryOptions<W>( timeoutNanos, maxSettledVertices, maxDistance, cancellationToken );
+    }
+
+    /**
+     * Limits the distance a search explores: targets farther than the given distance are not searched.
+     *
+     * @param maxDistance the maximum distance from the source
+     * @return new options with the given distance bound
+     */
+    public QueryOptions<W> withMaxDistance( W maxDistance )
+    {
+        maxDistance = requireNonNull( maxDistance, "Max distance can not be null" );
+        return new QueryOptions<W>( timeoutNanos, maxSettledVertices, maxDistance, cancellationToken );
+    }
+
+    /**
+     * Makes searches observe the given token.
+     *
+     * @param cancellationToken the token which cancels the search
+     * @return new options with the given cancellation token
+     */
+    public QueryOptions<W> withCancellation( CancellationToken cancellationToken )
+    {
+        cancellationToken = requireNonNull( cancellationToken, "Cancellation token can not be null" );
+        return new QueryOptions<W>( timeoutNanos, maxSettledVertices, maxDistance, cancellationToken );
+    }
+
+    long getTimeoutNanos()
+    {
+        return timeoutNanos;
+    }
+
+    long getMaxSettledVertices()
+    {
+        return maxSettledVertices;
+    }
+
+    W getMaxDistance()
+    {
+        return maxDistance;
+    }
+
+    CancellationToken getCancellationToken()
+    {
+        return cancellationToken;
+    }
+
+    boolean isUnbounded()
+    {
+        return this == NONE;
+    }
+
+}
@@ -0,0 +1,56 @@
+package org.nnsoft.trudeau.shortestpath;
+
+/*
+ *   Copyright 2013 The Trudeau Project
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.Queue;
+
+/**
+ * A vertex in the priority queue of a search on a generic graph, with the key it was queued with.
+ *
+ * Keys never change while queued: a vertex whose key decreases is queued again, and the entries left behind are
+ * skipped once the vertex is settled, so the queue order is never broken by a key updated in place.
+ *
+ * @param <V> the Graph vertices type
+ * @param <W> the weight type
+ */
+final class QueuedVertex<V, W>
+{
+
+    /**
+     * Creates an empty priority queue, ordered by the entries keys.
+     *
+     * @param comparator the keys comparator
+     * @return an empty priority queue
+     */
+    static <V, W> Queue<QueuedVertex<V, W>> newQueue( final Comparator<? super W> comparator )
+    {
+        return new PriorityQueue<QueuedVertex<V, W>>( ( left, right ) -> comparator.compare( left.key, right.key ) );
+    }
+
+    final V vertex;
+
+    final W key;
+
+    QueuedVertex( V vertex, W key )
+    {
+        this.vertex = vertex;
+        this.key = key;
+    }
+
+}
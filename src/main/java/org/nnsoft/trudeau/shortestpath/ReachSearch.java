@@ -0,0 +1,256 @@
+package org.nnsoft.trudeau.shortestpath;
+
+/*
+ *   Copyright 2013 The Trudeau Project
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+import org.nnsoft.trudeau.api.PathNotFoundException;
+import org.nnsoft.trudeau.api.WeightedPath;
+
+/**
+ * Computes the {@link Reaches} of a graph snapshot and answers the reach-based bidirectional Dijkstra's queries,
+ * which don't visit the vertices whose reach is too small to lie on a shortest path between source and target.
+ *
+ * @param <V> the Graph vertices type
+ * @param <WE> the Graph weighted edges type
+ * @param <W> the weight type
+ */
+final class ReachSearch<V, WE, W>
+    extends GraphSearch<V, WE, W>
+{
+
+    ReachSearch( GraphSearch<V, WE, W> shared )
+    {
+        super( shared );
+    }
+
+    /**
+     * Computes the reach of every vertex from the complete shortest path tree of every vertex, grown in parallel
+     * on the common {@link java.util.concurrent.ForkJoinPool}.
+     *
+     * @return the reaches
+     */
+    Reaches<V, W> reaches()
+    {
+        ReachTrees trees = IntStream.range( 0, graph.order() )
+                                    .parallel()
+                                    .collect( ReachTrees::new, ReachTrees::grow, ReachTrees::merge );
+        return new Reaches<V, W>( graph, trees.reaches );
+    }
+
+    WeightedPath<V, WE, W> bidirectionalDijkstra( int s, int t, Reaches<V, W> reaches, Heuristic<V, W> lowerBounds )
+    {
+        final SearchCounters counters = new SearchCounters( SearchAlgorithm.REACH, graph.order(), graph.size() );
+        final SearchSpace<W> forward = spaces.acquire();
+        final SearchSpace<W> backwards = spaces.acquire();
+
+        try
+        {
+            forward.reach( s, weightOperations.identity(), -1, -1 );
+            forward.heap.insertOrDecrease( s, weightOperations.identity() );
+            backwards.reach( t, weightOperations.identity(), -1, -1 );
+            backwards.heap.insertOrDecrease( t, weightOperations.identity() );
+            counters.heapPushes += 2;
+
+            W best = s == t ? weightOperations.identity() : null;
+            int touch = s == t ? s : -1;
+
+            counters.enter( SearchPhase.SEARCH );
+
+            while ( !forward.heap.isEmpty() && !backwards.heap.isEmpty() )
+            {
+                // vertices of the shortest path are never pruned, the usual stopping criterion holds
+                W frontiers = weightOperations.append( forward.heap.peekKey(), backwards.heap.peekKey() );
+                if ( best != null && weightOperations.compare( frontiers, best ) >= 0 )
+                {
+                    break;
+                }
+
+                boolean forwardStep = weightOperations.compare( forward.heap.peekKey(), backwards.heap.peekKey() ) <= 0;
+                SearchSpace<W> space = forwardStep ? forward : backwards;
+                SearchSpace<W> opposite = forwardStep ? backwards : forward;
+                int[] offsets = forwardStep ? graph.outOffsets : graph.inOffsets;
+                int[] vertices = forwardStep ? graph.outVertices : graph.inVertices;
+                int[] edges = forwardStep ? graph.outEdges : graph.inEdges;
+
+                int vertex = space.heap.poll();
+                counters.heapPops++;
+
+                space.settle( vertex );
+                counters.settledVertices++;
+
+                W distance = space.distance( vertex );
+                for ( int arc = offsets[vertex]; arc < offsets[vertex + 1]; arc++ )
+                {
+                    int v = vertices[arc];
+                    if ( space.isSettled( v ) )
+                    {
+                        continue;
+                    }
+                    counters.relaxedEdges++;
+
+                    W shortDist = weightOperations.append( distance, weights.get( edges[arc] ) );
+                    if ( space.isReached( v ) && weightOperations.compare( shortDist, space.distance( v ) ) >= 0 )
+                    {
+                        continue;
+                    }
+
+                    W reach = reaches.reach( v );
+                    if ( weightOperations.compare( reach, shortDist ) < 0
+                         && weightOperations.compare( reach, lowerBound( v, opposite, forwardStep, s, t, lowerBounds, counters ) ) < 0 )
+                    {
+                        continue;
+                    }
+
+                    space.reach( v, shortDist, vertex, edges[arc] );
+                    count( space.heap.insertOrDecrease( v, shortDist ), counters );
+
+                    if ( opposite.isReached( v ) )
+                    {
+                        W candidate = weightOperations.append( shortDist, opposite.distance( v ) );
+                        if ( best == null || weightOperations.compare( candidate, best ) < 0 )
+                        {
+                            best = candidate;
+                            touch = v;
+                        }
+                    }
+                }
+            }
+
+            if ( touch < 0 )
+            {
+                throw new PathNotFoundException( "Path from '%s' to '%s' doesn't exist", graph.vertex( s ), graph.vertex( t ) );
+            }
+
+            counters.enter( SearchPhase.PATH_RECONSTRUCTION );
+            return buildPath( forward, s, touch, backwards );
+        }
+        finally
+        {
+            spaces.release( forward );
+            spaces.release( backwards );
+            counters.complete( listener );
+        }
+    }
+
+    /**
+     * Bounds the distance between the vertex and the other end of the search: exact once the opposite search
+     * settled the vertex, not shorter than the opposite search radius otherwise, nor than the heuristic.
+     *
+     * @param vertex the vertex to bound
+     * @param opposite the opposite search
+     * @param forward true if searching from the source, false if searching from the target
+     * @param s the path source
+     * @param t the path target
+     * @param lowerBounds the admissible heuristic
+     * @param counters the search counters
+     * @return the lower bound of the distance between the vertex and the other end of the search
+     */
+    private W lowerBound( int vertex, SearchSpace<W> opposite, boolean forward, int s, int t,
+                          Heuristic<V, W> lowerBounds, SearchCounters counters )
+    {
+        if ( opposite.isSettled( vertex ) )
+        {
+            return opposite.distance( vertex );
+        }
+
+        W estimate = forward ? lowerBounds.applyHeuristic( graph.vertex( vertex ), graph.vertex( t ) )
+                             : lowerBounds.applyHeuristic( graph.vertex( s ), graph.vertex( vertex ) );
+        counters.heuristicCalls++;
+
+        W radius = opposite.heap.peekKey();
+        return weightOperations.compare( estimate, radius ) < 0 ? radius : estimate;
+    }
+
+    /**
+     * The reaches collected from the shortest path trees of a range of roots, merged by taking the largest.
+     */
+    private final class ReachTrees
+    {
+
+        final Object[] reaches = new Object[graph.order()];
+
+        private final Object[] heights = new Object[graph.order()];
+
+        private final int[] settled = new int[graph.order()];
+
+        private int size;
+
+        ReachTrees()
+        {
+            Arrays.fill( reaches, weightOperations.identity() );
+        }
+
+        /**
+         * Grows the shortest path tree of the root, then walks it leaves first: the reach of a vertex within the
+         * tree is the smallest between its depth and its height, the distance to its farthest descendant.
+         */
+        @SuppressWarnings( "unchecked" )
+        void grow( int root )
+        {
+            SearchSpace<W> space = spaces.acquire();
+
+            try
+            {
+                size = 0;
+                shortestPathTree( space, root, false, vertex -> {
+                    heights[vertex] = weightOperations.identity();
+                    settled[size++] = vertex;
+                } );
+
+                for ( int i = size - 1; i > 0; i-- )
+                {
+                    int vertex = settled[i];
+                    W depth = space.distance( vertex );
+                    W height = (W) heights[vertex];
+
+                    W reach = weightOperations.compare( depth, height ) < 0 ? depth : height;
+                    if ( weightOperations.compare( reach, (W) reaches[vertex] ) > 0 )
+                    {
+                        reaches[vertex] = reach;
+                    }
+
+                    int parent = space.predecessorVertex( vertex );
+                    W parentHeight = weightOperations.append( weights.get( space.predecessorEdge( vertex ) ), height );
+                    if ( weightOperations.compare( parentHeight, (W) heights[parent] ) > 0 )
+                    {
+                        heights[parent] = parentHeight;
+                    }
+                }
+            }
+            finally
+            {
+                spaces.release( space );
+            }
+        }
+
+        @SuppressWarnings( "unchecked" )
+        void merge( ReachTrees other )
+        {
+            for ( int vertex = 0; vertex < reaches.length; vertex++ )
+            {
+                if ( weightOperations.compare( (W) other.reaches[vertex], (W) reaches[vertex] ) > 0 )
+                {
+                    reaches[vertex] = other.reaches[vertex];
+                }
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,78 @@
+package org.nnsoft.trudeau.shortestpath;
+
+/*
+ *   Copyright 2013 The Trudeau Project
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+import static java.lang.String.format;
+
+/**
+ * The reaches of the vertices of the graph snapshot of a {@link ShortestPathEngine}: the reach of a vertex is the
+ * largest, over the shortest paths through it, of the smallest between its distance from the path source and its
+ * distance to the path target.
+ *
+ * {@link ShortestPathEngine#bidirectionalDijkstra(Object, Object, Reaches, Heuristic) Reach-based queries} don't
+ * visit vertices whose reach is smaller than both their distance from the source and a lower bound of their
+ * distance to the target: they are not on any shortest path to the target.
+ *
+ * Reaches are immutable and can be shared by concurrent queries, but have to be computed again when the edge
+ * weights change.
+ *
+ * @param <V> the Graph vertices type
+ * @param <W> the weight type
+ */
+public final class Reaches<V, W>
+{
+
+    private final IndexedGraph<V, ?> graph;
+
+    private final Object[] reaches;
+
+    Reaches( IndexedGraph<V, ?> graph, Object[] reaches )
+    {
+        this.graph = graph;
+        this.reaches = reaches;
+    }
+
+    /**
+     * @param vertex a graph vertex
+     * @return the reach of the vertex
+     */
+    public W getReach( V vertex )
+    {
+        int index = graph.indexOf( vertex );
+        if ( index < 0 )
+        {
+            throw new IllegalArgumentException( format( "Vertex '%s' doesn't exist in the graph", vertex ) );
+        }
+        return reach( index );
+    }
+
+    boolean isIndexedOn( IndexedGraph<V, ?> graph )
+    {
+        return this.graph == graph;
+    }
+
+    /**
+     * @param vertex the vertex index
+     * @return the vertex reach
+     */
+    @SuppressWarnings( "unchecked" )
+    W reach( int vertex )
+    {
+        return (W) reaches[vertex];
+    }
+
+}
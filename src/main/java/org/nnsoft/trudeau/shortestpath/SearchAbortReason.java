@@ -0,0 +1,45 @@
+package org.nnsoft.trudeau.shortestpath;
+
+/*
+ *   Copyright 2013 The Trudeau Project
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+/**
+ * The reasons a search can be aborted before finding the requested path.
+ */
+public enum SearchAbortReason
+{
+
+    /**
+     * The {@link CancellationToken} attached to the search has been cancelled.
+     */
+    CANCELLED,
+
+    /**
+     * The search ran longer than its deadline.
+     */
+    DEADLINE_EXCEEDED,
+
+    /**
+     * The search settled as many vertices as its budget allowed.
+     */
+    SETTLED_VERTICES_EXCEEDED,
+
+    /**
+     * No path within the maximum distance exists.
+     */
+    MAX_DISTANCE_EXCEEDED
+
+}
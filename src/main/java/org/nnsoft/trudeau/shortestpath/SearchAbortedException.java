@@ -0,0 +1,77 @@
+package org.nnsoft.trudeau.shortestpath;
+
+/*
+ *   Copyright 2013 The Trudeau Project
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+import org.nnsoft.trudeau.api.GraphException;
+
+/**
+ * Exception thrown when a search is stopped by one of its {@link QueryOptions}, before finding the requested path.
+ *
+ * It carries the best information the search gathered: how many vertices have been settled and a lower bound
+ * of the distance between the source and the target, i.e. the target is known to be farther than that.
+ */
+public final class SearchAbortedException
+    extends GraphException
+{
+
+    private static final long serialVersionUID = -5034621934520683178L;
+
+    private final SearchAbortReason reason;
+
+    private final long settledVertices;
+
+    private final transient Object lowerBound;
+
+    public SearchAbortedException( SearchAbortReason reason, long settledVertices, Object lowerBound,
+                                   String messagePattern, Object...arguments )
+    {
+        super( messagePattern, arguments );
+        this.reason = reason;
+        this.settledVertices = settledVertices;
+        this.lowerBound = lowerBound;
+    }
+
+    /**
+     * @return the reason the search has been aborted
+     */
+    public SearchAbortReason getReason()
+    {
+        return reason;
+    }
+
+    /**
+     * @return the number of vertices settled before the search has been aborted
+     */
+    public long getSettledVertices()
+    {
+        return settledVertices;
+    }
+
+    /**
+     * Returns the lower bound of the distance between the source and the target, as proven by the search
+     * before being aborted.
+     *
+     * @param <W> the weight type of the aborted search
+     * @return the distance lower bound, null if the search was aborted before settling any vertex
+     */
+    @SuppressWarnings( "unchecked" )
+    public <W> W getLowerBound()
+    {
+        return (W) lowerBound;
+    }
+
+}
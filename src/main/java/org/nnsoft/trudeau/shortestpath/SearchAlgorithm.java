@@ -0,0 +1,57 @@
+package org.nnsoft.trudeau.shortestpath;
+
+/*
+ *   Copyright 2013 The Trudeau Project
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+/**
+ * The shortest path algorithms which report {@link SearchStatistics}.
+ */
+public enum SearchAlgorithm
+{
+
+    DIJKSTRA,
+
+    BIDIRECTIONAL_DIJKSTRA,
+
+    A_STAR,
+
+    BELLMAN_FORD,
+
+    FLOYD_WARSHALL,
+
+    TIME_DEPENDENT_DIJKSTRA,
+
+    PROFILE_SEARCH,
+
+    PARETO,
+
+    RESOURCE_CONSTRAINED,
+
+    ARC_FLAGS,
+
+    REACH,
+
+    CUSTOMIZABLE_CONTRACTION_HIERARCHY,
+
+    MULTI_LEVEL_OVERLAY,
+
+    TRANSIT_NODE_ROUTING,
+
+    PARALLEL_BIDIRECTIONAL_DIJKSTRA,
+
+    BREADTH_FIRST_SEARCH;
+
+}
@@ -0,0 +1,136 @@
+package org.nnsoft.trudeau.shortestpath;
+
+/*
+ *   Copyright 2013 The Trudeau Project
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+/**
+ * Mutable counters the algorithms update while searching, turned into {@link SearchStatistics} once done.
+ *
+ * Counters are plain fields, incremented directly from the algorithms main loop:
+ * nothing but a memory increment happens there, whether a {@link SearchListener} is attached or not.
+ * A {@link SearchEvent} is created, and committed once the search completes, only if Flight Recorder
+ * is recording it.
+ */
+final class SearchCounters
+{
+
+    long settledVertices;
+
+    long relaxedEdges;
+
+    long heapPushes;
+
+    long heapPops;
+
+    long decreaseKeys;
+
+    long heuristicCalls;
+
+    private final SearchAlgorithm algorithm;
+
+    private final long graphOrder;
+
+    private final long graphSize;
+
+    private final SearchEvent event;
+
+    private final long[] elapsedNanos = new long[SearchPhase.values().length];
+
+    private SearchPhase phase = SearchPhase.INITIALIZATION;
+
+    private long phaseStart = System.nanoTime();
+
+    SearchCounters( SearchAlgorithm algorithm, long graphOrder, long graphSize )
+    {
+        this.algorithm = algorithm;
+        this.graphOrder = graphOrder;
+        this.graphSize = graphSize;
+        if ( SearchEvent.isRecording() )
+        {
+            event = new SearchEvent();
+            event.begin();
+        }
+        else
+        {
+            event = null;
+        }
+    }
+
+    /**
+     * Closes the current phase and starts timing the next one.
+     *
+     * @param next the phase the search enters
+     */
+    void enter( SearchPhase next )
+    {
+        long now = System.nanoTime();
+        elapsedNanos[phase.ordinal()] += now - phaseStart;
+        phase = next;
+        phaseStart = now;
+    }
+
+    /**
+     * Adds the counts of a part of the search which ran on another thread.
+     *
+     * @param other the counters of the other part, no longer updated
+     */
+    void add( SearchCounters other )
+    {
+        settledVertices += other.settledVertices;
+        relaxedEdges += other.relaxedEdges;
+        heapPushes += other.heapPushes;
+        heapPops += other.heapPops;
+        decreaseKeys += other.decreaseKeys;
+        heuristicCalls += other.heuristicCalls;
+    }
+
+    /**
+     * Closes the current phase, commits the search event and notifies the listener, if any.
+     *
+     * @param listener the listener to notify, may be null
+     */
+    void complete( SearchListener listener )
+    {
+        enter( phase );
+
+        if ( event != null )
+        {
+            event.end();
+            if ( event.shouldCommit() )
+            {
+                event.algorithm = algorithm.name();
+                event.graphOrder = graphOrder;
+                event.graphSize = graphSize;
+                event.settledVertices = settledVertices;
+                event.relaxedEdges = relaxedEdges;
+                event.commit();
+            }
+        }
+
+        if ( listener != null )
+        {
+            listener.searchCompleted( new SearchStatistics( algorithm,
+                                                            settledVertices,
+                                                            relaxedEdges,
+                                                            heapPushes,
+                                                            heapPops,
+                                                            decreaseKeys,
+                                                            heuristicCalls,
+                                                            elapsedNanos.clone() ) );
+        }
+    }
+
+}
@@ -0,0 +1,71 @@
+package org.nnsoft.trudeau.shortestpath;
+
+/*
+ *   Copyright 2013 The Trudeau Project
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The Flight Recorder event committed by every search, whose duration is the search duration.
+ *
+ * Events are created and committed only while a recording is running, i.e. when the JVM is started with
+ * {@code -XX:StartFlightRecording}; otherwise searches don't even allocate them.
+ */
+@Name( "org.nnsoft.trudeau.shortestpath.Search" )
+@Label( "Shortest Path Search" )
+@Category( { "Trudeau", "Shortest Path" } )
+@Description( "A shortest path search, with the searched graph size and the search space size" )
+@StackTrace( false )
+final class SearchEvent
+    extends Event
+{
+
+    private static final EventType TYPE = EventType.getEventType( SearchEvent.class );
+
+    @Label( "Algorithm" )
+    String algorithm;
+
+    @Label( "Graph Order" )
+    @Description( "Number of vertices in the searched graph" )
+    long graphOrder;
+
+    @Label( "Graph Size" )
+    @Description( "Number of edges in the searched graph" )
+    long graphSize;
+
+    @Label( "Settled Vertices" )
+    long settledVertices;
+
+    @Label( "Relaxed Edges" )
+    long relaxedEdges;
+
+    /**
+     * Tells whether Flight Recorder is recording search events, to be checked before creating one.
+     *
+     * @return true if search events are recorded, false otherwise
+     */
+    static boolean isRecording()
+    {
+        return TYPE.isEnabled();
+    }
+
+}
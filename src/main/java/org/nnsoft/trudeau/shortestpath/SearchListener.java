@@ -0,0 +1,54 @@
+package org.nnsoft.trudeau.shortestpath;
+
+/*
+ *   Copyright 2013 The Trudeau Project
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A {@link SearchListener} is notified once per search, when it completes or fails,
+ * with the statistics collected by the algorithm.
+ *
+ * Statistics are collected in plain counters, the listener is never invoked from the algorithms main loop.
+ */
+@FunctionalInterface
+public interface SearchListener
+{
+
+    /**
+     * Invoked by the thread that run the search, after it completed either successfully or not.
+     *
+     * @param statistics the statistics collected during the search
+     */
+    void searchCompleted( SearchStatistics statistics );
+
+    /**
+     * Returns a listener which notifies this listener, then the given one.
+     *
+     * @param after the listener notified after this one
+     * @return a listener notifying both listeners, in sequence
+     */
+    default SearchListener andThen( SearchListener after )
+    {
+        requireNonNull( after, "Search statistics can not be reported to a null listener" );
+        return statistics ->
+        {
+            searchCompleted( statistics );
+            after.searchCompleted( statistics );
+        };
+    }
+
+}
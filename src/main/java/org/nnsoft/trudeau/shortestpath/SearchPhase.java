@@ -0,0 +1,40 @@
+package org.nnsoft.trudeau.shortestpath;
+
+/*
+ *   Copyright 2013 The Trudeau Project
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+/**
+ * The phases a search execution time is split in.
+ */
+public enum SearchPhase
+{
+
+    /**
+     * Data structures set up, before the first vertex is visited.
+     */
+    INITIALIZATION,
+
+    /**
+     * The main loop of the algorithm.
+     */
+    SEARCH,
+
+    /**
+     * Building the {@link org.nnsoft.trudeau.api.WeightedPath} results out of the predecessors.
+     */
+    PATH_RECONSTRUCTION
+
+}
@@ -0,0 +1,226 @@
+package org.nnsoft.trudeau.shortestpath;
+
+/*
+ *   Copyright 2013 The Trudeau Project
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * The per vertex state of a search over an {@link IndexedGraph} in one direction: tentative distances,
+ * predecessors, settled vertices and the priority queue.
+ *
+ * Reached and settled vertices are marked with the current search stamp, so that {@link #reset()} is constant
+ * time (but the cleanup of the vertices left in the queue) and a search space can be reused by any number of
+ * searches, one at a time.
+ *
+ * @param <W> the weight type
+ */
+final class SearchSpace<W>
+{
+
+    final IndexedMinHeap<W> heap;
+
+    private final Object[] distances;
+
+    private final int[] predecessorVertices;
+
+    private final int[] predecessorEdges;
+
+    private final int[] reached;
+
+    private final int[] settled;
+
+    private double[] estimates;
+
+    private int[] estimated;
+
+    private AtomicIntegerArray published;
+
+    private IntDeque deque;
+
+    private int stamp;
+
+    SearchSpace( int order, Comparator<? super W> comparator )
+    {
+        heap = new IndexedMinHeap<W>( order, comparator );
+        distances = new Object[order];
+        predecessorVertices = new int[order];
+        predecessorEdges = new int[order];
+        reached = new int[order];
+        settled = new int[order];
+        stamp = 1;
+    }
+
+    /**
+     * Forgets the previous search.
+     */
+    void reset()
+    {
+        heap.clear();
+        if ( ++stamp == Integer.MAX_VALUE )
+        {
+            Arrays.fill( reached, 0 );
+            Arrays.fill( settled, 0 );
+            if ( estimated != null )
+            {
+                Arrays.fill( estimated, 0 );
+            }
+            if ( published != null )
+            {
+                for ( int vertex = 0; vertex < published.length(); vertex++ )
+                {
+                    published.set( vertex, 0 );
+                }
+            }
+            stamp = 1;
+        }
+    }
+
+    boolean isReached( int vertex )
+    {
+        return reached[vertex] == stamp;
+    }
+
+    /**
+     * @param vertex a reached vertex
+     * @return the tentative, or final once settled, distance of the vertex
+     */
+    @SuppressWarnings( "unchecked" )
+    W distance( int vertex )
+    {
+        return (W) distances[vertex];
+    }
+
+    int predecessorVertex( int vertex )
+    {
+        return predecessorVertices[vertex];
+    }
+
+    int predecessorEdge( int vertex )
+    {
+        return predecessorEdges[vertex];
+    }
+
+    /**
+     * Records a new tentative distance of the vertex.
+     *
+     * @param vertex the reached vertex
+     * @param distance the vertex distance
+     * @param predecessorVertex the vertex it has been reached from, {@code -1} for the search roots
+     * @param predecessorEdge the edge it has been reached through, {@code -1} for the search roots
+     */
+    void reach( int vertex, W distance, int predecessorVertex, int predecessorEdge )
+    {
+        reached[vertex] = stamp;
+        distances[vertex] = distance;
+        predecessorVertices[vertex] = predecessorVertex;
+        predecessorEdges[vertex] = predecessorEdge;
+    }
+
+    boolean isSettled( int vertex )
+    {
+        return settled[vertex] == stamp;
+    }
+
+    void settle( int vertex )
+    {
+        settled[vertex] = stamp;
+    }
+
+    boolean isEstimated( int vertex )
+    {
+        return estimated != null && estimated[vertex] == stamp;
+    }
+
+    /**
+     * @param vertex an estimated vertex
+     * @return the heuristic estimate of the vertex distance to the current search goal
+     */
+    double estimate( int vertex )
+    {
+        return estimates[vertex];
+    }
+
+    /**
+     * Caches the heuristic estimate of the vertex distance to the current search goal;
+     * the cache is allocated by the first search which needs it.
+     *
+     * @param vertex the estimated vertex
+     * @param estimate the heuristic estimate
+     */
+    void estimate( int vertex, double estimate )
+    {
+        if ( estimated == null )
+        {
+            estimates = new double[settled.length];
+            estimated = new int[settled.length];
+        }
+        estimated[vertex] = stamp;
+        estimates[vertex] = estimate;
+    }
+
+    /**
+     * Returns the vertices deque of the searches which don't need the heap, allocated by the first search which
+     * needs it; searches own it until the space is released.
+     *
+     * @return an empty deque, large enough to queue every vertex twice
+     */
+    IntDeque deque()
+    {
+        if ( deque == null )
+        {
+            deque = new IntDeque( 2 * settled.length );
+        }
+        deque.clear();
+        return deque;
+    }
+
+    /**
+     * Prepares the space to publish its settled vertices to a search running concurrently on another thread;
+     * the published vertices are allocated by the first search which needs them, before the space is shared.
+     */
+    void share()
+    {
+        if ( published == null )
+        {
+            published = new AtomicIntegerArray( settled.length );
+        }
+    }
+
+    /**
+     * Publishes a settled vertex, whose distance is final, to the concurrent readers of the space.
+     *
+     * @param vertex the settled vertex
+     */
+    void publish( int vertex )
+    {
+        published.set( vertex, stamp );
+    }
+
+    /**
+     * Checks, from any thread, whether the vertex has been published: its distance can then be read.
+     *
+     * @param vertex the vertex to check
+     * @return true if the vertex has been published by the current search
+     */
+    boolean isPublished( int vertex )
+    {
+        return published.get( vertex ) == stamp;
+    }
+
+}
@@ -0,0 +1,68 @@
+package org.nnsoft.trudeau.shortestpath;
+
+/*
+ *   Copyright 2013 The Trudeau Project
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+import java.util.Comparator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * A lock-free pool of {@link SearchSpace}s, so that concurrent searches on the same graph don't allocate
+ * their per vertex state: the pool grows up to the maximum number of concurrently running searches.
+ *
+ * @param <W> the weight type
+ */
+final class SearchSpacePool<W>
+{
+
+    private final Queue<SearchSpace<W>> idle = new ConcurrentLinkedQueue<SearchSpace<W>>();
+
+    private final int order;
+
+    private final Comparator<? super W> comparator;
+
+    SearchSpacePool( int order, Comparator<? super W> comparator )
+    {
+        this.order = order;
+        this.comparator = comparator;
+    }
+
+    /**
+     * @return a reset search space, owned by the caller until released
+     */
+    SearchSpace<W> acquire()
+    {
+        SearchSpace<W> space = idle.poll();
+        if ( space == null )
+        {
+            return new SearchSpace<W>( order, comparator );
+        }
+        space.reset();
+        return space;
+    }
+
+    /**
+     * Gives the search space back to the pool, the caller must not use it anymore.
+     *
+     * @param space the search space to release
+     */
+    void release( SearchSpace<W> space )
+    {
+        idle.offer( space );
+    }
+
+}
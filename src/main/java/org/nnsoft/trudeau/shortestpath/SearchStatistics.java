@@ -0,0 +1,159 @@
+package org.nnsoft.trudeau.shortestpath;
+
+/*
+ *   Copyright 2013 The Trudeau Project
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+import static java.lang.String.format;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Immutable statistics about a single search: how many vertices it settled, edges it relaxed,
+ * priority queue operations, heuristic evaluations and how much time each {@link SearchPhase} took.
+ *
+ * Counters which don't apply to an algorithm, like heuristic calls for Dijkstra's, are {@code 0}.
+ */
+public final class SearchStatistics
+{
+
+    private final SearchAlgorithm algorithm;
+
+    private final long settledVertices;
+
+    private final long relaxedEdges;
+
+    private final long heapPushes;
+
+    private final long heapPops;
+
+    private final long decreaseKeys;
+
+    private final long heuristicCalls;
+
+    private final long[] elapsedNanos;
+
+    SearchStatistics( SearchAlgorithm algorithm,
+                      long settledVertices,
+                      long relaxedEdges,
+                      long heapPushes,
+                      long heapPops,
+                      long decreaseKeys,
+                      long heuristicCalls,
+                      long[] elapsedNanos )
+    {
+        this.algorithm = algorithm;
+        this.settledVertices = settledVertices;
+        this.relaxedEdges = relaxedEdges;
+        this.heapPushes = heapPushes;
+        this.heapPops = heapPops;
+        this.decreaseKeys = decreaseKeys;
+        this.heuristicCalls = heuristicCalls;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * @return the algorithm which performed the search
+     */
+    public SearchAlgorithm getAlgorithm()
+    {
+        return algorithm;
+    }
+
+    /**
+     * @return the number of vertices whose shortest distance has been settled
+     */
+    public long getSettledVertices()
+    {
+        return settledVertices;
+    }
+
+    /**
+     * @return the number of edges whose relaxation has been attempted
+     */
+    public long getRelaxedEdges()
+    {
+        return relaxedEdges;
+    }
+
+    /**
+     * @return the number of vertices inserted the first time in the priority queue
+     */
+    public long getHeapPushes()
+    {
+        return heapPushes;
+    }
+
+    /**
+     * @return the number of vertices removed from the priority queue, stale entries included
+     */
+    public long getHeapPops()
+    {
+        return heapPops;
+    }
+
+    /**
+     * @return the number of times a queued vertex priority has been decreased
+     */
+    public long getDecreaseKeys()
+    {
+        return decreaseKeys;
+    }
+
+    /**
+     * @return the number of {@link Heuristic#applyHeuristic(Object, Object)} invocations
+     */
+    public long getHeuristicCalls()
+    {
+        return heuristicCalls;
+    }
+
+    /**
+     * Returns the time spent in the given phase.
+     *
+     * @param phase the search phase
+     * @param unit the unit the elapsed time has to be expressed in
+     * @return the time spent in the given phase
+     */
+    public long getElapsed( SearchPhase phase, TimeUnit unit )
+    {
+        return unit.convert( elapsedNanos[phase.ordinal()], TimeUnit.NANOSECONDS );
+    }
+
+    /**
+     * Returns the overall search time.
+     *
+     * @param unit the unit the elapsed time has to be expressed in
+     * @return the overall search time
+     */
+    public long getElapsed( TimeUnit unit )
+    {
+        long total = 0;
+        for ( long nanos : elapsedNanos )
+        {
+            total += nanos;
+        }
+        return unit.convert( total, TimeUnit.NANOSECONDS );
+    }
+
+    @Override
+    public String toString()
+    {
+        return format( "%s{settled=%s, relaxed=%s, pushes=%s, pops=%s, decreaseKeys=%s, heuristicCalls=%s, elapsed=%sus}",
+                       algorithm, settledVertices, relaxedEdges, heapPushes, heapPops, decreaseKeys, heuristicCalls,
+                       getElapsed( TimeUnit.MICROSECONDS ) );
+    }
+
+}
@@ -0,0 +1,73 @@
+package org.nnsoft.trudeau.shortestpath;
+
+/*
+ *   Copyright 2013 The Trudeau Project
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+import static java.lang.String.format;
+
+/**
+ * A vertex settled by Dijkstra's algorithm: its distance from the source is final.
+ *
+ * @param <V> the Graph vertices type
+ * @param <W> the weight type
+ */
+public final class SettledVertex<V, W>
+{
+
+    private final V vertex;
+
+    private final W distance;
+
+    private final V predecessor;
+
+    SettledVertex( V vertex, W distance, V predecessor )
+    {
+        this.vertex = vertex;
+        this.distance = distance;
+        this.predecessor = predecessor;
+    }
+
+    /**
+     * @return the settled vertex
+     */
+    public V getVertex()
+    {
+        return vertex;
+    }
+
+    /**
+     * @return the shortest distance of the vertex from the source
+     */
+    public W getDistance()
+    {
+        return distance;
+    }
+
+    /**
+     * @return the vertex preceding the settled one in the shortest path, null for the source
+     */
+    public V getPredecessor()
+    {
+        return predecessor;
+    }
+
+    @Override
+    public String toString()
+    {
+        return format( "%s{distance=%s, predecessor=%s}", vertex, distance, predecessor );
+    }
+
+}
@@ -56,4 +56,13 @@ public interface ShortestPathAlgorithmSelector<V, WE, W>
      */
     <WO extends OrderedMonoid<W>> WeightedPath<V, WE, W> applyingBidirectionalDijkstra( WO weightOperations );
 
+    /**
+     * Limits the searches started from the returned selector, which throw a {@link SearchAbortedException}
+     * as soon as any limit is exceeded.
+     *
+     * @param options the search limits
+     * @return an algorithm selector whose searches respect the given limits
+     */
+    ShortestPathAlgorithmSelector<V, WE, W> withOptions( QueryOptions<W> options );
+
 }
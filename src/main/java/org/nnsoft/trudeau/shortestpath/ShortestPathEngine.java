@@ -0,0 +1,1315 @@
+package org.nnsoft.trudeau.shortestpath;
+
+/*
+ *   Copyright 2013 The Trudeau Project
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.nnsoft.trudeau.api.PathNotFoundException;
+import org.nnsoft.trudeau.api.WeightedPath;
+import org.nnsoft.trudeau.math.monoid.OrderedMonoid;
+
+import com.google.common.graph.ValueGraph;
+
+/**
+ * A shortest path solver built once from an immutable snapshot of a graph, which answers point-to-point queries
+ * with Dijkstra's, bidirectional Dijkstra's and A* algorithms.
+ *
+ * <b>Thread safety</b>: an engine is immutable and safe for unlimited concurrent queries, without locks: the graph
+ * is copied in arrays when the engine is built, so modifications of the original graph are never seen, and every
+ * query borrows its per vertex search state from a lock-free pool, so that concurrent queries never share mutable
+ * state. Queries don't allocate any builder, nor per vertex state once the pool is warm: memory grows with the
+ * maximum number of concurrently running queries, not with the number of queries.
+ *
+ * The weighted edges function, the weight operations, heuristics and listeners are invoked concurrently by
+ * concurrent queries, so they have to be thread-safe as well.
+ *
+ * @param <V> the Graph vertices type
+ * @param <WE> the Graph weighted edges type
+ * @param <W> the weight type
+ */
+public final class ShortestPathEngine<V, WE, W>
+{
+
+    /**
+     * Builds an engine on a snapshot of the given graph, whose edges are the weights.
+     *
+     * @param <V> the Graph vertices type
+     * @param <W> the weight type
+     * @param graph the input edge-weighted graph, which must not be modified while the snapshot is taken
+     * @param weightOperations the weight operations needed for the algorithms
+     * @return a new engine
+     */
+    public static <V, W> ShortestPathEngine<V, W, W> newEngine( ValueGraph<V, W> graph, OrderedMonoid<W> weightOperations )
+    {
+        Function<W, W> identity = we -> we;
+        return newEngine( graph, identity, weightOperations );
+    }
+
+    /**
+     * Builds an engine on a snapshot of the given graph.
+     *
+     * @param <V> the Graph vertices type
+     * @param <WE> the Graph weighted edges type
+     * @param <W> the weight type
+     * @param graph the input edge-weighted graph, which must not be modified while the snapshot is taken
+     * @param weightedEdges the function to calculate edges weight
+     * @param weightOperations the weight operations needed for the algorithms
+     * @return a new engine
+     */
+    public static <V, WE, W> ShortestPathEngine<V, WE, W> newEngine( ValueGraph<V, WE> graph,
+                                                                     Function<WE, W> weightedEdges,
+                                                                     OrderedMonoid<W> weightOperations )
+    {
+        graph = requireNonNull( graph, "Shortest path can not be calculated on null graph" );
+        weightedEdges = requireNonNull( weightedEdges, "Function to calculate edges weight can not be null." );
+        weightOperations = requireNonNull( weightOperations, "Shortest path can not be calculated using null weight operations" );
+
+        IndexedGraph<V, WE> snapshot = IndexedGraph.snapshot( graph );
+        EdgeWeights<W> weights = EdgeWeights.evaluate( snapshot, weightedEdges );
+        W unit = weights.binary( weightOperations );
+        return new ShortestPathEngine<V, WE, W>( snapshot,
+                                                 weightedEdges,
+                                                 weights,
+                                                 unit,
+                                                 unit != null ? weights.identities( weightOperations ) : null,
+                                                 weightOperations,
+                                                 new SearchSpacePool<W>( snapshot.order(), weightOperations ),
+                                                 null );
+    }
+
+    private final IndexedGraph<V, WE> graph;
+
+    private final Function<WE, W> weightedEdges;
+
+    private final EdgeWeights<W> weights;
+
+    /**
+     * The weight of all the edges which don't weigh the identity, if they all weigh the same, otherwise null.
+     */
+    private final W unit;
+
+    /**
+     * The edges weighing the identity, if the other edges all weigh the same, otherwise null.
+     */
+    private final BitSet freeEdges;
+
+    private final OrderedMonoid<W> weightOperations;
+
+    private final SearchSpacePool<W> spaces;
+
+    private final SearchListener listener;
+
+    private final GraphSearch<V, WE, W> search;
+
+    private ShortestPathEngine( IndexedGraph<V, WE> graph,
+                                Function<WE, W> weightedEdges,
+                                EdgeWeights<W> weights,
+                                W unit,
+                                BitSet freeEdges,
+                                OrderedMonoid<W> weightOperations,
+                                SearchSpacePool<W> spaces,
+                                SearchListener listener )
+    {
+        this.graph = graph;
+        this.weightedEdges = weightedEdges;
+        this.weights = weights;
+        this.unit = unit;
+        this.freeEdges = freeEdges;
+        this.weightOperations = weightOperations;
+        this.spaces = spaces;
+        this.listener = listener;
+        this.search = new GraphSearch<V, WE, W>( graph, weightedEdges, weights, weightOperations, spaces, listener );
+    }
+
+    /**
+     * Returns an engine sharing this engine graph snapshot and search state pool, whose queries report
+     * to the given listener too, after the listeners this engine already reports to.
+     *
+     * @param listener the listener notified on search completion, invoked by the querying threads
+     * @return an engine that reports to the given listener
+     */
+    public ShortestPathEngine<V, WE, W> reportingTo( SearchListener listener )
+    {
+        listener = requireNonNull( listener, "Search statistics can not be reported to a null listener" );
+        listener = this.listener == null ? listener : this.listener.andThen( listener );
+        return new ShortestPathEngine<V, WE, W>( graph, weightedEdges, weights, unit, freeEdges, weightOperations, spaces, listener );
+    }
+
+    /**
+     * @return the number of vertices in the graph snapshot
+     */
+    public int getOrder()
+    {
+        return graph.order();
+    }
+
+    /**
+     * @return the number of edges in the graph snapshot
+     */
+    public int getSize()
+    {
+        return graph.size();
+    }
+
+    /**
+     * Calculates the shortest path using Dijkstra's algorithm.
+     *
+     * @param source the path source
+     * @param target the path target
+     * @return a path which describes the shortest path, if any, otherwise a {@link PathNotFoundException} will be thrown
+     */
+    public WeightedPath<V, WE, W> dijkstra( V source, V target )
+    {
+        return dijkstra( source, target, QueryOptions.<W>queryOptions() );
+    }
+
+    /**
+     * Calculates the shortest path using Dijkstra's algorithm, within the given limits.
+     *
+     * When the edges weigh either nothing or the same unit, a 0-1 breadth first search on a deque replaces
+     * the heap.
+     *
+     * @param source the path source
+     * @param target the path target
+     * @param options the search limits
+     * @return a path which describes the shortest path, if any, otherwise a {@link PathNotFoundException} will be thrown
+     */
+    public WeightedPath<V, WE, W> dijkstra( V source, V target, QueryOptions<W> options )
+    {
+        final int s = indexOf( source, "Shortest path can not be calculated from a null source" );
+        final int t = indexOf( target, "Shortest path can not be calculated to a null target" );
+        options = requireNonNull( options, "Search can not be limited by null options" );
+
+        final SearchCounters counters = new SearchCounters( unit != null ? SearchAlgorithm.BREADTH_FIRST_SEARCH : SearchAlgorithm.DIJKSTRA,
+                                                            graph.order(), graph.size() );
+        final SearchSpace<W> space = spaces.acquire();
+
+        try
+        {
+            final QueryGuard<V, W> guard = new QueryGuard<V, W>( options, weightOperations, counters, source, target );
+
+            if ( unit != null )
+            {
+                counters.enter( SearchPhase.SEARCH );
+                if ( !breadthFirstSearch( space, s, t, guard, counters ) )
+                {
+                    throw new PathNotFoundException( "Path from '%s' to '%s' doesn't exist", source, target );
+                }
+
+                counters.enter( SearchPhase.PATH_RECONSTRUCTION );
+                return search.buildPath( space, s, t, null );
+            }
+
+            space.reach( s, weightOperations.identity(), -1, -1 );
+            space.heap.insertOrDecrease( s, weightOperations.identity() );
+            counters.heapPushes++;
+
+            counters.enter( SearchPhase.SEARCH );
+
+            while ( !space.heap.isEmpty() )
+            {
+                W key = space.heap.peekKey();
+                int vertex = space.heap.poll();
+                counters.heapPops++;
+
+                // destination reached, stop and build the path
+                if ( vertex == t )
+                {
+                    guard.checkTarget( key );
+                    space.settle( vertex );
+                    counters.settledVertices++;
+                    counters.enter( SearchPhase.PATH_RECONSTRUCTION );
+                    return search.buildPath( space, s, t, null );
+                }
+
+                // the target is not closer than the extracted vertex
+                guard.check( key );
+
+                space.settle( vertex );
+                counters.settledVertices++;
+
+                W distance = space.distance( vertex );
+                for ( int arc = graph.outOffsets[vertex]; arc < graph.outOffsets[vertex + 1]; arc++ )
+                {
+                    search.relax( space, vertex, distance, graph.outVertices[arc], graph.outEdges[arc], counters );
+                }
+            }
+
+            throw new PathNotFoundException( "Path from '%s' to '%s' doesn't exist", source, target );
+        }
+        finally
+        {
+            spaces.release( space );
+            counters.complete( listener );
+        }
+    }
+
+    /**
+     * Calculates the shortest path using bidirectional Dijkstra's algorithm.
+     *
+     * @param source the path source
+     * @param target the path target
+     * @return a path which describes the shortest path, if any, otherwise a {@link PathNotFoundException} will be thrown
+     */
+    public WeightedPath<V, WE, W> bidirectionalDijkstra( V source, V target )
+    {
+        return bidirectionalDijkstra( source, target, QueryOptions.<W>queryOptions() );
+    }
+
+    /**
+     * Calculates the shortest path using bidirectional Dijkstra's algorithm, within the given limits.
+     *
+     * @param source the path source
+     * @param target the path target
+     * @param options the search limits
+     * @return a path which describes the shortest path, if any, otherwise a {@link PathNotFoundException} will be thrown
+     */
+    public WeightedPath<V, WE, W> bidirectionalDijkstra( V source, V target, QueryOptions<W> options )
+    {
+        final int s = indexOf( source, "Shortest path can not be calculated from a null source" );
+        final int t = indexOf( target, "Shortest path can not be calculated to a null target" );
+        options = requireNonNull( options, "Search can not be limited by null options" );
+
+        final SearchCounters counters = new SearchCounters( SearchAlgorithm.BIDIRECTIONAL_DIJKSTRA, graph.order(), graph.size() );
+        final SearchSpace<W> forward = spaces.acquire();
+        final SearchSpace<W> backwards = spaces.acquire();
+
+        try
+        {
+            final QueryGuard<V, W> guard = new QueryGuard<V, W>( options, weightOperations, counters, source, target );
+
+            forward.reach( s, weightOperations.identity(), -1, -1 );
+            forward.heap.insertOrDecrease( s, weightOperations.identity() );
+            backwards.reach( t, weightOperations.identity(), -1, -1 );
+            backwards.heap.insertOrDecrease( t, weightOperations.identity() );
+            counters.heapPushes += 2;
+
+            W best = s == t ? weightOperations.identity() : null;
+            int touch = s == t ? s : -1;
+
+            counters.enter( SearchPhase.SEARCH );
+
+            while ( !forward.heap.isEmpty() && !backwards.heap.isEmpty() )
+            {
+                // paths not discovered yet are not shorter than the sum of both frontiers
+                W frontiers = weightOperations.append( forward.heap.peekKey(), backwards.heap.peekKey() );
+                if ( best != null && weightOperations.compare( frontiers, best ) >= 0 )
+                {
+                    break;
+                }
+                guard.check( frontiers );
+
+                // expand the closest frontier
+                boolean forwardStep = weightOperations.compare( forward.heap.peekKey(), backwards.heap.peekKey() ) <= 0;
+                SearchSpace<W> space = forwardStep ? forward : backwards;
+                SearchSpace<W> opposite = forwardStep ? backwards : forward;
+                int[] offsets = forwardStep ? graph.outOffsets : graph.inOffsets;
+                int[] vertices = forwardStep ? graph.outVertices : graph.inVertices;
+                int[] edges = forwardStep ? graph.outEdges : graph.inEdges;
+
+                int vertex = space.heap.poll();
+                counters.heapPops++;
+
+                space.settle( vertex );
+                counters.settledVertices++;
+
+                W distance = space.distance( vertex );
+                for ( int arc = offsets[vertex]; arc < offsets[vertex + 1]; arc++ )
+                {
+                    int v = vertices[arc];
+                    if ( search.relax( space, vertex, distance, v, edges[arc], counters ) && opposite.isReached( v ) )
+                    {
+                        W candidate = weightOperations.append( space.distance( v ), opposite.distance( v ) );
+                        if ( best == null || weightOperations.compare( candidate, best ) < 0 )
+                        {
+                            best = candidate;
+                            touch = v;
+                        }
+                    }
+                }
+            }
+
+            if ( touch < 0 )
+            {
+                throw new PathNotFoundException( "Path from '%s' to '%s' doesn't exist", source, target );
+            }
+
+            counters.enter( SearchPhase.PATH_RECONSTRUCTION );
+            return search.buildPath( forward, s, touch, backwards );
+        }
+        finally
+        {
+            spaces.release( forward );
+            spaces.release( backwards );
+            counters.complete( listener );
+        }
+    }
+
+    /**
+     * Calculates the shortest path using bidirectional Dijkstra's algorithm, searching from the target on the common
+     * {@link java.util.concurrent.ForkJoinPool} while the calling thread searches from the source.
+     *
+     * Each search publishes its settled vertices and its radius, the distance of its closest unsettled vertex,
+     * without locks: a search that settles a vertex, or relaxes an arc to a vertex, already settled by the
+     * opposite one records the path through it, and stops once the sum of its own and the opposite radius is not
+     * shorter than the best path recorded by any of them. Long queries pay back the thread hand-off on multi-core
+     * hosts, short ones are cheaper on a single thread.
+     *
+     * @param source the path source
+     * @param target the path target
+     * @return a path which describes the shortest path, if any, otherwise a {@link PathNotFoundException} will be thrown
+     */
+    public WeightedPath<V, WE, W> parallelBidirectionalDijkstra( V source, V target )
+    {
+        int s = indexOf( source, "Shortest path can not be calculated from a null source" );
+        int t = indexOf( target, "Shortest path can not be calculated to a null target" );
+        if ( s == t )
+        {
+            return bidirectionalDijkstra( source, target );
+        }
+
+        return new ParallelBidirectionalSearch<V, WE, W>( search ).bidirectionalDijkstra( s, t );
+    }
+
+    /**
+     * Indexes the given turn costs, to be reused by many turn aware queries.
+     *
+     * @param table the turn penalties and banned turns
+     * @return the indexed turn costs
+     */
+    public TurnCosts<V, W> turnCosts( TurnCostTable<V, W> table )
+    {
+        table = requireNonNull( table, "Turn costs can not be indexed from a null table" );
+
+        Map<Long, W> turns = new HashMap<Long, W>( table.size() * 4 / 3 + 1 );
+        for ( int turn = 0; turn < table.size(); turn++ )
+        {
+            int from = indexOf( table.from( turn ), "Turn can not come from a null vertex" );
+            int via = indexOf( table.via( turn ), "Turn can not be made at a null vertex" );
+            int to = indexOf( table.to( turn ), "Turn can not lead to a null vertex" );
+
+            int incoming = arc( from, via );
+            int outgoing = arc( via, to );
+            if ( incoming < 0 || outgoing < 0 )
+            {
+                throw new IllegalArgumentException( format( "Turn from '%s' via '%s' to '%s' doesn't follow edges of the graph",
+                                                            table.from( turn ), table.via( turn ), table.to( turn ) ) );
+            }
+            turns.put( (long) incoming << 32 | outgoing, table.cost( turn ) );
+        }
+        return new TurnCosts<V, W>( graph, turns, weightOperations );
+    }
+
+    /**
+     * Calculates the shortest path using an edge-based Dijkstra's algorithm, which pays turn penalties and
+     * never takes banned turns.
+     *
+     * @param source the path source
+     * @param target the path target
+     * @param turnCosts the turn costs indexed by this engine
+     * @return a path which describes the shortest path, weighted by its edges and turns, if any,
+     *         otherwise a {@link PathNotFoundException} will be thrown
+     */
+    public WeightedPath<V, WE, W> dijkstra( V source, V target, TurnCosts<V, W> turnCosts )
+    {
+        int s = indexOf( source, "Shortest path can not be calculated from a null source" );
+        int t = indexOf( target, "Shortest path can not be calculated to a null target" );
+        return edgeBasedSearch( turnCosts ).dijkstra( s, t );
+    }
+
+    /**
+     * Calculates the shortest path using an edge-based bidirectional Dijkstra's algorithm, which pays turn
+     * penalties and never takes banned turns.
+     *
+     * @param source the path source
+     * @param target the path target
+     * @param turnCosts the turn costs indexed by this engine
+     * @return a path which describes the shortest path, weighted by its edges and turns, if any,
+     *         otherwise a {@link PathNotFoundException} will be thrown
+     */
+    public WeightedPath<V, WE, W> bidirectionalDijkstra( V source, V target, TurnCosts<V, W> turnCosts )
+    {
+        int s = indexOf( source, "Shortest path can not be calculated from a null source" );
+        int t = indexOf( target, "Shortest path can not be calculated to a null target" );
+        return edgeBasedSearch( turnCosts ).bidirectionalDijkstra( s, t );
+    }
+
+    private EdgeBasedSearch<V, WE, W> edgeBasedSearch( TurnCosts<V, W> turnCosts )
+    {
+        turnCosts = requireNonNull( turnCosts, "Turn aware search can not use null turn costs" );
+        if ( !turnCosts.isIndexedOn( graph ) )
+        {
+            throw new IllegalArgumentException( "Turn costs have been indexed by a different engine" );
+        }
+        return new EdgeBasedSearch<V, WE, W>( graph, weightedEdges, weights, weightOperations, turnCosts, listener );
+    }
+
+    /**
+     * @return the arc from tail to head, {@code -1} if the vertices are not adjacent
+     */
+    private int arc( int tail, int head )
+    {
+        for ( int arc = graph.outOffsets[tail]; arc < graph.outOffsets[tail + 1]; arc++ )
+        {
+            if ( graph.outVertices[arc] == head )
+            {
+                return arc;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Partitions the graph into the given number of regions and computes the arc-flags of every region, running
+     * a backward Dijkstra's search from every boundary vertex, those reached by arcs from other regions; regions
+     * are flagged in parallel, on the common {@link java.util.concurrent.ForkJoinPool}.
+     *
+     * @param regions the number of regions, at most the number of vertices are created
+     * @return the arc-flags, to be reused by many {@link #dijkstra(Object, Object, ArcFlags)} queries
+     */
+    public ArcFlags<V> arcFlags( int regions )
+    {
+        if ( regions < 1 )
+        {
+            throw new IllegalArgumentException( format( "Number of regions must be positive, %s given", regions ) );
+        }
+
+        return new ArcFlagsSearch<V, WE, W>( search ).arcFlags( Math.min( regions, graph.order() ) );
+    }
+
+    /**
+     * Calculates the shortest path using Dijkstra's algorithm, relaxing only the arcs flagged with the target region.
+     *
+     * @param source the path source
+     * @param target the path target
+     * @param arcFlags the arc-flags computed by this engine
+     * @return a path which describes the shortest path, if any, otherwise a {@link PathNotFoundException} will be thrown
+     */
+    public WeightedPath<V, WE, W> dijkstra( V source, V target, ArcFlags<V> arcFlags )
+    {
+        int s = indexOf( source, "Shortest path can not be calculated from a null source" );
+        int t = indexOf( target, "Shortest path can not be calculated to a null target" );
+        arcFlags = requireNonNull( arcFlags, "Arc-flags search can not use null arc-flags" );
+        if ( !arcFlags.isIndexedOn( graph ) )
+        {
+            throw new IllegalArgumentException( "Arc-flags have been computed by a different engine" );
+        }
+
+        return new ArcFlagsSearch<V, WE, W>( search ).dijkstra( s, t, arcFlags );
+    }
+
+    /**
+     * Computes the reach of every vertex from the complete shortest path tree of every vertex, grown in parallel
+     * on the common {@link java.util.concurrent.ForkJoinPool}: preprocessing takes a Dijkstra's search per vertex.
+     *
+     * @return the reaches, to be reused by many {@link #bidirectionalDijkstra(Object, Object, Reaches, Heuristic)}
+     *         queries
+     */
+    public Reaches<V, W> reaches()
+    {
+        return new ReachSearch<V, WE, W>( search ).reaches();
+    }
+
+    /**
+     * Calculates the shortest path using a reach-based bidirectional Dijkstra's algorithm, which bounds the
+     * distance to the other end with the radius of the opposite search only.
+     *
+     * @param source the path source
+     * @param target the path target
+     * @param reaches the reaches computed by this engine
+     * @return a path which describes the shortest path, if any, otherwise a {@link PathNotFoundException} will be thrown
+     */
+    public WeightedPath<V, WE, W> bidirectionalDijkstra( V source, V target, Reaches<V, W> reaches )
+    {
+        return bidirectionalDijkstra( source, target, reaches, ( current, goal ) -> weightOperations.identity() );
+    }
+
+    /**
+     * Calculates the shortest path using a reach-based bidirectional Dijkstra's algorithm: vertices whose reach
+     * is smaller than both their distance from the search origin and a lower bound of their distance to the other
+     * end are not visited.
+     *
+     * @param source the path source
+     * @param target the path target
+     * @param reaches the reaches computed by this engine
+     * @param lowerBounds the admissible heuristic bounding the distance from any vertex to the target and from
+     *        the source to any vertex
+     * @return a path which describes the shortest path, if any, otherwise a {@link PathNotFoundException} will be thrown
+     */
+    public WeightedPath<V, WE, W> bidirectionalDijkstra( V source, V target, Reaches<V, W> reaches, Heuristic<V, W> lowerBounds )
+    {
+        int s = indexOf( source, "Shortest path can not be calculated from a null source" );
+        int t = indexOf( target, "Shortest path can not be calculated to a null target" );
+        reaches = requireNonNull( reaches, "Reach-based search can not use null reaches" );
+        if ( !reaches.isIndexedOn( graph ) )
+        {
+            throw new IllegalArgumentException( "Reaches have been computed by a different engine" );
+        }
+        lowerBounds = requireNonNull( lowerBounds, "Reach-based search can not be bounded by a null heuristic" );
+
+        return new ReachSearch<V, WE, W>( search ).bidirectionalDijkstra( s, t, reaches, lowerBounds );
+    }
+
+    /**
+     * Selects the boundary vertices of the given number of regions, those with arcs to or from other regions, as
+     * transit nodes, then computes the access nodes of every vertex, searching its region up to the first transit
+     * nodes, and the table of the distances between transit nodes, growing the complete shortest path tree of
+     * every transit node: vertices and transit nodes are processed in parallel, on the common
+     * {@link java.util.concurrent.ForkJoinPool}.
+     *
+     * @param regions the number of regions, at most the number of vertices are created
+     * @return the transit nodes, to be reused by many {@link #distance(Object, Object, TransitNodes)} and
+     *         {@link #bidirectionalDijkstra(Object, Object, TransitNodes)} queries
+     */
+    public TransitNodes<V, W> transitNodes( int regions )
+    {
+        if ( regions < 1 )
+        {
+            throw new IllegalArgumentException( format( "Number of regions must be positive, %s given", regions ) );
+        }
+
+        return new TransitNodeSearch<V, WE, W>( search ).transitNodes( Math.min( regions, graph.order() ) );
+    }
+
+    /**
+     * Calculates the shortest path distance: vertices in different regions are answered by looking the transit
+     * nodes table up, for every pair of access nodes of the source and the target, vertices in the same region by
+     * {@link #bidirectionalDijkstra(Object, Object) bidirectional Dijkstra's algorithm}.
+     *
+     * @param source the path source
+     * @param target the path target
+     * @param transitNodes the transit nodes computed by this engine
+     * @return the shortest path distance, if any, otherwise a {@link PathNotFoundException} will be thrown
+     */
+    public W distance( V source, V target, TransitNodes<V, W> transitNodes )
+    {
+        int s = indexOf( source, "Shortest path can not be calculated from a null source" );
+        int t = indexOf( target, "Shortest path can not be calculated to a null target" );
+        transitNodes = indexedOn( transitNodes );
+        if ( transitNodes.isLocal( s, t ) )
+        {
+            return bidirectionalDijkstra( source, target ).getWeight();
+        }
+
+        return new TransitNodeSearch<V, WE, W>( search ).distance( s, t, transitNodes );
+    }
+
+    /**
+     * Calculates the shortest path looking the transit nodes table up, as {@link #distance(Object, Object, TransitNodes)}
+     * does, then unpacking the path from the source to its access node, between transit nodes, and from the access
+     * node of the target, with searches which don't leave the regions they cross.
+     *
+     * @param source the path source
+     * @param target the path target
+     * @param transitNodes the transit nodes computed by this engine
+     * @return a path which describes the shortest path, if any, otherwise a {@link PathNotFoundException} will be thrown
+     */
+    public WeightedPath<V, WE, W> bidirectionalDijkstra( V source, V target, TransitNodes<V, W> transitNodes )
+    {
+        int s = indexOf( source, "Shortest path can not be calculated from a null source" );
+        int t = indexOf( target, "Shortest path can not be calculated to a null target" );
+        transitNodes = indexedOn( transitNodes );
+        if ( transitNodes.isLocal( s, t ) )
+        {
+            return bidirectionalDijkstra( source, target );
+        }
+
+        return new TransitNodeSearch<V, WE, W>( search ).path( s, t, transitNodes );
+    }
+
+    private TransitNodes<V, W> indexedOn( TransitNodes<V, W> transitNodes )
+    {
+        transitNodes = requireNonNull( transitNodes, "Transit node routing can not use null transit nodes" );
+        if ( !transitNodes.isIndexedOn( graph ) )
+        {
+            throw new IllegalArgumentException( "Transit nodes have been computed by a different engine" );
+        }
+        return transitNodes;
+    }
+
+    /**
+     * Calculates the shortest path using the A* algorithm.
+     *
+     * @param source the path source
+     * @param target the path target
+     * @param heuristic the admissible heuristic estimating the distance to the target
+     * @return a path which describes the shortest path, if any, otherwise a {@link PathNotFoundException} will be thrown
+     */
+    public WeightedPath<V, WE, W> aStar( V source, V target, Heuristic<V, W> heuristic )
+    {
+        return aStar( source, target, heuristic, QueryOptions.<W>queryOptions() );
+    }
+
+    /**
+     * Calculates the shortest path using the A* algorithm, within the given limits.
+     *
+     * @param source the path source
+     * @param target the path target
+     * @param heuristic the admissible heuristic estimating the distance to the target
+     * @param options the search limits
+     * @return a path which describes the shortest path, if any, otherwise a {@link PathNotFoundException} will be thrown
+     */
+    public WeightedPath<V, WE, W> aStar( V source, V target, Heuristic<V, W> heuristic, QueryOptions<W> options )
+    {
+        final int s = indexOf( source, "Shortest path can not be calculated from a null source" );
+        final int t = indexOf( target, "Shortest path can not be calculated to a null target" );
+        heuristic = requireNonNull( heuristic, "A* algorithm can not be applied using a null heuristic" );
+        options = requireNonNull( options, "Search can not be limited by null options" );
+
+        // geometric heuristics built by this engine are evaluated by index
+        final GeometricHeuristic<V> geometric = indexedOn( heuristic );
+
+        final SearchCounters counters = new SearchCounters( SearchAlgorithm.A_STAR, graph.order(), graph.size() );
+        final SearchSpace<W> space = spaces.acquire();
+
+        try
+        {
+            final QueryGuard<V, W> guard = new QueryGuard<V, W>( options, weightOperations, counters, source, target );
+
+            // distances are the g scores, the heap is ordered by f scores
+            space.reach( s, weightOperations.identity(), -1, -1 );
+            if ( geometric != null )
+            {
+                space.heap.insertOrDecrease( s, estimate( space, geometric, s, t, counters ) );
+            }
+            else
+            {
+                space.heap.insertOrDecrease( s, heuristic.applyHeuristic( source, target ) );
+                counters.heuristicCalls++;
+            }
+            counters.heapPushes++;
+
+            counters.enter( SearchPhase.SEARCH );
+
+            while ( !space.heap.isEmpty() )
+            {
+                W key = space.heap.peekKey();
+                int vertex = space.heap.poll();
+                counters.heapPops++;
+
+                if ( vertex == t )
+                {
+                    guard.checkTarget( space.distance( vertex ) );
+                    space.settle( vertex );
+                    counters.settledVertices++;
+                    counters.enter( SearchPhase.PATH_RECONSTRUCTION );
+                    return search.buildPath( space, s, t, null );
+                }
+
+                // with an admissible heuristic, the target is not closer than the extracted f score
+                guard.check( key );
+
+                space.settle( vertex );
+                counters.settledVertices++;
+
+                W gScore = space.distance( vertex );
+                for ( int arc = graph.outOffsets[vertex]; arc < graph.outOffsets[vertex + 1]; arc++ )
+                {
+                    int v = graph.outVertices[arc];
+                    if ( space.isSettled( v ) )
+                    {
+                        continue;
+                    }
+                    counters.relaxedEdges++;
+
+                    int edge = graph.outEdges[arc];
+                    W tentativeGScore = weightOperations.append( gScore, weights.get( edge ) );
+
+                    if ( !space.isReached( v ) || weightOperations.compare( tentativeGScore, space.distance( v ) ) < 0 )
+                    {
+                        space.reach( v, tentativeGScore, vertex, edge );
+                        W hScore;
+                        if ( geometric != null )
+                        {
+                            hScore = estimate( space, geometric, v, t, counters );
+                        }
+                        else
+                        {
+                            hScore = heuristic.applyHeuristic( graph.vertex( v ), target );
+                            counters.heuristicCalls++;
+                        }
+                        W fScore = weightOperations.append( tentativeGScore, hScore );
+                        GraphSearch.count( space.heap.insertOrDecrease( v, fScore ), counters );
+                    }
+                }
+            }
+
+            throw new PathNotFoundException( "Path from '%s' to '%s' doesn't exist", source, target );
+        }
+        finally
+        {
+            spaces.release( space );
+            counters.complete( listener );
+        }
+    }
+
+    /**
+     * Builds an A* heuristic estimating the euclidean distance between vertices, which coordinates are read once.
+     *
+     * @param x the abscissa of the vertices
+     * @param y the ordinate of the vertices
+     * @param factor the smallest edge weight per unit of length, so that the heuristic is admissible
+     * @return the euclidean heuristic
+     */
+    public GeometricHeuristic<V> euclideanHeuristic( ToDoubleFunction<? super V> x, ToDoubleFunction<? super V> y, double factor )
+    {
+        x = requireNonNull( x, "Euclidean heuristic can not be built from null abscissas" );
+        y = requireNonNull( y, "Euclidean heuristic can not be built from null ordinates" );
+        return GeometricHeuristic.euclidean( graph, x, y, factor );
+    }
+
+    /**
+     * Builds an A* heuristic estimating the manhattan distance between vertices, which coordinates are read once.
+     *
+     * @param x the abscissa of the vertices
+     * @param y the ordinate of the vertices
+     * @param factor the smallest edge weight per unit of length, so that the heuristic is admissible
+     * @return the manhattan heuristic
+     */
+    public GeometricHeuristic<V> manhattanHeuristic( ToDoubleFunction<? super V> x, ToDoubleFunction<? super V> y, double factor )
+    {
+        x = requireNonNull( x, "Manhattan heuristic can not be built from null abscissas" );
+        y = requireNonNull( y, "Manhattan heuristic can not be built from null ordinates" );
+        return GeometricHeuristic.manhattan( graph, x, y, factor );
+    }
+
+    /**
+     * Builds an A* heuristic estimating the travel time between vertices, which coordinates are read once, as the
+     * great-circle distance covered at the highest speed.
+     *
+     * @param latitude the latitude of the vertices, in degrees
+     * @param longitude the longitude of the vertices, in degrees
+     * @param speed the highest speed, in meters per unit of weight, so that the heuristic is admissible
+     * @return the haversine heuristic
+     */
+    public GeometricHeuristic<V> haversineHeuristic( ToDoubleFunction<? super V> latitude, ToDoubleFunction<? super V> longitude, double speed )
+    {
+        latitude = requireNonNull( latitude, "Haversine heuristic can not be built from null latitudes" );
+        longitude = requireNonNull( longitude, "Haversine heuristic can not be built from null longitudes" );
+        return GeometricHeuristic.haversine( graph, latitude, longitude, speed );
+    }
+
+    /**
+     * @param heuristic an A* heuristic
+     * @return the heuristic, if it is a geometric heuristic built by this engine, null otherwise
+     */
+    @SuppressWarnings( "unchecked" )
+    private GeometricHeuristic<V> indexedOn( Heuristic<V, W> heuristic )
+    {
+        if ( heuristic instanceof GeometricHeuristic && ( (GeometricHeuristic<V>) heuristic ).isIndexedOn( graph ) )
+        {
+            return (GeometricHeuristic<V>) heuristic;
+        }
+        return null;
+    }
+
+    /**
+     * Evaluates a geometric heuristic by vertex index, once per vertex and query: a vertex reached again, through a
+     * shorter path, reads its estimate from the search space.
+     *
+     * @param space the search space, caching the estimates of the current query
+     * @param geometric the geometric heuristic indexed by this engine
+     * @param vertex the estimated vertex index
+     * @param goal the goal vertex index
+     * @param counters the search counters
+     * @return the heuristic estimate, geometric heuristics only apply to {@code Double} weights
+     */
+    @SuppressWarnings( "unchecked" )
+    private W estimate( SearchSpace<W> space, GeometricHeuristic<V> geometric, int vertex, int goal, SearchCounters counters )
+    {
+        if ( !space.isEstimated( vertex ) )
+        {
+            space.estimate( vertex, geometric.estimate( vertex, goal ) );
+            counters.heuristicCalls++;
+        }
+        return (W) Double.valueOf( space.estimate( vertex ) );
+    }
+
+    /**
+     * Runs Dijkstra's algorithm lazily: the returned stream settles vertices, in increasing distance order,
+     * only as far as it is consumed, so that short-circuiting operations stop the search.
+     *
+     * The search state is borrowed from the pool until the stream is exhausted or closed: streams which are
+     * abandoned without being closed don't leak, but their state is garbage collected instead of being reused.
+     *
+     * @param source the search source
+     * @return the vertices reachable from the source, in settle order
+     */
+    public Stream<SettledVertex<V, W>> streamingDijkstra( V source )
+    {
+        int s = indexOf( source, "Shortest path can not be calculated from a null source" );
+
+        SettledVertices settledVertices = new SettledVertices( s );
+        return StreamSupport.stream( settledVertices, false ).onClose( settledVertices );
+    }
+
+    /**
+     * Runs a single Dijkstra's search from all the given sources, labelling every reachable vertex with its
+     * nearest source.
+     *
+     * @param sources the search sources, i.e. the facilities
+     * @return the nearest source, and the distance from it, of every reachable vertex
+     */
+    public NearestSources<V, W> nearestSources( Collection<? extends V> sources )
+    {
+        sources = requireNonNull( sources, "Shortest paths can not be calculated from null sources" );
+
+        Map<V, W> offsets = new LinkedHashMap<V, W>();
+        for ( V source : sources )
+        {
+            offsets.put( source, weightOperations.identity() );
+        }
+        return nearestSources( offsets );
+    }
+
+    /**
+     * Runs a single Dijkstra's search from all the given sources, each one starting at its offset, labelling every
+     * reachable vertex with its nearest source.
+     *
+     * @param offsets the search sources, mapped to their initial distance
+     * @return the nearest source, and the distance from it, offset included, of every reachable vertex
+     */
+    public NearestSources<V, W> nearestSources( Map<? extends V, ? extends W> offsets )
+    {
+        offsets = requireNonNull( offsets, "Shortest paths can not be calculated from null sources" );
+
+        final SearchCounters counters = new SearchCounters( SearchAlgorithm.DIJKSTRA, graph.order(), graph.size() );
+        final SearchSpace<W> space = spaces.acquire();
+
+        try
+        {
+            for ( Map.Entry<? extends V, ? extends W> offset : offsets.entrySet() )
+            {
+                int s = indexOf( offset.getKey(), "Shortest paths can not be calculated from a null source" );
+                W distance = requireNonNull( offset.getValue(), "Shortest paths can not be calculated from a null offset" );
+                if ( !space.isReached( s ) || weightOperations.compare( distance, space.distance( s ) ) < 0 )
+                {
+                    space.reach( s, distance, -1, -1 );
+                    GraphSearch.count( space.heap.insertOrDecrease( s, distance ), counters );
+                }
+            }
+
+            counters.enter( SearchPhase.SEARCH );
+
+            // vertices are settled after their predecessor, so the root of the predecessor is already known
+            int[] roots = new int[graph.order()];
+            Map<V, V> sources = new LinkedHashMap<V, V>();
+            Map<V, W> distances = new HashMap<V, W>();
+            while ( !space.heap.isEmpty() )
+            {
+                int vertex = space.heap.poll();
+                counters.heapPops++;
+
+                space.settle( vertex );
+                counters.settledVertices++;
+
+                int predecessor = space.predecessorVertex( vertex );
+                roots[vertex] = predecessor < 0 ? vertex : roots[predecessor];
+
+                W distance = space.distance( vertex );
+                sources.put( graph.vertex( vertex ), graph.vertex( roots[vertex] ) );
+                distances.put( graph.vertex( vertex ), distance );
+
+                for ( int arc = graph.outOffsets[vertex]; arc < graph.outOffsets[vertex + 1]; arc++ )
+                {
+                    search.relax( space, vertex, distance, graph.outVertices[arc], graph.outEdges[arc], counters );
+                }
+            }
+
+            return new NearestSources<V, W>( sources, distances );
+        }
+        finally
+        {
+            spaces.release( space );
+            counters.complete( listener );
+        }
+    }
+
+    /**
+     * Indexes the given candidates, to be reused by many {@link #nearest(Object, int, CandidateSet)} queries.
+     *
+     * @param candidates the vertices of interest
+     * @return the indexed candidates
+     */
+    public CandidateSet<V> candidates( Collection<? extends V> candidates )
+    {
+        candidates = requireNonNull( candidates, "Nearest candidates can not be indexed from a null collection" );
+
+        BitSet members = new BitSet( graph.order() );
+        for ( V candidate : candidates )
+        {
+            members.set( indexOf( candidate, "Nearest candidates can not contain null vertices" ) );
+        }
+        return new CandidateSet<V>( graph, members );
+    }
+
+    /**
+     * Finds the k candidates closest to the source with a single Dijkstra's search, which stops as soon as
+     * k candidates, or all of them, are settled.
+     *
+     * @param source the search source
+     * @param k the number of candidates to find
+     * @param candidates the candidates indexed by this engine
+     * @return the shortest paths to at most k candidates, in increasing weight order;
+     *         fewer than k paths if fewer candidates are reachable
+     */
+    public List<WeightedPath<V, WE, W>> nearest( V source, int k, CandidateSet<V> candidates )
+    {
+        int s = indexOf( source, "Shortest path can not be calculated from a null source" );
+        if ( k <= 0 )
+        {
+            throw new IllegalArgumentException( format( "Number of nearest candidates must be positive, %s given", k ) );
+        }
+        candidates = requireNonNull( candidates, "Nearest candidates can not be searched in a null set" );
+        if ( !candidates.isIndexedOn( graph ) )
+        {
+            throw new IllegalArgumentException( "Nearest candidates have been indexed by a different engine" );
+        }
+
+        final SearchCounters counters = new SearchCounters( SearchAlgorithm.DIJKSTRA, graph.order(), graph.size() );
+        final SearchSpace<W> space = spaces.acquire();
+
+        try
+        {
+            space.reach( s, weightOperations.identity(), -1, -1 );
+            space.heap.insertOrDecrease( s, weightOperations.identity() );
+            counters.heapPushes++;
+
+            counters.enter( SearchPhase.SEARCH );
+
+            int[] nearest = new int[Math.min( k, candidates.size() )];
+            int found = 0;
+            while ( found < nearest.length && !space.heap.isEmpty() )
+            {
+                int vertex = space.heap.poll();
+                counters.heapPops++;
+
+                space.settle( vertex );
+                counters.settledVertices++;
+
+                if ( candidates.contains( vertex ) )
+                {
+                    nearest[found++] = vertex;
+                }
+
+                W distance = space.distance( vertex );
+                for ( int arc = graph.outOffsets[vertex]; arc < graph.outOffsets[vertex + 1]; arc++ )
+                {
+                    search.relax( space, vertex, distance, graph.outVertices[arc], graph.outEdges[arc], counters );
+                }
+            }
+
+            counters.enter( SearchPhase.PATH_RECONSTRUCTION );
+            List<WeightedPath<V, WE, W>> paths = new ArrayList<WeightedPath<V, WE, W>>( found );
+            for ( int i = 0; i < found; i++ )
+            {
+                paths.add( search.buildPath( space, s, nearest[i], null ) );
+            }
+            return paths;
+        }
+        finally
+        {
+            spaces.release( space );
+            counters.complete( listener );
+        }
+    }
+
+    /**
+     * Finds all the vertices whose distance from the source is not greater than the given bound.
+     *
+     * @param source the isochrone origin
+     * @param bound the maximum distance from the source
+     * @return the vertices within the bound, with their distances
+     */
+    public Isochrone<V, W> within( V source, W bound )
+    {
+        int s = indexOf( source, "Isochrone can not be calculated from a null source" );
+        bound = requireNonNull( bound, "Isochrone can not be calculated within a null bound" );
+        return isochrone( s, bound, false );
+    }
+
+    /**
+     * Finds all the vertices whose distance to the target is not greater than the given bound,
+     * following the edges backwards.
+     *
+     * @param target the isochrone origin
+     * @param bound the maximum distance to the target
+     * @return the vertices within the bound, with their distances
+     */
+    public Isochrone<V, W> withinReverse( V target, W bound )
+    {
+        int t = indexOf( target, "Isochrone can not be calculated to a null target" );
+        bound = requireNonNull( bound, "Isochrone can not be calculated within a null bound" );
+        return isochrone( t, bound, true );
+    }
+
+    /**
+     * Finds the isochrones of many sources at once, running the searches in parallel on the common
+     * {@link java.util.concurrent.ForkJoinPool}.
+     *
+     * @param sources the isochrones origins
+     * @param bound the maximum distance from each source
+     * @return the isochrone of each source, in the sources iteration order
+     */
+    public Map<V, Isochrone<V, W>> within( Collection<? extends V> sources, final W bound )
+    {
+        sources = requireNonNull( sources, "Isochrones can not be calculated from null sources" );
+        requireNonNull( bound, "Isochrone can not be calculated within a null bound" );
+
+        final int[] origins = new int[sources.size()];
+        int i = 0;
+        for ( V source : sources )
+        {
+            origins[i++] = indexOf( source, "Isochrone can not be calculated from a null source" );
+        }
+
+        // collected in the sources order, even if searched in parallel
+        List<Isochrone<V, W>> isochrones = IntStream.range( 0, origins.length )
+                                                    .parallel()
+                                                    .mapToObj( index -> isochrone( origins[index], bound, false ) )
+                                                    .collect( Collectors.toList() );
+
+        Map<V, Isochrone<V, W>> result = new LinkedHashMap<V, Isochrone<V, W>>( origins.length * 4 / 3 + 1 );
+        for ( Isochrone<V, W> isochrone : isochrones )
+        {
+            result.put( isochrone.getOrigin(), isochrone );
+        }
+        return result;
+    }
+
+    /**
+     * Settles vertices, following the out arcs or the in arcs, until the closest vertex still to settle
+     * is farther than the bound.
+     */
+    private Isochrone<V, W> isochrone( int origin, W bound, boolean reverse )
+    {
+        final SearchCounters counters = new SearchCounters( SearchAlgorithm.DIJKSTRA, graph.order(), graph.size() );
+        final SearchSpace<W> space = spaces.acquire();
+
+        final int[] offsets = reverse ? graph.inOffsets : graph.outOffsets;
+        final int[] adjacents = reverse ? graph.inVertices : graph.outVertices;
+        final int[] edges = reverse ? graph.inEdges : graph.outEdges;
+
+        try
+        {
+            space.reach( origin, weightOperations.identity(), -1, -1 );
+            space.heap.insertOrDecrease( origin, weightOperations.identity() );
+            counters.heapPushes++;
+
+            counters.enter( SearchPhase.SEARCH );
+
+            List<Object> vertices = new ArrayList<Object>();
+            List<Object> distances = new ArrayList<Object>();
+            while ( !space.heap.isEmpty() && weightOperations.compare( space.heap.peekKey(), bound ) <= 0 )
+            {
+                int vertex = space.heap.poll();
+                counters.heapPops++;
+
+                space.settle( vertex );
+                counters.settledVertices++;
+
+                W distance = space.distance( vertex );
+                vertices.add( graph.vertex( vertex ) );
+                distances.add( distance );
+
+                for ( int arc = offsets[vertex]; arc < offsets[vertex + 1]; arc++ )
+                {
+                    search.relax( space, vertex, distance, adjacents[arc], edges[arc], counters );
+                }
+            }
+
+            return new Isochrone<V, W>( graph.vertex( origin ), bound, vertices.toArray(), distances.toArray() );
+        }
+        finally
+        {
+            spaces.release( space );
+            counters.complete( listener );
+        }
+    }
+
+    /**
+     * 0-1 breadth first search from the source until the target is settled, on a graph whose edges weigh either
+     * nothing or the same unit: vertices reached through an edge weighing nothing are pushed in front of the deque,
+     * the others at its back, so the deque holds vertices in order of distance, at most one unit apart.
+     *
+     * A vertex is queued again, at most once, when an edge weighing nothing shortens it by a unit: the entry left
+     * behind is skipped once settled.
+     *
+     * @return true if the target has been settled
+     */
+    private boolean breadthFirstSearch( SearchSpace<W> space, int source, int target, QueryGuard<V, W> guard,
+                                        SearchCounters counters )
+    {
+        IntDeque deque = space.deque();
+
+        space.reach( source, weightOperations.identity(), -1, -1 );
+        deque.addLast( source );
+
+        while ( !deque.isEmpty() )
+        {
+            int vertex = deque.pollFirst();
+
+            // skip stale entries, left in the deque by a previous distance decrease
+            if ( space.isSettled( vertex ) )
+            {
+                continue;
+            }
+            W distance = space.distance( vertex );
+
+            if ( vertex == target )
+            {
+                guard.checkTarget( distance );
+                space.settle( vertex );
+                counters.settledVertices++;
+                return true;
+            }
+
+            // the target is not closer than the dequeued vertex
+            guard.check( distance );
+
+            space.settle( vertex );
+            counters.settledVertices++;
+
+            W shortDist = null;
+            for ( int arc = graph.outOffsets[vertex]; arc < graph.outOffsets[vertex + 1]; arc++ )
+            {
+                int v = graph.outVertices[arc];
+                if ( space.isSettled( v ) )
+                {
+                    continue;
+                }
+                counters.relaxedEdges++;
+
+                int edge = graph.outEdges[arc];
+                if ( freeEdges.get( edge ) )
+                {
+                    // reached vertices are at most a unit farther than the dequeued one
+                    if ( !space.isReached( v ) || weightOperations.compare( distance, space.distance( v ) ) < 0 )
+                    {
+                        space.reach( v, distance, vertex, edge );
+                        deque.addFirst( v );
+                    }
+                }
+                else if ( !space.isReached( v ) )
+                {
+                    if ( shortDist == null )
+                    {
+                        shortDist = weightOperations.append( distance, unit );
+                    }
+                    space.reach( v, shortDist, vertex, edge );
+                    deque.addLast( v );
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The lazy Dijkstra's search behind {@link ShortestPathEngine#streamingDijkstra(Object)}, which releases its
+     * search space once exhausted or closed.
+     */
+    private final class SettledVertices
+        extends Spliterators.AbstractSpliterator<SettledVertex<V, W>>
+        implements Runnable
+    {
+
+        private final SearchCounters counters = new SearchCounters( SearchAlgorithm.DIJKSTRA, graph.order(), graph.size() );
+
+        private SearchSpace<W> space = spaces.acquire();
+
+        SettledVertices( int source )
+        {
+            super( graph.order(), Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL );
+
+            space.reach( source, weightOperations.identity(), -1, -1 );
+            space.heap.insertOrDecrease( source, weightOperations.identity() );
+            counters.heapPushes++;
+            counters.enter( SearchPhase.SEARCH );
+        }
+
+        public boolean tryAdvance( Consumer<? super SettledVertex<V, W>> action )
+        {
+            if ( space == null || space.heap.isEmpty() )
+            {
+                run();
+                return false;
+            }
+
+            int vertex = space.heap.poll();
+            counters.heapPops++;
+
+            space.settle( vertex );
+            counters.settledVertices++;
+
+            W distance = space.distance( vertex );
+            for ( int arc = graph.outOffsets[vertex]; arc < graph.outOffsets[vertex + 1]; arc++ )
+            {
+                search.relax( space, vertex, distance, graph.outVertices[arc], graph.outEdges[arc], counters );
+            }
+
+            int predecessor = space.predecessorVertex( vertex );
+            action.accept( new SettledVertex<V, W>( graph.vertex( vertex ),
+                                                    distance,
+                                                    predecessor < 0 ? null : graph.vertex( predecessor ) ) );
+            return true;
+        }
+
+        /**
+         * Releases the search space, at most once.
+         */
+        public void run()
+        {
+            if ( space != null )
+            {
+                spaces.release( space );
+                space = null;
+                counters.complete( listener );
+            }
+        }
+
+    }
+
+    private int indexOf( V vertex, String nullMessage )
+    {
+        vertex = requireNonNull( vertex, nullMessage );
+        int index = graph.indexOf( vertex );
+        if ( index < 0 )
+        {
+            throw new IllegalArgumentException( format( "Vertex '%s' doesn't belong to the graph", vertex ) );
+        }
+        return index;
+    }
+
+}
@@ -16,6 +16,11 @@ package org.nnsoft.trudeau.shortestpath;
  *   limitations under the License.
  */
 
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.nnsoft.trudeau.api.WeightedPath;
 import org.nnsoft.trudeau.math.monoid.OrderedMonoid;
 
 /**
@@ -37,6 +42,56 @@ public interface TargetSourceSelector<V, WE, W>
      */
     <WO extends OrderedMonoid<W>> AllVertexPairsShortestPath<V, WE, W> applyingBelmannFord( WO weightOperations );
 
+    /**
+     * Runs Dijkstra's algorithm lazily: the returned stream settles vertices, in increasing distance order,
+     * only as far as it is consumed, so that short-circuiting operations ({@code findFirst}, {@code limit},
+     * {@code iterator}...) stop the search.
+     *
+     * The stream is sequential and, once consumed, can not be replayed; closing a partially consumed stream
+     * reports the search statistics to the listener, if any.
+     *
+     * @param <WO> the type of weight operations
+     * @param weightOperations the weight operations needed for the algorithm
+     * @return the vertices reachable from the source, in settle order
+     */
+    <WO extends OrderedMonoid<W>> Stream<SettledVertex<V, W>> streamingDijkstra( WO weightOperations );
+
+    /**
+     * Finds all the vertices whose distance from the source is not greater than the given bound,
+     * stopping Dijkstra's algorithm as soon as the closest vertex still to settle is farther.
+     *
+     * @param <WO> the type of weight operations
+     * @param bound the maximum distance from the source
+     * @param weightOperations the weight operations needed for the algorithm
+     * @return the vertices within the bound, with their distances
+     */
+    <WO extends OrderedMonoid<W>> Isochrone<V, W> within( W bound, WO weightOperations );
+
+    /**
+     * Finds the k candidates closest to the source with a single Dijkstra's search, which stops as soon as
+     * k candidates are settled.
+     *
+     * @param <WO> the type of weight operations
+     * @param k the number of candidates to find
+     * @param candidates the vertices of interest, i.e. warehouses or charging stations
+     * @param weightOperations the weight operations needed for the algorithm
+     * @return the shortest paths to at most k candidates, in increasing weight order;
+     *         fewer than k paths if fewer candidates are reachable
+     */
+    <WO extends OrderedMonoid<W>> List<WeightedPath<V, WE, W>> nearest( int k, Collection<? extends V> candidates,
+                                                                       WO weightOperations );
+
+    /**
+     * Finds all the vertices whose distance <i>to</i> the source, here acting as a target, is not greater
+     * than the given bound, following the edges backwards.
+     *
+     * @param <WO> the type of weight operations
+     * @param bound the maximum distance to the source
+     * @param weightOperations the weight operations needed for the algorithm
+     * @return the vertices within the bound, with their distances
+     */
+    <WO extends OrderedMonoid<W>> Isochrone<V, W> withinReverse( W bound, WO weightOperations );
+
     /**
      * Specifies the shortest path source.
      *
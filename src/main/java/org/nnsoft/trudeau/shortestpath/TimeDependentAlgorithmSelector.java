@@ -0,0 +1,50 @@
+package org.nnsoft.trudeau.shortestpath;
+
+/*
+ *   Copyright 2013 The Trudeau Project
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+import org.nnsoft.trudeau.api.PathNotFoundException;
+import org.nnsoft.trudeau.api.WeightedPath;
+
+/**
+ * Selects the algorithm of a search on a graph whose edges have time-dependent travel times.
+ *
+ * @param <V> the Graph vertices type.
+ * @param <WE> the Graph weighted edges type
+ */
+public interface TimeDependentAlgorithmSelector<V, WE>
+{
+
+    /**
+     * Calculates the earliest arrival path, departing from the source at the given time, using the time-dependent
+     * Dijkstra's algorithm: every edge is weighted by its travel time at the time it is entered.
+     *
+     * @param departureTime the departure time from the source
+     * @return the earliest arrival path, weighted by its travel time, if any,
+     *         otherwise a {@link PathNotFoundException} will be thrown
+     */
+    WeightedPath<V, WE, Double> applyingTimeDependentDijkstra( double departureTime );
+
+    /**
+     * Calculates the travel time from the source to the target for all the departure times at once, using a
+     * label-correcting profile search over piecewise-linear functions.
+     *
+     * @return the shortest travel time, as a function of the departure time, if the target is reachable,
+     *         otherwise a {@link PathNotFoundException} will be thrown
+     */
+    PiecewiseLinearFunction applyingProfileSearch();
+
+}
@@ -0,0 +1,370 @@
+package org.nnsoft.trudeau.shortestpath;
+
+/*
+ *   Copyright 2013 The Trudeau Project
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+import static java.lang.String.format;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.nnsoft.trudeau.api.InMemoryWeightedPath;
+import org.nnsoft.trudeau.api.PathNotFoundException;
+import org.nnsoft.trudeau.api.WeightedPath;
+
+/**
+ * Computes the {@link TransitNodes} of a graph snapshot and answers the queries between vertices of different
+ * regions, looking the table of the distances between transit nodes up.
+ *
+ * @param <V> the Graph vertices type
+ * @param <WE> the Graph weighted edges type
+ * @param <W> the weight type
+ */
+final class TransitNodeSearch<V, WE, W>
+    extends GraphSearch<V, WE, W>
+{
+
+    TransitNodeSearch( GraphSearch<V, WE, W> shared )
+    {
+        super( shared );
+    }
+
+    /**
+     * Selects the boundary vertices of the given number of regions as transit nodes, then computes the access
+     * nodes of every vertex and the table of the distances between transit nodes, in parallel, on the common
+     * {@link java.util.concurrent.ForkJoinPool}.
+     *
+     * @param regions the number of regions, not greater than the graph order
+     * @return the transit nodes
+     */
+    TransitNodes<V, W> transitNodes( int regions )
+    {
+        final int[] partition = ArcFlags.partition( graph, regions );
+        final int[] transitNodes = new int[graph.order()];
+        int count = 0;
+        for ( int vertex = 0; vertex < graph.order(); vertex++ )
+        {
+            transitNodes[vertex] = isBoundary( partition, vertex ) ? count++ : -1;
+        }
+        if ( (long) count * count > Integer.MAX_VALUE )
+        {
+            throw new IllegalArgumentException( format( "%s regions have %s transit nodes, too many to be tabulated",
+                                                        regions, count ) );
+        }
+
+        final int[] vertices = new int[count];
+        for ( int vertex = 0; vertex < graph.order(); vertex++ )
+        {
+            if ( transitNodes[vertex] >= 0 )
+            {
+                vertices[transitNodes[vertex]] = vertex;
+            }
+        }
+
+        final Object[] table = new Object[count * count];
+        final int[] nextHops = new int[count * count];
+        IntStream.range( 0, count ).parallel().forEach( from -> tabulate( transitNodes, vertices, from, table, nextHops ) );
+
+        final int[][] forwardNodes = new int[graph.order()][];
+        final Object[][] forwardDistances = new Object[graph.order()][];
+        final int[][] backwardNodes = new int[graph.order()][];
+        final Object[][] backwardDistances = new Object[graph.order()][];
+        IntStream.range( 0, graph.order() ).parallel().forEach( vertex -> {
+            access( transitNodes, vertex, false, forwardNodes, forwardDistances );
+            access( transitNodes, vertex, true, backwardNodes, backwardDistances );
+        } );
+
+        return new TransitNodes<V, W>( graph, partition, vertices, transitNodes, table, nextHops,
+                                       offsets( forwardNodes ), flatten( forwardNodes ), flatten( forwardDistances ),
+                                       offsets( backwardNodes ), flatten( backwardNodes ), flatten( backwardDistances ) );
+    }
+
+    private boolean isBoundary( int[] partition, int vertex )
+    {
+        for ( int arc = graph.outOffsets[vertex]; arc < graph.outOffsets[vertex + 1]; arc++ )
+        {
+            if ( partition[graph.outVertices[arc]] != partition[vertex] )
+            {
+                return true;
+            }
+        }
+        for ( int arc = graph.inOffsets[vertex]; arc < graph.inOffsets[vertex + 1]; arc++ )
+        {
+            if ( partition[graph.inVertices[arc]] != partition[vertex] )
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Fills the table row of a transit node, with its distance to every transit node and the first transit node
+     * along the shortest path to it.
+     */
+    private void tabulate( final int[] transitNodes, int[] vertices, final int from, final Object[] table,
+                           final int[] nextHops )
+    {
+        final int row = from * vertices.length;
+        final int root = vertices[from];
+        final int[] hops = new int[graph.order()];
+        final SearchSpace<W> space = spaces.acquire();
+
+        try
+        {
+            shortestPathTree( space, root, false, vertex -> {
+                if ( vertex == root )
+                {
+                    table[row + from] = weightOperations.identity();
+                    return;
+                }
+
+                int predecessor = space.predecessorVertex( vertex );
+                int hop = predecessor == root ? -1 : hops[predecessor];
+                hops[vertex] = hop < 0 ? transitNodes[vertex] : hop;
+                if ( transitNodes[vertex] >= 0 )
+                {
+                    table[row + transitNodes[vertex]] = space.distance( vertex );
+                    nextHops[row + transitNodes[vertex]] = hops[vertex];
+                }
+            } );
+        }
+        finally
+        {
+            spaces.release( space );
+        }
+    }
+
+    /**
+     * Finds the access nodes of a vertex: a transit node is its own access node, other vertices search their region
+     * up to the first transit nodes.
+     */
+    private void access( final int[] transitNodes, int vertex, boolean reverse, int[][] nodes, Object[][] distances )
+    {
+        if ( transitNodes[vertex] >= 0 )
+        {
+            nodes[vertex] = new int[] { transitNodes[vertex] };
+            distances[vertex] = new Object[] { weightOperations.identity() };
+            return;
+        }
+
+        final SearchSpace<W> space = spaces.acquire();
+        final List<Integer> found = new ArrayList<Integer>();
+
+        try
+        {
+            shortestPathTree( space, vertex, reverse, transitNodes, -1, v -> {
+                if ( transitNodes[v] >= 0 )
+                {
+                    found.add( v );
+                }
+            } );
+
+            nodes[vertex] = new int[found.size()];
+            distances[vertex] = new Object[found.size()];
+            for ( int i = 0; i < found.size(); i++ )
+            {
+                nodes[vertex][i] = transitNodes[found.get( i )];
+                distances[vertex][i] = space.distance( found.get( i ) );
+            }
+        }
+        finally
+        {
+            spaces.release( space );
+        }
+    }
+
+    private static int[] offsets( int[][] lists )
+    {
+        int[] offsets = new int[lists.length + 1];
+        for ( int i = 0; i < lists.length; i++ )
+        {
+            offsets[i + 1] = offsets[i] + lists[i].length;
+        }
+        return offsets;
+    }
+
+    private static int[] flatten( int[][] lists )
+    {
+        int[] flat = new int[offsets( lists )[lists.length]];
+        int next = 0;
+        for ( int[] list : lists )
+        {
+            System.arraycopy( list, 0, flat, next, list.length );
+            next += list.length;
+        }
+        return flat;
+    }
+
+    private static Object[] flatten( Object[][] lists )
+    {
+        int size = 0;
+        for ( Object[] list : lists )
+        {
+            size += list.length;
+        }
+
+        Object[] flat = new Object[size];
+        int next = 0;
+        for ( Object[] list : lists )
+        {
+            System.arraycopy( list, 0, flat, next, list.length );
+            next += list.length;
+        }
+        return flat;
+    }
+
+    /**
+     * Looks the shortest distance up, between vertices of different regions.
+     */
+    W distance( int s, int t, TransitNodes<V, W> transitNodes )
+    {
+        final SearchCounters counters = new SearchCounters( SearchAlgorithm.TRANSIT_NODE_ROUTING, graph.order(), graph.size() );
+
+        try
+        {
+            counters.enter( SearchPhase.SEARCH );
+            W distance = lookUp( transitNodes, s, t, new int[2] );
+            if ( distance == null )
+            {
+                throw new PathNotFoundException( "Path from '%s' to '%s' doesn't exist", graph.vertex( s ), graph.vertex( t ) );
+            }
+            return distance;
+        }
+        finally
+        {
+            counters.complete( listener );
+        }
+    }
+
+    /**
+     * Looks the shortest distance up, between vertices of different regions, then unpacks its path.
+     */
+    WeightedPath<V, WE, W> path( int s, int t, TransitNodes<V, W> transitNodes )
+    {
+        final SearchCounters counters = new SearchCounters( SearchAlgorithm.TRANSIT_NODE_ROUTING, graph.order(), graph.size() );
+
+        try
+        {
+            counters.enter( SearchPhase.SEARCH );
+            int[] access = new int[2];
+            if ( lookUp( transitNodes, s, t, access ) == null )
+            {
+                throw new PathNotFoundException( "Path from '%s' to '%s' doesn't exist", graph.vertex( s ), graph.vertex( t ) );
+            }
+
+            counters.enter( SearchPhase.PATH_RECONSTRUCTION );
+            InMemoryWeightedPath<V, WE, W> path =
+                new InMemoryWeightedPath<V, WE, W>( graph.vertex( s ), graph.vertex( t ), weightOperations, weightedEdges );
+            appendSegment( path, s, transitNodes.vertices[access[0]], transitNodes.transitNodes, counters );
+            for ( int hop = access[0]; hop != access[1]; )
+            {
+                int next = transitNodes.nextHop( hop, access[1] );
+                appendSegment( path, transitNodes.vertices[hop], transitNodes.vertices[next], transitNodes.transitNodes, counters );
+                hop = next;
+            }
+            appendSegment( path, transitNodes.vertices[access[1]], t, transitNodes.transitNodes, counters );
+            return path;
+        }
+        finally
+        {
+            counters.complete( listener );
+        }
+    }
+
+    /**
+     * Looks the shortest distance up, among all the pairs of access nodes of the source and the target.
+     *
+     * @param access filled with the transit nodes of the shortest distance, leaving the source and entering the target
+     * @return the shortest distance, null if there is no path
+     */
+    private W lookUp( TransitNodes<V, W> transitNodes, int source, int target, int[] access )
+    {
+        W best = null;
+        for ( int i = transitNodes.forwardOffsets[source]; i < transitNodes.forwardOffsets[source + 1]; i++ )
+        {
+            @SuppressWarnings( "unchecked" )
+            W leaving = (W) transitNodes.forwardDistances[i];
+            for ( int j = transitNodes.backwardOffsets[target]; j < transitNodes.backwardOffsets[target + 1]; j++ )
+            {
+                W between = transitNodes.distance( transitNodes.forwardNodes[i], transitNodes.backwardNodes[j] );
+                if ( between == null )
+                {
+                    continue;
+                }
+
+                @SuppressWarnings( "unchecked" )
+                W entering = (W) transitNodes.backwardDistances[j];
+                W distance = weightOperations.append( weightOperations.append( leaving, between ), entering );
+                if ( best == null || weightOperations.compare( distance, best ) < 0 )
+                {
+                    best = distance;
+                    access[0] = transitNodes.forwardNodes[i];
+                    access[1] = transitNodes.backwardNodes[j];
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Appends the shortest path between two vertices with no transit node in between, searched from the first one
+     * through the vertices which are not transit nodes.
+     */
+    private void appendSegment( InMemoryWeightedPath<V, WE, W> path, int from, int to, int[] transitNodes,
+                                final SearchCounters counters )
+    {
+        if ( from == to )
+        {
+            return;
+        }
+
+        final SearchSpace<W> space = spaces.acquire();
+
+        try
+        {
+            shortestPathTree( space, from, false, transitNodes, to, vertex -> counters.settledVertices++ );
+
+            int length = 0;
+            for ( int v = to; v != from; v = space.predecessorVertex( v ) )
+            {
+                length++;
+            }
+
+            int[] vertices = new int[length + 1];
+            int[] edges = new int[length];
+            int v = to;
+            for ( int i = length; i > 0; i-- )
+            {
+                vertices[i] = v;
+                edges[i - 1] = space.predecessorEdge( v );
+                v = space.predecessorVertex( v );
+            }
+            vertices[0] = from;
+
+            for ( int i = 0; i < length; i++ )
+            {
+                path.addConnectionInTail( graph.vertex( vertices[i] ), graph.edgeValue( edges[i] ), graph.vertex( vertices[i + 1] ) );
+            }
+        }
+        finally
+        {
+            spaces.release( space );
+        }
+    }
+
+}
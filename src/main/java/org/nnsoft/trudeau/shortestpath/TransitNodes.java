@@ -0,0 +1,160 @@
+package org.nnsoft.trudeau.shortestpath;
+
+/*
+ *   Copyright 2013 The Trudeau Project
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+import static java.lang.String.format;
+
+/**
+ * The transit nodes of the graph snapshot of a {@link ShortestPathEngine}: the graph is partitioned into regions,
+ * and the boundary vertices of every region, those with arcs to or from other regions, are the transit nodes that
+ * every path between different regions goes through.
+ *
+ * Every vertex stores its access nodes, the first transit nodes of the paths leaving its region, and the last ones
+ * of the paths entering it, with their distances; a table stores the distances between all the transit nodes, so
+ * that {@link ShortestPathEngine#distance(Object, Object, TransitNodes) queries} between different regions are
+ * answered looking the table up for every pair of access nodes of the source and the target, while local queries
+ * fall back to bidirectional Dijkstra's algorithm.
+ *
+ * Transit nodes are immutable and can be shared by concurrent queries, but have to be computed again when the edge
+ * weights change; the table grows with the square of the transit nodes, which the number of regions trades with
+ * the size of the local searches.
+ *
+ * @param <V> the Graph vertices type
+ * @param <W> the weight type
+ */
+public final class TransitNodes<V, W>
+{
+
+    private final IndexedGraph<V, ?> graph;
+
+    private final int[] regions;
+
+    /**
+     * The vertex of every transit node.
+     */
+    final int[] vertices;
+
+    /**
+     * The transit node of every vertex, {@code -1} if the vertex is not a transit node.
+     */
+    final int[] transitNodes;
+
+    /**
+     * The distances between transit nodes, row by row, null if there is no path.
+     */
+    private final Object[] table;
+
+    /**
+     * The next transit node of the shortest path between transit nodes, row by row.
+     */
+    private final int[] nextHops;
+
+    /**
+     * The access nodes of the paths leaving every vertex, as ranges of {@link #forwardNodes}.
+     */
+    final int[] forwardOffsets;
+
+    final int[] forwardNodes;
+
+    final Object[] forwardDistances;
+
+    /**
+     * The access nodes of the paths entering every vertex, as ranges of {@link #backwardNodes}.
+     */
+    final int[] backwardOffsets;
+
+    final int[] backwardNodes;
+
+    final Object[] backwardDistances;
+
+    TransitNodes( IndexedGraph<V, ?> graph, int[] regions, int[] vertices, int[] transitNodes, Object[] table,
+                  int[] nextHops, int[] forwardOffsets, int[] forwardNodes, Object[] forwardDistances,
+                  int[] backwardOffsets, int[] backwardNodes, Object[] backwardDistances )
+    {
+        this.graph = graph;
+        this.regions = regions;
+        this.vertices = vertices;
+        this.transitNodes = transitNodes;
+        this.table = table;
+        this.nextHops = nextHops;
+        this.forwardOffsets = forwardOffsets;
+        this.forwardNodes = forwardNodes;
+        this.forwardDistances = forwardDistances;
+        this.backwardOffsets = backwardOffsets;
+        this.backwardNodes = backwardNodes;
+        this.backwardDistances = backwardDistances;
+    }
+
+    /**
+     * @return the number of transit nodes
+     */
+    public int getTransitNodes()
+    {
+        return vertices.length;
+    }
+
+    /**
+     * @param vertex a graph vertex
+     * @return true if the vertex is a transit node
+     */
+    public boolean isTransitNode( V vertex )
+    {
+        int index = graph.indexOf( vertex );
+        if ( index < 0 )
+        {
+            throw new IllegalArgumentException( format( "Vertex '%s' doesn't exist in the graph", vertex ) );
+        }
+        return transitNodes[index] >= 0;
+    }
+
+    boolean isIndexedOn( IndexedGraph<V, ?> graph )
+    {
+        return this.graph == graph;
+    }
+
+    /**
+     * @param source the source vertex index
+     * @param target the target vertex index
+     * @return true if the source and the target share their region, so that their paths may avoid transit nodes
+     */
+    boolean isLocal( int source, int target )
+    {
+        return regions[source] == regions[target];
+    }
+
+    /**
+     * @param from the source transit node
+     * @param to the target transit node
+     * @return the distance between the transit nodes, null if there is no path
+     */
+    @SuppressWarnings( "unchecked" )
+    W distance( int from, int to )
+    {
+        return (W) table[from * vertices.length + to];
+    }
+
+    /**
+     * @param from the source transit node
+     * @param to the target transit node, other than the source
+     * @return the transit node following the source along the shortest path to the target
+     */
+    int nextHop( int from, int to )
+    {
+        return nextHops[from * vertices.length + to];
+    }
+
+}
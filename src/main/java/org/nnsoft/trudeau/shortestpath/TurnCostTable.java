@@ -0,0 +1,113 @@
+package org.nnsoft.trudeau.shortestpath;
+
+/*
+ *   Copyright 2013 The Trudeau Project
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Turn penalties and banned turns of a road graph, keyed by the three vertices of each turn: entering {@code via}
+ * from {@code from} and leaving it towards {@code to}. Turns not in the table are free.
+ *
+ * A table is a plain description, indexed against the graph snapshot of a {@link ShortestPathEngine} by
+ * {@link ShortestPathEngine#turnCosts(TurnCostTable)} before being searched; tables are not thread-safe.
+ *
+ * @param <V> the Graph vertices type
+ * @param <W> the weight type
+ */
+public final class TurnCostTable<V, W>
+{
+
+    private final List<V> froms = new ArrayList<V>();
+
+    private final List<V> vias = new ArrayList<V>();
+
+    private final List<V> tos = new ArrayList<V>();
+
+    private final List<W> costs = new ArrayList<W>();
+
+    /**
+     * Adds a penalty to a turn, replacing any previous one.
+     *
+     * @param from the vertex the turn vertex is entered from
+     * @param via the turn vertex
+     * @param to the vertex the turn vertex is left towards
+     * @param cost the turn penalty
+     * @return this table
+     */
+    public TurnCostTable<V, W> penalize( V from, V via, V to, W cost )
+    {
+        cost = requireNonNull( cost, "Turn can not be penalized by a null cost" );
+        return add( from, via, to, cost );
+    }
+
+    /**
+     * Bans a turn.
+     *
+     * @param from the vertex the turn vertex is entered from
+     * @param via the turn vertex
+     * @param to the vertex the turn vertex can not be left towards
+     * @return this table
+     */
+    public TurnCostTable<V, W> ban( V from, V via, V to )
+    {
+        return add( from, via, to, null );
+    }
+
+    private TurnCostTable<V, W> add( V from, V via, V to, W cost )
+    {
+        froms.add( requireNonNull( from, "Turn can not come from a null vertex" ) );
+        vias.add( requireNonNull( via, "Turn can not be made at a null vertex" ) );
+        tos.add( requireNonNull( to, "Turn can not lead to a null vertex" ) );
+        costs.add( cost );
+        return this;
+    }
+
+    /**
+     * @return the number of turns in the table
+     */
+    public int size()
+    {
+        return froms.size();
+    }
+
+    V from( int turn )
+    {
+        return froms.get( turn );
+    }
+
+    V via( int turn )
+    {
+        return vias.get( turn );
+    }
+
+    V to( int turn )
+    {
+        return tos.get( turn );
+    }
+
+    /**
+     * @return the turn penalty, null if the turn is banned
+     */
+    W cost( int turn )
+    {
+        return costs.get( turn );
+    }
+
+}
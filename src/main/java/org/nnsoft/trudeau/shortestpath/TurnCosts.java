@@ -0,0 +1,149 @@
+package org.nnsoft.trudeau.shortestpath;
+
+/*
+ *   Copyright 2013 The Trudeau Project
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Map;
+
+/**
+ * A {@link TurnCostTable} indexed against the graph snapshot of a {@link ShortestPathEngine}: turns are keyed by
+ * (incoming arc, outgoing arc), where arcs are the positions in the snapshot adjacency arrays, and stored in
+ * compressed sparse row form by incoming arc, so that looking up a turn scans only the turns of that arc.
+ *
+ * Also holds the reverse adjacency of arcs and the pool of arc indexed search spaces used by edge-based searches.
+ * Turn costs are immutable and can be shared by concurrent queries.
+ *
+ * @param <V> the Graph vertices type
+ * @param <W> the weight type
+ */
+public final class TurnCosts<V, W>
+{
+
+    private final IndexedGraph<V, ?> graph;
+
+    final int[] turnOffsets;
+
+    final int[] turnArcs;
+
+    private final Object[] turnCostValues;
+
+    final int[] arcTails;
+
+    final int[] inArcOffsets;
+
+    final int[] inArcs;
+
+    final SearchSpacePool<W> spaces;
+
+    /**
+     * @param turns the turn costs keyed by {@code incomingArc << 32 | outgoingArc}, null for banned turns
+     */
+    TurnCosts( IndexedGraph<V, ?> graph, Map<Long, W> turns, Comparator<? super W> comparator )
+    {
+        this.graph = graph;
+
+        int arcs = graph.outVertices.length;
+
+        long[] keys = new long[turns.size()];
+        int index = 0;
+        for ( Long key : turns.keySet() )
+        {
+            keys[index++] = key;
+        }
+        Arrays.sort( keys );
+
+        turnOffsets = new int[arcs + 1];
+        turnArcs = new int[keys.length];
+        turnCostValues = new Object[keys.length];
+        for ( int i = 0; i < keys.length; i++ )
+        {
+            turnOffsets[(int) ( keys[i] >>> 32 ) + 1]++;
+            turnArcs[i] = (int) keys[i];
+            turnCostValues[i] = turns.get( keys[i] );
+        }
+        for ( int arc = 0; arc < arcs; arc++ )
+        {
+            turnOffsets[arc + 1] += turnOffsets[arc];
+        }
+
+        arcTails = new int[arcs];
+        inArcOffsets = new int[graph.order() + 1];
+        for ( int v = 0; v < graph.order(); v++ )
+        {
+            for ( int arc = graph.outOffsets[v]; arc < graph.outOffsets[v + 1]; arc++ )
+            {
+                arcTails[arc] = v;
+                inArcOffsets[graph.outVertices[arc] + 1]++;
+            }
+        }
+        for ( int v = 0; v < graph.order(); v++ )
+        {
+            inArcOffsets[v + 1] += inArcOffsets[v];
+        }
+        inArcs = new int[arcs];
+        int[] next = new int[graph.order()];
+        for ( int arc = 0; arc < arcs; arc++ )
+        {
+            int head = graph.outVertices[arc];
+            inArcs[inArcOffsets[head] + next[head]++] = arc;
+        }
+
+        spaces = new SearchSpacePool<W>( arcs, comparator );
+    }
+
+    /**
+     * @return the number of penalized or banned turns
+     */
+    public int size()
+    {
+        return turnArcs.length;
+    }
+
+    boolean isIndexedOn( IndexedGraph<V, ?> graph )
+    {
+        return this.graph == graph;
+    }
+
+    /**
+     * @param incoming the arc the turn vertex is entered from
+     * @param outgoing the arc the turn vertex is left by
+     * @return the turn index, {@code -1} if the turn is free
+     */
+    int find( int incoming, int outgoing )
+    {
+        for ( int turn = turnOffsets[incoming]; turn < turnOffsets[incoming + 1]; turn++ )
+        {
+            if ( turnArcs[turn] == outgoing )
+            {
+                return turn;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param turn a turn index
+     * @return the turn penalty, null if the turn is banned
+     */
+    @SuppressWarnings( "unchecked" )
+    W cost( int turn )
+    {
+        return (W) turnCostValues[turn];
+    }
+
+}
@@ -0,0 +1,479 @@
+package org.nnsoft.trudeau.shortestpath;
+
+/*
+ *   Copyright 2013 The Trudeau Project
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import org.nnsoft.trudeau.api.InMemoryWeightedPath;
+import org.nnsoft.trudeau.api.PathNotFoundException;
+import org.nnsoft.trudeau.api.WeightedPath;
+import org.nnsoft.trudeau.math.monoid.OrderedMonoid;
+import org.nnsoft.trudeau.math.monoid.primitive.IntegerWeightBaseOperations;
+
+import com.google.common.graph.ValueGraph;
+
+/**
+ * A shortest path solver for hop counts, where every edge weighs {@code 1}, built once from an immutable snapshot
+ * of a graph: breadth first searches replace the heap and the weight operations of Dijkstra's algorithm.
+ *
+ * Single queries run a plain breadth first search; batched queries and all-pairs distances run the breadth first
+ * searches of {@value #SOURCES_PER_SEARCH} sources at once, every vertex storing one bit per source in a
+ * {@code long}, so that a single pass over the arcs advances the frontiers of all of them; batches are searched
+ * in parallel, on the common {@link java.util.concurrent.ForkJoinPool}.
+ *
+ * Like {@link ShortestPathEngine}, an unweighted engine is immutable and safe for unlimited concurrent queries.
+ *
+ * @param <V> the Graph vertices type
+ * @param <WE> the Graph weighted edges type
+ */
+public final class UnweightedEngine<V, WE>
+{
+
+    /**
+     * The number of sources searched at once, one per bit of a {@code long}.
+     */
+    static final int SOURCES_PER_SEARCH = Long.SIZE;
+
+    private static final OrderedMonoid<Integer> HOPS = new IntegerWeightBaseOperations();
+
+    /**
+     * Builds an engine on a snapshot of the given graph, whose edge values are ignored.
+     *
+     * @param <V> the Graph vertices type
+     * @param <WE> the Graph weighted edges type
+     * @param graph the input graph, which must not be modified while the snapshot is taken
+     * @return a new unweighted engine
+     */
+    public static <V, WE> UnweightedEngine<V, WE> newUnweightedEngine( ValueGraph<V, WE> graph )
+    {
+        graph = requireNonNull( graph, "Shortest path can not be calculated on null graph" );
+        return new UnweightedEngine<V, WE>( IndexedGraph.snapshot( graph ) );
+    }
+
+    private final IndexedGraph<V, WE> graph;
+
+    private final SearchSpacePool<Integer> spaces;
+
+    private final SearchListener listener;
+
+    private UnweightedEngine( IndexedGraph<V, WE> graph )
+    {
+        this( graph, new SearchSpacePool<Integer>( graph.order(), HOPS ), null );
+    }
+
+    private UnweightedEngine( IndexedGraph<V, WE> graph, SearchSpacePool<Integer> spaces, SearchListener listener )
+    {
+        this.graph = graph;
+        this.spaces = spaces;
+        this.listener = listener;
+    }
+
+    /**
+     * Returns an engine sharing this engine graph snapshot and search state pool, whose queries report
+     * to the given listener too, after the listeners this engine already reports to.
+     *
+     * @param listener the listener notified on search completion, invoked by the querying threads
+     * @return an engine that reports to the given listener
+     */
+    public UnweightedEngine<V, WE> reportingTo( SearchListener listener )
+    {
+        listener = requireNonNull( listener, "Search statistics can not be reported to a null listener" );
+        listener = this.listener == null ? listener : this.listener.andThen( listener );
+        return new UnweightedEngine<V, WE>( graph, spaces, listener );
+    }
+
+    /**
+     * @return the number of vertices of the graph snapshot
+     */
+    public int getOrder()
+    {
+        return graph.order();
+    }
+
+    /**
+     * Calculates the path with the fewest edges using a breadth first search.
+     *
+     * @param source the path source
+     * @param target the path target
+     * @return a path which describes the shortest path, weighted by its number of edges, if any, otherwise a
+     *         {@link PathNotFoundException} will be thrown
+     */
+    public WeightedPath<V, WE, Integer> shortestPath( V source, V target )
+    {
+        final int s = indexOf( source, "Shortest path can not be calculated from a null source" );
+        final int t = indexOf( target, "Shortest path can not be calculated to a null target" );
+
+        final SearchCounters counters = new SearchCounters( SearchAlgorithm.BREADTH_FIRST_SEARCH, graph.order(), graph.size() );
+        final SearchSpace<Integer> space = spaces.acquire();
+
+        try
+        {
+            counters.enter( SearchPhase.SEARCH );
+            if ( search( space, s, t, counters ) < 0 )
+            {
+                throw new PathNotFoundException( "Path from '%s' to '%s' doesn't exist", source, target );
+            }
+
+            counters.enter( SearchPhase.PATH_RECONSTRUCTION );
+            return buildPath( space, s, t );
+        }
+        finally
+        {
+            spaces.release( space );
+            counters.complete( listener );
+        }
+    }
+
+    /**
+     * Calculates the number of edges of the shortest path using a breadth first search.
+     *
+     * @param source the path source
+     * @param target the path target
+     * @return the number of edges of the shortest path, if any, otherwise a {@link PathNotFoundException} will be
+     *         thrown
+     */
+    public int hops( V source, V target )
+    {
+        final int s = indexOf( source, "Shortest path can not be calculated from a null source" );
+        final int t = indexOf( target, "Shortest path can not be calculated to a null target" );
+
+        final SearchCounters counters = new SearchCounters( SearchAlgorithm.BREADTH_FIRST_SEARCH, graph.order(), graph.size() );
+        final SearchSpace<Integer> space = spaces.acquire();
+
+        try
+        {
+            counters.enter( SearchPhase.SEARCH );
+            int hops = search( space, s, t, counters );
+            if ( hops < 0 )
+            {
+                throw new PathNotFoundException( "Path from '%s' to '%s' doesn't exist", source, target );
+            }
+            return hops;
+        }
+        finally
+        {
+            spaces.release( space );
+            counters.complete( listener );
+        }
+    }
+
+    /**
+     * Breadth first search from the source, level by level, until the target is reached.
+     *
+     * @return the number of hops to the target, {@code -1} if not reachable
+     */
+    private int search( SearchSpace<Integer> space, int source, int target, SearchCounters counters )
+    {
+        IntDeque queue = space.deque();
+
+        space.reach( source, null, -1, -1 );
+        queue.addLast( source );
+
+        for ( int hops = 0; !queue.isEmpty(); hops++ )
+        {
+            for ( int level = queue.size(); level > 0; level-- )
+            {
+                int vertex = queue.pollFirst();
+                counters.settledVertices++;
+                if ( vertex == target )
+                {
+                    return hops;
+                }
+
+                for ( int arc = graph.outOffsets[vertex]; arc < graph.outOffsets[vertex + 1]; arc++ )
+                {
+                    counters.relaxedEdges++;
+                    int v = graph.outVertices[arc];
+                    if ( !space.isReached( v ) )
+                    {
+                        space.reach( v, null, vertex, graph.outEdges[arc] );
+                        queue.addLast( v );
+                    }
+                }
+            }
+        }
+        return -1;
+    }
+
+    private WeightedPath<V, WE, Integer> buildPath( SearchSpace<Integer> space, int source, int target )
+    {
+        int length = 0;
+        for ( int v = target; v != source; v = space.predecessorVertex( v ) )
+        {
+            length++;
+        }
+
+        int[] vertices = new int[length + 1];
+        int[] edges = new int[length];
+        int v = target;
+        for ( int i = length; i > 0; i-- )
+        {
+            vertices[i] = v;
+            edges[i - 1] = space.predecessorEdge( v );
+            v = space.predecessorVertex( v );
+        }
+        vertices[0] = source;
+
+        Function<WE, Integer> hop = edge -> 1;
+        InMemoryWeightedPath<V, WE, Integer> path =
+            new InMemoryWeightedPath<V, WE, Integer>( graph.vertex( source ), graph.vertex( target ), HOPS, hop );
+        for ( int i = 0; i < length; i++ )
+        {
+            path.addConnectionInTail( graph.vertex( vertices[i] ), graph.edgeValue( edges[i] ), graph.vertex( vertices[i + 1] ) );
+        }
+        return path;
+    }
+
+    /**
+     * Calculates the number of edges of the shortest paths between the given pairs of vertices: the pairs are
+     * grouped by source, and the sources searched {@value #SOURCES_PER_SEARCH} at once.
+     *
+     * @param sources the path sources
+     * @param targets the path targets, one per source
+     * @return the number of edges of the shortest path between every pair, {@code -1} if there is no path
+     */
+    public int[] hops( List<? extends V> sources, List<? extends V> targets )
+    {
+        sources = requireNonNull( sources, "Shortest paths can not be calculated from null sources" );
+        targets = requireNonNull( targets, "Shortest paths can not be calculated to null targets" );
+        if ( sources.size() != targets.size() )
+        {
+            throw new IllegalArgumentException( format( "%s sources can not be paired with %s targets",
+                                                        sources.size(), targets.size() ) );
+        }
+
+        final int[] s = new int[sources.size()];
+        final int[] t = new int[targets.size()];
+        for ( int pair = 0; pair < s.length; pair++ )
+        {
+            s[pair] = indexOf( sources.get( pair ), "Shortest path can not be calculated from a null source" );
+            t[pair] = indexOf( targets.get( pair ), "Shortest path can not be calculated to a null target" );
+        }
+
+        // pairs sorted by source, then cut every SOURCES_PER_SEARCH distinct sources
+        Integer[] sorted = new Integer[s.length];
+        for ( int pair = 0; pair < s.length; pair++ )
+        {
+            sorted[pair] = pair;
+        }
+        Arrays.sort( sorted, ( p, q ) -> Integer.compare( s[p], s[q] ) );
+        final int[] pairs = new int[s.length];
+        int[] cuts = new int[s.length + 1];
+        int batches = 0;
+        int distinct = 0;
+        for ( int i = 0; i < pairs.length; i++ )
+        {
+            pairs[i] = sorted[i];
+            if ( i == 0 || s[pairs[i]] != s[pairs[i - 1]] )
+            {
+                if ( distinct++ % SOURCES_PER_SEARCH == 0 )
+                {
+                    cuts[batches++] = i;
+                }
+            }
+        }
+        cuts[batches] = pairs.length;
+
+        final int[] hops = new int[s.length];
+        Arrays.fill( hops, -1 );
+        final int[] batchCuts = cuts;
+        IntStream.range( 0, batches ).parallel().forEach( batch -> hops( s, t, pairs, batchCuts[batch], batchCuts[batch + 1], hops ) );
+        return hops;
+    }
+
+    /**
+     * Searches the sources of a range of pairs at once, stopping once all the targets have been reached.
+     */
+    private void hops( int[] sources, int[] targets, int[] pairs, int from, int to, final int[] hops )
+    {
+        // the bit of every source, the pairs of every target linked in a list
+        final long[] bits = new long[to - from];
+        final int[] firstPairs = new int[graph.order()];
+        final int[] nextPairs = new int[to - from];
+        Arrays.fill( firstPairs, -1 );
+
+        int[] roots = new int[SOURCES_PER_SEARCH];
+        int count = 0;
+        for ( int i = from; i < to; i++ )
+        {
+            int pair = pairs[i];
+            if ( i == from || sources[pair] != sources[pairs[i - 1]] )
+            {
+                roots[count++] = sources[pair];
+            }
+            bits[i - from] = 1L << ( count - 1 );
+            nextPairs[i - from] = firstPairs[targets[pair]];
+            firstPairs[targets[pair]] = i - from;
+        }
+
+        final int[] remaining = { to - from };
+        search( roots, count, ( vertex, reached, level ) -> {
+            for ( int i = firstPairs[vertex]; i >= 0; i = nextPairs[i] )
+            {
+                if ( ( reached & bits[i] ) != 0L )
+                {
+                    hops[pairs[from + i]] = level;
+                    remaining[0]--;
+                }
+            }
+            return remaining[0] == 0;
+        } );
+    }
+
+    /**
+     * Calculates the number of edges of the shortest paths between all the vertices, searching
+     * {@value #SOURCES_PER_SEARCH} sources at once: the matrix grows with the square of the graph order.
+     *
+     * @return the hop distances between all the vertices
+     */
+    public HopDistances<V> allPairs()
+    {
+        final int order = graph.order();
+        if ( (long) order * order > Integer.MAX_VALUE )
+        {
+            throw new IllegalArgumentException( format( "Hop distances between %s vertices can not be stored in a matrix", order ) );
+        }
+
+        final int[] hops = new int[order * order];
+        Arrays.fill( hops, -1 );
+        IntStream.range( 0, ( order + SOURCES_PER_SEARCH - 1 ) / SOURCES_PER_SEARCH ).parallel().forEach( batch -> {
+            final int first = batch * SOURCES_PER_SEARCH;
+            int[] roots = new int[Math.min( SOURCES_PER_SEARCH, order - first )];
+            for ( int i = 0; i < roots.length; i++ )
+            {
+                roots[i] = first + i;
+            }
+
+            search( roots, roots.length, ( vertex, reached, level ) -> {
+                for ( long bits = reached; bits != 0L; bits &= bits - 1 )
+                {
+                    hops[( first + Long.numberOfTrailingZeros( bits ) ) * order + vertex] = level;
+                }
+                return false;
+            } );
+        } );
+        return new HopDistances<V>( graph, hops );
+    }
+
+    /**
+     * Notified of the vertices reached by a multi-source breadth first search.
+     */
+    private interface Reached
+    {
+
+        /**
+         * @param vertex the reached vertex
+         * @param sources the bits of the sources which reached the vertex at this level
+         * @param level the number of hops from those sources
+         * @return true to stop the search
+         */
+        boolean reached( int vertex, long sources, int level );
+
+    }
+
+    /**
+     * Grows the breadth first searches of distinct roots at once: every vertex stores the bits of the sources
+     * which have seen it, and of those which reached it at the current level, whose arcs are followed in a single
+     * pass over the frontier shared by all the sources.
+     *
+     * @param roots the distinct source vertices, the bit of a root is its position
+     * @param count the number of roots
+     * @param reached notified of every vertex, once per level it is reached at
+     */
+    private void search( int[] roots, int count, Reached reached )
+    {
+        long[] seen = new long[graph.order()];
+        long[] visit = new long[graph.order()];
+        long[] visitNext = new long[graph.order()];
+        int[] frontier = new int[graph.order()];
+        int[] frontierNext = new int[graph.order()];
+
+        int size = 0;
+        for ( int i = 0; i < count; i++ )
+        {
+            seen[roots[i]] = 1L << i;
+            visit[roots[i]] = 1L << i;
+            frontier[size++] = roots[i];
+        }
+        for ( int i = 0; i < size; i++ )
+        {
+            if ( reached.reached( frontier[i], visit[frontier[i]], 0 ) )
+            {
+                return;
+            }
+        }
+
+        for ( int level = 1; size > 0; level++ )
+        {
+            int sizeNext = 0;
+            for ( int i = 0; i < size; i++ )
+            {
+                int vertex = frontier[i];
+                long sources = visit[vertex];
+                visit[vertex] = 0L;
+                for ( int arc = graph.outOffsets[vertex]; arc < graph.outOffsets[vertex + 1]; arc++ )
+                {
+                    int v = graph.outVertices[arc];
+                    long discovered = sources & ~seen[v];
+                    if ( discovered != 0L )
+                    {
+                        if ( visitNext[v] == 0L )
+                        {
+                            frontierNext[sizeNext++] = v;
+                        }
+                        visitNext[v] |= discovered;
+                        seen[v] |= discovered;
+                    }
+                }
+            }
+
+            for ( int i = 0; i < sizeNext; i++ )
+            {
+                if ( reached.reached( frontierNext[i], visitNext[frontierNext[i]], level ) )
+                {
+                    return;
+                }
+            }
+
+            long[] swapBits = visit;
+            visit = visitNext;
+            visitNext = swapBits;
+            int[] swapFrontier = frontier;
+            frontier = frontierNext;
+            frontierNext = swapFrontier;
+            size = sizeNext;
+        }
+    }
+
+    private int indexOf( V vertex, String nullMessage )
+    {
+        vertex = requireNonNull( vertex, nullMessage );
+        int index = graph.indexOf( vertex );
+        if ( index < 0 )
+        {
+            throw new IllegalArgumentException( format( "Vertex '%s' doesn't belong to the graph", vertex ) );
+        }
+        return index;
+    }
+
+}
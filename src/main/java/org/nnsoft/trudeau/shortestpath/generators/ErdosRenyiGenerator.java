@@ -0,0 +1,70 @@
+package org.nnsoft.trudeau.shortestpath.generators;
+
+/*
+ *   Copyright 2013 The Trudeau Project
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * Generates <a href="http://en.wikipedia.org/wiki/Erd%C5%91s%E2%80%93R%C3%A9nyi_model">Erd&#337;s-R&eacute;nyi</a>
+ * {@code G(n, m)} random graphs: {@code m} edges with endpoints picked uniformly at random, self loops excluded.
+ */
+public final class ErdosRenyiGenerator
+    extends GraphGenerator<ErdosRenyiGenerator>
+{
+
+    private final int order;
+
+    private final long size;
+
+    ErdosRenyiGenerator( int order, long size )
+    {
+        checkArgument( order > 1, "Erdos-Renyi graphs need at least two vertices, %s is not allowed", order );
+        checkArgument( size >= 0, "Erdos-Renyi graphs size must be non negative, %s is not", size );
+        this.order = order;
+        this.size = size;
+    }
+
+    @Override
+    public int order()
+    {
+        return order;
+    }
+
+    @Override
+    Stream<GeneratedEdge> generateEdges()
+    {
+        return LongStream.range( 0, size ).mapToObj( this::edge );
+    }
+
+    private GeneratedEdge edge( long index )
+    {
+        int u = uniform( index, 0, order );
+        int v;
+        int salt = 1;
+        do
+        {
+            v = uniform( index, salt++, order );
+        }
+        while ( u == v );
+
+        return new GeneratedEdge( u, v, weight( index, -salt ) );
+    }
+
+}
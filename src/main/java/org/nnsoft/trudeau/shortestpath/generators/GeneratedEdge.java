@@ -0,0 +1,68 @@
+package org.nnsoft.trudeau.shortestpath.generators;
+
+/*
+ *   Copyright 2013 The Trudeau Project
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+/**
+ * An edge emitted by a {@link GraphGenerator}, vertices are identified by their {@code int} index.
+ */
+public final class GeneratedEdge
+{
+
+    private final int source;
+
+    private final int target;
+
+    private final double weight;
+
+    GeneratedEdge( int source, int target, double weight )
+    {
+        this.source = source;
+        this.target = target;
+        this.weight = weight;
+    }
+
+    /**
+     * @return the edge source vertex
+     */
+    public int getSource()
+    {
+        return source;
+    }
+
+    /**
+     * @return the edge target vertex
+     */
+    public int getTarget()
+    {
+        return target;
+    }
+
+    /**
+     * @return the edge weight
+     */
+    public double getWeight()
+    {
+        return weight;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format( "%s -> %s (%s)", source, target, weight );
+    }
+
+}
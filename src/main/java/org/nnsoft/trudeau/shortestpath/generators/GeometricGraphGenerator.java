@@ -0,0 +1,40 @@
+package org.nnsoft.trudeau.shortestpath.generators;
+
+/*
+ *   Copyright 2013 The Trudeau Project
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+/**
+ * Base class of generators which place vertices in the space.
+ *
+ * @param <G> the concrete generator type
+ */
+public abstract class GeometricGraphGenerator<G extends GeometricGraphGenerator<G>>
+    extends GraphGenerator<G>
+{
+
+    GeometricGraphGenerator()
+    {
+        // only generators in this package
+    }
+
+    /**
+     * Returns the vertices coordinates, indexed by axis first, then by vertex: {@code coordinates[axis][vertex]}.
+     *
+     * @return the vertices coordinates
+     */
+    public abstract double[][] getCoordinates();
+
+}
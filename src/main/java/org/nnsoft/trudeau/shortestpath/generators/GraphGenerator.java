@@ -0,0 +1,260 @@
+package org.nnsoft.trudeau.shortestpath.generators;
+
+/*
+ *   Copyright 2013 The Trudeau Project
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static java.util.Objects.requireNonNull;
+
+import java.util.stream.Stream;
+
+import com.google.common.graph.ElementOrder;
+import com.google.common.graph.MutableValueGraph;
+import com.google.common.graph.ValueGraphBuilder;
+
+/**
+ * Base class of all graph generators.
+ *
+ * Randomness is counter based: every random number is a hash of the seed, the index of the generated item and a
+ * salt, so the same seed always produces the same graph, even when {@link #edges()} is consumed in parallel.
+ *
+ * @param <G> the concrete generator type
+ */
+public abstract class GraphGenerator<G extends GraphGenerator<G>>
+{
+
+    /**
+     * The seed used when none is specified.
+     */
+    public static final long DEFAULT_SEED = 0x5EED5EEDL;
+
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private long seed = DEFAULT_SEED;
+
+    private boolean directed;
+
+    private WeightDistribution weights = WeightDistribution.UNIT;
+
+    private double negativeEdges;
+
+    GraphGenerator()
+    {
+        // only generators in this package
+    }
+
+    /**
+     * Specifies the seed graphs are generated from.
+     *
+     * @param seed the seed
+     * @return this generator
+     */
+    public final G withSeed( long seed )
+    {
+        this.seed = seed;
+        return self();
+    }
+
+    /**
+     * Generates directed graphs.
+     *
+     * @return this generator
+     */
+    public final G directed()
+    {
+        directed = true;
+        return self();
+    }
+
+    /**
+     * Generates undirected graphs, the default.
+     *
+     * @return this generator
+     */
+    public final G undirected()
+    {
+        directed = false;
+        return self();
+    }
+
+    /**
+     * Specifies the distribution edge weights are drawn from, {@link WeightDistribution#UNIT} by default.
+     * Geometric generators multiply the drawn value by the edge length.
+     *
+     * @param weights the edge weights distribution
+     * @return this generator
+     */
+    public final G withWeights( WeightDistribution weights )
+    {
+        this.weights = requireNonNull( weights, "Edge weights distribution can not be null" );
+        return self();
+    }
+
+    /**
+     * Turns, on average, the given fraction of edges into negative edges without introducing negative cycles.
+     *
+     * Every vertex gets a random potential {@code p} and every edge {@code (u, v)} a non negative reduced weight
+     * {@code r}; the generated weight is {@code r + p(v) - p(u)}, so the weight of every cycle is the (non negative)
+     * sum of its reduced weights. Only directed graphs are supported, an undirected negative edge is a negative cycle.
+     *
+     * @param fraction the expected fraction of negative edges, in {@code [0, 0.5]}
+     * @return this generator
+     */
+    public final G withNegativeEdges( double fraction )
+    {
+        checkArgument( fraction >= 0D && fraction <= 0.5D,
+                       "Negative edges fraction must be in [0, 0.5], %s is not", fraction );
+        this.negativeEdges = fraction;
+        return self();
+    }
+
+    /**
+     * @return the number of vertices of generated graphs
+     */
+    public abstract int order();
+
+    /**
+     * Streams the generated edges without materializing the graph, as needed for very large graphs.
+     *
+     * Streams may contain duplicated edges, depending on the generator, while {@link #generate()} keeps only the
+     * first occurrence; the stream can be safely turned to parallel, edges do not depend on the consumption order.
+     *
+     * @return the generated edges
+     */
+    public final Stream<GeneratedEdge> edges()
+    {
+        checkState( directed || negativeEdges == 0D, "Negative edges can be generated on directed graphs only" );
+
+        Stream<GeneratedEdge> edges = generateEdges();
+        if ( negativeEdges > 0D )
+        {
+            edges = edges.map( this::reweight );
+        }
+        return edges;
+    }
+
+    /**
+     * Materializes the generated graph, vertices are the integers in {@code [0, order())} in insertion order.
+     *
+     * @return the generated graph
+     */
+    public final MutableValueGraph<Integer, Double> generate()
+    {
+        final MutableValueGraph<Integer, Double> graph =
+            ( directed ? ValueGraphBuilder.directed() : ValueGraphBuilder.undirected() )
+                .nodeOrder( ElementOrder.<Integer>insertion() )
+                .expectedNodeCount( order() )
+                .build();
+
+        for ( int i = 0; i < order(); i++ )
+        {
+            graph.addNode( i );
+        }
+
+        edges().forEachOrdered( edge ->
+        {
+            if ( !graph.hasEdgeConnecting( edge.getSource(), edge.getTarget() ) )
+            {
+                graph.putEdgeValue( edge.getSource(), edge.getTarget(), edge.getWeight() );
+            }
+        } );
+
+        return graph;
+    }
+
+    /**
+     * Generates the edges, before the negative edges reweighting.
+     * Undirected generators emit every edge once, directed ones every arc.
+     */
+    abstract Stream<GeneratedEdge> generateEdges();
+
+    final boolean isDirected()
+    {
+        return directed;
+    }
+
+    /**
+     * Draws an edge weight for the {@code index}-th item using the configured distribution.
+     */
+    final double weight( long index, int salt )
+    {
+        return weights.sample( uniform( index, salt ) );
+    }
+
+    /**
+     * Returns a random number uniformly distributed in {@code [0, 1)}, depending only on the seed and the inputs.
+     */
+    final double uniform( long index, int salt )
+    {
+        long bits = mix( seed ^ mix( index * GOLDEN_GAMMA + salt ) );
+        return ( bits >>> 11 ) * 0x1.0p-53;
+    }
+
+    /**
+     * Returns a random integer uniformly distributed in {@code [0, bound)}, depending only on the seed and the inputs.
+     */
+    final int uniform( long index, int salt, int bound )
+    {
+        return (int) ( uniform( index, salt ) * bound );
+    }
+
+    private GeneratedEdge reweight( GeneratedEdge edge )
+    {
+        int u = edge.getSource();
+        int v = edge.getTarget();
+        long arc = (long) u * order() + v;
+
+        // potentials are in [0, 10), the same scale of the UNIFORM weights
+        double delta = potential( u ) - potential( v );
+
+        double reduced;
+        if ( delta > 0D && uniform( arc, -1 ) < 2D * negativeEdges )
+        {
+            // r in [0, delta) makes r - delta negative
+            reduced = uniform( arc, -2 ) * delta;
+        }
+        else
+        {
+            // shift positive enough to stay non negative
+            reduced = edge.getWeight() + Math.max( delta, 0D );
+        }
+
+        return new GeneratedEdge( u, v, reduced - delta );
+    }
+
+    private double potential( int vertex )
+    {
+        return 10D * uniform( vertex, -3 );
+    }
+
+    /**
+     * The SplitMix64 finalizer.
+     */
+    private static long mix( long z )
+    {
+        z = ( z ^ ( z >>> 30 ) ) * 0xBF58476D1CE4E5B9L;
+        z = ( z ^ ( z >>> 27 ) ) * 0x94D049BB133111EBL;
+        return z ^ ( z >>> 31 );
+    }
+
+    @SuppressWarnings( "unchecked" )
+    private G self()
+    {
+        return (G) this;
+    }
+
+}
@@ -0,0 +1,97 @@
+package org.nnsoft.trudeau.shortestpath.generators;
+
+/*
+ *   Copyright 2013 The Trudeau Project
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+/**
+ * Entry point of the graph generators, i.e.
+ *
+ * <pre>
+ * MutableValueGraph&lt;Integer, Double&gt; graph = roadNetwork( 100000 ).withSeed( 42 )
+ *                                                                 .withWeights( WeightDistribution.UNIFORM )
+ *                                                                 .directed()
+ *                                                                 .generate();
+ * </pre>
+ */
+public final class GraphGenerators
+{
+
+    /**
+     * Generates a {@code width x height} 2D grid.
+     *
+     * @param width the grid width
+     * @param height the grid height
+     * @return the grid generator
+     */
+    public static GridGenerator grid( int width, int height )
+    {
+        return new GridGenerator( width, height );
+    }
+
+    /**
+     * Generates a {@code width x height x depth} 3D grid.
+     *
+     * @param width the grid width
+     * @param height the grid height
+     * @param depth the grid depth
+     * @return the grid generator
+     */
+    public static GridGenerator grid( int width, int height, int depth )
+    {
+        return new GridGenerator( width, height, depth );
+    }
+
+    /**
+     * Generates a road-like planar graph.
+     *
+     * @param order the number of vertices
+     * @return the road network generator
+     */
+    public static RoadNetworkGenerator roadNetwork( int order )
+    {
+        return new RoadNetworkGenerator( order );
+    }
+
+    /**
+     * Generates an R-MAT scale-free graph with {@code 2^scale} vertices and {@code edgeFactor * 2^scale} edges.
+     *
+     * @param scale the base 2 logarithm of the number of vertices
+     * @param edgeFactor the ratio between edges and vertices
+     * @return the R-MAT generator
+     */
+    public static RMatGenerator rmat( int scale, int edgeFactor )
+    {
+        return new RMatGenerator( scale, edgeFactor );
+    }
+
+    /**
+     * Generates an Erd&#337;s-R&eacute;nyi {@code G(n, m)} graph.
+     *
+     * @param order the number of vertices
+     * @param size the number of edges
+     * @return the Erd&#337;s-R&eacute;nyi generator
+     */
+    public static ErdosRenyiGenerator erdosRenyi( int order, long size )
+    {
+        return new ErdosRenyiGenerator( order, size );
+    }
+
+    private GraphGenerators()
+    {
+        // do nothing
+    }
+
+}
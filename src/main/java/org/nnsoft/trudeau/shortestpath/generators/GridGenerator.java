@@ -0,0 +1,108 @@
+package org.nnsoft.trudeau.shortestpath.generators;
+
+/*
+ *   Copyright 2013 The Trudeau Project
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * Generates 2D and 3D grids: vertices sit on integer coordinates, each one connected to its axis-aligned neighbours.
+ * Edge weights are the drawn weight times the edge length, which is {@code 1}.
+ *
+ * Vertex {@code (x, y, z)} has index {@code x + width * (y + height * z)}.
+ */
+public final class GridGenerator
+    extends GeometricGraphGenerator<GridGenerator>
+{
+
+    private final int[] sides;
+
+    private final int[] strides;
+
+    private final int order;
+
+    GridGenerator( int... sides )
+    {
+        checkArgument( sides.length == 2 || sides.length == 3, "Only 2D and 3D grids are supported" );
+
+        this.sides = sides.clone();
+        this.strides = new int[sides.length];
+
+        long size = 1;
+        for ( int axis = 0; axis < sides.length; axis++ )
+        {
+            checkArgument( sides[axis] > 0, "Grid sides must be positive, %s is not", sides[axis] );
+            strides[axis] = (int) size;
+            size *= sides[axis];
+        }
+
+        checkArgument( size <= Integer.MAX_VALUE, "Grid has too many vertices: %s", size );
+        this.order = (int) size;
+    }
+
+    @Override
+    public int order()
+    {
+        return order;
+    }
+
+    @Override
+    public double[][] getCoordinates()
+    {
+        double[][] coordinates = new double[sides.length][order];
+        for ( int vertex = 0; vertex < order; vertex++ )
+        {
+            for ( int axis = 0; axis < sides.length; axis++ )
+            {
+                coordinates[axis][vertex] = coordinate( vertex, axis );
+            }
+        }
+        return coordinates;
+    }
+
+    @Override
+    Stream<GeneratedEdge> generateEdges()
+    {
+        final int dimensions = sides.length;
+        final int arcs = isDirected() ? 2 : 1;
+
+        // the item i is the (i % arcs) direction along the ((i / arcs) % dimensions) axis of the vertex i / (arcs * dimensions)
+        return LongStream.range( 0, (long) order * dimensions * arcs )
+                         .filter( i -> hasNeighbour( (int) ( i / ( arcs * dimensions ) ), (int) ( ( i / arcs ) % dimensions ) ) )
+                         .mapToObj( i ->
+                         {
+                             int vertex = (int) ( i / ( arcs * dimensions ) );
+                             int neighbour = vertex + strides[(int) ( ( i / arcs ) % dimensions )];
+                             double weight = weight( i, 0 );
+                             return i % arcs == 0 ? new GeneratedEdge( vertex, neighbour, weight )
+                                                  : new GeneratedEdge( neighbour, vertex, weight );
+                         } );
+    }
+
+    private boolean hasNeighbour( int vertex, int axis )
+    {
+        return coordinate( vertex, axis ) + 1 < sides[axis];
+    }
+
+    private int coordinate( int vertex, int axis )
+    {
+        return ( vertex / strides[axis] ) % sides[axis];
+    }
+
+}
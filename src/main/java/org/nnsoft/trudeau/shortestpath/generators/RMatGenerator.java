@@ -0,0 +1,123 @@
+package org.nnsoft.trudeau.shortestpath.generators;
+
+/*
+ *   Copyright 2013 The Trudeau Project
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * Generates scale-free graphs with the <a href="http://www.cs.cmu.edu/~christos/PUBLICATIONS/siam04.pdf">R-MAT</a>
+ * model, the stochastic Kronecker graph with a {@code 2x2} initiator: every edge picks recursively one quadrant of the
+ * adjacency matrix with probabilities {@code a, b, c, d}.
+ *
+ * Defaults are the <a href="http://graph500.org/">Graph 500</a> parameters; vertex indexes are scrambled, so that
+ * high degree vertices are not clustered at the lowest indexes, and self loops are dropped.
+ */
+public final class RMatGenerator
+    extends GraphGenerator<RMatGenerator>
+{
+
+    private final int scale;
+
+    private final long size;
+
+    private double a = 0.57D;
+
+    private double b = 0.19D;
+
+    private double c = 0.19D;
+
+    RMatGenerator( int scale, int edgeFactor )
+    {
+        checkArgument( scale > 0 && scale < 31, "R-MAT scale must be in [1, 30], %s is not", scale );
+        checkArgument( edgeFactor > 0, "R-MAT edge factor must be positive, %s is not", edgeFactor );
+        this.scale = scale;
+        this.size = (long) edgeFactor << scale;
+    }
+
+    /**
+     * Specifies the quadrants probabilities, the last one being {@code 1 - a - b - c}.
+     *
+     * @param a the top-left quadrant probability
+     * @param b the top-right quadrant probability
+     * @param c the bottom-left quadrant probability
+     * @return this generator
+     */
+    public RMatGenerator withProbabilities( double a, double b, double c )
+    {
+        checkArgument( a >= 0D && b >= 0D && c >= 0D && a + b + c <= 1D,
+                       "R-MAT probabilities must be non negative and add up to at most 1" );
+        this.a = a;
+        this.b = b;
+        this.c = c;
+        return this;
+    }
+
+    @Override
+    public int order()
+    {
+        return 1 << scale;
+    }
+
+    @Override
+    Stream<GeneratedEdge> generateEdges()
+    {
+        return LongStream.range( 0, size ).mapToObj( this::edge ).filter( e -> e.getSource() != e.getTarget() );
+    }
+
+    private GeneratedEdge edge( long index )
+    {
+        int u = 0;
+        int v = 0;
+        for ( int level = 0; level < scale; level++ )
+        {
+            double r = uniform( index, level );
+            u <<= 1;
+            v <<= 1;
+            if ( r >= a + b + c )
+            {
+                u |= 1;
+                v |= 1;
+            }
+            else if ( r >= a + b )
+            {
+                u |= 1;
+            }
+            else if ( r >= a )
+            {
+                v |= 1;
+            }
+        }
+        return new GeneratedEdge( scramble( u ), scramble( v ), weight( index, scale ) );
+    }
+
+    /**
+     * A bijection over {@code [0, 2^scale)}: odd multipliers and xor-shifts are both invertible modulo powers of two.
+     */
+    private int scramble( int vertex )
+    {
+        int mask = order() - 1;
+        long z = vertex;
+        z = ( z * 0x9E3779B1L + 0x7F4A7C15L ) & mask;
+        z ^= z >>> ( ( scale + 1 ) / 2 );
+        z = ( z * 0x85EBCA6BL ) & mask;
+        return (int) z;
+    }
+
+}
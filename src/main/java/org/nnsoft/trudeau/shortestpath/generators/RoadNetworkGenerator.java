@@ -0,0 +1,180 @@
+package org.nnsoft.trudeau.shortestpath.generators;
+
+/*
+ *   Copyright 2013 The Trudeau Project
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Generates road-like planar graphs: vertices are random points of a square, with unit density, connected by the
+ * edges of their <a href="http://en.wikipedia.org/wiki/Gabriel_graph">Gabriel graph</a>, the subgraph of the Delaunay
+ * triangulation with no other point inside the circle whose diameter is the edge.
+ *
+ * Edges are looked up among points closer than {@code 3} length units, so the graph is connected but in the
+ * sparsest regions. Edge weights are the drawn weight times the edge length.
+ */
+public final class RoadNetworkGenerator
+    extends GeometricGraphGenerator<RoadNetworkGenerator>
+{
+
+    private static final double MAX_EDGE_LENGTH = 3D;
+
+    private final int order;
+
+    private final int side;
+
+    RoadNetworkGenerator( int order )
+    {
+        checkArgument( order > 0, "Road networks must have at least one vertex, %s is not allowed", order );
+        this.order = order;
+        this.side = (int) Math.ceil( Math.sqrt( order ) );
+    }
+
+    @Override
+    public int order()
+    {
+        return order;
+    }
+
+    @Override
+    public double[][] getCoordinates()
+    {
+        Points points = new Points();
+        return new double[][] { points.x, points.y };
+    }
+
+    @Override
+    Stream<GeneratedEdge> generateEdges()
+    {
+        final Points points = new Points();
+        return IntStream.range( 0, order ).boxed().flatMap( u -> points.gabrielEdges( u ).stream() );
+    }
+
+    private int cell( double coordinate )
+    {
+        return Math.min( side - 1, (int) coordinate );
+    }
+
+    /**
+     * The points, bucketed in unit cells counting sort style.
+     */
+    private final class Points
+    {
+
+        final double[] x = new double[order];
+
+        final double[] y = new double[order];
+
+        final int[] cellStarts = new int[side * side + 1];
+
+        final int[] cellPoints = new int[order];
+
+        Points()
+        {
+            for ( int v = 0; v < order; v++ )
+            {
+                x[v] = side * uniform( v, 0 );
+                y[v] = side * uniform( v, 1 );
+                cellStarts[cell( x[v] ) + cell( y[v] ) * side + 1]++;
+            }
+
+            for ( int c = 0; c < side * side; c++ )
+            {
+                cellStarts[c + 1] += cellStarts[c];
+            }
+
+            int[] fill = cellStarts.clone();
+            for ( int v = 0; v < order; v++ )
+            {
+                cellPoints[fill[cell( x[v] ) + cell( y[v] ) * side]++] = v;
+            }
+        }
+
+        /**
+         * Edges between {@code u} and the greater Gabriel neighbours.
+         */
+        List<GeneratedEdge> gabrielEdges( int u )
+        {
+            List<GeneratedEdge> edges = new ArrayList<GeneratedEdge>();
+
+            int range = (int) Math.ceil( MAX_EDGE_LENGTH );
+            int cx = cell( x[u] );
+            int cy = cell( y[u] );
+
+            for ( int i = Math.max( 0, cx - range ); i <= Math.min( side - 1, cx + range ); i++ )
+            {
+                for ( int j = Math.max( 0, cy - range ); j <= Math.min( side - 1, cy + range ); j++ )
+                {
+                    int c = i + j * side;
+                    for ( int p = cellStarts[c]; p < cellStarts[c + 1]; p++ )
+                    {
+                        int v = cellPoints[p];
+                        double length = Math.hypot( x[u] - x[v], y[u] - y[v] );
+                        if ( v > u && length <= MAX_EDGE_LENGTH && isGabrielEdge( u, v ) )
+                        {
+                            long index = (long) u * order + v;
+                            edges.add( new GeneratedEdge( u, v, length * weight( index, 0 ) ) );
+                            if ( isDirected() )
+                            {
+                                edges.add( new GeneratedEdge( v, u, length * weight( index, 1 ) ) );
+                            }
+                        }
+                    }
+                }
+            }
+
+            return edges;
+        }
+
+        private boolean isGabrielEdge( int u, int v )
+        {
+            double mx = ( x[u] + x[v] ) / 2D;
+            double my = ( y[u] + y[v] ) / 2D;
+            double dx = x[u] - mx;
+            double dy = y[u] - my;
+            double radius2 = dx * dx + dy * dy;
+            int range = (int) Math.ceil( Math.sqrt( radius2 ) );
+
+            int cx = cell( mx );
+            int cy = cell( my );
+            for ( int i = Math.max( 0, cx - range ); i <= Math.min( side - 1, cx + range ); i++ )
+            {
+                for ( int j = Math.max( 0, cy - range ); j <= Math.min( side - 1, cy + range ); j++ )
+                {
+                    int c = i + j * side;
+                    for ( int p = cellStarts[c]; p < cellStarts[c + 1]; p++ )
+                    {
+                        int w = cellPoints[p];
+                        double wx = x[w] - mx;
+                        double wy = y[w] - my;
+                        if ( w != u && w != v && wx * wx + wy * wy < radius2 )
+                        {
+                            return false;
+                        }
+                    }
+                }
+            }
+            return true;
+        }
+
+    }
+
+}
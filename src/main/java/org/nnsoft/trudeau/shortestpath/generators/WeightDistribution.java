@@ -0,0 +1,69 @@
+package org.nnsoft.trudeau.shortestpath.generators;
+
+/*
+ *   Copyright 2013 The Trudeau Project
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+/**
+ * The distributions generated edge weights are drawn from.
+ */
+public enum WeightDistribution
+{
+
+    /**
+     * Every edge weights {@code 1}, i.e. hop-count shortest paths.
+     */
+    UNIT
+    {
+        @Override
+        public double sample( double uniform )
+        {
+            return 1D;
+        }
+    },
+
+    /**
+     * Weights uniformly distributed in {@code [1, 11)}.
+     */
+    UNIFORM
+    {
+        @Override
+        public double sample( double uniform )
+        {
+            return 10D * uniform + 1D;
+        }
+    },
+
+    /**
+     * Pareto distributed weights (shape {@code 1.5}, scale {@code 1}): most edges are cheap, a few are very expensive.
+     */
+    HEAVY_TAILED
+    {
+        @Override
+        public double sample( double uniform )
+        {
+            return Math.pow( 1D - uniform, -1D / 1.5D );
+        }
+    };
+
+    /**
+     * Maps a uniformly distributed random number to an edge weight of this distribution.
+     *
+     * @param uniform a random number uniformly distributed in {@code [0, 1)}
+     * @return the edge weight, always greater than zero
+     */
+    public abstract double sample( double uniform );
+
+}
@@ -208,4 +208,19 @@ public final class AStarTestCase
 
         assertEquals( expected, actual );
     }
+
+    @Test
+    public void decreasedScoresKeepQueueOrder()
+    {
+        Double weight = findShortestPath( TestGraphs.decreasingQueuedDistances() )
+                            .whereEdgesAreWeights()
+                            .from( "a" )
+                            .to( "g" )
+                            .applyingAStar( new DoubleWeightBaseOperations() )
+                            .withHeuristic( ( current, goal ) -> 0D )
+                            .getWeight();
+
+        assertEquals( Double.valueOf( 0D ), weight );
+    }
+
 }
@@ -0,0 +1,109 @@
+package org.nnsoft.trudeau.shortestpath;
+
+/*
+ *   Copyright 2013 The Trudeau Project
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.nnsoft.trudeau.shortestpath.RandomQueries.weightOf;
+import static org.nnsoft.trudeau.shortestpath.ShortestPathEngine.newEngine;
+import static org.nnsoft.trudeau.shortestpath.generators.GraphGenerators.erdosRenyi;
+import static org.nnsoft.trudeau.shortestpath.generators.GraphGenerators.grid;
+import static org.nnsoft.trudeau.shortestpath.generators.GraphGenerators.roadNetwork;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+import org.nnsoft.trudeau.math.monoid.primitive.DoubleWeightBaseOperations;
+import org.nnsoft.trudeau.shortestpath.generators.WeightDistribution;
+
+import com.google.common.graph.MutableValueGraph;
+
+public final class ArcFlagsTestCase
+{
+
+    @Test( expected = IllegalArgumentException.class )
+    public void testNoRegions()
+    {
+        MutableValueGraph<Integer, Double> graph = grid( 3, 3 ).generate();
+        newEngine( graph, new DoubleWeightBaseOperations() ).arcFlags( 0 );
+    }
+
+    @Test( expected = IllegalArgumentException.class )
+    public void testArcFlagsOfAnotherEngine()
+    {
+        MutableValueGraph<Integer, Double> graph = grid( 3, 3 ).generate();
+        ArcFlags<Integer> arcFlags = newEngine( graph, new DoubleWeightBaseOperations() ).arcFlags( 2 );
+        newEngine( graph, new DoubleWeightBaseOperations() ).dijkstra( 0, 8, arcFlags );
+    }
+
+    @Test
+    public void partitionCoversTheGraph()
+    {
+        MutableValueGraph<Integer, Double> graph = grid( 10, 10 ).generate();
+        ArcFlags<Integer> arcFlags = newEngine( graph, new DoubleWeightBaseOperations() ).arcFlags( 4 );
+
+        assertEquals( 4, arcFlags.getRegions() );
+        int[] sizes = new int[4];
+        for ( Integer vertex : graph.nodes() )
+        {
+            sizes[arcFlags.getRegion( vertex )]++;
+        }
+        for ( int size : sizes )
+        {
+            assertTrue( size > 0 );
+        }
+
+        // no more regions than vertices
+        assertEquals( 100, newEngine( graph, new DoubleWeightBaseOperations() ).arcFlags( 1000 ).getRegions() );
+    }
+
+    @Test
+    public void directedGraph()
+    {
+        MutableValueGraph<Integer, Double> graph = erdosRenyi( 500, 2000 ).directed().withWeights( WeightDistribution.UNIFORM ).generate();
+        for ( int regions : new int[] { 1, 8, 500 } )
+        {
+            verify( graph, regions );
+        }
+    }
+
+    @Test
+    public void roadNetworkIsPruned()
+    {
+        MutableValueGraph<Integer, Double> graph = roadNetwork( 2000 ).withWeights( WeightDistribution.UNIFORM ).generate();
+        verify( graph, 16 );
+    }
+
+    private static void verify( MutableValueGraph<Integer, Double> graph, int regions )
+    {
+        final AtomicLong dijkstraSettled = new AtomicLong();
+        final AtomicLong arcFlagsSettled = new AtomicLong();
+        ShortestPathEngine<Integer, Double, Double> engine =
+            newEngine( graph, new DoubleWeightBaseOperations() )
+                .reportingTo( statistics -> ( statistics.getAlgorithm() == SearchAlgorithm.ARC_FLAGS ? arcFlagsSettled
+                                                                                                     : dijkstraSettled )
+                                                .addAndGet( statistics.getSettledVertices() ) );
+        ArcFlags<Integer> arcFlags = engine.arcFlags( regions );
+
+        RandomQueries.verify( graph.nodes().size(),
+                              ( source, target ) -> weightOf( graph, source, target, engine.dijkstra( source, target ) ),
+                              ( source, target ) -> weightOf( graph, source, target, engine.dijkstra( source, target, arcFlags ) ) );
+
+        assertTrue( arcFlagsSettled.get() <= dijkstraSettled.get() );
+    }
+
+}
@@ -0,0 +1,158 @@
+package org.nnsoft.trudeau.shortestpath;
+
+/*
+ *   Copyright 2013 The Trudeau Project
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.nnsoft.trudeau.shortestpath.AsyncShortestPathSolver.newAsyncSolver;
+import static org.nnsoft.trudeau.shortestpath.ShortestPathSolver.findShortestPath;
+import static org.nnsoft.trudeau.shortestpath.generators.GraphGenerators.erdosRenyi;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.nnsoft.trudeau.api.PathNotFoundException;
+import org.nnsoft.trudeau.api.WeightedPath;
+import org.nnsoft.trudeau.math.monoid.primitive.DoubleWeightBaseOperations;
+
+import com.google.common.graph.EndpointPair;
+import com.google.common.graph.MutableValueGraph;
+
+public final class AsyncShortestPathSolverTestCase
+{
+
+    private static final int ORDER = 300;
+
+    private static MutableValueGraph<Integer, Double> graph;
+
+    private static List<EndpointPair<Integer>> queries;
+
+    private final Function<Double, Double> identity = we -> we;
+
+    @BeforeClass
+    public static void setUp()
+    {
+        graph = erdosRenyi( ORDER, 4 * ORDER ).directed().generate();
+
+        Random random = new Random( 42L );
+        queries = new ArrayList<EndpointPair<Integer>>();
+        for ( int i = 0; i < 200; i++ )
+        {
+            queries.add( EndpointPair.ordered( random.nextInt( ORDER ), random.nextInt( ORDER ) ) );
+        }
+    }
+
+    @Test( expected = NullPointerException.class )
+    public void testNullGraph()
+    {
+        newAsyncSolver( null, identity, new DoubleWeightBaseOperations() );
+    }
+
+    @Test
+    public void virtualThreadsBatch()
+        throws Exception
+    {
+        try ( AsyncShortestPathSolver<Integer, Double, Double> solver =
+                  newAsyncSolver( graph, identity, new DoubleWeightBaseOperations() ) )
+        {
+            verify( solver.findShortestPaths( queries ) );
+        }
+    }
+
+    @Test
+    public void forkJoinPoolBatch()
+        throws Exception
+    {
+        try ( AsyncShortestPathSolver<Integer, Double, Double> solver =
+                  newAsyncSolver( graph, identity, new DoubleWeightBaseOperations(), 4 ) )
+        {
+            verify( solver.findShortestPaths( queries ) );
+        }
+    }
+
+    @Test
+    public void snapshotIgnoresLaterModifications()
+        throws Exception
+    {
+        MutableValueGraph<Integer, Double> copy = erdosRenyi( 10, 20 ).directed().generate();
+        copy.addNode( 10 );
+        copy.addNode( 11 );
+
+        try ( AsyncShortestPathSolver<Integer, Double, Double> solver =
+                  newAsyncSolver( copy, identity, new DoubleWeightBaseOperations(), Runnable::run ) )
+        {
+            copy.putEdgeValue( 10, 11, 1D );
+
+            try
+            {
+                solver.findShortestPath( 10, 11 ).get();
+                fail( "The solver snapshot must not contain edges added later" );
+            }
+            catch ( ExecutionException e )
+            {
+                assertTrue( e.getCause() instanceof PathNotFoundException );
+            }
+        }
+    }
+
+    private static void verify( List<CompletableFuture<WeightedPath<Integer, Double, Double>>> paths )
+        throws InterruptedException
+    {
+        assertEquals( queries.size(), paths.size() );
+
+        for ( int i = 0; i < queries.size(); i++ )
+        {
+            EndpointPair<Integer> query = queries.get( i );
+
+            Double expected;
+            try
+            {
+                expected = findShortestPath( graph )
+                               .whereEdgesAreWeights()
+                               .from( query.nodeU() )
+                               .to( query.nodeV() )
+                               .applyingDijkstra( new DoubleWeightBaseOperations() )
+                               .getWeight();
+            }
+            catch ( PathNotFoundException e )
+            {
+                expected = null;
+            }
+
+            try
+            {
+                WeightedPath<Integer, Double, Double> actual = paths.get( i ).get();
+                assertEquals( query.nodeU(), actual.getSource() );
+                assertEquals( query.nodeV(), actual.getTarget() );
+                assertEquals( expected, actual.getWeight(), 1.0e-9 );
+            }
+            catch ( ExecutionException e )
+            {
+                assertTrue( e.getCause() instanceof PathNotFoundException );
+                assertEquals( null, expected );
+            }
+        }
+    }
+
+}
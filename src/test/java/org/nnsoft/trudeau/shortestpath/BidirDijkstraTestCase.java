@@ -343,4 +343,17 @@ public final class BidirDijkstraTestCase
         }
     }
 
+    @Test
+    public void decreasedDistancesKeepQueueOrder()
+    {
+        Double weight = findShortestPath( TestGraphs.decreasingQueuedDistances() )
+                            .whereEdgesAreWeights()
+                            .from( "a" )
+                            .to( "g" )
+                            .applyingBidirectionalDijkstra( new DoubleWeightBaseOperations() )
+                            .getWeight();
+
+        assertEquals( Double.valueOf( 0D ), weight );
+    }
+
 }
@@ -0,0 +1,98 @@
+package org.nnsoft.trudeau.shortestpath;
+
+/*
+ *   Copyright 2013 The Trudeau Project
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.nnsoft.trudeau.shortestpath.CustomizableContractionHierarchy.newHierarchy;
+import static org.nnsoft.trudeau.shortestpath.RandomQueries.weightOf;
+import static org.nnsoft.trudeau.shortestpath.ShortestPathEngine.newEngine;
+import static org.nnsoft.trudeau.shortestpath.generators.GraphGenerators.erdosRenyi;
+import static org.nnsoft.trudeau.shortestpath.generators.GraphGenerators.grid;
+import static org.nnsoft.trudeau.shortestpath.generators.GraphGenerators.roadNetwork;
+
+import java.util.function.Function;
+
+import org.junit.Test;
+import org.nnsoft.trudeau.math.monoid.primitive.DoubleWeightBaseOperations;
+import org.nnsoft.trudeau.shortestpath.generators.WeightDistribution;
+
+import com.google.common.graph.MutableValueGraph;
+
+public final class CustomizableContractionHierarchyTestCase
+{
+
+    @Test( expected = NullPointerException.class )
+    public void testNullGraph()
+    {
+        newHierarchy( null );
+    }
+
+    @Test( expected = IllegalArgumentException.class )
+    public void testUnknownVertex()
+    {
+        MutableValueGraph<Integer, Double> graph = grid( 3, 3 ).generate();
+        newHierarchy( graph ).customize( weight -> weight, new DoubleWeightBaseOperations() ).shortestPath( 0, 9 );
+    }
+
+    @Test
+    public void sameSourceAndTarget()
+    {
+        MutableValueGraph<Integer, Double> graph = grid( 3, 3 ).generate();
+        CustomizedHierarchy<Integer, Double, Double> hierarchy =
+            newHierarchy( graph ).customize( weight -> weight, new DoubleWeightBaseOperations() );
+
+        assertEquals( 0D, hierarchy.shortestPath( 4, 4 ).getWeight(), 0D );
+    }
+
+    @Test
+    public void directedGraph()
+    {
+        MutableValueGraph<Integer, Double> graph = erdosRenyi( 500, 2000 ).directed().withWeights( WeightDistribution.UNIFORM ).generate();
+        verify( graph, newHierarchy( graph ), weight -> weight );
+    }
+
+    @Test
+    public void undirectedGrid()
+    {
+        MutableValueGraph<Integer, Double> graph = grid( 30, 30 ).withWeights( WeightDistribution.UNIFORM ).generate();
+        verify( graph, newHierarchy( graph ), weight -> weight );
+    }
+
+    @Test
+    public void roadNetworkCustomizedTwice()
+    {
+        MutableValueGraph<Integer, Double> graph = roadNetwork( 2000 ).withWeights( WeightDistribution.UNIFORM ).generate();
+        CustomizableContractionHierarchy<Integer, Double> hierarchy = newHierarchy( graph );
+
+        verify( graph, hierarchy, weight -> weight );
+        // congestion: a different metric over the same topology
+        verify( graph, hierarchy, weight -> weight * weight + 1D );
+    }
+
+    private static void verify( MutableValueGraph<Integer, Double> graph,
+                                CustomizableContractionHierarchy<Integer, Double> hierarchy,
+                                Function<Double, Double> metric )
+    {
+        ShortestPathEngine<Integer, Double, Double> engine = newEngine( graph, metric, new DoubleWeightBaseOperations() );
+        CustomizedHierarchy<Integer, Double, Double> customized = hierarchy.customize( metric, new DoubleWeightBaseOperations() );
+
+        RandomQueries.verify( graph.nodes().size(),
+                              ( source, target ) -> weightOf( graph, source, target, engine.dijkstra( source, target ) ),
+                              ( source, target ) -> weightOf( graph, source, target, customized.shortestPath( source, target ) ) );
+    }
+
+}
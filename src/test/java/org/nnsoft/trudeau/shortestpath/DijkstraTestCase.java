@@ -159,4 +159,17 @@ public final class DijkstraTestCase
         assertEquals( expected, actual );
     }
 
+    @Test
+    public void decreasedDistancesKeepQueueOrder()
+    {
+        Double weight = findShortestPath( TestGraphs.decreasingQueuedDistances() )
+                            .whereEdgesAreWeights()
+                            .from( "a" )
+                            .to( "g" )
+                            .applyingDijkstra( new DoubleWeightBaseOperations() )
+                            .getWeight();
+
+        assertEquals( Double.valueOf( 0D ), weight );
+    }
+
 }
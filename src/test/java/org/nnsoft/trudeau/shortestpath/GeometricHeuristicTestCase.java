@@ -0,0 +1,129 @@
+package org.nnsoft.trudeau.shortestpath;
+
+/*
+ *   Copyright 2013 The Trudeau Project
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.nnsoft.trudeau.shortestpath.RandomQueries.weightOf;
+import static org.nnsoft.trudeau.shortestpath.ShortestPathEngine.newEngine;
+import static org.nnsoft.trudeau.shortestpath.generators.GraphGenerators.grid;
+import static org.nnsoft.trudeau.shortestpath.generators.GraphGenerators.roadNetwork;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.nnsoft.trudeau.math.monoid.primitive.DoubleWeightBaseOperations;
+import org.nnsoft.trudeau.shortestpath.generators.GridGenerator;
+import org.nnsoft.trudeau.shortestpath.generators.RoadNetworkGenerator;
+
+import com.google.common.graph.MutableValueGraph;
+import com.google.common.graph.ValueGraphBuilder;
+
+public final class GeometricHeuristicTestCase
+{
+
+    @Test( expected = IllegalArgumentException.class )
+    public void testNegativeFactor()
+    {
+        MutableValueGraph<Integer, Double> graph = grid( 2, 2 ).generate();
+        newEngine( graph, new DoubleWeightBaseOperations() ).euclideanHeuristic( v -> 0D, v -> 0D, -1D );
+    }
+
+    @Test( expected = IllegalArgumentException.class )
+    public void testNotPositiveSpeed()
+    {
+        MutableValueGraph<Integer, Double> graph = grid( 2, 2 ).generate();
+        newEngine( graph, new DoubleWeightBaseOperations() ).haversineHeuristic( v -> 0D, v -> 0D, 0D );
+    }
+
+    @Test( expected = IllegalArgumentException.class )
+    public void testUnknownVertex()
+    {
+        MutableValueGraph<Integer, Double> graph = grid( 2, 2 ).generate();
+        newEngine( graph, new DoubleWeightBaseOperations() ).manhattanHeuristic( v -> 0D, v -> 0D, 1D ).applyHeuristic( 0, 4 );
+    }
+
+    @Test
+    public void haversineDistance()
+    {
+        MutableValueGraph<String, Double> graph = ValueGraphBuilder.undirected().build();
+        graph.putEdgeValue( "Paris", "London", 343.5D );
+
+        // one meter per unit of weight
+        GeometricHeuristic<String> heuristic =
+            newEngine( graph, new DoubleWeightBaseOperations() )
+                .haversineHeuristic( city -> "Paris".equals( city ) ? 48.8566D : 51.5074D,
+                                     city -> "Paris".equals( city ) ? 2.3522D : -0.1278D,
+                                     1D );
+
+        assertEquals( 343.5e3D, heuristic.applyHeuristic( "Paris", "London" ), 1e3D );
+        assertEquals( heuristic.applyHeuristic( "Paris", "London" ), heuristic.applyHeuristic( "London", "Paris" ), 1e-6D );
+        assertEquals( 0D, heuristic.applyHeuristic( "Paris", "Paris" ), 0D );
+    }
+
+    @Test
+    public void manhattanIsExactOnGrids()
+    {
+        GridGenerator generator = grid( 20, 20 );
+        final double[][] coordinates = generator.getCoordinates();
+        MutableValueGraph<Integer, Double> graph = generator.generate();
+
+        ShortestPathEngine<Integer, Double, Double> engine = newEngine( graph, new DoubleWeightBaseOperations() );
+        GeometricHeuristic<Integer> heuristic = engine.manhattanHeuristic( v -> coordinates[0][v], v -> coordinates[1][v], 1D );
+
+        List<SearchStatistics> statistics = new ArrayList<SearchStatistics>();
+        ShortestPathEngine<Integer, Double, Double> reporting = engine.reportingTo( statistics::add );
+
+        RandomQueries.verify( graph.nodes().size(),
+                              ( source, target ) -> weightOf( graph, source, target, engine.dijkstra( source, target ) ),
+                              ( source, target ) -> {
+            double weight = weightOf( graph, source, target, reporting.aStar( source, target, heuristic ) );
+            assertEquals( weight, heuristic.applyHeuristic( source, target ), 1e-9D );
+
+            // estimates are evaluated once per vertex
+            SearchStatistics search = statistics.get( statistics.size() - 1 );
+            assertTrue( search.getHeuristicCalls() <= search.getHeapPushes() );
+            return weight;
+        } );
+    }
+
+    @Test
+    public void euclideanOnRoadNetworks()
+    {
+        RoadNetworkGenerator generator = roadNetwork( 2000 );
+        final double[][] coordinates = generator.getCoordinates();
+        MutableValueGraph<Integer, Double> graph = generator.generate();
+
+        // unit weights, edges weight their length
+        ShortestPathEngine<Integer, Double, Double> engine = newEngine( graph, new DoubleWeightBaseOperations() );
+        GeometricHeuristic<Integer> heuristic = engine.euclideanHeuristic( v -> coordinates[0][v], v -> coordinates[1][v], 1D );
+
+        RandomQueries.verify( graph.nodes().size(),
+                              ( source, target ) -> weightOf( graph, source, target, engine.dijkstra( source, target ) ),
+                              ( source, target ) -> {
+            double weight = weightOf( graph, source, target, engine.aStar( source, target, heuristic ) );
+
+            // applied as any other heuristic, by vertex
+            assertEquals( weight,
+                          engine.aStar( source, target, ( current, goal ) -> heuristic.applyHeuristic( current, goal ) ).getWeight(),
+                          1e-9D );
+            return weight;
+        } );
+    }
+
+}
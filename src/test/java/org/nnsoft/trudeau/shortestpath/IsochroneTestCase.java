@@ -0,0 +1,146 @@
+package org.nnsoft.trudeau.shortestpath;
+
+/*
+ *   Copyright 2013 The Trudeau Project
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.nnsoft.trudeau.shortestpath.ShortestPathEngine.newEngine;
+import static org.nnsoft.trudeau.shortestpath.ShortestPathSolver.findShortestPath;
+import static org.nnsoft.trudeau.shortestpath.generators.GraphGenerators.erdosRenyi;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.nnsoft.trudeau.api.PathNotFoundException;
+import org.nnsoft.trudeau.math.monoid.primitive.DoubleWeightBaseOperations;
+
+import com.google.common.graph.Graphs;
+import com.google.common.graph.MutableValueGraph;
+import com.google.common.graph.ValueGraph;
+
+public final class IsochroneTestCase
+{
+
+    private static final int ORDER = 300;
+
+    private static final Double BOUND = 2D;
+
+    private static MutableValueGraph<Integer, Double> graph;
+
+    @BeforeClass
+    public static void setUp()
+    {
+        graph = erdosRenyi( ORDER, 3 * ORDER ).directed().generate();
+    }
+
+    @Test( expected = NullPointerException.class )
+    public void testNullBound()
+    {
+        findShortestPath( graph )
+            .whereEdgesAreWeights()
+            .from( 0 )
+            .within( null, new DoubleWeightBaseOperations() );
+    }
+
+    @Test
+    public void forwardIsochrone()
+    {
+        verify( graph,
+                0,
+                findShortestPath( graph )
+                    .whereEdgesAreWeights()
+                    .from( 0 )
+                    .within( BOUND, new DoubleWeightBaseOperations() ) );
+    }
+
+    @Test
+    public void reverseIsochrone()
+    {
+        verify( Graphs.transpose( graph ),
+                0,
+                findShortestPath( graph )
+                    .whereEdgesAreWeights()
+                    .from( 0 )
+                    .withinReverse( BOUND, new DoubleWeightBaseOperations() ) );
+    }
+
+    @Test
+    public void engineIsochrones()
+    {
+        ShortestPathEngine<Integer, Double, Double> engine = newEngine( graph, new DoubleWeightBaseOperations() );
+
+        verify( graph, 0, engine.within( 0, BOUND ) );
+        verify( Graphs.transpose( graph ), 0, engine.withinReverse( 0, BOUND ) );
+
+        Map<Integer, Isochrone<Integer, Double>> isochrones = engine.within( Arrays.asList( 3, 1, 4, 5, 9 ), BOUND );
+        assertEquals( Arrays.asList( 3, 1, 4, 5, 9 ), Arrays.asList( isochrones.keySet().toArray() ) );
+        for ( Map.Entry<Integer, Isochrone<Integer, Double>> isochrone : isochrones.entrySet() )
+        {
+            verify( graph, isochrone.getKey(), isochrone.getValue() );
+        }
+    }
+
+    private static void verify( ValueGraph<Integer, Double> searched, Integer origin, Isochrone<Integer, Double> isochrone )
+    {
+        assertEquals( origin, isochrone.getOrigin() );
+        assertEquals( origin, isochrone.getVertices().get( 0 ) );
+
+        double previous = 0D;
+        for ( Integer vertex : isochrone.getVertices() )
+        {
+            assertTrue( isochrone.getDistance( vertex ) >= previous );
+            previous = isochrone.getDistance( vertex );
+        }
+
+        int within = 0;
+        for ( int target = 0; target < ORDER; target++ )
+        {
+            double expected = Double.POSITIVE_INFINITY;
+            try
+            {
+                expected = findShortestPath( searched )
+                               .whereEdgesAreWeights()
+                               .from( origin )
+                               .to( target )
+                               .applyingDijkstra( new DoubleWeightBaseOperations() )
+                               .getWeight();
+            }
+            catch ( PathNotFoundException e )
+            {
+                // not reachable, not within the bound
+            }
+
+            if ( expected <= BOUND )
+            {
+                assertTrue( isochrone.contains( target ) );
+                assertEquals( expected, isochrone.getDistance( target ), 1.0e-9 );
+                within++;
+            }
+            else
+            {
+                assertFalse( isochrone.contains( target ) );
+                assertNull( isochrone.getDistance( target ) );
+            }
+        }
+        assertEquals( within, isochrone.size() );
+    }
+
+}
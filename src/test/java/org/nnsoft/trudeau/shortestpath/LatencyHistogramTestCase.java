@@ -0,0 +1,105 @@
+package org.nnsoft.trudeau.shortestpath;
+
+/*
+ *   Copyright 2013 The Trudeau Project
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.nnsoft.trudeau.shortestpath.ShortestPathSolver.findShortestPath;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.nnsoft.trudeau.math.monoid.primitive.DoubleWeightBaseOperations;
+
+import com.google.common.graph.MutableValueGraph;
+import com.google.common.graph.ValueGraphBuilder;
+
+public final class LatencyHistogramTestCase
+{
+
+    @Test
+    public void bucketsCoverTheWholeRange()
+    {
+        long previous = -1;
+        for ( long value : new long[] { 0L, 1L, 127L, 128L, 255L, 256L, 1000L, 1L << 40, Long.MAX_VALUE } )
+        {
+            int index = LatencyHistogram.indexOf( value );
+            long highest = LatencyHistogram.highestValueOf( index );
+
+            assertTrue( highest >= value );
+            assertTrue( highest - value <= value / 128 );
+            assertTrue( highest > previous );
+            previous = highest;
+        }
+    }
+
+    @Test
+    public void percentilesAreWithinResolution()
+    {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for ( long micros = 1; micros <= 10000; micros++ )
+        {
+            histogram.record( TimeUnit.MICROSECONDS.toNanos( micros ) );
+        }
+
+        LatencySnapshot snapshot = histogram.snapshot();
+        assertEquals( 10000, snapshot.getCount() );
+        assertEquals( 10000, snapshot.getMax( TimeUnit.MICROSECONDS ) );
+        assertWithinResolution( 5000, snapshot.getMedian( TimeUnit.MICROSECONDS ) );
+        assertWithinResolution( 9900, snapshot.get99thPercentile( TimeUnit.MICROSECONDS ) );
+        assertWithinResolution( 9990, snapshot.get999thPercentile( TimeUnit.MICROSECONDS ) );
+
+        histogram.reset();
+        assertEquals( 0, histogram.snapshot().getCount() );
+        assertEquals( 0, histogram.snapshot().get99thPercentile( TimeUnit.NANOSECONDS ) );
+    }
+
+    @Test( expected = IllegalArgumentException.class )
+    public void invalidPercentile()
+    {
+        new LatencyHistogram().snapshot().getPercentile( 101D, TimeUnit.NANOSECONDS );
+    }
+
+    @Test
+    public void searchesAreRecorded()
+    {
+        final MutableValueGraph<String, Double> graph = ValueGraphBuilder.directed().build();
+        graph.putEdgeValue( "a", "b", 1D );
+
+        LatencyHistograms histograms = new LatencyHistograms();
+        AtomicInteger reported = new AtomicInteger();
+
+        findShortestPath( graph )
+            .whereEdgesAreWeights()
+            .reportingTo( histograms )
+            .reportingTo( statistics -> reported.incrementAndGet() )
+            .from( "a" )
+            .to( "b" )
+            .applyingDijkstra( new DoubleWeightBaseOperations() );
+
+        assertEquals( 1L, histograms.getLatencies( SearchAlgorithm.DIJKSTRA ).snapshot().getCount() );
+        assertEquals( 0L, histograms.getLatencies( SearchAlgorithm.BIDIRECTIONAL_DIJKSTRA ).snapshot().getCount() );
+        assertEquals( 1, reported.get() );
+    }
+
+    private static void assertWithinResolution( long expected, long actual )
+    {
+        assertTrue( actual + " is not close to " + expected, Math.abs( actual - expected ) <= expected / 100 );
+    }
+
+}
@@ -0,0 +1,113 @@
+package org.nnsoft.trudeau.shortestpath;
+
+/*
+ *   Copyright 2013 The Trudeau Project
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.nnsoft.trudeau.shortestpath.MultiLevelOverlay.newOverlay;
+import static org.nnsoft.trudeau.shortestpath.RandomQueries.weightOf;
+import static org.nnsoft.trudeau.shortestpath.ShortestPathEngine.newEngine;
+import static org.nnsoft.trudeau.shortestpath.generators.GraphGenerators.erdosRenyi;
+import static org.nnsoft.trudeau.shortestpath.generators.GraphGenerators.grid;
+import static org.nnsoft.trudeau.shortestpath.generators.GraphGenerators.roadNetwork;
+
+import java.util.Random;
+import java.util.function.Function;
+
+import org.junit.Test;
+import org.nnsoft.trudeau.math.monoid.primitive.DoubleWeightBaseOperations;
+import org.nnsoft.trudeau.shortestpath.generators.WeightDistribution;
+
+import com.google.common.graph.EndpointPair;
+import com.google.common.graph.MutableValueGraph;
+
+public final class MultiLevelOverlayTestCase
+{
+
+    @Test( expected = NullPointerException.class )
+    public void testNullGraph()
+    {
+        newOverlay( null, new DoubleWeightBaseOperations(), 4 );
+    }
+
+    @Test( expected = IllegalArgumentException.class )
+    public void testDecreasingCellSizes()
+    {
+        newOverlay( grid( 3, 3 ).generate(), new DoubleWeightBaseOperations(), 8, 4 );
+    }
+
+    @Test( expected = IllegalArgumentException.class )
+    public void testUnknownVertex()
+    {
+        newOverlay( grid( 3, 3 ).generate(), new DoubleWeightBaseOperations(), 4 ).shortestPath( 0, 9 );
+    }
+
+    @Test
+    public void sameSourceAndTarget()
+    {
+        MultiLevelOverlay<Integer, Double, Double> overlay =
+            newOverlay( grid( 3, 3 ).generate(), new DoubleWeightBaseOperations(), 2, 4 );
+
+        assertEquals( 0D, overlay.shortestPath( 4, 4 ).getWeight(), 0D );
+    }
+
+    @Test
+    public void directedGraph()
+    {
+        MutableValueGraph<Integer, Double> graph = erdosRenyi( 500, 2000 ).directed().withWeights( WeightDistribution.UNIFORM ).generate();
+        verify( graph, newOverlay( graph, new DoubleWeightBaseOperations(), 16, 64 ), weight -> weight );
+    }
+
+    @Test
+    public void undirectedGrid()
+    {
+        MutableValueGraph<Integer, Double> graph = grid( 30, 30 ).withWeights( WeightDistribution.UNIFORM ).generate();
+        verify( graph, newOverlay( graph, new DoubleWeightBaseOperations(), 8, 32, 128 ), weight -> weight );
+    }
+
+    @Test
+    public void roadNetworkUpdated()
+    {
+        MutableValueGraph<Integer, Double> graph = roadNetwork( 2000 ).withWeights( WeightDistribution.UNIFORM ).generate();
+        MultiLevelOverlay<Integer, Double, Double> overlay =
+            newOverlay( graph, new DoubleWeightBaseOperations(), 16, 128, 512 );
+        verify( graph, overlay, weight -> weight );
+
+        // congestion on some roads
+        Random random = new Random( 42L );
+        for ( EndpointPair<Integer> edge : graph.edges() )
+        {
+            if ( random.nextInt( 20 ) == 0 )
+            {
+                Double congested = graph.edgeValue( edge.nodeU(), edge.nodeV() ).get() * 10D;
+                graph.putEdgeValue( edge.nodeU(), edge.nodeV(), congested );
+                overlay.updateWeight( edge.nodeU(), edge.nodeV(), congested );
+            }
+        }
+        verify( graph, overlay, weight -> weight );
+    }
+
+    private static <WE> void verify( MutableValueGraph<Integer, WE> graph, MultiLevelOverlay<Integer, WE, Double> overlay,
+                                     Function<WE, Double> metric )
+    {
+        ShortestPathEngine<Integer, WE, Double> engine = newEngine( graph, metric, new DoubleWeightBaseOperations() );
+
+        RandomQueries.verify( graph.nodes().size(),
+                              ( source, target ) -> weightOf( graph, source, target, engine.dijkstra( source, target ) ),
+                              ( source, target ) -> weightOf( graph, source, target, overlay.shortestPath( source, target ) ) );
+    }
+
+}
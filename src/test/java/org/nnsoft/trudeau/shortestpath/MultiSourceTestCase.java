@@ -0,0 +1,148 @@
+package org.nnsoft.trudeau.shortestpath;
+
+/*
+ *   Copyright 2013 The Trudeau Project
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.nnsoft.trudeau.shortestpath.ShortestPathEngine.newEngine;
+import static org.nnsoft.trudeau.shortestpath.ShortestPathSolver.findShortestPath;
+import static org.nnsoft.trudeau.shortestpath.generators.GraphGenerators.erdosRenyi;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.nnsoft.trudeau.api.PathNotFoundException;
+import org.nnsoft.trudeau.math.monoid.primitive.DoubleWeightBaseOperations;
+import org.nnsoft.trudeau.shortestpath.generators.WeightDistribution;
+
+import com.google.common.graph.MutableValueGraph;
+
+public final class MultiSourceTestCase
+{
+
+    private static final int ORDER = 300;
+
+    private static final List<Integer> SOURCES = Arrays.asList( 0, 100, 200 );
+
+    private static MutableValueGraph<Integer, Double> graph;
+
+    @BeforeClass
+    public static void setUp()
+    {
+        graph = erdosRenyi( ORDER, 3 * ORDER ).directed().withWeights( WeightDistribution.UNIFORM ).generate();
+    }
+
+    @Test( expected = NullPointerException.class )
+    public void testNullSource()
+    {
+        findShortestPath( graph )
+            .whereEdgesAreWeights()
+            .fromAll( Arrays.asList( 0, null ) );
+    }
+
+    @Test
+    public void nearestSources()
+    {
+        verify( offsets( 0D, 0D, 0D ),
+                findShortestPath( graph )
+                    .whereEdgesAreWeights()
+                    .fromAll( SOURCES )
+                    .applyingDijkstra( new DoubleWeightBaseOperations() ) );
+    }
+
+    @Test
+    public void nearestSourcesWithOffsets()
+    {
+        Map<Integer, Double> offsets = offsets( 0D, 5D, 10D );
+        verify( offsets,
+                findShortestPath( graph )
+                    .whereEdgesAreWeights()
+                    .fromAll( offsets )
+                    .applyingDijkstra( new DoubleWeightBaseOperations() ) );
+    }
+
+    @Test
+    public void engineNearestSources()
+    {
+        ShortestPathEngine<Integer, Double, Double> engine = newEngine( graph, new DoubleWeightBaseOperations() );
+
+        verify( offsets( 0D, 0D, 0D ), engine.nearestSources( SOURCES ) );
+
+        Map<Integer, Double> offsets = offsets( 0D, 5D, 10D );
+        verify( offsets, engine.nearestSources( offsets ) );
+    }
+
+    private static Map<Integer, Double> offsets( Double... offsets )
+    {
+        Map<Integer, Double> sources = new LinkedHashMap<Integer, Double>();
+        for ( int i = 0; i < offsets.length; i++ )
+        {
+            sources.put( SOURCES.get( i ), offsets[i] );
+        }
+        return sources;
+    }
+
+    private static void verify( Map<Integer, Double> offsets, NearestSources<Integer, Double> nearestSources )
+    {
+        int reached = 0;
+        for ( int vertex = 0; vertex < ORDER; vertex++ )
+        {
+            double expected = Double.POSITIVE_INFINITY;
+            for ( Map.Entry<Integer, Double> offset : offsets.entrySet() )
+            {
+                expected = Math.min( expected, offset.getValue() + distance( offset.getKey(), vertex ) );
+            }
+
+            if ( Double.isInfinite( expected ) )
+            {
+                assertFalse( nearestSources.isReached( vertex ) );
+                continue;
+            }
+            reached++;
+
+            Integer source = nearestSources.getNearestSource( vertex );
+            assertTrue( offsets.containsKey( source ) );
+            assertEquals( expected, nearestSources.getDistance( vertex ), 1.0e-9 );
+            assertEquals( expected, offsets.get( source ) + distance( source, vertex ), 1.0e-9 );
+            assertTrue( nearestSources.getCells().get( source ).contains( vertex ) );
+        }
+        assertEquals( reached, nearestSources.size() );
+    }
+
+    private static double distance( Integer source, Integer target )
+    {
+        try
+        {
+            return findShortestPath( graph )
+                       .whereEdgesAreWeights()
+                       .from( source )
+                       .to( target )
+                       .applyingDijkstra( new DoubleWeightBaseOperations() )
+                       .getWeight();
+        }
+        catch ( PathNotFoundException e )
+        {
+            return Double.POSITIVE_INFINITY;
+        }
+    }
+
+}
@@ -0,0 +1,131 @@
+package org.nnsoft.trudeau.shortestpath;
+
+/*
+ *   Copyright 2013 The Trudeau Project
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.nnsoft.trudeau.shortestpath.ShortestPathEngine.newEngine;
+import static org.nnsoft.trudeau.shortestpath.ShortestPathSolver.findShortestPath;
+import static org.nnsoft.trudeau.shortestpath.generators.GraphGenerators.erdosRenyi;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.nnsoft.trudeau.api.PathNotFoundException;
+import org.nnsoft.trudeau.api.WeightedPath;
+import org.nnsoft.trudeau.math.monoid.primitive.DoubleWeightBaseOperations;
+import org.nnsoft.trudeau.shortestpath.generators.WeightDistribution;
+
+import com.google.common.graph.MutableValueGraph;
+
+public final class NearestTestCase
+{
+
+    private static final int ORDER = 300;
+
+    private static MutableValueGraph<Integer, Double> graph;
+
+    private static List<Integer> candidates;
+
+    @BeforeClass
+    public static void setUp()
+    {
+        graph = erdosRenyi( ORDER, 3 * ORDER ).directed().withWeights( WeightDistribution.UNIFORM ).generate();
+
+        candidates = new ArrayList<Integer>();
+        for ( int vertex = 0; vertex < ORDER; vertex += 7 )
+        {
+            candidates.add( vertex );
+        }
+    }
+
+    @Test( expected = IllegalArgumentException.class )
+    public void testNonPositiveK()
+    {
+        findShortestPath( graph )
+            .whereEdgesAreWeights()
+            .from( 1 )
+            .nearest( 0, candidates, new DoubleWeightBaseOperations() );
+    }
+
+    @Test
+    public void nearestCandidates()
+    {
+        for ( int k : new int[] { 1, 5, ORDER } )
+        {
+            verify( k, findShortestPath( graph )
+                           .whereEdgesAreWeights()
+                           .from( 1 )
+                           .nearest( k, candidates, new DoubleWeightBaseOperations() ) );
+        }
+    }
+
+    @Test
+    public void engineNearestCandidates()
+    {
+        ShortestPathEngine<Integer, Double, Double> engine = newEngine( graph, new DoubleWeightBaseOperations() );
+        CandidateSet<Integer> indexed = engine.candidates( candidates );
+        assertEquals( candidates.size(), indexed.size() );
+
+        for ( int k : new int[] { 1, 5, ORDER } )
+        {
+            verify( k, engine.nearest( 1, k, indexed ) );
+        }
+    }
+
+    @Test( expected = IllegalArgumentException.class )
+    public void candidatesOfAnotherEngine()
+    {
+        CandidateSet<Integer> indexed = newEngine( graph, new DoubleWeightBaseOperations() ).candidates( candidates );
+        newEngine( graph, new DoubleWeightBaseOperations() ).nearest( 1, 1, indexed );
+    }
+
+    private static void verify( int k, List<WeightedPath<Integer, Double, Double>> nearest )
+    {
+        List<Double> expected = new ArrayList<Double>();
+        for ( Integer candidate : candidates )
+        {
+            try
+            {
+                expected.add( findShortestPath( graph )
+                                  .whereEdgesAreWeights()
+                                  .from( 1 )
+                                  .to( candidate )
+                                  .applyingDijkstra( new DoubleWeightBaseOperations() )
+                                  .getWeight() );
+            }
+            catch ( PathNotFoundException e )
+            {
+                // not reachable, never among the nearest
+            }
+        }
+        Collections.sort( expected );
+
+        assertEquals( Math.min( k, expected.size() ), nearest.size() );
+        for ( int i = 0; i < nearest.size(); i++ )
+        {
+            WeightedPath<Integer, Double, Double> path = nearest.get( i );
+            assertEquals( Integer.valueOf( 1 ), path.getSource() );
+            assertTrue( candidates.contains( path.getTarget() ) );
+            assertEquals( expected.get( i ), path.getWeight(), 1.0e-9 );
+        }
+    }
+
+}
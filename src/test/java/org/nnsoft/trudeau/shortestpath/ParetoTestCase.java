@@ -0,0 +1,140 @@
+package org.nnsoft.trudeau.shortestpath;
+
+/*
+ *   Copyright 2013 The Trudeau Project
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.nnsoft.trudeau.shortestpath.ShortestPathSolver.findShortestPath;
+import static org.nnsoft.trudeau.shortestpath.generators.GraphGenerators.erdosRenyi;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.nnsoft.trudeau.api.PathNotFoundException;
+import org.nnsoft.trudeau.api.WeightedPath;
+import org.nnsoft.trudeau.math.monoid.primitive.DoubleWeightBaseOperations;
+import org.nnsoft.trudeau.shortestpath.generators.WeightDistribution;
+
+import com.google.common.graph.MutableValueGraph;
+
+public final class ParetoTestCase
+{
+
+    private static final int ORDER = 40;
+
+    /**
+     * Anti-correlated criteria, so that fronts have many trade-offs.
+     */
+    private static final List<ToDoubleFunction<Double>> CRITERIA = Arrays.<ToDoubleFunction<Double>>asList( weight -> weight,
+                                                                                                                weight -> 12D - weight );
+
+    private static MutableValueGraph<Integer, Double> graph;
+
+    @BeforeClass
+    public static void setUp()
+    {
+        graph = erdosRenyi( ORDER, 3 * ORDER ).directed().withWeights( WeightDistribution.UNIFORM ).generate();
+    }
+
+    @Test( expected = IllegalArgumentException.class )
+    public void testNoCriteria()
+    {
+        findShortestPath( graph ).whereEdgesHaveCosts( Arrays.<ToDoubleFunction<Double>>asList() );
+    }
+
+    @Test
+    public void singleCriterionIsDijkstra()
+    {
+        for ( int target = 1; target < ORDER; target++ )
+        {
+            double expected;
+            try
+            {
+                expected = dijkstra( target, 1D );
+            }
+            catch ( PathNotFoundException e )
+            {
+                continue;
+            }
+
+            List<WeightedPath<Integer, Double, CostVector>> front = findShortestPath( graph )
+                                                                        .whereEdgesHaveCosts( CRITERIA.subList( 0, 1 ) )
+                                                                        .from( 0 )
+                                                                        .to( target )
+                                                                        .applyingParetoSearch();
+            assertEquals( 1, front.size() );
+            assertEquals( expected, front.get( 0 ).getWeight().get( 0 ), 1.0e-9 );
+        }
+    }
+
+    @Test
+    public void paretoFront()
+    {
+        for ( int target = 1; target < ORDER; target++ )
+        {
+            List<WeightedPath<Integer, Double, CostVector>> front;
+            try
+            {
+                front = findShortestPath( graph )
+                            .whereEdgesHaveCosts( CRITERIA )
+                            .from( 0 )
+                            .to( target )
+                            .applyingParetoSearch();
+            }
+            catch ( PathNotFoundException e )
+            {
+                continue;
+            }
+
+            // no path of the front dominates another one
+            for ( WeightedPath<Integer, Double, CostVector> path : front )
+            {
+                for ( WeightedPath<Integer, Double, CostVector> other : front )
+                {
+                    assertFalse( path.getWeight().dominates( other.getWeight() ) );
+                }
+            }
+
+            // every supported solution, optimal for a weighted sum of the criteria, is in the front
+            for ( double lambda = 0D; lambda <= 1D; lambda += 0.125D )
+            {
+                double best = Double.POSITIVE_INFINITY;
+                for ( WeightedPath<Integer, Double, CostVector> path : front )
+                {
+                    best = Math.min( best, lambda * path.getWeight().get( 0 ) + ( 1 - lambda ) * path.getWeight().get( 1 ) );
+                }
+                assertEquals( dijkstra( target, lambda ), best, 1.0e-9 );
+            }
+        }
+    }
+
+    private static double dijkstra( int target, final double lambda )
+    {
+        Function<Double, Double> weightedSum = weight -> lambda * weight + ( 1 - lambda ) * ( 12D - weight );
+        return findShortestPath( graph )
+                   .whereEdgesHaveWeights( weightedSum )
+                   .from( 0 )
+                   .to( target )
+                   .applyingDijkstra( new DoubleWeightBaseOperations() )
+                   .getWeight();
+    }
+
+}
@@ -0,0 +1,257 @@
+package org.nnsoft.trudeau.shortestpath;
+
+/*
+ *   Copyright 2013 The Trudeau Project
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.nnsoft.trudeau.shortestpath.QueryOptions.queryOptions;
+import static org.nnsoft.trudeau.shortestpath.ShortestPathSolver.findShortestPath;
+import static org.nnsoft.trudeau.shortestpath.generators.GraphGenerators.grid;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.nnsoft.trudeau.api.WeightedPath;
+import org.nnsoft.trudeau.math.monoid.primitive.DoubleWeightBaseOperations;
+import org.nnsoft.trudeau.shortestpath.generators.WeightDistribution;
+
+import com.google.common.graph.MutableValueGraph;
+import com.google.common.graph.ValueGraphBuilder;
+
+public final class QueryOptionsTestCase
+{
+
+    private static final int SIDE = 300;
+
+    private static MutableValueGraph<Integer, Double> graph;
+
+    private static final Integer SOURCE = 0;
+
+    private static final Integer TARGET = SIDE * SIDE - 1;
+
+    @BeforeClass
+    public static void setUp()
+    {
+        graph = grid( SIDE, SIDE ).withWeights( WeightDistribution.UNIT ).generate();
+    }
+
+    @Test( expected = IllegalArgumentException.class )
+    public void testNegativeBudget()
+    {
+        QueryOptions.<Double>queryOptions().withMaxSettledVertices( -1 );
+    }
+
+    @Test( expected = NullPointerException.class )
+    public void testNullOptions()
+    {
+        findShortestPath( graph )
+            .whereEdgesAreWeights()
+            .from( SOURCE )
+            .to( TARGET )
+            .withOptions( null );
+    }
+
+    @Test
+    public void unboundedSearchSucceeds()
+    {
+        WeightedPath<Integer, Double, Double> path = findShortestPath( graph )
+                                                         .whereEdgesAreWeights()
+                                                         .from( SOURCE )
+                                                         .to( TARGET )
+                                                         .withOptions( queryOptions() )
+                                                         .applyingDijkstra( new DoubleWeightBaseOperations() );
+
+        assertEquals( 2D * ( SIDE - 1 ), path.getWeight(), 0D );
+    }
+
+    @Test
+    public void settledVerticesBudget()
+    {
+        SearchAbortedException e = dijkstra( QueryOptions.<Double>queryOptions().withMaxSettledVertices( 100 ) );
+
+        assertEquals( SearchAbortReason.SETTLED_VERTICES_EXCEEDED, e.getReason() );
+        assertEquals( 100, e.getSettledVertices() );
+        assertTrue( e.<Double>getLowerBound() > 0D );
+    }
+
+    @Test
+    public void budgetReachingTheTarget()
+    {
+        // 3 vertices are settled before the target, which is reached without expanding it
+        MutableValueGraph<Integer, Double> graph = ValueGraphBuilder.directed().build();
+        graph.putEdgeValue( 0, 1, 1D );
+        graph.putEdgeValue( 1, 2, 2D );
+        graph.putEdgeValue( 2, 3, 1D );
+        graph.putEdgeValue( 3, 4, 1D );
+
+        QueryOptions<Double> options = QueryOptions.<Double>queryOptions().withMaxSettledVertices( 3 );
+
+        WeightedPath<Integer, Double, Double> path = findShortestPath( graph )
+                                                         .whereEdgesAreWeights()
+                                                         .from( 0 )
+                                                         .to( 3 )
+                                                         .withOptions( options )
+                                                         .applyingDijkstra( new DoubleWeightBaseOperations() );
+        assertEquals( 4D, path.getWeight(), 0D );
+
+        path = findShortestPath( graph )
+                   .whereEdgesAreWeights()
+                   .from( 0 )
+                   .to( 3 )
+                   .applyingAStar( new DoubleWeightBaseOperations() )
+                   .withOptions( options )
+                   .withHeuristic( ( current, goal ) -> 0D );
+        assertEquals( 4D, path.getWeight(), 0D );
+
+        ShortestPathEngine<Integer, Double, Double> engine = ShortestPathEngine.newEngine( graph, new DoubleWeightBaseOperations() );
+        assertEquals( 4D, engine.dijkstra( 0, 3, options ).getWeight(), 0D );
+        assertEquals( 4D, engine.aStar( 0, 3, ( current, goal ) -> 0D, options ).getWeight(), 0D );
+
+        // vertices still to expand are over budget
+        try
+        {
+            engine.dijkstra( 0, 4, options );
+            fail( "Search should have been aborted" );
+        }
+        catch ( SearchAbortedException e )
+        {
+            assertEquals( SearchAbortReason.SETTLED_VERTICES_EXCEEDED, e.getReason() );
+        }
+
+        // the 0-1 breadth first search
+        graph.putEdgeValue( 1, 2, 1D );
+        engine = ShortestPathEngine.newEngine( graph, new DoubleWeightBaseOperations() );
+        assertEquals( 3D, engine.dijkstra( 0, 3, options ).getWeight(), 0D );
+    }
+
+    @Test
+    public void maxDistance()
+    {
+        SearchAbortedException e = dijkstra( QueryOptions.<Double>queryOptions().withMaxDistance( 10D ) );
+
+        assertEquals( SearchAbortReason.MAX_DISTANCE_EXCEEDED, e.getReason() );
+        assertTrue( e.<Double>getLowerBound() > 10D );
+
+        WeightedPath<Integer, Double, Double> path = findShortestPath( graph )
+                                                         .whereEdgesAreWeights()
+                                                         .from( SOURCE )
+                                                         .to( SIDE + 1 )
+                                                         .withOptions( QueryOptions.<Double>queryOptions().withMaxDistance( 2D ) )
+                                                         .applyingDijkstra( new DoubleWeightBaseOperations() );
+        assertEquals( 2D, path.getWeight(), 0D );
+    }
+
+    @Test
+    public void bidirectionalDijkstraMaxDistance()
+    {
+        // both frontiers sum up over the bound once the path of weight 10 is found
+        MutableValueGraph<Integer, Double> graph = ValueGraphBuilder.directed().build();
+        graph.putEdgeValue( 0, 3, 10D );
+        graph.putEdgeValue( 0, 1, 6D );
+        graph.putEdgeValue( 2, 3, 6D );
+
+        WeightedPath<Integer, Double, Double> path = findShortestPath( graph )
+                                                         .whereEdgesAreWeights()
+                                                         .from( 0 )
+                                                         .to( 3 )
+                                                         .withOptions( QueryOptions.<Double>queryOptions().withMaxDistance( 11D ) )
+                                                         .applyingBidirectionalDijkstra( new DoubleWeightBaseOperations() );
+        assertEquals( 10D, path.getWeight(), 0D );
+    }
+
+    @Test
+    public void cancellation()
+    {
+        CancellationToken token = new CancellationToken();
+        token.cancel();
+
+        SearchAbortedException e = dijkstra( QueryOptions.<Double>queryOptions().withCancellation( token ) );
+
+        assertEquals( SearchAbortReason.CANCELLED, e.getReason() );
+        assertEquals( 0, e.getSettledVertices() );
+    }
+
+    @Test
+    public void deadline()
+    {
+        SearchAbortedException e = dijkstra( QueryOptions.<Double>queryOptions().withDeadline( 1, TimeUnit.NANOSECONDS ) );
+
+        assertEquals( SearchAbortReason.DEADLINE_EXCEEDED, e.getReason() );
+        assertTrue( e.getSettledVertices() < SIDE * SIDE );
+    }
+
+    @Test
+    public void bidirectionalDijkstraBudget()
+    {
+        try
+        {
+            findShortestPath( graph )
+                .whereEdgesAreWeights()
+                .from( SOURCE )
+                .to( TARGET )
+                .withOptions( QueryOptions.<Double>queryOptions().withMaxSettledVertices( 100 ) )
+                .applyingBidirectionalDijkstra( new DoubleWeightBaseOperations() );
+            fail( "Search should have been aborted" );
+        }
+        catch ( SearchAbortedException e )
+        {
+            assertEquals( SearchAbortReason.SETTLED_VERTICES_EXCEEDED, e.getReason() );
+        }
+    }
+
+    @Test
+    public void aStarMaxDistance()
+    {
+        try
+        {
+            findShortestPath( graph )
+                .whereEdgesAreWeights()
+                .from( SOURCE )
+                .to( TARGET )
+                .applyingAStar( new DoubleWeightBaseOperations() )
+                .withOptions( QueryOptions.<Double>queryOptions().withMaxDistance( 10D ) )
+                .withHeuristic( ( current, goal ) -> 0D );
+            fail( "Search should have been aborted" );
+        }
+        catch ( SearchAbortedException e )
+        {
+            assertEquals( SearchAbortReason.MAX_DISTANCE_EXCEEDED, e.getReason() );
+        }
+    }
+
+    private static SearchAbortedException dijkstra( QueryOptions<Double> options )
+    {
+        try
+        {
+            findShortestPath( graph )
+                .whereEdgesAreWeights()
+                .from( SOURCE )
+                .to( TARGET )
+                .withOptions( options )
+                .applyingDijkstra( new DoubleWeightBaseOperations() );
+        }
+        catch ( SearchAbortedException e )
+        {
+            return e;
+        }
+        fail( "Search should have been aborted" );
+        return null;
+    }
+
+}
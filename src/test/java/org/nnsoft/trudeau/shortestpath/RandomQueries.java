@@ -0,0 +1,143 @@
+package org.nnsoft.trudeau.shortestpath;
+
+/*
+ *   Copyright 2013 The Trudeau Project
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.nnsoft.trudeau.api.PathNotFoundException;
+import org.nnsoft.trudeau.api.WeightedPath;
+
+import com.google.common.graph.ValueGraph;
+
+/**
+ * Compares the shortest path weights of two searches on random pairs of vertices, drawn with a fixed seed so that
+ * failures can be reproduced.
+ */
+final class RandomQueries
+{
+
+    static final int QUERIES = 200;
+
+    /**
+     * A search on the graph of the test, whose vertices are numbered from {@code 0}.
+     */
+    interface Search
+    {
+
+        /**
+         * @param source the path source
+         * @param target the path target
+         * @return the shortest path weight, if any, otherwise a {@link PathNotFoundException} will be thrown
+         */
+        Number weigh( int source, int target );
+
+    }
+
+    private RandomQueries()
+    {
+        // do nothing
+    }
+
+    /**
+     * Asserts both searches find a path between the same random pairs of distinct vertices, with the same weight.
+     *
+     * @param order the number of vertices
+     * @param expected the reference search
+     * @param actual the search under test
+     */
+    static void verify( int order, Search expected, Search actual )
+    {
+        Random random = new Random( 42L );
+        for ( int i = 0; i < QUERIES; i++ )
+        {
+            int source = random.nextInt( order );
+            int target = random.nextInt( order );
+            if ( source == target )
+            {
+                continue;
+            }
+
+            Double expectedWeight = weightOrNull( expected, source, target );
+            Double actualWeight = weightOrNull( actual, source, target );
+            if ( expectedWeight == null )
+            {
+                assertNull( actualWeight );
+            }
+            else
+            {
+                assertEquals( expectedWeight, actualWeight, 1e-9D );
+            }
+        }
+    }
+
+    /**
+     * @return the weight found by the search, null if there is no path
+     */
+    static Double weightOrNull( Search search, int source, int target )
+    {
+        try
+        {
+            return search.weigh( source, target ).doubleValue();
+        }
+        catch ( PathNotFoundException e )
+        {
+            return null;
+        }
+    }
+
+    /**
+     * Asserts the path goes from the source to the target through edges of the graph, shortcuts and cliques being
+     * unpacked, then weighs it.
+     *
+     * @param graph the searched graph
+     * @param source the path source
+     * @param target the path target
+     * @param path the path to weigh
+     * @return the path weight
+     */
+    static <W extends Number> W weightOf( ValueGraph<Integer, ?> graph, int source, int target,
+                                          WeightedPath<Integer, ?, W> path )
+    {
+        assertEquals( Integer.valueOf( source ), path.getSource() );
+        assertEquals( Integer.valueOf( target ), path.getTarget() );
+        assertEquals( path.getOrder(), path.getSize() + 1 );
+
+        int vertices = 0;
+        Integer previous = null;
+        for ( Integer vertex : path.getVertices() )
+        {
+            if ( previous == null )
+            {
+                assertEquals( Integer.valueOf( source ), vertex );
+            }
+            else
+            {
+                assertTrue( previous + " -> " + vertex + " is not an edge", graph.hasEdgeConnecting( previous, vertex ) );
+            }
+            previous = vertex;
+            vertices++;
+        }
+        assertEquals( Integer.valueOf( target ), previous );
+        assertEquals( path.getOrder(), vertices );
+        return path.getWeight();
+    }
+
+}
@@ -0,0 +1,102 @@
+package org.nnsoft.trudeau.shortestpath;
+
+/*
+ *   Copyright 2013 The Trudeau Project
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.nnsoft.trudeau.shortestpath.RandomQueries.weightOf;
+import static org.nnsoft.trudeau.shortestpath.ShortestPathEngine.newEngine;
+import static org.nnsoft.trudeau.shortestpath.generators.GraphGenerators.erdosRenyi;
+import static org.nnsoft.trudeau.shortestpath.generators.GraphGenerators.grid;
+import static org.nnsoft.trudeau.shortestpath.generators.GraphGenerators.roadNetwork;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+import org.nnsoft.trudeau.math.monoid.primitive.DoubleWeightBaseOperations;
+import org.nnsoft.trudeau.shortestpath.generators.RoadNetworkGenerator;
+import org.nnsoft.trudeau.shortestpath.generators.WeightDistribution;
+
+import com.google.common.graph.MutableValueGraph;
+import com.google.common.graph.ValueGraph;
+
+public final class ReachTestCase
+{
+
+    @Test( expected = IllegalArgumentException.class )
+    public void testReachesOfAnotherEngine()
+    {
+        MutableValueGraph<Integer, Double> graph = grid( 3, 3 ).generate();
+        Reaches<Integer, Double> reaches = newEngine( graph, new DoubleWeightBaseOperations() ).reaches();
+        newEngine( graph, new DoubleWeightBaseOperations() ).bidirectionalDijkstra( 0, 8, reaches );
+    }
+
+    @Test
+    public void pathReaches()
+    {
+        // 0 - 1 - 2 - 3 - 4
+        MutableValueGraph<Integer, Double> graph = grid( 5, 1 ).generate();
+        Reaches<Integer, Double> reaches = newEngine( graph, new DoubleWeightBaseOperations() ).reaches();
+
+        assertEquals( 0D, reaches.getReach( 0 ), 0D );
+        assertEquals( 1D, reaches.getReach( 1 ), 0D );
+        assertEquals( 2D, reaches.getReach( 2 ), 0D );
+        assertEquals( 1D, reaches.getReach( 3 ), 0D );
+        assertEquals( 0D, reaches.getReach( 4 ), 0D );
+    }
+
+    @Test
+    public void directedGraph()
+    {
+        MutableValueGraph<Integer, Double> graph = erdosRenyi( 400, 1600 ).directed().withWeights( WeightDistribution.UNIFORM ).generate();
+        ShortestPathEngine<Integer, Double, Double> engine = newEngine( graph, new DoubleWeightBaseOperations() );
+        verify( graph, engine, engine.reaches(), ( current, goal ) -> 0D );
+    }
+
+    @Test
+    public void roadNetworkWithGeometricBounds()
+    {
+        RoadNetworkGenerator generator = roadNetwork( 1500 );
+        final double[][] coordinates = generator.getCoordinates();
+        MutableValueGraph<Integer, Double> graph = generator.generate();
+
+        // unit weights, edges weight their length
+        ShortestPathEngine<Integer, Double, Double> engine = newEngine( graph, new DoubleWeightBaseOperations() );
+        Reaches<Integer, Double> reaches = engine.reaches();
+
+        verify( graph, engine, reaches, ( current, goal ) -> 0D );
+        verify( graph, engine, reaches, engine.euclideanHeuristic( v -> coordinates[0][v], v -> coordinates[1][v], 1D ) );
+    }
+
+    private static void verify( ValueGraph<Integer, Double> graph, ShortestPathEngine<Integer, Double, Double> engine,
+                                Reaches<Integer, Double> reaches, Heuristic<Integer, Double> lowerBounds )
+    {
+        final AtomicLong dijkstraSettled = new AtomicLong();
+        final AtomicLong reachSettled = new AtomicLong();
+        ShortestPathEngine<Integer, Double, Double> reporting =
+            engine.reportingTo( statistics -> ( statistics.getAlgorithm() == SearchAlgorithm.REACH ? reachSettled
+                                                                                                   : dijkstraSettled )
+                                                  .addAndGet( statistics.getSettledVertices() ) );
+
+        RandomQueries.verify( engine.getOrder(),
+                              ( source, target ) -> weightOf( graph, source, target, reporting.bidirectionalDijkstra( source, target ) ),
+                              ( source, target ) -> weightOf( graph, source, target, reporting.bidirectionalDijkstra( source, target, reaches, lowerBounds ) ) );
+
+        assertTrue( reachSettled.get() <= dijkstraSettled.get() );
+    }
+
+}
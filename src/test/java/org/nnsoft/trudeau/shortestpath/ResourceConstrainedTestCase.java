@@ -0,0 +1,125 @@
+package org.nnsoft.trudeau.shortestpath;
+
+/*
+ *   Copyright 2013 The Trudeau Project
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.nnsoft.trudeau.shortestpath.ShortestPathSolver.findShortestPath;
+import static org.nnsoft.trudeau.shortestpath.generators.GraphGenerators.erdosRenyi;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.nnsoft.trudeau.api.PathNotFoundException;
+import org.nnsoft.trudeau.api.WeightedPath;
+import org.nnsoft.trudeau.shortestpath.generators.WeightDistribution;
+
+import com.google.common.graph.MutableValueGraph;
+
+public final class ResourceConstrainedTestCase
+{
+
+    private static final int ORDER = 40;
+
+    /**
+     * The cost, a time anti-correlated to the cost and the number of hops.
+     */
+    private static final List<ToDoubleFunction<Double>> CRITERIA = Arrays.<ToDoubleFunction<Double>>asList( weight -> weight,
+                                                                                                                weight -> 12D - weight,
+                                                                                                                weight -> 1D );
+
+    private static MutableValueGraph<Integer, Double> graph;
+
+    @BeforeClass
+    public static void setUp()
+    {
+        graph = erdosRenyi( ORDER, 3 * ORDER ).directed().withWeights( WeightDistribution.UNIFORM ).generate();
+    }
+
+    @Test( expected = IllegalArgumentException.class )
+    public void testMissingLimit()
+    {
+        findShortestPath( graph )
+            .whereEdgesHaveCosts( CRITERIA )
+            .from( 0 )
+            .to( 1 )
+            .applyingResourceConstrainedSearch( 10D );
+    }
+
+    @Test
+    public void optimalFeasiblePath()
+    {
+        for ( double timeLimit : new double[] { 10D, 20D, 40D } )
+        {
+            for ( double hopsLimit : new double[] { 3D, 6D } )
+            {
+                for ( int target = 1; target < ORDER; target++ )
+                {
+                    verify( target, timeLimit, hopsLimit );
+                }
+            }
+        }
+    }
+
+    private static void verify( int target, double timeLimit, double hopsLimit )
+    {
+        // the optimal feasible path is not dominated by any other feasible path, so it belongs to the Pareto front
+        double expected = Double.POSITIVE_INFINITY;
+        try
+        {
+            for ( WeightedPath<Integer, Double, CostVector> path : findShortestPath( graph )
+                                                                       .whereEdgesHaveCosts( CRITERIA )
+                                                                       .from( 0 )
+                                                                       .to( target )
+                                                                       .applyingParetoSearch() )
+            {
+                if ( path.getWeight().get( 1 ) <= timeLimit && path.getWeight().get( 2 ) <= hopsLimit )
+                {
+                    expected = Math.min( expected, path.getWeight().get( 0 ) );
+                }
+            }
+        }
+        catch ( PathNotFoundException e )
+        {
+            // not reachable, not feasible
+        }
+
+        try
+        {
+            WeightedPath<Integer, Double, CostVector> path = findShortestPath( graph )
+                                                                 .whereEdgesHaveCosts( CRITERIA )
+                                                                 .from( 0 )
+                                                                 .to( target )
+                                                                 .applyingResourceConstrainedSearch( timeLimit, hopsLimit );
+            assertEquals( expected, path.getWeight().get( 0 ), 1.0e-9 );
+            assertTrue( path.getWeight().get( 1 ) <= timeLimit );
+            assertTrue( path.getWeight().get( 2 ) <= hopsLimit );
+        }
+        catch ( PathNotFoundException e )
+        {
+            if ( !Double.isInfinite( expected ) )
+            {
+                fail( "Feasible path to " + target + " not found" );
+            }
+        }
+    }
+
+}
@@ -0,0 +1,205 @@
+package org.nnsoft.trudeau.shortestpath;
+
+/*
+ *   Copyright 2013 The Trudeau Project
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.nnsoft.trudeau.shortestpath.ShortestPathSolver.findShortestPath;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.nnsoft.trudeau.api.PathNotFoundException;
+import org.nnsoft.trudeau.math.monoid.primitive.DoubleWeightBaseOperations;
+
+import com.google.common.graph.MutableValueGraph;
+import com.google.common.graph.ValueGraphBuilder;
+
+public final class SearchListenerTestCase
+{
+
+    private final List<SearchStatistics> reported = new ArrayList<SearchStatistics>();
+
+    private final SearchListener listener = statistics -> reported.add( statistics );
+
+    private MutableValueGraph<String, Double> graph;
+
+    @Before
+    public void setUp()
+    {
+        graph = ValueGraphBuilder.directed().build();
+
+        graph.putEdgeValue( "a", "b", 1D );
+        graph.putEdgeValue( "b", "c", 1D );
+        graph.putEdgeValue( "a", "c", 3D );
+        graph.putEdgeValue( "c", "d", 1D );
+
+        reported.clear();
+    }
+
+    @Test( expected = NullPointerException.class )
+    public void testNullListener()
+    {
+        findShortestPath( graph )
+            .whereEdgesAreWeights()
+            .reportingTo( null );
+    }
+
+    @Test
+    public void dijkstraIsReported()
+    {
+        findShortestPath( graph )
+            .whereEdgesAreWeights()
+            .reportingTo( listener )
+            .from( "a" )
+            .to( "d" )
+            .applyingDijkstra( new DoubleWeightBaseOperations() );
+
+        SearchStatistics statistics = single( SearchAlgorithm.DIJKSTRA );
+        assertEquals( 4, statistics.getSettledVertices() );
+        assertEquals( 4, statistics.getRelaxedEdges() );
+        assertEquals( 4, statistics.getHeapPushes() );
+        assertEquals( 1, statistics.getDecreaseKeys() );
+        assertEquals( 0, statistics.getHeuristicCalls() );
+    }
+
+    @Test
+    public void aStarCountsHeuristicCalls()
+    {
+        findShortestPath( graph )
+            .whereEdgesAreWeights()
+            .reportingTo( listener )
+            .from( "a" )
+            .to( "d" )
+            .applyingAStar( new DoubleWeightBaseOperations() )
+            .withHeuristic( ( current, goal ) -> 0D );
+
+        SearchStatistics statistics = single( SearchAlgorithm.A_STAR );
+        assertEquals( 4, statistics.getSettledVertices() );
+        assertEquals( 5, statistics.getHeuristicCalls() );
+    }
+
+    @Test
+    public void bellmanFordIsReported()
+    {
+        findShortestPath( graph )
+            .whereEdgesAreWeights()
+            .reportingTo( listener )
+            .from( "a" )
+            .applyingBelmannFord( new DoubleWeightBaseOperations() );
+
+        assertTrue( single( SearchAlgorithm.BELLMAN_FORD ).getRelaxedEdges() > 0 );
+    }
+
+    @Test
+    public void failedSearchIsReported()
+    {
+        graph.addNode( "e" );
+
+        try
+        {
+            findShortestPath( graph )
+                .whereEdgesAreWeights()
+                .reportingTo( listener )
+                .from( "a" )
+                .to( "e" )
+                .applyingBidirectionalDijkstra( new DoubleWeightBaseOperations() );
+        }
+        catch ( PathNotFoundException e )
+        {
+            // expected
+        }
+
+        single( SearchAlgorithm.BIDIRECTIONAL_DIJKSTRA );
+    }
+
+    @Test
+    public void customizedHierarchyIsReported()
+    {
+        CustomizableContractionHierarchy.newHierarchy( graph )
+            .customize( weight -> weight, new DoubleWeightBaseOperations() )
+            .reportingTo( listener )
+            .shortestPath( "a", "d" );
+
+        assertTrue( single( SearchAlgorithm.CUSTOMIZABLE_CONTRACTION_HIERARCHY ).getSettledVertices() > 0 );
+    }
+
+    @Test
+    public void overlayIsReported()
+    {
+        MultiLevelOverlay.newOverlay( graph, new DoubleWeightBaseOperations(), 2 )
+            .reportingTo( listener )
+            .shortestPath( "a", "d" );
+
+        assertTrue( single( SearchAlgorithm.MULTI_LEVEL_OVERLAY ).getSettledVertices() > 0 );
+    }
+
+    @Test
+    public void unweightedEngineIsReported()
+    {
+        assertEquals( 2, UnweightedEngine.newUnweightedEngine( graph ).reportingTo( listener ).hops( "a", "d" ) );
+
+        assertTrue( single( SearchAlgorithm.BREADTH_FIRST_SEARCH ).getSettledVertices() > 0 );
+    }
+
+    @Test
+    public void listenersAreCombined()
+    {
+        final List<SearchStatistics> first = new ArrayList<SearchStatistics>();
+        ShortestPathEngine<String, Double, Double> engine =
+            ShortestPathEngine.newEngine( graph, new DoubleWeightBaseOperations() ).reportingTo( statistics -> first.add( statistics ) );
+
+        engine.reportingTo( listener ).dijkstra( "a", "d" );
+
+        assertEquals( first, reported );
+        single( SearchAlgorithm.DIJKSTRA );
+    }
+
+    @Test
+    public void noListenerNoReport()
+    {
+        findShortestPath( graph )
+            .whereEdgesAreWeights()
+            .from( "a" )
+            .to( "d" )
+            .applyingDijkstra( new DoubleWeightBaseOperations() );
+
+        assertTrue( reported.isEmpty() );
+    }
+
+    private SearchStatistics single( SearchAlgorithm algorithm )
+    {
+        assertEquals( 1, reported.size() );
+
+        SearchStatistics statistics = reported.get( 0 );
+        assertNotNull( statistics );
+        assertEquals( algorithm, statistics.getAlgorithm() );
+
+        long total = 0;
+        for ( SearchPhase phase : SearchPhase.values() )
+        {
+            total += statistics.getElapsed( phase, TimeUnit.NANOSECONDS );
+        }
+        assertEquals( total, statistics.getElapsed( TimeUnit.NANOSECONDS ) );
+        return statistics;
+    }
+
+}
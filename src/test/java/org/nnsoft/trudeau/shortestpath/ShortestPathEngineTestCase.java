@@ -0,0 +1,317 @@
+package org.nnsoft.trudeau.shortestpath;
+
+/*
+ *   Copyright 2013 The Trudeau Project
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.nnsoft.trudeau.shortestpath.ShortestPathEngine.newEngine;
+import static org.nnsoft.trudeau.shortestpath.ShortestPathSolver.findShortestPath;
+import static org.nnsoft.trudeau.shortestpath.generators.GraphGenerators.erdosRenyi;
+import static org.nnsoft.trudeau.shortestpath.generators.GraphGenerators.grid;
+import static org.nnsoft.trudeau.shortestpath.generators.GraphGenerators.roadNetwork;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.nnsoft.trudeau.api.PathNotFoundException;
+import org.nnsoft.trudeau.api.WeightedPath;
+import org.nnsoft.trudeau.math.monoid.primitive.DoubleWeightBaseOperations;
+import org.nnsoft.trudeau.shortestpath.generators.WeightDistribution;
+
+import com.google.common.graph.EndpointPair;
+import com.google.common.graph.Graphs;
+import com.google.common.graph.MutableValueGraph;
+
+public final class ShortestPathEngineTestCase
+{
+
+    private static final int ORDER = 400;
+
+    private static final int QUERIES = 200;
+
+    private static MutableValueGraph<Integer, Double> directed;
+
+    private static MutableValueGraph<Integer, Double> undirected;
+
+    private static final int[] sources = new int[QUERIES];
+
+    private static final int[] targets = new int[QUERIES];
+
+    @BeforeClass
+    public static void setUp()
+    {
+        directed = erdosRenyi( ORDER, 3 * ORDER ).directed().generate();
+        undirected = erdosRenyi( ORDER, 2 * ORDER ).generate();
+
+        Random random = new Random( 42L );
+        for ( int i = 0; i < QUERIES; i++ )
+        {
+            sources[i] = random.nextInt( ORDER );
+            targets[i] = random.nextInt( ORDER );
+        }
+    }
+
+    @Test( expected = NullPointerException.class )
+    public void testNullGraph()
+    {
+        newEngine( null, new DoubleWeightBaseOperations() );
+    }
+
+    @Test( expected = IllegalArgumentException.class )
+    public void testUnknownVertex()
+    {
+        newEngine( directed, new DoubleWeightBaseOperations() ).dijkstra( 0, ORDER );
+    }
+
+    @Test( expected = PathNotFoundException.class )
+    public void testNotConnectGraph()
+    {
+        MutableValueGraph<Integer, Double> graph = grid( 2, 2 ).directed().generate();
+        graph.addNode( 4 );
+
+        newEngine( graph, new DoubleWeightBaseOperations() ).bidirectionalDijkstra( 0, 4 );
+    }
+
+    @Test( expected = PathNotFoundException.class )
+    public void testNotConnectGraphInParallel()
+    {
+        MutableValueGraph<Integer, Double> graph = grid( 2, 2 ).directed().generate();
+        graph.addNode( 4 );
+
+        newEngine( graph, new DoubleWeightBaseOperations() ).parallelBidirectionalDijkstra( 0, 4 );
+    }
+
+    @Test
+    public void sameSourceAndTarget()
+    {
+        ShortestPathEngine<Integer, Double, Double> engine = newEngine( directed, new DoubleWeightBaseOperations() );
+
+        assertEquals( 0D, engine.dijkstra( 1, 1 ).getWeight(), 0D );
+        assertEquals( 0D, engine.bidirectionalDijkstra( 1, 1 ).getWeight(), 0D );
+        assertEquals( 0D, engine.parallelBidirectionalDijkstra( 1, 1 ).getWeight(), 0D );
+        assertEquals( 0D, engine.aStar( 1, 1, ( current, goal ) -> 0D ).getWeight(), 0D );
+    }
+
+    @Test
+    public void directedGraph()
+    {
+        verify( directed );
+    }
+
+    @Test
+    public void undirectedGraph()
+    {
+        verify( undirected );
+    }
+
+    @Test
+    public void concurrentQueries()
+        throws Exception
+    {
+        final ShortestPathEngine<Integer, Double, Double> engine = newEngine( directed, new DoubleWeightBaseOperations() );
+
+        final Double[] expected = new Double[QUERIES];
+        for ( int i = 0; i < QUERIES; i++ )
+        {
+            final int query = i;
+            expected[i] = weightOrNull( () -> engine.dijkstra( sources[query], targets[query] ) );
+        }
+
+        final AtomicLong reported = new AtomicLong();
+        final ShortestPathEngine<Integer, Double, Double> shared = engine.reportingTo( statistics -> reported.incrementAndGet() );
+
+        ExecutorService executor = Executors.newFixedThreadPool( 16 );
+        try
+        {
+            List<Future<Boolean>> results = new ArrayList<Future<Boolean>>();
+            for ( int thread = 0; thread < 16; thread++ )
+            {
+                final int offset = thread;
+                results.add( executor.submit( () -> {
+                    boolean same = true;
+                    for ( int j = 0; j < QUERIES; j++ )
+                    {
+                        int i = ( j + offset ) % QUERIES;
+                        Double actual = weightOrNull( () -> offset % 2 == 0 ? shared.dijkstra( sources[i], targets[i] )
+                                                                            : shared.bidirectionalDijkstra( sources[i], targets[i] ) );
+                        same &= expected[i] == null ? actual == null : Math.abs( expected[i] - actual ) < 1.0e-9;
+                    }
+                    return same;
+                } ) );
+            }
+
+            for ( Future<Boolean> result : results )
+            {
+                assertTrue( result.get() );
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+
+        assertEquals( 16L * QUERIES, reported.get() );
+    }
+
+    @Test
+    public void parallelBidirectionalRoadNetwork()
+    {
+        MutableValueGraph<Integer, Double> graph = roadNetwork( 2000 ).withWeights( WeightDistribution.UNIFORM ).generate();
+        final ShortestPathEngine<Integer, Double, Double> engine = newEngine( graph, new DoubleWeightBaseOperations() );
+
+        Random random = new Random( 42L );
+        for ( int i = 0; i < QUERIES; i++ )
+        {
+            final int source = random.nextInt( graph.nodes().size() );
+            final int target = random.nextInt( graph.nodes().size() );
+
+            Double expected = weightOrNull( () -> engine.dijkstra( source, target ) );
+            Double actual = weightOrNull( () -> engine.parallelBidirectionalDijkstra( source, target ) );
+            if ( expected == null )
+            {
+                assertNull( actual );
+            }
+            else
+            {
+                assertEquals( expected, actual, 1.0e-9 );
+            }
+        }
+    }
+
+    @Test
+    public void zeroOneWeights()
+    {
+        // free transfers and paid hops
+        MutableValueGraph<Integer, Double> graph = Graphs.copyOf( directed );
+        Random random = new Random( 42L );
+        for ( EndpointPair<Integer> edge : directed.edges() )
+        {
+            graph.putEdgeValue( edge.nodeU(), edge.nodeV(), random.nextBoolean() ? 0D : 1D );
+        }
+        verify( graph );
+
+        final AtomicReference<SearchAlgorithm> algorithm = new AtomicReference<SearchAlgorithm>();
+        newEngine( graph, new DoubleWeightBaseOperations() ).reportingTo( statistics -> algorithm.set( statistics.getAlgorithm() ) )
+                                                           .dijkstra( sources[0], sources[0] );
+        assertEquals( SearchAlgorithm.BREADTH_FIRST_SEARCH, algorithm.get() );
+
+        // any other weight is left to the heap
+        graph.putEdgeValue( sources[0], targets[0], 2D );
+        newEngine( graph, new DoubleWeightBaseOperations() ).reportingTo( statistics -> algorithm.set( statistics.getAlgorithm() ) )
+                                                           .dijkstra( sources[0], sources[0] );
+        assertEquals( SearchAlgorithm.DIJKSTRA, algorithm.get() );
+    }
+
+    @Test
+    public void edgesAreWeightedOnce()
+    {
+        final AtomicLong evaluations = new AtomicLong();
+        ShortestPathEngine<Integer, Double, Double> engine = newEngine( directed,
+                                                                        weight -> {
+                                                                            evaluations.incrementAndGet();
+                                                                            return weight;
+                                                                        },
+                                                                        new DoubleWeightBaseOperations() );
+
+        assertEquals( directed.edges().size(), evaluations.get() );
+
+        // searches read the precomputed weights, only the returned paths evaluate their own edges
+        long pathEdges = 0;
+        for ( int i = 0; i < QUERIES; i++ )
+        {
+            try
+            {
+                pathEdges += engine.dijkstra( sources[i], targets[i] ).getSize();
+                pathEdges += engine.bidirectionalDijkstra( sources[i], targets[i] ).getSize();
+                pathEdges += engine.aStar( sources[i], targets[i], ( current, goal ) -> 0D ).getSize();
+            }
+            catch ( PathNotFoundException e )
+            {
+                // not reachable
+            }
+        }
+
+        assertEquals( directed.edges().size() + pathEdges, evaluations.get() );
+    }
+
+    private static void verify( MutableValueGraph<Integer, Double> graph )
+    {
+        ShortestPathEngine<Integer, Double, Double> engine = newEngine( graph, new DoubleWeightBaseOperations() );
+
+        for ( int i = 0; i < QUERIES; i++ )
+        {
+            final int source = sources[i];
+            final int target = targets[i];
+
+            Double expected = weightOrNull( () -> findShortestPath( graph )
+                                                      .whereEdgesAreWeights()
+                                                      .from( source )
+                                                      .to( target )
+                                                      .applyingDijkstra( new DoubleWeightBaseOperations() ) );
+
+            List<Callable<WeightedPath<Integer, Double, Double>>> searches = new ArrayList<Callable<WeightedPath<Integer, Double, Double>>>();
+            searches.add( () -> engine.dijkstra( source, target ) );
+            searches.add( () -> engine.bidirectionalDijkstra( source, target ) );
+            searches.add( () -> engine.parallelBidirectionalDijkstra( source, target ) );
+            searches.add( () -> engine.aStar( source, target, ( current, goal ) -> 0D ) );
+
+            for ( Callable<WeightedPath<Integer, Double, Double>> search : searches )
+            {
+                Double actual = weightOrNull( search );
+                if ( expected == null )
+                {
+                    assertNull( actual );
+                }
+                else
+                {
+                    assertEquals( expected, actual, 1.0e-9 );
+                }
+            }
+        }
+    }
+
+    private static Double weightOrNull( Callable<WeightedPath<Integer, Double, Double>> search )
+    {
+        try
+        {
+            WeightedPath<Integer, Double, Double> path = search.call();
+
+            // the path weight has to be the sum of its edges
+            assertEquals( path.getOrder(), path.getSize() + 1 );
+            return path.getWeight();
+        }
+        catch ( PathNotFoundException e )
+        {
+            return null;
+        }
+        catch ( Exception e )
+        {
+            throw new IllegalStateException( e );
+        }
+    }
+
+}
@@ -0,0 +1,153 @@
+package org.nnsoft.trudeau.shortestpath;
+
+/*
+ *   Copyright 2013 The Trudeau Project
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.nnsoft.trudeau.shortestpath.ShortestPathEngine.newEngine;
+import static org.nnsoft.trudeau.shortestpath.ShortestPathSolver.findShortestPath;
+import static org.nnsoft.trudeau.shortestpath.generators.GraphGenerators.erdosRenyi;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.nnsoft.trudeau.api.PathNotFoundException;
+import org.nnsoft.trudeau.math.monoid.primitive.DoubleWeightBaseOperations;
+
+import com.google.common.graph.MutableValueGraph;
+
+public final class StreamingDijkstraTestCase
+{
+
+    private static final int ORDER = 300;
+
+    private static MutableValueGraph<Integer, Double> graph;
+
+    @BeforeClass
+    public static void setUp()
+    {
+        graph = erdosRenyi( ORDER, 3 * ORDER ).directed().generate();
+    }
+
+    @Test( expected = NullPointerException.class )
+    public void testNullMonoid()
+    {
+        findShortestPath( graph )
+            .whereEdgesAreWeights()
+            .from( 0 )
+            .streamingDijkstra( null );
+    }
+
+    @Test
+    public void settleOrder()
+    {
+        verify( findShortestPath( graph )
+                    .whereEdgesAreWeights()
+                    .from( 0 )
+                    .streamingDijkstra( new DoubleWeightBaseOperations() ) );
+    }
+
+    @Test
+    public void engineSettleOrder()
+    {
+        ShortestPathEngine<Integer, Double, Double> engine = newEngine( graph, new DoubleWeightBaseOperations() );
+
+        try ( Stream<SettledVertex<Integer, Double>> settled = engine.streamingDijkstra( 0 ) )
+        {
+            verify( settled );
+        }
+        // the released search state is reused
+        try ( Stream<SettledVertex<Integer, Double>> settled = engine.streamingDijkstra( 0 ) )
+        {
+            verify( settled );
+        }
+    }
+
+    @Test
+    public void searchAdvancesOnlyAsFarAsPulled()
+    {
+        final List<SearchStatistics> reported = new ArrayList<SearchStatistics>();
+
+        try ( Stream<SettledVertex<Integer, Double>> settled = findShortestPath( graph )
+                                                                   .whereEdgesAreWeights()
+                                                                   .reportingTo( statistics -> reported.add( statistics ) )
+                                                                   .from( 0 )
+                                                                   .streamingDijkstra( new DoubleWeightBaseOperations() ) )
+        {
+            Iterator<SettledVertex<Integer, Double>> iterator = settled.iterator();
+
+            SettledVertex<Integer, Double> first = iterator.next();
+            assertEquals( Integer.valueOf( 0 ), first.getVertex() );
+            assertEquals( 0D, first.getDistance(), 0D );
+            assertNull( first.getPredecessor() );
+
+            iterator.next();
+            iterator.next();
+        }
+
+        assertEquals( 1, reported.size() );
+        assertEquals( 3, reported.get( 0 ).getSettledVertices() );
+    }
+
+    private static void verify( Stream<SettledVertex<Integer, Double>> stream )
+    {
+        List<SettledVertex<Integer, Double>> settled = stream.collect( Collectors.toList() );
+
+        double previous = 0D;
+        for ( SettledVertex<Integer, Double> vertex : settled )
+        {
+            assertTrue( vertex.getDistance() >= previous );
+            previous = vertex.getDistance();
+
+            if ( vertex.getPredecessor() != null )
+            {
+                assertTrue( graph.hasEdgeConnecting( vertex.getPredecessor(), vertex.getVertex() ) );
+            }
+        }
+
+        int reachable = 0;
+        for ( int target = 0; target < ORDER; target++ )
+        {
+            try
+            {
+                double expected = findShortestPath( graph )
+                                      .whereEdgesAreWeights()
+                                      .from( 0 )
+                                      .to( target )
+                                      .applyingDijkstra( new DoubleWeightBaseOperations() )
+                                      .getWeight();
+                final int t = target;
+                assertEquals( expected,
+                              settled.stream().filter( v -> v.getVertex() == t ).findFirst().get().getDistance(),
+                              1.0e-9 );
+                reachable++;
+            }
+            catch ( PathNotFoundException e )
+            {
+                // not reachable, not settled
+            }
+        }
+        assertEquals( reachable, settled.size() );
+    }
+
+}
@@ -0,0 +1,53 @@
+package org.nnsoft.trudeau.shortestpath;
+
+/*
+ *   Copyright 2013 The Trudeau Project
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+import com.google.common.graph.MutableValueGraph;
+import com.google.common.graph.ValueGraphBuilder;
+
+/**
+ * Small hand-made graphs shared by the algorithms tests.
+ */
+final class TestGraphs
+{
+
+    private TestGraphs()
+    {
+        // do nothing
+    }
+
+    /**
+     * A directed graph whose shortest path from {@code a} to {@code g}, {@code a -> b -> e -> g}, weighs nothing:
+     * the distances of vertices already queued decrease through edges weighing nothing, which breaks the order of a
+     * priority queue whose keys are updated in place.
+     *
+     * @return a new graph
+     */
+    static MutableValueGraph<String, Double> decreasingQueuedDistances()
+    {
+        MutableValueGraph<String, Double> graph = ValueGraphBuilder.directed().build();
+        graph.putEdgeValue( "b", "e", 0D );
+        graph.putEdgeValue( "e", "g", 0D );
+        graph.putEdgeValue( "a", "b", 0D );
+        graph.putEdgeValue( "a", "d", 2D );
+        graph.putEdgeValue( "a", "g", 2D );
+        graph.putEdgeValue( "d", "g", 0D );
+        graph.putEdgeValue( "a", "e", 2D );
+        return graph;
+    }
+
+}
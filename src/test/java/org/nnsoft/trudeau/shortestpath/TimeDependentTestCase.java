@@ -0,0 +1,162 @@
+package org.nnsoft.trudeau.shortestpath;
+
+/*
+ *   Copyright 2013 The Trudeau Project
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.nnsoft.trudeau.shortestpath.PiecewiseLinearFunction.breakpoints;
+import static org.nnsoft.trudeau.shortestpath.PiecewiseLinearFunction.constant;
+import static org.nnsoft.trudeau.shortestpath.ShortestPathSolver.findShortestPath;
+import static org.nnsoft.trudeau.shortestpath.generators.GraphGenerators.erdosRenyi;
+
+import java.util.Random;
+import java.util.function.Function;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.nnsoft.trudeau.api.PathNotFoundException;
+import org.nnsoft.trudeau.api.WeightedPath;
+import org.nnsoft.trudeau.math.monoid.primitive.DoubleWeightBaseOperations;
+import org.nnsoft.trudeau.shortestpath.generators.WeightDistribution;
+
+import com.google.common.graph.MutableValueGraph;
+
+public final class TimeDependentTestCase
+{
+
+    private static final int ORDER = 60;
+
+    private static MutableValueGraph<Integer, Double> graph;
+
+    /**
+     * Rush hour travel times: every edge is slower between times 20 and 80, depending on its static weight.
+     */
+    private static final Function<Double, PiecewiseLinearFunction> TRAVEL_TIMES = weight ->
+    {
+        Random random = new Random( Double.doubleToLongBits( weight ) );
+        double[] times = { 0D, 20D, 30D, 40D, 80D };
+        double[] values = { weight, weight, weight * ( 1 + random.nextDouble() / 2 ), weight * ( 1 + random.nextDouble() / 2 ), weight };
+        return breakpoints( times, values );
+    };
+
+    @BeforeClass
+    public static void setUp()
+    {
+        graph = erdosRenyi( ORDER, 3 * ORDER ).directed().withWeights( WeightDistribution.UNIFORM ).generate();
+    }
+
+    @Test( expected = IllegalArgumentException.class )
+    public void testNonFifoFunction()
+    {
+        // entering at time 1 would arrive at 3, earlier than entering at time 0
+        breakpoints( new double[] { 0D, 1D }, new double[] { 5D, 2D } );
+    }
+
+    @Test
+    public void evaluate()
+    {
+        PiecewiseLinearFunction function = breakpoints( new double[] { 10D, 20D, 30D }, new double[] { 1D, 5D, 3D } );
+
+        assertEquals( 1D, function.evaluate( 0D ), 0D );
+        assertEquals( 3D, function.evaluate( 15D ), 1.0e-9 );
+        assertEquals( 4D, function.evaluate( 25D ), 1.0e-9 );
+        assertEquals( 3D, function.evaluate( 100D ), 0D );
+        assertEquals( 1D, function.getMinimum(), 0D );
+        assertEquals( 5D, function.getMaximum(), 0D );
+    }
+
+    @Test
+    public void linkAndMinimum()
+    {
+        PiecewiseLinearFunction first = breakpoints( new double[] { 0D, 10D, 20D }, new double[] { 2D, 8D, 2D } );
+        PiecewiseLinearFunction second = breakpoints( new double[] { 5D, 15D }, new double[] { 1D, 6D } );
+
+        PiecewiseLinearFunction linked = first.link( second );
+        PiecewiseLinearFunction minimum = first.minimum( second );
+        for ( double time = -5D; time <= 40D; time += 0.25D )
+        {
+            double travelTime = first.evaluate( time );
+            assertEquals( travelTime + second.evaluate( time + travelTime ), linked.evaluate( time ), 1.0e-9 );
+            assertEquals( Math.min( first.evaluate( time ), second.evaluate( time ) ), minimum.evaluate( time ), 1.0e-9 );
+        }
+
+        assertTrue( minimum.isNotGreaterThan( first ) );
+        assertTrue( minimum.isNotGreaterThan( second ) );
+        assertEquals( constant( 3D ), constant( 1D ).link( constant( 2D ) ) );
+    }
+
+    @Test
+    public void constantTravelTimesAreStaticWeights()
+    {
+        for ( int target = 1; target < ORDER; target++ )
+        {
+            double expected;
+            try
+            {
+                expected = findShortestPath( graph )
+                               .whereEdgesAreWeights()
+                               .from( 0 )
+                               .to( target )
+                               .applyingDijkstra( new DoubleWeightBaseOperations() )
+                               .getWeight();
+            }
+            catch ( PathNotFoundException e )
+            {
+                continue;
+            }
+
+            WeightedPath<Integer, Double, Double> path = findShortestPath( graph )
+                                                             .whereEdgesHaveTravelTimes( weight -> constant( weight ) )
+                                                             .from( 0 )
+                                                             .to( target )
+                                                             .applyingTimeDependentDijkstra( 42D );
+            assertEquals( expected, path.getWeight(), 1.0e-9 );
+        }
+    }
+
+    @Test
+    public void profileMatchesEveryDeparture()
+    {
+        for ( int target = 1; target < ORDER; target += 7 )
+        {
+            PiecewiseLinearFunction profile;
+            try
+            {
+                profile = findShortestPath( graph )
+                              .whereEdgesHaveTravelTimes( TRAVEL_TIMES )
+                              .from( 0 )
+                              .to( target )
+                              .applyingProfileSearch();
+            }
+            catch ( PathNotFoundException e )
+            {
+                continue;
+            }
+
+            for ( double departure = 0D; departure <= 100D; departure += 2.5D )
+            {
+                WeightedPath<Integer, Double, Double> path = findShortestPath( graph )
+                                                                 .whereEdgesHaveTravelTimes( TRAVEL_TIMES )
+                                                                 .from( 0 )
+                                                                 .to( target )
+                                                                 .applyingTimeDependentDijkstra( departure );
+                assertEquals( path.getWeight(), profile.evaluate( departure ), 1.0e-6 );
+            }
+        }
+    }
+
+}
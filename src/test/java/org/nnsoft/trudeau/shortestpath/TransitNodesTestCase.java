@@ -0,0 +1,115 @@
+package org.nnsoft.trudeau.shortestpath;
+
+/*
+ *   Copyright 2013 The Trudeau Project
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.nnsoft.trudeau.shortestpath.RandomQueries.weightOf;
+import static org.nnsoft.trudeau.shortestpath.ShortestPathEngine.newEngine;
+import static org.nnsoft.trudeau.shortestpath.generators.GraphGenerators.erdosRenyi;
+import static org.nnsoft.trudeau.shortestpath.generators.GraphGenerators.grid;
+import static org.nnsoft.trudeau.shortestpath.generators.GraphGenerators.roadNetwork;
+
+import org.junit.Test;
+import org.nnsoft.trudeau.math.monoid.primitive.DoubleWeightBaseOperations;
+import org.nnsoft.trudeau.shortestpath.generators.WeightDistribution;
+
+import com.google.common.graph.MutableValueGraph;
+
+public final class TransitNodesTestCase
+{
+
+    @Test( expected = IllegalArgumentException.class )
+    public void testNoRegions()
+    {
+        MutableValueGraph<Integer, Double> graph = grid( 3, 3 ).generate();
+        newEngine( graph, new DoubleWeightBaseOperations() ).transitNodes( 0 );
+    }
+
+    @Test( expected = IllegalArgumentException.class )
+    public void testTransitNodesOfAnotherEngine()
+    {
+        MutableValueGraph<Integer, Double> graph = grid( 3, 3 ).generate();
+        TransitNodes<Integer, Double> transitNodes = newEngine( graph, new DoubleWeightBaseOperations() ).transitNodes( 2 );
+        newEngine( graph, new DoubleWeightBaseOperations() ).distance( 0, 8, transitNodes );
+    }
+
+    @Test
+    public void transitNodesAreBoundaryVertices()
+    {
+        MutableValueGraph<Integer, Double> graph = grid( 10, 10 ).generate();
+        ShortestPathEngine<Integer, Double, Double> engine = newEngine( graph, new DoubleWeightBaseOperations() );
+
+        // a single region has no boundary
+        assertEquals( 0, engine.transitNodes( 1 ).getTransitNodes() );
+
+        TransitNodes<Integer, Double> transitNodes = engine.transitNodes( 4 );
+        ArcFlags<Integer> arcFlags = engine.arcFlags( 4 );
+        int boundaries = 0;
+        for ( Integer vertex : graph.nodes() )
+        {
+            boolean boundary = false;
+            for ( Integer adjacent : graph.adjacentNodes( vertex ) )
+            {
+                boundary |= arcFlags.getRegion( adjacent ) != arcFlags.getRegion( vertex );
+            }
+            assertEquals( boundary, transitNodes.isTransitNode( vertex ) );
+            boundaries += boundary ? 1 : 0;
+        }
+        assertEquals( boundaries, transitNodes.getTransitNodes() );
+        assertFalse( boundaries == 0 );
+    }
+
+    @Test
+    public void directedGraph()
+    {
+        MutableValueGraph<Integer, Double> graph = erdosRenyi( 500, 2000 ).directed().withWeights( WeightDistribution.UNIFORM ).generate();
+        for ( int regions : new int[] { 1, 8, 50 } )
+        {
+            verify( graph, regions );
+        }
+    }
+
+    @Test
+    public void undirectedGrid()
+    {
+        MutableValueGraph<Integer, Double> graph = grid( 30, 30 ).withWeights( WeightDistribution.UNIFORM ).generate();
+        verify( graph, 16 );
+    }
+
+    @Test
+    public void roadNetworkFarQueries()
+    {
+        MutableValueGraph<Integer, Double> graph = roadNetwork( 2000 ).withWeights( WeightDistribution.UNIFORM ).generate();
+        verify( graph, 32 );
+    }
+
+    private static void verify( MutableValueGraph<Integer, Double> graph, int regions )
+    {
+        ShortestPathEngine<Integer, Double, Double> engine = newEngine( graph, new DoubleWeightBaseOperations() );
+        TransitNodes<Integer, Double> transitNodes = engine.transitNodes( regions );
+
+        RandomQueries.verify( graph.nodes().size(),
+                              ( source, target ) -> weightOf( graph, source, target, engine.dijkstra( source, target ) ),
+                              ( source, target ) -> {
+            double weight = weightOf( graph, source, target, engine.bidirectionalDijkstra( source, target, transitNodes ) );
+            assertEquals( weight, engine.distance( source, target, transitNodes ), 1e-9D );
+            return weight;
+        } );
+    }
+
+}
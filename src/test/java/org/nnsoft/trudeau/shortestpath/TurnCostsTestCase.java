@@ -0,0 +1,206 @@
+package org.nnsoft.trudeau.shortestpath;
+
+/*
+ *   Copyright 2013 The Trudeau Project
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.nnsoft.trudeau.shortestpath.RandomQueries.weightOf;
+import static org.nnsoft.trudeau.shortestpath.ShortestPathEngine.newEngine;
+import static org.nnsoft.trudeau.shortestpath.ShortestPathSolver.findShortestPath;
+import static org.nnsoft.trudeau.shortestpath.generators.GraphGenerators.erdosRenyi;
+import static org.nnsoft.trudeau.shortestpath.generators.GraphGenerators.grid;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+import org.nnsoft.trudeau.api.PathNotFoundException;
+import org.nnsoft.trudeau.api.WeightedPath;
+import org.nnsoft.trudeau.math.monoid.primitive.DoubleWeightBaseOperations;
+import org.nnsoft.trudeau.shortestpath.generators.WeightDistribution;
+
+import com.google.common.graph.EndpointPair;
+import com.google.common.graph.MutableValueGraph;
+import com.google.common.graph.ValueGraph;
+import com.google.common.graph.ValueGraphBuilder;
+
+public final class TurnCostsTestCase
+{
+
+    @Test( expected = IllegalArgumentException.class )
+    public void testTurnNotFollowingEdges()
+    {
+        MutableValueGraph<Integer, Double> graph = grid( 3, 3 ).generate();
+        newEngine( graph, new DoubleWeightBaseOperations() ).turnCosts( new TurnCostTable<Integer, Double>().ban( 0, 4, 8 ) );
+    }
+
+    @Test
+    public void bannedTurnForcesDetour()
+    {
+        // 0 - 1 - 2
+        // |   |   |
+        // 3 - 4 - 5
+        MutableValueGraph<Integer, Double> graph = grid( 3, 2 ).generate();
+        ShortestPathEngine<Integer, Double, Double> engine = newEngine( graph, new DoubleWeightBaseOperations() );
+
+        TurnCosts<Integer, Double> turnCosts = engine.turnCosts( new TurnCostTable<Integer, Double>().ban( 0, 1, 4 )
+                                                                                                    .ban( 0, 3, 4 )
+                                                                                                    .penalize( 1, 2, 5, 10D ) );
+
+        assertEquals( 2D, engine.dijkstra( 0, 4 ).getWeight(), 0D );
+        // both two edges paths are banned
+        WeightedPath<Integer, Double, Double> detour = engine.dijkstra( 0, 4, turnCosts );
+        assertTrue( detour.getWeight() > 2D );
+        assertEquals( expected( graph, new TurnCostTable<Integer, Double>().ban( 0, 1, 4 )
+                                                                            .ban( 0, 3, 4 )
+                                                                            .penalize( 1, 2, 5, 10D ), 0, 4 ),
+                      detour.getWeight(), 1.0e-9 );
+        assertEquals( detour.getWeight(), engine.bidirectionalDijkstra( 0, 4, turnCosts ).getWeight(), 1.0e-9 );
+    }
+
+    @Test
+    public void randomTurnCosts()
+    {
+        verify( erdosRenyi( 100, 400 ).directed().withWeights( WeightDistribution.UNIFORM ).generate() );
+    }
+
+    @Test
+    public void randomTurnCostsOnUndirectedGraph()
+    {
+        verify( grid( 10, 10 ).withWeights( WeightDistribution.UNIFORM ).generate() );
+    }
+
+    private static void verify( MutableValueGraph<Integer, Double> graph )
+    {
+        Random random = new Random( 42L );
+        TurnCostTable<Integer, Double> table = new TurnCostTable<Integer, Double>();
+        for ( Integer via : graph.nodes() )
+        {
+            for ( Integer from : graph.predecessors( via ) )
+            {
+                for ( Integer to : graph.successors( via ) )
+                {
+                    double dice = random.nextDouble();
+                    if ( dice < 0.2D )
+                    {
+                        table.ban( from, via, to );
+                    }
+                    else if ( dice < 0.5D )
+                    {
+                        table.penalize( from, via, to, 5 * random.nextDouble() );
+                    }
+                }
+            }
+        }
+
+        ShortestPathEngine<Integer, Double, Double> engine = newEngine( graph, new DoubleWeightBaseOperations() );
+        TurnCosts<Integer, Double> turnCosts = engine.turnCosts( table );
+        assertEquals( table.size(), turnCosts.size() );
+
+        RandomQueries.verify( graph.nodes().size(), ( source, target ) -> {
+            double weight = expected( graph, table, source, target );
+            if ( Double.isInfinite( weight ) )
+            {
+                throw new PathNotFoundException( "Path from '%s' to '%s' doesn't exist", source, target );
+            }
+            return weight;
+        }, ( source, target ) -> {
+            double weight = weightOf( graph, source, target, engine.dijkstra( source, target, turnCosts ) );
+            assertEquals( weight, weightOf( graph, source, target, engine.bidirectionalDijkstra( source, target, turnCosts ) ), 1e-9D );
+            return weight;
+        } );
+    }
+
+    /**
+     * Solves the query on the explicit line graph: vertices are the arcs of the original graph, edges are the turns.
+     */
+    private static double expected( ValueGraph<Integer, Double> graph, TurnCostTable<Integer, Double> table, int source, int target )
+    {
+        if ( source == target )
+        {
+            return 0D;
+        }
+
+        Map<List<Integer>, Double> turns = new HashMap<List<Integer>, Double>();
+        for ( int turn = 0; turn < table.size(); turn++ )
+        {
+            turns.put( turn( table.from( turn ), table.via( turn ), table.to( turn ) ), table.cost( turn ) );
+        }
+
+        MutableValueGraph<String, Double> lineGraph = ValueGraphBuilder.directed().allowsSelfLoops( true ).build();
+        lineGraph.addNode( "source" );
+        lineGraph.addNode( "target" );
+        List<EndpointPair<Integer>> arcs = new ArrayList<EndpointPair<Integer>>();
+        for ( Integer tail : graph.nodes() )
+        {
+            for ( Integer head : graph.successors( tail ) )
+            {
+                arcs.add( EndpointPair.ordered( tail, head ) );
+            }
+        }
+        for ( EndpointPair<Integer> arc : arcs )
+        {
+            double weight = graph.edgeValue( arc.nodeU(), arc.nodeV() ).get();
+            if ( arc.nodeU() == source )
+            {
+                lineGraph.putEdgeValue( "source", arc.toString(), weight );
+            }
+            if ( arc.nodeV() == target )
+            {
+                lineGraph.putEdgeValue( arc.toString(), "target", 0D );
+            }
+            for ( Integer next : graph.successors( arc.nodeV() ) )
+            {
+                List<Integer> turn = turn( arc.nodeU(), arc.nodeV(), next );
+                if ( turns.containsKey( turn ) && turns.get( turn ) == null )
+                {
+                    continue;
+                }
+                double cost = turns.containsKey( turn ) ? turns.get( turn ) : 0D;
+                lineGraph.putEdgeValue( arc.toString(),
+                                        EndpointPair.ordered( arc.nodeV(), next ).toString(),
+                                        cost + graph.edgeValue( arc.nodeV(), next ).get() );
+            }
+        }
+
+        try
+        {
+            return findShortestPath( lineGraph ).whereEdgesAreWeights()
+                                                .from( "source" )
+                                                .to( "target" )
+                                                .applyingDijkstra( new DoubleWeightBaseOperations() )
+                                                .getWeight();
+        }
+        catch ( PathNotFoundException e )
+        {
+            return Double.POSITIVE_INFINITY;
+        }
+    }
+
+    private static List<Integer> turn( Integer from, Integer via, Integer to )
+    {
+        List<Integer> turn = new ArrayList<Integer>( 3 );
+        turn.add( from );
+        turn.add( via );
+        turn.add( to );
+        return turn;
+    }
+
+}
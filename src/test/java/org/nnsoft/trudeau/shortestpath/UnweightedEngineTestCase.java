@@ -0,0 +1,185 @@
+package org.nnsoft.trudeau.shortestpath;
+
+/*
+ *   Copyright 2013 The Trudeau Project
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.nnsoft.trudeau.shortestpath.RandomQueries.weightOf;
+import static org.nnsoft.trudeau.shortestpath.RandomQueries.weightOrNull;
+import static org.nnsoft.trudeau.shortestpath.ShortestPathEngine.newEngine;
+import static org.nnsoft.trudeau.shortestpath.ShortestPathSolver.findShortestPath;
+import static org.nnsoft.trudeau.shortestpath.UnweightedEngine.newUnweightedEngine;
+import static org.nnsoft.trudeau.shortestpath.generators.GraphGenerators.erdosRenyi;
+import static org.nnsoft.trudeau.shortestpath.generators.GraphGenerators.grid;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+import org.nnsoft.trudeau.api.PathNotFoundException;
+import org.nnsoft.trudeau.api.WeightedPath;
+import org.nnsoft.trudeau.math.monoid.primitive.DoubleWeightBaseOperations;
+
+import com.google.common.collect.Iterables;
+import com.google.common.graph.MutableValueGraph;
+import com.google.common.graph.ValueGraphBuilder;
+
+public final class UnweightedEngineTestCase
+{
+
+    @Test( expected = PathNotFoundException.class )
+    public void testNotConnectGraph()
+    {
+        MutableValueGraph<String, Double> graph = ValueGraphBuilder.directed().build();
+        graph.putEdgeValue( "a", "b", 1D );
+        graph.addNode( "c" );
+
+        newUnweightedEngine( graph ).shortestPath( "a", "c" );
+    }
+
+    @Test( expected = IllegalArgumentException.class )
+    public void testUnknownVertex()
+    {
+        MutableValueGraph<Integer, Double> graph = grid( 3, 3 ).generate();
+        newUnweightedEngine( graph ).hops( 0, 9 );
+    }
+
+    @Test( expected = IllegalArgumentException.class )
+    public void testUnpairedTargets()
+    {
+        MutableValueGraph<Integer, Double> graph = grid( 3, 3 ).generate();
+        List<Integer> sources = new ArrayList<Integer>();
+        sources.add( 0 );
+        newUnweightedEngine( graph ).hops( sources, new ArrayList<Integer>() );
+    }
+
+    @Test
+    public void findFewestHops()
+    {
+        // edge values are ignored
+        MutableValueGraph<String, Double> graph = ValueGraphBuilder.directed().build();
+        graph.putEdgeValue( "a", "b", 10D );
+        graph.putEdgeValue( "b", "c", 10D );
+        graph.putEdgeValue( "a", "d", 1D );
+        graph.putEdgeValue( "d", "e", 1D );
+        graph.putEdgeValue( "e", "c", 1D );
+
+        UnweightedEngine<String, Double> engine = newUnweightedEngine( graph );
+        WeightedPath<String, Double, Integer> path = engine.shortestPath( "a", "c" );
+
+        assertEquals( Integer.valueOf( 2 ), path.getWeight() );
+        assertEquals( 3, path.getOrder() );
+        assertEquals( "b", Iterables.get( path.getVertices(), 1 ) );
+        assertEquals( 2, engine.hops( "a", "c" ) );
+        assertEquals( 0, engine.hops( "a", "a" ) );
+    }
+
+    @Test
+    public void directedGraph()
+    {
+        verify( erdosRenyi( 300, 900 ).directed().generate() );
+    }
+
+    @Test
+    public void undirectedGrid()
+    {
+        verify( grid( 15, 15 ).generate() );
+    }
+
+    @Test
+    public void engineDetectsUniformWeights()
+    {
+        MutableValueGraph<Integer, Double> graph = erdosRenyi( 300, 900 ).directed().generate();
+        final AtomicReference<SearchAlgorithm> algorithm = new AtomicReference<SearchAlgorithm>();
+        ShortestPathEngine<Integer, Double, Double> engine =
+            newEngine( graph, new DoubleWeightBaseOperations() ).reportingTo( statistics -> algorithm.set( statistics.getAlgorithm() ) );
+
+        RandomQueries.verify( graph.nodes().size(), fluentDijkstra( graph ), ( source, target ) -> {
+            double weight = weightOf( graph, source, target, engine.dijkstra( source, target ) );
+            assertEquals( SearchAlgorithm.BREADTH_FIRST_SEARCH, algorithm.get() );
+            return weight;
+        } );
+
+        // different weights are left to the heap
+        graph.putEdgeValue( 0, 1, 2D );
+        newEngine( graph, new DoubleWeightBaseOperations() ).reportingTo( statistics -> algorithm.set( statistics.getAlgorithm() ) ).dijkstra( 0, 1 );
+        assertEquals( SearchAlgorithm.DIJKSTRA, algorithm.get() );
+    }
+
+    private static void verify( MutableValueGraph<Integer, Double> graph )
+    {
+        UnweightedEngine<Integer, Double> engine = newUnweightedEngine( graph );
+        RandomQueries.Search reference = fluentDijkstra( graph );
+        int order = graph.nodes().size();
+
+        // the expected hops, -1 if not reachable
+        int[][] expected = new int[order][order];
+        for ( int source = 0; source < order; source++ )
+        {
+            for ( int target = 0; target < order; target++ )
+            {
+                Double weight = source == target ? Double.valueOf( 0D ) : weightOrNull( reference, source, target );
+                expected[source][target] = weight == null ? -1 : weight.intValue();
+            }
+        }
+
+        // single queries
+        RandomQueries.verify( order, reference, ( source, target ) -> {
+            int hops = weightOf( graph, source, target, engine.shortestPath( source, target ) );
+            assertEquals( hops, engine.hops( source, target ) );
+            return hops;
+        } );
+
+        // batched queries, more than a batch of sources
+        Random random = new Random( 42L );
+        List<Integer> sources = new ArrayList<Integer>();
+        List<Integer> targets = new ArrayList<Integer>();
+        for ( int i = 0; i < 5 * RandomQueries.QUERIES; i++ )
+        {
+            sources.add( random.nextInt( order ) );
+            targets.add( random.nextInt( order ) );
+        }
+        int[] hops = engine.hops( sources, targets );
+        for ( int i = 0; i < hops.length; i++ )
+        {
+            assertEquals( expected[sources.get( i )][targets.get( i )], hops[i] );
+        }
+
+        // all pairs
+        HopDistances<Integer> allPairs = engine.allPairs();
+        for ( int source = 0; source < order; source++ )
+        {
+            for ( int target = 0; target < order; target++ )
+            {
+                assertEquals( expected[source][target], allPairs.getHops( source, target ) );
+            }
+        }
+        assertTrue( order > UnweightedEngine.SOURCES_PER_SEARCH );
+    }
+
+    private static RandomQueries.Search fluentDijkstra( MutableValueGraph<Integer, Double> graph )
+    {
+        return ( source, target ) -> findShortestPath( graph ).whereEdgesAreWeights()
+                                                              .from( source )
+                                                              .to( target )
+                                                              .applyingDijkstra( new DoubleWeightBaseOperations() )
+                                                              .getWeight();
+    }
+
+}
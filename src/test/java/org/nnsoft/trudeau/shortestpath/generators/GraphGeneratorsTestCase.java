@@ -0,0 +1,117 @@
+package org.nnsoft.trudeau.shortestpath.generators;
+
+/*
+ *   Copyright 2013 The Trudeau Project
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.nnsoft.trudeau.shortestpath.generators.GraphGenerators.erdosRenyi;
+import static org.nnsoft.trudeau.shortestpath.generators.GraphGenerators.grid;
+import static org.nnsoft.trudeau.shortestpath.generators.GraphGenerators.rmat;
+import static org.nnsoft.trudeau.shortestpath.generators.GraphGenerators.roadNetwork;
+
+import org.junit.Test;
+
+import com.google.common.graph.EndpointPair;
+import com.google.common.graph.Graphs;
+import com.google.common.graph.MutableValueGraph;
+
+public final class GraphGeneratorsTestCase
+{
+
+    @Test( expected = IllegalStateException.class )
+    public void testUndirectedNegativeEdges()
+    {
+        erdosRenyi( 10, 20 ).withNegativeEdges( 0.1 ).generate();
+    }
+
+    @Test
+    public void sameSeedSameGraph()
+    {
+        assertEquals( rmat( 10, 8 ).withSeed( 42L ).directed().generate(),
+                      rmat( 10, 8 ).withSeed( 42L ).directed().generate() );
+        assertFalse( rmat( 10, 8 ).withSeed( 42L ).generate().equals( rmat( 10, 8 ).withSeed( 43L ).generate() ) );
+    }
+
+    @Test
+    public void parallelStreamsAreDeterministic()
+    {
+        RMatGenerator generator = rmat( 12, 16 ).withWeights( WeightDistribution.HEAVY_TAILED );
+
+        assertEquals( generator.edges().mapToDouble( GeneratedEdge::getWeight ).sum(),
+                      generator.edges().parallel().mapToDouble( GeneratedEdge::getWeight ).sum(),
+                      1.0e-6 );
+    }
+
+    @Test
+    public void gridShape()
+    {
+        MutableValueGraph<Integer, Double> graph = grid( 4, 3, 2 ).generate();
+
+        assertEquals( 24, graph.nodes().size() );
+        // (width - 1) * height * depth + width * (height - 1) * depth + width * height * (depth - 1)
+        assertEquals( 18 + 16 + 12, graph.edges().size() );
+        assertEquals( 3, graph.degree( 0 ) );
+
+        double[][] coordinates = grid( 4, 3, 2 ).getCoordinates();
+        assertEquals( 3D, coordinates[0][23], 0D );
+        assertEquals( 2D, coordinates[1][23], 0D );
+        assertEquals( 1D, coordinates[2][23], 0D );
+    }
+
+    @Test
+    public void roadNetworkIsConnectedAndPlanar()
+    {
+        MutableValueGraph<Integer, Double> graph = roadNetwork( 2000 ).generate();
+
+        assertEquals( 2000, Graphs.reachableNodes( graph.asGraph(), 0 ).size() );
+        // Euler's formula bound for planar graphs
+        assertTrue( graph.edges().size() <= 3 * graph.nodes().size() - 6 );
+    }
+
+    @Test
+    public void noNegativeCycles()
+    {
+        MutableValueGraph<Integer, Double> graph = erdosRenyi( 200, 1000 ).directed()
+                                                                          .withWeights( WeightDistribution.UNIFORM )
+                                                                          .withNegativeEdges( 0.3 )
+                                                                          .generate();
+
+        // Bellman-Ford relaxation must converge in |V| - 1 rounds
+        double[] distances = new double[graph.nodes().size()];
+        boolean changed = true;
+        for ( int round = 0; round < graph.nodes().size() && changed; round++ )
+        {
+            changed = false;
+            for ( EndpointPair<Integer> edge : graph.edges() )
+            {
+                double distance = distances[edge.source()] + graph.edgeValue( edge.source(), edge.target() ).get();
+                if ( distance < distances[edge.target()] )
+                {
+                    distances[edge.target()] = distance;
+                    changed = true;
+                }
+            }
+        }
+
+        assertFalse( changed );
+
+        long negatives = graph.edges().stream().filter( e -> graph.edgeValue( e.source(), e.target() ).get() < 0D ).count();
+        assertTrue( negatives > graph.edges().size() / 10 );
+    }
+
+}